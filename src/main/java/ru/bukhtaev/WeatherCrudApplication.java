@@ -4,12 +4,22 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import ru.bukhtaev.config.CitiesConfigParams;
+import ru.bukhtaev.config.CoordinationConfigParams;
+import ru.bukhtaev.config.FetchJobConfigParams;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.config.OutboxConfigParams;
+import ru.bukhtaev.config.StreamsConfigParams;
 import ru.bukhtaev.config.external.ExternalApiConfigParams;
 
 @SpringBootApplication
 @EnableConfigurationProperties({
         ExternalApiConfigParams.class,
-        CitiesConfigParams.class
+        CitiesConfigParams.class,
+        KafkaConfigParams.class,
+        OutboxConfigParams.class,
+        StreamsConfigParams.class,
+        CoordinationConfigParams.class,
+        FetchJobConfigParams.class
 })
 public class WeatherCrudApplication {
 
@@ -0,0 +1,57 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Параметры конфигурации приостановки получения сообщений с данными о погоде
+ * при высокой нагрузке на базу данных.
+ * Пороги возобновления ниже порогов приостановки, чтобы получение
+ * не переключалось при каждой проверке на границе порога.
+ */
+@Getter
+@Setter
+public class BackpressureConfigParams {
+
+    /**
+     * Признак включения приостановки получения сообщений.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Интервал проверки нагрузки на базу данных в миллисекундах.
+     */
+    @Min(1)
+    private long checkInterval = 1_000;
+
+    /**
+     * Доля занятых соединений пула, при достижении которой получение приостанавливается.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double pauseUtilization = 0.75;
+
+    /**
+     * Доля занятых соединений пула, не превышая которую получение возобновляется.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double resumeUtilization = 0.5;
+
+    /**
+     * 99-й процентиль времени сохранения данных о погоде в миллисекундах,
+     * при достижении которого получение приостанавливается.
+     */
+    @Min(1)
+    private long pauseLatency = 500;
+
+    /**
+     * 99-й процентиль времени сохранения данных о погоде в миллисекундах,
+     * не превышая который получение возобновляется.
+     */
+    @Min(1)
+    private long resumeLatency = 200;
+}
@@ -1,9 +1,12 @@
 package ru.bukhtaev.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.validation.annotation.Validated;
 
 /**
@@ -21,4 +24,12 @@ public class CitiesConfigParams {
      */
     @Size(min = 1)
     private String[] cities;
+
+    /**
+     * Параметры конфигурации опроса внешнего API.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private PollingConfigParams polling = new PollingConfigParams();
 }
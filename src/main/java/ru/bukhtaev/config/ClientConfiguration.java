@@ -1,20 +1,46 @@
 package ru.bukhtaev.config;
 
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.HttpClientConfigParams;
 import ru.bukhtaev.validation.handling.RestTemplateResponseErrorHandler;
 
+import java.time.Duration;
+
 /**
  * Конфигурация клиентов для взаимодействия с внешними API.
+ * Синхронный и асинхронный клиенты используют пулы соединений
+ * с ограниченным временем ожидания и повторным использованием соединений.
  */
 @Configuration
 public class ClientConfiguration {
 
     @Bean("restTemplateWithLoggingErrors")
-    public RestTemplate restTemplate(final RestTemplateBuilder restTemplateBuilder) {
+    public RestTemplate restTemplate(
+            final RestTemplateBuilder restTemplateBuilder,
+            @Qualifier("externalApiHttpClient") final CloseableHttpClient httpClient
+    ) {
         return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
                 .errorHandler(responseErrorHandler())
                 .build();
     }
@@ -23,4 +49,83 @@ public class ClientConfiguration {
     public RestTemplateResponseErrorHandler responseErrorHandler() {
         return new RestTemplateResponseErrorHandler();
     }
+
+    @Bean(name = "externalApiHttpClient", destroyMethod = "close")
+    public CloseableHttpClient httpClient(final ExternalApiConfigParams apiConfig) {
+        final HttpClientConfigParams config = apiConfig.getClient();
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(config.getMaxConnections())
+                        .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+                        .setDefaultConnectionConfig(connectionConfig(config))
+                        .build())
+                .setDefaultRequestConfig(requestConfig(config))
+                .setKeepAliveStrategy(keepAliveStrategy(config.getKeepAlive()))
+                .evictIdleConnections(toTimeValue(config.getIdleEviction()))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean(name = "externalApiAsyncHttpClient", destroyMethod = "close")
+    public CloseableHttpAsyncClient asyncHttpClient(final ExternalApiConfigParams apiConfig) {
+        final HttpClientConfigParams config = apiConfig.getClient();
+        final CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(config.getMaxConnections())
+                        .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+                        .setDefaultConnectionConfig(connectionConfig(config))
+                        .setDefaultTlsConfig(TlsConfig.custom()
+                                .setVersionPolicy(config.isHttp2()
+                                        ? HttpVersionPolicy.NEGOTIATE
+                                        : HttpVersionPolicy.FORCE_HTTP_1)
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(requestConfig(config))
+                .setKeepAliveStrategy(keepAliveStrategy(config.getKeepAlive()))
+                .evictIdleConnections(toTimeValue(config.getIdleEviction()))
+                .evictExpiredConnections()
+                .build();
+        client.start();
+        return client;
+    }
+
+    private static ConnectionConfig connectionConfig(final HttpClientConfigParams config) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(config.getConnectTimeout()))
+                .setSocketTimeout(toTimeout(config.getResponseTimeout()))
+                .build();
+    }
+
+    private static RequestConfig requestConfig(final HttpClientConfigParams config) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(toTimeout(config.getConnectionRequestTimeout()))
+                .setResponseTimeout(toTimeout(config.getResponseTimeout()))
+                .build();
+    }
+
+    /**
+     * Возвращает стратегию повторного использования соединений,
+     * которая соблюдает время, сообщенное внешним API, но не превышает указанное.
+     *
+     * @param keepAlive максимальное время повторного использования соединения
+     * @return стратегию повторного использования соединений
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(final Duration keepAlive) {
+        final TimeValue maxKeepAlive = toTimeValue(keepAlive);
+        return (response, context) -> {
+            final TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                    .getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(serverKeepAlive) && serverKeepAlive.compareTo(maxKeepAlive) < 0
+                    ? serverKeepAlive
+                    : maxKeepAlive;
+        };
+    }
+
+    private static Timeout toTimeout(final Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue toTimeValue(final Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
 }
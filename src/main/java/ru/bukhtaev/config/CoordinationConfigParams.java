@@ -0,0 +1,70 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+import ru.bukhtaev.util.CoordinationMode;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации согласования задач по расписанию между экземплярами приложения.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "weather.coordination")
+public class CoordinationConfigParams {
+
+    /**
+     * Признак согласования. Если согласование выключено,
+     * задачи по расписанию выполняет каждый экземпляр приложения.
+     */
+    private boolean enabled;
+
+    /**
+     * Режим согласования опроса внешнего API.
+     * Отправка исходящих событий всегда выполняется одним экземпляром.
+     */
+    @NotNull
+    private CoordinationMode mode = CoordinationMode.LEADER;
+
+    /**
+     * Длительность аренды задачи. Если экземпляр, владеющий арендой, перестает её продлевать,
+     * задачу начинает выполнять другой экземпляр не позднее чем через это время.
+     * Должна превышать период выполнения задач.
+     */
+    @NotNull
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    /**
+     * Идентификатор экземпляра приложения.
+     * Если не задан, формируется из имени хоста и случайного суффикса.
+     */
+    private String instanceId;
+
+    /**
+     * Период отправки сигнала о работе экземпляра в миллисекундах
+     * в режиме {@link CoordinationMode#SHARDING}.
+     */
+    @Min(1)
+    private long heartbeatInterval = 5_000;
+
+    /**
+     * Время, после которого экземпляр без сигнала о работе считается остановленным
+     * и его города распределяются между остальными экземплярами.
+     * Должно в несколько раз превышать период отправки сигнала о работе.
+     */
+    @NotNull
+    private Duration nodeTimeout = Duration.ofSeconds(15);
+
+    /**
+     * Количество виртуальных узлов каждого экземпляра на кольце согласованного хеширования.
+     * Чем их больше, тем равномернее города распределяются между экземплярами.
+     */
+    @Min(1)
+    private int virtualNodes = 100;
+}
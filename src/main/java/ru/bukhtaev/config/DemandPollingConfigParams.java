@@ -0,0 +1,41 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации распределения опросов внешнего API между городами
+ * в соответствии с частотой чтения данных о погоде в них.
+ */
+@Getter
+@Setter
+public class DemandPollingConfigParams {
+
+    /**
+     * Признак распределения опросов по частоте чтения.
+     * Если распределение выключено, все города опрашиваются с интервалом по умолчанию.
+     */
+    private boolean enabled;
+
+    /**
+     * Период полураспада счетчика чтений города:
+     * за это время вклад каждого чтения в частоту уменьшается вдвое.
+     */
+    @NotNull
+    private Duration halfLife = Duration.ofMinutes(10);
+
+    /**
+     * Минимальный интервал опроса города, к которому часто обращаются пользователи.
+     */
+    @NotNull
+    private Duration minInterval = Duration.ofSeconds(10);
+
+    /**
+     * Максимальный интервал опроса города, к которому пользователи не обращаются.
+     */
+    @NotNull
+    private Duration maxInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,48 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации вероятностного фильтра дубликатов,
+ * позволяющего не проверять в базе данных наличие заведомо новых данных о погоде.
+ */
+@Getter
+@Setter
+public class DuplicateFilterConfigParams {
+
+    /**
+     * Признак использования фильтра.
+     * Если фильтр не используется, наличие данных о погоде проверяется в базе данных для каждого сообщения.
+     * Фильтр нужен только без однократной обработки сообщений: при {@code kafka.exactly-once: true}
+     * наличие данных перед сохранением не проверяется, и фильтр не используется независимо от этого признака.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Ожидаемое количество ключей в одном поколении фильтра.
+     * При его превышении фильтр начинает новое поколение, а предыдущее отбрасывается при следующей смене.
+     */
+    @Min(1)
+    private long expectedInsertions = 100_000;
+
+    /**
+     * Допустимая вероятность ложноположительного ответа фильтра,
+     * то есть доля новых данных о погоде, наличие которых всё равно проверяется в базе данных.
+     */
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax(value = "1.0", inclusive = false)
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Период, за который ключи существующих данных о погоде загружаются в фильтр при запуске приложения.
+     */
+    @NotNull
+    private Duration seedPeriod = Duration.ofDays(7);
+}
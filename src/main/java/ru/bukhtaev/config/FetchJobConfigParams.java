@@ -0,0 +1,42 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Параметры конфигурации заданий получения данных о погоде от внешнего API и их сохранения.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "weather.fetch-jobs")
+public class FetchJobConfigParams {
+
+    /**
+     * Количество потоков, параллельно выполняющих задания.
+     */
+    @Min(1)
+    private int threads = 2;
+
+    /**
+     * Максимальное количество заданий, ожидающих выполнения.
+     * Если очередь заполнена, новые задания отклоняются.
+     */
+    @Min(1)
+    private int queueCapacity = 50;
+
+    /**
+     * Максимальное количество местоположений в одном задании.
+     */
+    @Min(1)
+    private int maxLocations = 1_000;
+
+    /**
+     * Количество последних заданий, состояние которых хранится для получения результата.
+     */
+    @Min(1)
+    private int retainedJobs = 1_000;
+}
@@ -0,0 +1,72 @@
+package ru.bukhtaev.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import ru.bukhtaev.kafka.WeatherRebalanceListener;
+
+/**
+ * Конфигурация Kafka-топика с данными о погоде и его обработки.
+ */
+@Slf4j
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Возвращает описание Kafka-топика с данными о погоде.
+     *
+     * @param topic       название топика
+     * @param kafkaConfig параметры конфигурации Kafka-топика
+     * @return описание Kafka-топика с данными о погоде
+     */
+    @Bean
+    public NewTopic weatherTopic(
+            @Value("${spring.kafka.template.default-topic}") final String topic,
+            final KafkaConfigParams kafkaConfig
+    ) {
+        return TopicBuilder.name(topic)
+                .partitions(kafkaConfig.getPartitions())
+                .replicas(kafkaConfig.getReplicas())
+                .build();
+    }
+
+    /**
+     * Возвращает фабрику контейнеров обработчиков сообщений.
+     * Каждая партиция обрабатывается одним потоком, поэтому сообщения
+     * одного города (ключа сообщения) обрабатываются в порядке их отправки.
+     *
+     * @param configurer        настройщик фабрики по параметрам Spring Boot
+     * @param consumerFactory   фабрика получателей сообщений
+     * @param kafkaConfig       параметры конфигурации Kafka-топика
+     * @param rebalanceListener обработчик перераспределения партиций
+     * @return фабрику контейнеров обработчиков сообщений
+     */
+    @Bean("kafkaListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            final ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            final ConsumerFactory<Object, Object> consumerFactory,
+            final KafkaConfigParams kafkaConfig,
+            final WeatherRebalanceListener rebalanceListener
+    ) {
+        final var factory = new ConcurrentKafkaListenerContainerFactory<Object, Object>();
+        configurer.configure(factory, consumerFactory);
+
+        if (kafkaConfig.getConcurrency() > kafkaConfig.getPartitions()) {
+            log.warn(
+                    "Listener concurrency {} exceeds the number of partitions {}, extra consumers would stay idle",
+                    kafkaConfig.getConcurrency(),
+                    kafkaConfig.getPartitions()
+            );
+        }
+        factory.setConcurrency(Math.min(kafkaConfig.getConcurrency(), kafkaConfig.getPartitions()));
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+
+        return factory;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Параметры конфигурации Kafka-топика с данными о погоде и его обработки.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "weather.kafka")
+public class KafkaConfigParams {
+
+    /**
+     * Количество партиций топика.
+     */
+    @Min(1)
+    private int partitions = 3;
+
+    /**
+     * Количество реплик топика.
+     */
+    @Min(1)
+    private short replicas = 1;
+
+    /**
+     * Количество потоков обработки сообщений.
+     * Не может превышать количество партиций топика.
+     */
+    @Min(1)
+    private int concurrency = 3;
+
+    /**
+     * Признак обработки сообщений ровно один раз.
+     * Смещения обработанных сообщений сохраняются в базе данных
+     * в одной транзакции с данными о погоде, и при назначении партиции
+     * обработка продолжается с сохраненного смещения.
+     */
+    private boolean exactlyOnce = false;
+
+    /**
+     * Параметры конфигурации повторных попыток обработки сообщений.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private RetryConfigParams retry = new RetryConfigParams();
+
+    /**
+     * Параметры конфигурации приостановки получения сообщений
+     * при высокой нагрузке на базу данных.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private BackpressureConfigParams backpressure = new BackpressureConfigParams();
+
+    /**
+     * Параметры конфигурации повторного чтения истории топика.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private ReplayConfigParams replay = new ReplayConfigParams();
+
+    /**
+     * Параметры конфигурации вероятностного фильтра дубликатов.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private DuplicateFilterConfigParams duplicateFilter = new DuplicateFilterConfigParams();
+}
@@ -0,0 +1,41 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Параметры конфигурации отправки исходящих событий изменения данных о погоде.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "weather.outbox")
+public class OutboxConfigParams {
+
+    /**
+     * Признак включения отправки исходящих событий в Kafka-топик.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * Максимальное количество событий, отправляемых одним пакетом.
+     */
+    @Min(1)
+    private int batchSize = 100;
+
+    /**
+     * Задержка между завершением отправки и следующей проверкой
+     * наличия новых событий в миллисекундах.
+     */
+    @Min(1)
+    private long relayInterval = 1_000;
+
+    /**
+     * Максимальное время ожидания подтверждения отправки пакета в миллисекундах.
+     */
+    @Min(1)
+    private long sendTimeout = 10_000;
+}
@@ -0,0 +1,69 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import ru.bukhtaev.util.PollingMode;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры конфигурации опроса внешнего API данных о погоде по расписанию.
+ */
+@Getter
+@Setter
+public class PollingConfigParams {
+
+    /**
+     * Режим опроса.
+     */
+    @NotNull
+    private PollingMode mode = PollingMode.SEQUENTIAL;
+
+    /**
+     * Максимальное количество одновременных запросов к внешнему API.
+     */
+    @Min(1)
+    private int maxConcurrency = 8;
+
+    /**
+     * Использовать ли виртуальные потоки, если среда выполнения их поддерживает.
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * Интервал опроса каждого города по умолчанию.
+     * Город опрашивается не чаще одного раза за интервал.
+     */
+    @NotNull
+    private Duration interval = Duration.ofSeconds(10);
+
+    /**
+     * Интервалы опроса отдельных городов по их названиям.
+     */
+    @NotNull
+    private Map<String, Duration> intervals = new HashMap<>();
+
+    /**
+     * Доля интервала, на которую время следующего опроса города случайно смещается
+     * в обе стороны, чтобы опросы городов с одинаковым интервалом не совпадали.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double jitter;
+
+    /**
+     * Параметры конфигурации распределения опросов по частоте чтения данных о погоде в городах.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private DemandPollingConfigParams demand = new DemandPollingConfigParams();
+}
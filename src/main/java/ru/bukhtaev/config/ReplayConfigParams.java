@@ -0,0 +1,40 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Параметры конфигурации повторного чтения истории Kafka-топика с данными о погоде
+ * для восстановления таблицы данных о погоде.
+ */
+@Getter
+@Setter
+public class ReplayConfigParams {
+
+    /**
+     * Группа получателей, в которой читается топик.
+     * Отличается от основной группы, поэтому повторное чтение не сдвигает её смещения.
+     */
+    @NotBlank
+    private String groupId = "weather-replay";
+
+    /**
+     * Максимальное количество сообщений, получаемых за один запрос к брокеру.
+     */
+    @Min(1)
+    private int batchSize = 2_000;
+
+    /**
+     * Количество потоков, параллельно сохраняющих данные о погоде.
+     */
+    @Min(1)
+    private int parallelism = 4;
+
+    /**
+     * Максимальное время ожидания сообщений за один запрос к брокеру в миллисекундах.
+     */
+    @Min(1)
+    private long pollTimeout = 1_000;
+}
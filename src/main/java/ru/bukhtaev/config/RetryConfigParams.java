@@ -0,0 +1,39 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Параметры конфигурации неблокирующих повторных попыток
+ * обработки сообщений с данными о погоде через топики повторных попыток.
+ */
+@Getter
+@Setter
+public class RetryConfigParams {
+
+    /**
+     * Общее количество попыток обработки сообщения, включая первую.
+     */
+    @Min(1)
+    private int attempts = 4;
+
+    /**
+     * Задержка перед первой повторной попыткой в миллисекундах.
+     */
+    @Min(1)
+    private long initialDelay = 1_000;
+
+    /**
+     * Множитель задержки для каждой следующей попытки.
+     */
+    @DecimalMin("1.0")
+    private double multiplier = 2.0;
+
+    /**
+     * Максимальная задержка перед повторной попыткой в миллисекундах.
+     */
+    @Min(1)
+    private long maxDelay = 30_000;
+}
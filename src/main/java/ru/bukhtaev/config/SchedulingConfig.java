@@ -1,12 +1,55 @@
 package ru.bukhtaev.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Конфигурация для выполнения задач по расписанию.
  */
+@Slf4j
 @Configuration
 @EnableScheduling
 public class SchedulingConfig {
+
+    /**
+     * Префикс названий потоков опроса внешнего API.
+     */
+    private static final String POLLING_THREAD_NAME_PREFIX = "weather-polling-";
+
+    /**
+     * Возвращает исполнитель задач опроса внешнего API данных о погоде.
+     * Если среда выполнения поддерживает виртуальные потоки и их использование
+     * разрешено конфигурацией, то каждая задача выполняется в отдельном виртуальном потоке,
+     * иначе - в пуле платформенных потоков фиксированного размера.
+     *
+     * @param citiesConfigParams параметры конфигурации для получения
+     *                           данных о погоде по расписанию
+     * @return исполнитель задач опроса внешнего API
+     */
+    @Bean(name = "pollingExecutor", destroyMethod = "shutdown")
+    public ExecutorService pollingExecutor(final CitiesConfigParams citiesConfigParams) {
+        final PollingConfigParams polling = citiesConfigParams.getPolling();
+        if (polling.isVirtualThreads()) {
+            try {
+                // Сборка ориентирована на Java 17, поэтому фабрика доступна только через рефлексию
+                final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                log.info("Weather polling uses virtual threads");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                log.info("Virtual threads are not supported by the runtime, falling back to platform threads");
+            }
+        }
+
+        return Executors.newFixedThreadPool(
+                polling.getMaxConcurrency(),
+                new CustomizableThreadFactory(POLLING_THREAD_NAME_PREFIX)
+        );
+    }
 }
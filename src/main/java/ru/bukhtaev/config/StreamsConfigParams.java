@@ -0,0 +1,55 @@
+package ru.bukhtaev.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации потоковой агрегации данных о погоде по временным окнам.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "weather.streams")
+public class StreamsConfigParams {
+
+    /**
+     * Признак включения потоковой агрегации.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Размер неперекрывающихся окон.
+     */
+    @NotNull
+    private Duration tumblingSize = Duration.ofMinutes(1);
+
+    /**
+     * Размер скользящих окон.
+     */
+    @NotNull
+    private Duration hoppingSize = Duration.ofMinutes(10);
+
+    /**
+     * Шаг скользящих окон.
+     */
+    @NotNull
+    private Duration hoppingAdvance = Duration.ofMinutes(1);
+
+    /**
+     * Время, в течение которого окно принимает опоздавшие сообщения после своего окончания.
+     */
+    @NotNull
+    private Duration grace = Duration.ofSeconds(10);
+
+    /**
+     * Время хранения окон в локальных хранилищах.
+     * Должно быть не меньше суммы размера окна и времени приема опоздавших сообщений.
+     */
+    @NotNull
+    private Duration retention = Duration.ofHours(1);
+}
@@ -0,0 +1,43 @@
+package ru.bukhtaev.config;
+
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import ru.bukhtaev.kafka.WeatherAggregationTopology;
+import ru.bukhtaev.model.Weather;
+
+/**
+ * Конфигурация потоковой агрегации данных о погоде по временным окнам.
+ * Топология работает в отдельной группе получателей (application-id)
+ * и не влияет на обработку сообщений {@link ru.bukhtaev.service.WeatherConsumer}.
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(
+        prefix = "weather.streams",
+        name = "enabled",
+        havingValue = "true"
+)
+public class WeatherStreamsConfig {
+
+    /**
+     * Добавляет топологию агрегации данных о погоде в построитель Kafka Streams.
+     *
+     * @param builder       построитель топологии
+     * @param topic         топик с данными о погоде
+     * @param streamsConfig параметры конфигурации потоковой агрегации
+     * @return поток агрегируемых измерений температуры
+     */
+    @Bean
+    public KStream<String, Weather> weatherAggregationStream(
+            final StreamsBuilder builder,
+            @Value("${spring.kafka.template.default-topic}") final String topic,
+            final StreamsConfigParams streamsConfig
+    ) {
+        return WeatherAggregationTopology.build(builder, topic, streamsConfig);
+    }
+}
@@ -27,7 +27,7 @@ public class ExternalApiConfigParams {
     private String baseUrl;
 
     /**
-     * Токен для взаимодействия с внешним API.
+     * Основной токен для взаимодействия с внешним API.
      */
     @NotBlank
     private String token;
@@ -38,6 +38,14 @@ public class ExternalApiConfigParams {
     @NotBlank
     private String tokenParamName;
 
+    /**
+     * Параметры конфигурации пула токенов.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private TokenPoolConfigParams tokenPool;
+
     /**
      * Параметры конфигурации эндпоинта внешнего API для запроса погоды в реальном времени.
      */
@@ -53,4 +61,36 @@ public class ExternalApiConfigParams {
     @NotNull
     @NestedConfigurationProperty
     private BulkRequestConfigParams bulkRequest;
+
+    /**
+     * Параметры конфигурации HTTP-клиентов для запросов к внешнему API.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private HttpClientConfigParams client;
+
+    /**
+     * Параметры конфигурации кэша ответов внешнего API на запросы погоды в реальном времени.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private ResponseCacheConfigParams responseCache;
+
+    /**
+     * Параметры конфигурации дублирующих асинхронных запросов к внешнему API.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private HedgingConfigParams hedging;
+
+    /**
+     * Параметры конфигурации адаптивного ограничения фоновых запросов в соответствии с квотой токенов.
+     */
+    @Valid
+    @NotNull
+    @NestedConfigurationProperty
+    private QuotaConfigParams quota;
 }
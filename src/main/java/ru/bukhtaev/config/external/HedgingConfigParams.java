@@ -0,0 +1,32 @@
+package ru.bukhtaev.config.external;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации дублирующих (hedged) асинхронных запросов к внешнему API.
+ * Если ответ на запрос не получен за указанное время, выполняется второй такой же запрос,
+ * и используется первый успешный ответ.
+ * Дублирующий запрос расходует квоту внешнего API, но не учитывается ограничителем частоты запросов,
+ * поэтому задержка должна быть больше типичного времени ответа.
+ */
+@Getter
+@Setter
+@Builder
+public class HedgingConfigParams {
+
+    /**
+     * Признак выполнения дублирующих запросов.
+     */
+    private boolean enabled;
+
+    /**
+     * Время ожидания ответа, после которого выполняется дублирующий запрос.
+     */
+    @NotNull
+    private Duration delay;
+}
@@ -0,0 +1,68 @@
+package ru.bukhtaev.config.external;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации HTTP-клиентов для запросов к внешнему API.
+ */
+@Getter
+@Setter
+@Builder
+public class HttpClientConfigParams {
+
+    /**
+     * Максимальное количество соединений в пуле.
+     */
+    @NotNull
+    @Min(1)
+    private Integer maxConnections;
+
+    /**
+     * Максимальное количество соединений в пуле с одним хостом.
+     */
+    @NotNull
+    @Min(1)
+    private Integer maxConnectionsPerRoute;
+
+    /**
+     * Максимальное время установления соединения.
+     */
+    @NotNull
+    private Duration connectTimeout;
+
+    /**
+     * Максимальное время ожидания ответа.
+     */
+    @NotNull
+    private Duration responseTimeout;
+
+    /**
+     * Максимальное время ожидания свободного соединения из пула.
+     */
+    @NotNull
+    private Duration connectionRequestTimeout;
+
+    /**
+     * Максимальное время, в течение которого неиспользуемое соединение остается открытым
+     * для повторного использования. Если внешний API сообщает меньшее время, используется оно.
+     */
+    @NotNull
+    private Duration keepAlive;
+
+    /**
+     * Время простоя, после которого соединение закрывается и удаляется из пула.
+     */
+    @NotNull
+    private Duration idleEviction;
+
+    /**
+     * Признак использования HTTP/2 асинхронным клиентом, если внешний API его поддерживает.
+     */
+    private boolean http2;
+}
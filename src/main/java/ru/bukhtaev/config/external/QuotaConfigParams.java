@@ -0,0 +1,70 @@
+package ru.bukhtaev.config.external;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации адаптивного ограничения фоновых запросов к внешнему API
+ * в соответствии с квотой токена.
+ */
+@Getter
+@Setter
+@Builder
+public class QuotaConfigParams {
+
+    /**
+     * Признак ограничения фоновых запросов.
+     * Если ограничение выключено, расход квоты только учитывается в метриках.
+     */
+    private boolean enabled;
+
+    /**
+     * Количество запросов, доступных каждому токену пула за период квоты.
+     */
+    @NotNull
+    @Min(1)
+    private Long limit;
+
+    /**
+     * Период, по истечении которого квота восстанавливается.
+     */
+    @NotNull
+    private Duration period;
+
+    /**
+     * Доля квоты, которая резервируется для запросов пользователей в реальном времени
+     * и не расходуется фоновым опросом.
+     */
+    @NotNull
+    @DecimalMin("0.0")
+    @DecimalMax(value = "1.0", inclusive = false)
+    private Double realtimeReserve;
+
+    /**
+     * Максимальное количество фоновых запросов, которое может быть выполнено сразу
+     * за счет неизрасходованной в предыдущие опросы квоты.
+     */
+    @NotNull
+    @Min(1)
+    private Integer maxBurst;
+
+    /**
+     * Начальное время приостановки фоновых запросов после ответа внешнего API
+     * о превышении квоты. Удваивается при каждом следующем таком ответе.
+     */
+    @NotNull
+    private Duration initialBackoff;
+
+    /**
+     * Максимальное время приостановки фоновых запросов.
+     */
+    @NotNull
+    private Duration maxBackoff;
+}
@@ -0,0 +1,50 @@
+package ru.bukhtaev.config.external;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Параметры конфигурации кэша ответов внешнего API на запросы погоды в реальном времени.
+ */
+@Getter
+@Setter
+@Builder
+public class ResponseCacheConfigParams {
+
+    /**
+     * Признак использования кэша.
+     */
+    private boolean enabled;
+
+    /**
+     * Период обновления данных о погоде внешним API.
+     * Ответ хранится в кэше до ожидаемого времени следующего обновления данных.
+     */
+    @NotNull
+    private Duration updateInterval;
+
+    /**
+     * Минимальное время хранения ответа в кэше.
+     * Используется, если ожидаемое время обновления данных уже прошло или неизвестно.
+     */
+    @NotNull
+    private Duration minTtl;
+
+    /**
+     * Максимальное время хранения ответа в кэше.
+     */
+    @NotNull
+    private Duration maxTtl;
+
+    /**
+     * Максимальное количество ответов в кэше.
+     */
+    @NotNull
+    @Min(1)
+    private Integer maxSize;
+}
@@ -0,0 +1,46 @@
+package ru.bukhtaev.config.external;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import ru.bukhtaev.util.TokenSelectionStrategy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Параметры конфигурации пула токенов для взаимодействия с внешним API.
+ * Основной токен всегда входит в пул первым.
+ */
+@Getter
+@Setter
+@Builder
+public class TokenPoolConfigParams {
+
+    /**
+     * Дополнительные токены.
+     */
+    @NotNull
+    @Builder.Default
+    private List<String> additionalTokens = new ArrayList<>();
+
+    /**
+     * Способ выбора токена для очередного запроса.
+     */
+    @NotNull
+    private TokenSelectionStrategy selection;
+
+    /**
+     * Время, на которое токен исключается из выбора после ответа о превышении его квоты.
+     */
+    @NotNull
+    private Duration limitExceededBench;
+
+    /**
+     * Время, на которое токен исключается из выбора после ответа о том, что он выключен или некорректен.
+     */
+    @NotNull
+    private Duration invalidBench;
+}
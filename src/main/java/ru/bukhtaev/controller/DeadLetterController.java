@@ -0,0 +1,141 @@
+package ru.bukhtaev.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import ru.bukhtaev.dto.DeadLetterReplayResultDto;
+import ru.bukhtaev.dto.DeadLetterResponseDto;
+import ru.bukhtaev.dto.mapper.IDeadLetterMapper;
+import ru.bukhtaev.service.IDeadLetterService;
+import ru.bukhtaev.validation.handling.ErrorResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+import static ru.bukhtaev.controller.DeadLetterController.URL_API_DEAD_LETTERS;
+
+/**
+ * Контроллер для работы с необработанными сообщениями с данными о погоде.
+ */
+@Tag(name = "Необработанные сообщения")
+@RestController
+@SecurityRequirement(name = "basicAuth")
+@PreAuthorize("hasAuthority('ingestion:admin')")
+@RequestMapping(value = URL_API_DEAD_LETTERS, produces = "application/json")
+public class DeadLetterController {
+
+    /**
+     * URL.
+     */
+    public static final String URL_API_DEAD_LETTERS = "/api/ingestion/dead-letters";
+
+    /**
+     * Маппер для DTO необработанных сообщений.
+     */
+    private final IDeadLetterMapper mapper;
+
+    /**
+     * Сервис для работы с необработанными сообщениями.
+     */
+    private final IDeadLetterService deadLetterService;
+
+    /**
+     * Конструктор.
+     *
+     * @param mapper            маппер для DTO необработанных сообщений
+     * @param deadLetterService сервис для работы с необработанными сообщениями
+     */
+    @Autowired
+    public DeadLetterController(
+            final IDeadLetterMapper mapper,
+            final IDeadLetterService deadLetterService
+    ) {
+        this.mapper = mapper;
+        this.deadLetterService = deadLetterService;
+    }
+
+    @Operation(summary = "Получение необработанных сообщений")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Необработанные сообщения получены"
+            )
+    })
+    @GetMapping
+    @PreAuthorize("hasAuthority('ingestion:admin')")
+    public ResponseEntity<List<DeadLetterResponseDto>> getAll(
+            @Parameter(description = "Только не отправленные повторно")
+            @RequestParam(value = "pending-only", defaultValue = "true") final boolean pendingOnly
+    ) {
+        return ResponseEntity.ok(
+                deadLetterService.getAll(pendingOnly)
+                        .stream()
+                        .map(mapper::convertToDto)
+                        .toList()
+        );
+    }
+
+    @Operation(summary = "Повторная отправка необработанного сообщения в основной топик")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Сообщение отправлено повторно"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Сообщение не найдено",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Не удалось отправить сообщение",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            )
+    })
+    @PostMapping("/{id}/replay")
+    @PreAuthorize("hasAuthority('ingestion:admin')")
+    public ResponseEntity<DeadLetterResponseDto> replay(
+            @Parameter(description = "ID необработанного сообщения")
+            @PathVariable("id") final UUID id
+    ) {
+        return ResponseEntity.ok(
+                mapper.convertToDto(deadLetterService.replay(id))
+        );
+    }
+
+    @Operation(summary = "Повторная отправка всех не отправленных повторно сообщений в основной топик")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Сообщения отправлены повторно, возвращены количество и ошибки отправки",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = DeadLetterReplayResultDto.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Не удалось отправить сообщения",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            )
+    })
+    @PostMapping("/replay")
+    @PreAuthorize("hasAuthority('ingestion:admin')")
+    public ResponseEntity<DeadLetterReplayResultDto> replayAll() {
+        return ResponseEntity.ok(deadLetterService.replayAll());
+    }
+}
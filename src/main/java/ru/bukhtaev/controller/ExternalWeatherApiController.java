@@ -10,17 +10,25 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import ru.bukhtaev.dto.FetchJobDto;
 import ru.bukhtaev.dto.WeatherResponseDto;
 import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
 import ru.bukhtaev.dto.mapper.IWeatherMapper;
 import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.service.CitiesProvider;
+import ru.bukhtaev.service.ExternalWeatherResponseCache;
 import ru.bukhtaev.service.IExternalWeatherApiService;
+import ru.bukhtaev.service.IWeatherFetchJobService;
 import ru.bukhtaev.validation.handling.ErrorResponse;
 
+import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.bukhtaev.controller.ExternalWeatherApiController.URL_API_EXTERNAL;
 
@@ -40,6 +48,11 @@ public class ExternalWeatherApiController {
      */
     public static final String URL_API_EXTERNAL = "/api/external";
 
+    /**
+     * URL заданий получения и сохранения данных о погоде.
+     */
+    public static final String URL_SAVE_CURRENT_JOBS = "/save-current/jobs";
+
     /**
      * Сервис для выполнения запросов к внешнему API данных о погоде.
      */
@@ -50,19 +63,43 @@ public class ExternalWeatherApiController {
      */
     private final IWeatherMapper mapper;
 
+    /**
+     * Кэш ответов внешнего API на запросы погоды в реальном времени.
+     */
+    private final ExternalWeatherResponseCache responseCache;
+
+    /**
+     * Сервис предоставления названий городов для опроса по расписанию.
+     */
+    private final CitiesProvider citiesProvider;
+
+    /**
+     * Сервис заданий получения и сохранения данных о погоде.
+     */
+    private final IWeatherFetchJobService fetchJobService;
+
     /**
      * Конструктор.
      *
      * @param externalApiService сервис для выполнения запросов к внешнему API
      * @param mapper             маппер для DTO данных о погоде
+     * @param responseCache      кэш ответов внешнего API на запросы погоды в реальном времени
+     * @param citiesProvider     сервис предоставления названий городов для опроса по расписанию
+     * @param fetchJobService    сервис заданий получения и сохранения данных о погоде
      */
     @Autowired
     public ExternalWeatherApiController(
             @Qualifier("weatherApiServiceJpa") final IExternalWeatherApiService externalApiService,
-            final IWeatherMapper mapper
+            final IWeatherMapper mapper,
+            final ExternalWeatherResponseCache responseCache,
+            final CitiesProvider citiesProvider,
+            final IWeatherFetchJobService fetchJobService
     ) {
         this.externalApiService = externalApiService;
         this.mapper = mapper;
+        this.responseCache = responseCache;
+        this.citiesProvider = citiesProvider;
+        this.fetchJobService = fetchJobService;
     }
 
     @Operation(summary = "Получение данных о погоде в текущее время в указанном месте")
@@ -110,11 +147,72 @@ public class ExternalWeatherApiController {
             @Parameter(description = "Нужна ли информация о качестве воздуха")
             @RequestParam(value = "aqi", required = false) final Boolean aqi
     ) {
+        citiesProvider.recordDemand(location);
         return ResponseEntity.ok(
-                externalApiService.getCurrent(location, language, aqi)
+                responseCache.get(
+                        location,
+                        language,
+                        aqi,
+                        () -> externalApiService.getCurrent(location, language, aqi)
+                )
         );
     }
 
+    @Operation(summary = "Асинхронное получение данных о погоде в текущее время в указанном месте")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Данные о погоде получены"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Местоположение не предоставлено",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Местоположение не найдено",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Превышен лимит запросов",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Внутренняя ошибка сервера",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            )
+    })
+    @GetMapping("/current/async")
+    @PreAuthorize("hasAuthority('weather-data:read')")
+    public CompletableFuture<ResponseEntity<ExternalApiWeatherResponse>> getAsync(
+            @Parameter(description = "Местоположение")
+            @RequestParam(value = "location", required = false) final String location,
+            @Parameter(description = "Язык")
+            @RequestParam(value = "language", required = false) final String language,
+            @Parameter(description = "Нужна ли информация о качестве воздуха")
+            @RequestParam(value = "aqi", required = false) final Boolean aqi
+    ) {
+        citiesProvider.recordDemand(location);
+        return responseCache.getAsync(
+                        location,
+                        language,
+                        aqi,
+                        () -> externalApiService.getCurrentAsync(location, language, aqi)
+                )
+                .thenApply(ResponseEntity::ok);
+    }
+
     @Operation(summary = "Получение данных о погоде в текущее время в указанном месте с сохранением")
     @ApiResponses(value = {
             @ApiResponse(
@@ -158,10 +256,12 @@ public class ExternalWeatherApiController {
             @Parameter(description = "Нужна ли информация о качестве воздуха")
             @RequestParam(value = "aqi", required = false) final Boolean aqi
     ) {
-        final var weatherResponse = externalApiService.getCurrent(
+        final String language = Locale.ENGLISH.getLanguage();
+        final var weatherResponse = responseCache.get(
                 location,
-                Locale.ENGLISH.getLanguage(),
-                aqi
+                language,
+                aqi,
+                () -> externalApiService.getCurrent(location, language, aqi)
         );
 
         final Weather saved = externalApiService.saveWithTransaction(
@@ -172,4 +272,61 @@ public class ExternalWeatherApiController {
                 mapper.convertToDto(saved)
         );
     }
+
+    @Operation(summary = "Постановка в очередь задания получения и сохранения данных о погоде "
+            + "в текущее время в нескольких местах")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Задание поставлено в очередь"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Недопустимое количество местоположений",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Очередь заданий заполнена",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            )
+    })
+    @PostMapping(URL_SAVE_CURRENT_JOBS)
+    @PreAuthorize("hasAuthority('weather-data:write')")
+    public ResponseEntity<FetchJobDto> submitSaveJob(
+            @Parameter(description = "Местоположения")
+            @RequestBody final List<String> locations,
+            @Parameter(description = "Нужна ли информация о качестве воздуха")
+            @RequestParam(value = "aqi", required = false) final Boolean aqi
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(fetchJobService.submit(locations, aqi));
+    }
+
+    @Operation(summary = "Получение состояния и результата задания получения и сохранения данных о погоде")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Задание получено"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Задание не найдено",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            )
+    })
+    @GetMapping(URL_SAVE_CURRENT_JOBS + "/{id}")
+    @PreAuthorize("hasAuthority('weather-data:write')")
+    public ResponseEntity<FetchJobDto> getSaveJob(
+            @Parameter(description = "ID задания")
+            @PathVariable("id") final UUID id
+    ) {
+        return ResponseEntity.ok(fetchJobService.getJob(id));
+    }
 }
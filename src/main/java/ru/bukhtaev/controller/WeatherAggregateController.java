@@ -0,0 +1,98 @@
+package ru.bukhtaev.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import ru.bukhtaev.dto.WeatherWindowAggregateDto;
+import ru.bukhtaev.service.IWeatherAggregateService;
+import ru.bukhtaev.util.WindowType;
+import ru.bukhtaev.validation.handling.ErrorResponse;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static ru.bukhtaev.controller.WeatherAggregateController.URL_API_WEATHER_AGGREGATES;
+
+/**
+ * Контроллер для получения агрегированной температуры городов за временные окна.
+ */
+@Tag(name = "Агрегаты данных о погоде")
+@RestController
+@SecurityRequirement(name = "basicAuth")
+@PreAuthorize("hasAuthority('weather-data:read')")
+@RequestMapping(value = URL_API_WEATHER_AGGREGATES, produces = "application/json")
+@ConditionalOnProperty(
+        prefix = "weather.streams",
+        name = "enabled",
+        havingValue = "true"
+)
+public class WeatherAggregateController {
+
+    /**
+     * URL.
+     */
+    public static final String URL_API_WEATHER_AGGREGATES = "/api/weather/aggregates";
+
+    /**
+     * Сервис для получения агрегированной температуры городов.
+     */
+    private final IWeatherAggregateService aggregateService;
+
+    /**
+     * Конструктор.
+     *
+     * @param aggregateService сервис для получения агрегированной температуры городов
+     */
+    @Autowired
+    public WeatherAggregateController(final IWeatherAggregateService aggregateService) {
+        this.aggregateService = aggregateService;
+    }
+
+    @Operation(summary = "Получение агрегированной температуры города за временные окна")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Агрегированная температура города получена"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Хранилище агрегатов временно недоступно",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            )
+    })
+    @GetMapping("/{cityName}")
+    @PreAuthorize("hasAuthority('weather-data:read')")
+    public ResponseEntity<List<WeatherWindowAggregateDto>> getAggregates(
+            @Parameter(description = "Название города")
+            @PathVariable("cityName") final String cityName,
+            @Parameter(description = "Тип окна")
+            @RequestParam(value = "window", defaultValue = "TUMBLING") final WindowType windowType,
+            @Parameter(description = "Начало интервала (по умолчанию - час назад)")
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final Instant from,
+            @Parameter(description = "Конец интервала (по умолчанию - текущий момент)")
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final Instant to
+    ) {
+        final Instant end = to == null ? Instant.now() : to;
+        final Instant start = from == null ? end.minus(1, ChronoUnit.HOURS) : from;
+
+        return ResponseEntity.ok(
+                aggregateService.getAggregates(cityName, windowType, start, end)
+        );
+    }
+}
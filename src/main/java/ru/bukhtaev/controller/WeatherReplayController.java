@@ -0,0 +1,114 @@
+package ru.bukhtaev.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import ru.bukhtaev.dto.ReplayProgressDto;
+import ru.bukhtaev.service.IWeatherReplayService;
+import ru.bukhtaev.validation.handling.ErrorResponse;
+
+import java.time.Instant;
+
+import static ru.bukhtaev.controller.WeatherReplayController.URL_API_REPLAY;
+
+/**
+ * Контроллер для управления повторным чтением истории Kafka-топика с данными о погоде.
+ */
+@Tag(name = "Повторное чтение топика")
+@RestController
+@SecurityRequirement(name = "basicAuth")
+@PreAuthorize("hasAuthority('ingestion:admin')")
+@RequestMapping(value = URL_API_REPLAY, produces = "application/json")
+public class WeatherReplayController {
+
+    /**
+     * URL.
+     */
+    public static final String URL_API_REPLAY = "/api/ingestion/replay";
+
+    /**
+     * Сервис повторного чтения истории топика.
+     */
+    private final IWeatherReplayService replayService;
+
+    /**
+     * Конструктор.
+     *
+     * @param replayService сервис повторного чтения истории топика
+     */
+    @Autowired
+    public WeatherReplayController(final IWeatherReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    @Operation(summary = "Запуск повторного чтения истории топика для восстановления данных о погоде")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Повторное чтение запущено"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Указаны и смещение, и время",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Повторное чтение уже выполняется",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )}
+            )
+    })
+    @PostMapping
+    @PreAuthorize("hasAuthority('ingestion:admin')")
+    public ResponseEntity<ReplayProgressDto> start(
+            @Parameter(description = "Смещение, с которого читаются все партиции")
+            @RequestParam(value = "offset", required = false) final Long offset,
+            @Parameter(description = "Время, с которого читаются все партиции")
+            @RequestParam(value = "timestamp", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final Instant timestamp
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(replayService.start(offset, timestamp));
+    }
+
+    @Operation(summary = "Получение хода повторного чтения истории топика")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Ход повторного чтения получен"
+            )
+    })
+    @GetMapping
+    @PreAuthorize("hasAuthority('ingestion:admin')")
+    public ResponseEntity<ReplayProgressDto> getProgress() {
+        return ResponseEntity.ok(replayService.getProgress());
+    }
+
+    @Operation(summary = "Отмена повторного чтения истории топика")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Повторное чтение будет остановлено после сохранения текущего пакета"
+            )
+    })
+    @DeleteMapping
+    @PreAuthorize("hasAuthority('ingestion:admin')")
+    public ResponseEntity<ReplayProgressDto> cancel() {
+        return ResponseEntity.ok(replayService.cancel());
+    }
+}
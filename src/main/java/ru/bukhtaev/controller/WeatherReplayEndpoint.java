@@ -0,0 +1,39 @@
+package ru.bukhtaev.controller;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.dto.ReplayProgressDto;
+import ru.bukhtaev.service.IWeatherReplayService;
+
+/**
+ * Конечная точка Actuator с ходом повторного чтения истории Kafka-топика с данными о погоде.
+ */
+@Component
+@Endpoint(id = "weatherreplay")
+public class WeatherReplayEndpoint {
+
+    /**
+     * Сервис повторного чтения истории топика.
+     */
+    private final IWeatherReplayService replayService;
+
+    /**
+     * Конструктор.
+     *
+     * @param replayService сервис повторного чтения истории топика
+     */
+    public WeatherReplayEndpoint(final IWeatherReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    /**
+     * Возвращает ход последнего запущенного повторного чтения.
+     *
+     * @return ход повторного чтения
+     */
+    @ReadOperation
+    public ReplayProgressDto progress() {
+        return replayService.getProgress();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.bukhtaev.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO результата повторной отправки необработанных сообщений с данными о погоде,
+ * используемый в качестве тела HTTP-ответа.
+ */
+@Schema(description = "Результат повторной отправки необработанных сообщений")
+@Getter
+@Builder
+@AllArgsConstructor
+public class DeadLetterReplayResultDto {
+
+    /**
+     * Количество повторно отправленных сообщений.
+     */
+    @Schema(description = "Количество повторно отправленных сообщений")
+    private final int replayed;
+
+    /**
+     * Сообщения об ошибках по ID сообщений, которые не удалось отправить повторно.
+     */
+    @Schema(description = "Сообщения об ошибках по ID сообщений, которые не удалось отправить")
+    private final Map<UUID, String> failures;
+}
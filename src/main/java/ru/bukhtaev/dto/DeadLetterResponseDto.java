@@ -0,0 +1,93 @@
+package ru.bukhtaev.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import ru.bukhtaev.model.DeadLetter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO для модели {@link DeadLetter}, используемый в качестве тела HTTP-ответа.
+ */
+@Schema(description = "Необработанное сообщение с данными о погоде")
+@Getter
+public class DeadLetterResponseDto extends BaseResponseDto {
+
+    /**
+     * Топик, из которого было получено сообщение.
+     */
+    @Schema(description = "Топик")
+    private final String topic;
+
+    /**
+     * Партиция, из которой было получено сообщение.
+     */
+    @Schema(description = "Партиция")
+    private final Integer partition;
+
+    /**
+     * Смещение сообщения в партиции.
+     */
+    @Schema(description = "Смещение сообщения в партиции")
+    private final Long offset;
+
+    /**
+     * Ключ сообщения.
+     */
+    @Schema(description = "Ключ сообщения")
+    private final String key;
+
+    /**
+     * Сообщение об ошибке обработки.
+     */
+    @Schema(description = "Сообщение об ошибке обработки")
+    private final String errorMessage;
+
+    /**
+     * Дата и время создания.
+     */
+    @Schema(description = "Дата и время создания")
+    @JsonFormat(pattern = "dd.MM.yyyy HH:mm:ss.SSS")
+    private final LocalDateTime createdAt;
+
+    /**
+     * Дата и время последней повторной отправки в топик.
+     */
+    @Schema(description = "Дата и время последней повторной отправки")
+    @JsonFormat(pattern = "dd.MM.yyyy HH:mm:ss.SSS")
+    private final LocalDateTime replayedAt;
+
+    /**
+     * Конструктор.
+     *
+     * @param id           ID
+     * @param topic        топик, из которого было получено сообщение
+     * @param partition    партиция, из которой было получено сообщение
+     * @param offset       смещение сообщения в партиции
+     * @param key          ключ сообщения
+     * @param errorMessage сообщение об ошибке обработки
+     * @param createdAt    дата и время создания
+     * @param replayedAt   дата и время последней повторной отправки в топик
+     */
+    public DeadLetterResponseDto(
+            final UUID id,
+            final String topic,
+            final Integer partition,
+            final Long offset,
+            final String key,
+            final String errorMessage,
+            final LocalDateTime createdAt,
+            final LocalDateTime replayedAt
+    ) {
+        super(id);
+        this.topic = topic;
+        this.partition = partition;
+        this.offset = offset;
+        this.key = key;
+        this.errorMessage = errorMessage;
+        this.createdAt = createdAt;
+        this.replayedAt = replayedAt;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.bukhtaev.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import ru.bukhtaev.util.FetchJobStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO задания получения данных о погоде от внешнего API и их сохранения,
+ * используемый в качестве тела HTTP-ответа.
+ */
+@Schema(description = "Задание получения и сохранения данных о погоде")
+@Getter
+@Builder
+@AllArgsConstructor
+public class FetchJobDto {
+
+    /**
+     * ID задания.
+     */
+    @Schema(description = "ID задания")
+    private final UUID id;
+
+    /**
+     * Состояние.
+     */
+    @Schema(description = "Состояние")
+    private final FetchJobStatus status;
+
+    /**
+     * Время постановки в очередь.
+     */
+    @Schema(description = "Время постановки в очередь")
+    private final Instant submittedAt;
+
+    /**
+     * Время запуска.
+     */
+    @Schema(description = "Время запуска")
+    private final Instant startedAt;
+
+    /**
+     * Время завершения.
+     */
+    @Schema(description = "Время завершения")
+    private final Instant finishedAt;
+
+    /**
+     * Количество местоположений.
+     */
+    @Schema(description = "Количество местоположений")
+    private final int totalLocations;
+
+    /**
+     * Количество местоположений, данные о погоде для которых уже были сохранены ранее.
+     */
+    @Schema(description = "Количество местоположений, данные о погоде для которых уже были сохранены ранее")
+    private final int skippedLocations;
+
+    /**
+     * Сохраненные данные о погоде.
+     */
+    @Schema(description = "Сохраненные данные о погоде")
+    private final List<WeatherResponseDto> saved;
+
+    /**
+     * Сообщения об ошибках по местоположениям, для которых не удалось получить данные о погоде.
+     */
+    @Schema(description = "Сообщения об ошибках по местоположениям")
+    private final Map<String, String> errors;
+
+    /**
+     * Сообщение об ошибке, если задание завершилось ошибкой.
+     */
+    @Schema(description = "Сообщение об ошибке")
+    private final String errorMessage;
+}
@@ -0,0 +1,105 @@
+package ru.bukhtaev.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import ru.bukhtaev.util.ReplayStatus;
+
+import java.time.Instant;
+
+/**
+ * DTO хода повторного чтения истории Kafka-топика с данными о погоде,
+ * используемый в качестве тела HTTP-ответа.
+ */
+@Schema(description = "Ход повторного чтения истории топика с данными о погоде")
+@Getter
+@Builder
+@AllArgsConstructor
+public class ReplayProgressDto {
+
+    /**
+     * Состояние.
+     */
+    @Schema(description = "Состояние")
+    private final ReplayStatus status;
+
+    /**
+     * Смещение, с которого начато чтение партиций.
+     */
+    @Schema(description = "Смещение, с которого начато чтение партиций")
+    private final Long fromOffset;
+
+    /**
+     * Время, с которого начато чтение партиций.
+     */
+    @Schema(description = "Время, с которого начато чтение партиций")
+    private final Instant fromTimestamp;
+
+    /**
+     * Время запуска.
+     */
+    @Schema(description = "Время запуска")
+    private final Instant startedAt;
+
+    /**
+     * Время завершения.
+     */
+    @Schema(description = "Время завершения")
+    private final Instant finishedAt;
+
+    /**
+     * Количество сообщений, которые требуется прочитать.
+     */
+    @Schema(description = "Количество сообщений, которые требуется прочитать")
+    private final long totalRecords;
+
+    /**
+     * Количество прочитанных сообщений.
+     */
+    @Schema(description = "Количество прочитанных сообщений")
+    private final long readRecords;
+
+    /**
+     * Количество созданных записей о погоде.
+     */
+    @Schema(description = "Количество созданных записей о погоде")
+    private final long insertedRows;
+
+    /**
+     * Количество измененных записей о погоде.
+     */
+    @Schema(description = "Количество измененных записей о погоде")
+    private final long updatedRows;
+
+    /**
+     * Количество удаленных записей о погоде.
+     */
+    @Schema(description = "Количество удаленных записей о погоде")
+    private final long deletedRows;
+
+    /**
+     * Количество пропущенных сообщений: дубликатов, замененных более поздними событиями
+     * и неполных данных.
+     */
+    @Schema(description = "Количество пропущенных сообщений")
+    private final long skippedRecords;
+
+    /**
+     * Процент прочитанных сообщений.
+     */
+    @Schema(description = "Процент прочитанных сообщений")
+    private final double percentComplete;
+
+    /**
+     * Средняя скорость создания записей о погоде в секунду.
+     */
+    @Schema(description = "Средняя скорость создания записей о погоде в секунду")
+    private final double rowsPerSecond;
+
+    /**
+     * Сообщение об ошибке, если повторное чтение завершилось ошибкой.
+     */
+    @Schema(description = "Сообщение об ошибке")
+    private final String errorMessage;
+}
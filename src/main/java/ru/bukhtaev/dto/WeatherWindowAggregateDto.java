@@ -0,0 +1,60 @@
+package ru.bukhtaev.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * DTO агрегированной температуры города за временное окно, используемый в качестве тела HTTP-ответа.
+ */
+@Schema(description = "Агрегированная температура города за временное окно")
+@Getter
+@Builder
+@AllArgsConstructor
+public class WeatherWindowAggregateDto {
+
+    /**
+     * Название города.
+     */
+    @Schema(description = "Название города")
+    private final String cityName;
+
+    /**
+     * Начало окна.
+     */
+    @Schema(description = "Начало окна")
+    private final Instant windowStart;
+
+    /**
+     * Конец окна (не включительно).
+     */
+    @Schema(description = "Конец окна (не включительно)")
+    private final Instant windowEnd;
+
+    /**
+     * Количество измерений.
+     */
+    @Schema(description = "Количество измерений")
+    private final long count;
+
+    /**
+     * Средняя температура.
+     */
+    @Schema(description = "Средняя температура")
+    private final double average;
+
+    /**
+     * Минимальная температура.
+     */
+    @Schema(description = "Минимальная температура")
+    private final double min;
+
+    /**
+     * Максимальная температура.
+     */
+    @Schema(description = "Максимальная температура")
+    private final double max;
+}
@@ -0,0 +1,26 @@
+package ru.bukhtaev.dto.external;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Элемент ответа внешнего API на массовый запрос.
+ */
+@Schema(description = "Элемент ответа на массовый запрос")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemDto implements Serializable {
+
+    /**
+     * Результат для одного местоположения.
+     */
+    @Schema(description = "Результат для одного местоположения")
+    @JsonProperty("query")
+    private BulkQueryDto query;
+}
@@ -0,0 +1,34 @@
+package ru.bukhtaev.dto.external;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Местоположение в теле массового запроса к внешнему API.
+ */
+@Schema(description = "Местоположение в теле массового запроса")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLocationDto implements Serializable {
+
+    /**
+     * Местоположение.
+     */
+    @Schema(description = "Местоположение")
+    @JsonProperty("q")
+    private String query;
+
+    /**
+     * Пользовательский идентификатор местоположения,
+     * возвращаемый внешним API в ответе без изменений.
+     */
+    @Schema(description = "Пользовательский идентификатор местоположения")
+    @JsonProperty("custom_id")
+    private String customId;
+}
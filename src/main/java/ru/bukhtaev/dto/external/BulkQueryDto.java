@@ -0,0 +1,55 @@
+package ru.bukhtaev.dto.external;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Результат массового запроса для одного местоположения.
+ * Содержит либо информацию о погоде, либо ошибку.
+ */
+@Schema(description = "Результат массового запроса для одного местоположения")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkQueryDto implements Serializable {
+
+    /**
+     * Пользовательский идентификатор местоположения из запроса.
+     */
+    @Schema(description = "Пользовательский идентификатор местоположения из запроса")
+    @JsonProperty("custom_id")
+    private String customId;
+
+    /**
+     * Местоположение из запроса.
+     */
+    @Schema(description = "Местоположение из запроса")
+    @JsonProperty("q")
+    private String query;
+
+    /**
+     * Информация о местоположении.
+     */
+    @Schema(description = "Информация о местоположении")
+    @JsonProperty("location")
+    private LocationDto location;
+
+    /**
+     * Информация о погоде на текущий момент времени.
+     */
+    @Schema(description = "Информация о погоде на текущий момент времени")
+    @JsonProperty("current")
+    private Current current;
+
+    /**
+     * Ошибка API для данного местоположения.
+     */
+    @Schema(description = "Ошибка API для данного местоположения")
+    @JsonProperty("error")
+    private ApiErrorDto error;
+}
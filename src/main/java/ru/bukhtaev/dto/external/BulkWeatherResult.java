@@ -0,0 +1,68 @@
+package ru.bukhtaev.dto.external;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.bukhtaev.exception.CommonException;
+
+/**
+ * Результат массового запроса к внешнему API для одного местоположения.
+ * Содержит либо краткую информацию о погоде, либо исключение, соответствующее
+ * ошибке, которую вернул внешний API для данного местоположения.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BulkWeatherResult {
+
+    /**
+     * Запрошенное местоположение.
+     */
+    private final String location;
+
+    /**
+     * Краткая информация о погоде.
+     */
+    private final CurrentWeatherSummary summary;
+
+    /**
+     * Исключение, соответствующее ошибке для данного местоположения.
+     */
+    private final CommonException error;
+
+    /**
+     * Создает успешный результат.
+     *
+     * @param location местоположение
+     * @param summary  краткая информация о погоде
+     * @return успешный результат
+     */
+    public static BulkWeatherResult success(
+            final String location,
+            final CurrentWeatherSummary summary
+    ) {
+        return new BulkWeatherResult(location, summary, null);
+    }
+
+    /**
+     * Создает результат с ошибкой.
+     *
+     * @param location местоположение
+     * @param error    исключение, соответствующее ошибке
+     * @return результат с ошибкой
+     */
+    public static BulkWeatherResult failure(
+            final String location,
+            final CommonException error
+    ) {
+        return new BulkWeatherResult(location, null, error);
+    }
+
+    /**
+     * Возвращает признак успешного результата.
+     *
+     * @return {@code true}, если информация о погоде получена
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
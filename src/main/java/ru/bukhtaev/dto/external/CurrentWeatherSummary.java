@@ -0,0 +1,33 @@
+package ru.bukhtaev.dto.external;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Краткая информация о погоде на текущий момент времени:
+ * только поля ответа внешнего API, необходимые для сохранения данных о погоде.
+ */
+@Getter
+@Builder
+public class CurrentWeatherSummary {
+
+    /**
+     * Название местоположения.
+     */
+    private final String cityName;
+
+    /**
+     * Описание погодных условий.
+     */
+    private final String conditionText;
+
+    /**
+     * Температура по Цельсию.
+     */
+    private final Double temperatureC;
+
+    /**
+     * Местная дата и время.
+     */
+    private final String localtime;
+}
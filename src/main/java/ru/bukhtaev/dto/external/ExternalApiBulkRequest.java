@@ -0,0 +1,29 @@
+package ru.bukhtaev.dto.external;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Модель тела массового HTTP-запроса к внешнему API данных о погоде.
+ *
+ * @see <a href="https://www.weatherapi.com/docs/#intro-bulk">Weather API</a>
+ */
+@Schema(description = "Тело массового запроса к внешнему API")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExternalApiBulkRequest implements Serializable {
+
+    /**
+     * Местоположения.
+     */
+    @Schema(description = "Местоположения")
+    @JsonProperty("locations")
+    private List<BulkLocationDto> locations;
+}
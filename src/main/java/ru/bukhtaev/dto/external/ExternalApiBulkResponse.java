@@ -0,0 +1,30 @@
+package ru.bukhtaev.dto.external;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Модель HTTP-ответа от внешнего API данных о погоде на массовый запрос.
+ * Содержит результаты для каждого из запрошенных местоположений.
+ *
+ * @see <a href="https://www.weatherapi.com/docs/#intro-bulk">Weather API</a>
+ */
+@Schema(description = "Ответ внешнего API на массовый запрос")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExternalApiBulkResponse implements Serializable {
+
+    /**
+     * Результаты для запрошенных местоположений.
+     */
+    @Schema(description = "Результаты для запрошенных местоположений")
+    @JsonProperty("bulk")
+    private List<BulkItemDto> bulk;
+}
@@ -0,0 +1,22 @@
+package ru.bukhtaev.dto.mapper;
+
+import org.mapstruct.Mapper;
+import ru.bukhtaev.dto.DeadLetterResponseDto;
+import ru.bukhtaev.model.DeadLetter;
+
+import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
+
+/**
+ * Маппер для объектов типа {@link DeadLetter}.
+ */
+@Mapper(componentModel = SPRING)
+public interface IDeadLetterMapper {
+
+    /**
+     * Конвертирует {@link DeadLetter} в DTO {@link DeadLetterResponseDto}.
+     *
+     * @param entity {@link DeadLetter}
+     * @return DTO {@link DeadLetterResponseDto}
+     */
+    DeadLetterResponseDto convertToDto(final DeadLetter entity);
+}
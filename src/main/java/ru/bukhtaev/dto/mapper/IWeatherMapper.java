@@ -5,6 +5,7 @@ import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import ru.bukhtaev.dto.WeatherRequestDto;
 import ru.bukhtaev.dto.WeatherResponseDto;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
 import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
 import ru.bukhtaev.exception.CommonServerSideException;
 import ru.bukhtaev.model.Weather;
@@ -70,6 +71,22 @@ public interface IWeatherMapper {
     @Mapping(source = "location.localtime", target = "dateTime", qualifiedByName = "toLocalDateTime")
     Weather convertFromExternalDto(final ExternalApiWeatherResponse dto);
 
+    /**
+     * Конвертирует DTO {@link CurrentWeatherSummary} в {@link Weather},
+     * игнорируя поле {@code id}.
+     *
+     * @param dto DTO {@link CurrentWeatherSummary}
+     * @return {@link Weather}
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "city.id", ignore = true)
+    @Mapping(target = "type.id", ignore = true)
+    @Mapping(source = "cityName", target = "city.name")
+    @Mapping(source = "conditionText", target = "type.name")
+    @Mapping(source = "temperatureC", target = "temperature")
+    @Mapping(source = "localtime", target = "dateTime", qualifiedByName = "toLocalDateTime")
+    Weather convertFromSummary(final CurrentWeatherSummary dto);
+
     @Named("toLocalDateTime")
     static LocalDateTime convertStringToLocalDateTime(final String localTimeStr) {
         final TemporalAccessor temporalAccessor = FORMATTER.parseBest(
@@ -0,0 +1,19 @@
+package ru.bukhtaev.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Исключение для ситуации, когда задание получения и сохранения данных о погоде
+ * отклонено из-за заполненной очереди заданий.
+ */
+public class FetchJobRejectedException extends CommonClientSideException {
+
+    /**
+     * Конструктор.
+     *
+     * @param errorMessage сообщение об ошибке
+     */
+    public FetchJobRejectedException(final String errorMessage) {
+        super(HttpStatus.TOO_MANY_REQUESTS, errorMessage);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.bukhtaev.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Исключение для ситуации, когда повторное чтение истории Kafka-топика
+ * запускается во время выполнения предыдущего.
+ */
+public class ReplayAlreadyRunningException extends CommonClientSideException {
+
+    /**
+     * Конструктор.
+     *
+     * @param errorMessage сообщение об ошибке
+     */
+    public ReplayAlreadyRunningException(final String errorMessage) {
+        super(HttpStatus.CONFLICT, errorMessage);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.bukhtaev.exception;
+
+import java.text.MessageFormat;
+
+/**
+ * Исключение для ситуации, когда локальное хранилище состояния Kafka Streams
+ * недоступно для запросов, например, во время запуска или перераспределения партиций.
+ */
+public class StateStoreUnavailableException extends CommonServerSideException {
+
+    /**
+     * Конструктор.
+     *
+     * @param storeName название хранилища
+     */
+    public StateStoreUnavailableException(final String storeName) {
+        super(MessageFormat.format("State store <{0}> is not available at the moment", storeName));
+    }
+}
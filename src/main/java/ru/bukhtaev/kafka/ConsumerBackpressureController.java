@@ -0,0 +1,138 @@
+package ru.bukhtaev.kafka;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.BackpressureConfigParams;
+import ru.bukhtaev.config.KafkaConfigParams;
+
+import javax.sql.DataSource;
+
+/**
+ * Сервис приостановки получения сообщений с данными о погоде при высокой нагрузке на базу данных.
+ * Получение приостанавливается, если пул соединений почти исчерпан, есть потоки,
+ * ожидающие соединения, или время сохранения данных о погоде превышает порог,
+ * и возобновляется, когда нагрузка снижается. Благодаря этому запросы пользователей
+ * не ожидают соединений, занятых сохранением данных из Kafka-топика.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+        prefix = "weather.kafka.backpressure",
+        name = "enabled",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class ConsumerBackpressureController {
+
+    /**
+     * Реестр контейнеров обработчиков сообщений.
+     */
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    /**
+     * Источник данных.
+     */
+    private final DataSource dataSource;
+
+    /**
+     * Метрики обработки сообщений с данными о погоде.
+     */
+    private final WeatherConsumerMetrics metrics;
+
+    /**
+     * Параметры конфигурации приостановки получения сообщений.
+     */
+    private final BackpressureConfigParams config;
+
+    /**
+     * Признак приостановки получения сообщений.
+     */
+    private volatile boolean paused;
+
+    /**
+     * Конструктор.
+     *
+     * @param listenerRegistry реестр контейнеров обработчиков сообщений
+     * @param dataSource       источник данных
+     * @param metrics          метрики обработки сообщений с данными о погоде
+     * @param kafkaConfig      параметры конфигурации Kafka-топика и его обработки
+     */
+    public ConsumerBackpressureController(
+            final KafkaListenerEndpointRegistry listenerRegistry,
+            final DataSource dataSource,
+            final WeatherConsumerMetrics metrics,
+            final KafkaConfigParams kafkaConfig
+    ) {
+        this.listenerRegistry = listenerRegistry;
+        this.dataSource = dataSource;
+        this.metrics = metrics;
+        this.config = kafkaConfig.getBackpressure();
+    }
+
+    /**
+     * Проверяет нагрузку на базу данных и при необходимости
+     * приостанавливает или возобновляет получение сообщений.
+     */
+    @Scheduled(fixedDelayString = "${weather.kafka.backpressure.check-interval:1000}")
+    void check() {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+        final HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+
+        final double utilization = (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+        final int awaiting = pool.getThreadsAwaitingConnection();
+        final double latency = metrics.persistLatencyP99Millis();
+
+        if (!paused && isOverloaded(utilization, awaiting, latency)) {
+            log.warn(
+                    "Pausing weather consumption: pool utilization {}, threads awaiting connection {}, persist p99 {} ms",
+                    utilization,
+                    awaiting,
+                    latency
+            );
+            listenerRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+            paused = true;
+            metrics.recordPause();
+        } else if (paused && isRelieved(utilization, awaiting, latency)) {
+            log.info(
+                    "Resuming weather consumption: pool utilization {}, persist p99 {} ms",
+                    utilization,
+                    latency
+            );
+            listenerRegistry.getListenerContainers().forEach(MessageListenerContainer::resume);
+            paused = false;
+            metrics.recordResume();
+        }
+    }
+
+    /**
+     * Возвращает {@code true}, если получение сообщений приостановлено.
+     *
+     * @return {@code true}, если получение сообщений приостановлено
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    private boolean isOverloaded(final double utilization, final int awaiting, final double latency) {
+        return utilization >= config.getPauseUtilization()
+                || awaiting > 0
+                || latency >= config.getPauseLatency();
+    }
+
+    private boolean isRelieved(final double utilization, final int awaiting, final double latency) {
+        return utilization <= config.getResumeUtilization()
+                && awaiting == 0
+                && latency <= config.getResumeLatency();
+    }
+}
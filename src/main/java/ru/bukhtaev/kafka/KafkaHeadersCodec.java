@@ -0,0 +1,97 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Двоичный формат заголовков Kafka-сообщения для их хранения вместе с сообщением.
+ * <p>
+ * Формат содержит количество заголовков, за которым следуют названия заголовков
+ * и их значения с длиной. Отсутствующее значение записывается с длиной {@code -1}.
+ */
+public final class KafkaHeadersCodec {
+
+    /**
+     * Длина, обозначающая отсутствующее значение заголовка.
+     */
+    private static final int NULL_LENGTH = -1;
+
+    private KafkaHeadersCodec() {
+    }
+
+    /**
+     * Преобразует заголовки в двоичный формат.
+     *
+     * @param headers заголовки
+     * @return заголовки в двоичном формате или {@code null}, если заголовков нет
+     */
+    public static byte[] encode(final Headers headers) {
+        if (headers == null) {
+            return null;
+        }
+
+        final Header[] array = headers.toArray();
+        if (array.length == 0) {
+            return null;
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(array.length);
+            for (final Header header : array) {
+                out.writeUTF(header.key());
+                final byte[] value = header.value();
+                if (value == null) {
+                    out.writeInt(NULL_LENGTH);
+                } else {
+                    out.writeInt(value.length);
+                    out.write(value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Преобразует заголовки из двоичного формата.
+     *
+     * @param data заголовки в двоичном формате или {@code null}
+     * @return заголовки, пустые, если данные не заданы
+     * @throws SerializationException если данные не соответствуют формату
+     */
+    public static Headers decode(final byte[] data) {
+        final RecordHeaders headers = new RecordHeaders();
+        if (data == null) {
+            return headers;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final String key = in.readUTF();
+                final int length = in.readInt();
+                if (length == NULL_LENGTH) {
+                    headers.add(key, null);
+                } else {
+                    final byte[] value = new byte[length];
+                    in.readFully(value);
+                    headers.add(key, value);
+                }
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Malformed record headers", e);
+        }
+        return headers;
+    }
+}
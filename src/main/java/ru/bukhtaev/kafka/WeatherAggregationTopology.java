@@ -0,0 +1,143 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.processor.api.ContextualFixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.WindowStore;
+import ru.bukhtaev.config.StreamsConfigParams;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.service.DeadLetterServiceImpl;
+import ru.bukhtaev.util.WeatherEventType;
+import ru.bukhtaev.util.WindowType;
+
+/**
+ * Топология агрегации температуры по городам за временные окна.
+ * <p>
+ * Сообщения топика с данными о погоде группируются по ключу (названию города)
+ * и агрегируются в неперекрывающиеся и скользящие окна. Окна строятся по метке времени
+ * сообщения, а не по времени измерения, поэтому повторно отправленные сообщения
+ * попадают в окно своей повторной отправки. Агрегируются только измерения: сообщения
+ * без типа события и события создания данных о погоде. События изменения и удаления
+ * из журнала исходящих событий, а также повторно отправленные необработанные сообщения,
+ * данные о погоде которых уже были учтены, пропускаются. Агрегаты хранятся в локальных хранилищах
+ * состояния, доступных для запросов.
+ */
+public final class WeatherAggregationTopology {
+
+    /**
+     * Хранилище агрегатов неперекрывающихся окон.
+     */
+    public static final String TUMBLING_STORE = "weather-tumbling-aggregates";
+
+    /**
+     * Хранилище агрегатов скользящих окон.
+     */
+    public static final String HOPPING_STORE = "weather-hopping-aggregates";
+
+    private WeatherAggregationTopology() {
+    }
+
+    /**
+     * Возвращает название хранилища агрегатов окон указанного типа.
+     *
+     * @param windowType тип окна
+     * @return название хранилища
+     */
+    public static String storeName(final WindowType windowType) {
+        return switch (windowType) {
+            case TUMBLING -> TUMBLING_STORE;
+            case HOPPING -> HOPPING_STORE;
+        };
+    }
+
+    /**
+     * Добавляет топологию агрегации в построитель.
+     *
+     * @param builder построитель топологии
+     * @param topic   топик с данными о погоде
+     * @param config  параметры конфигурации потоковой агрегации
+     * @return поток агрегируемых измерений температуры
+     */
+    public static KStream<String, Weather> build(
+            final StreamsBuilder builder,
+            final String topic,
+            final StreamsConfigParams config
+    ) {
+        final Serde<Weather> weatherSerde = Serdes.serdeFrom(
+                new WeatherBinarySerializer(),
+                new WeatherBinaryDeserializer()
+        );
+
+        final KStream<String, Weather> measurements = builder
+                .stream(topic, Consumed.with(Serdes.String(), weatherSerde))
+                .processValues(MeasurementsProcessor::new)
+                .filter((cityName, weather) -> cityName != null
+                        && weather != null
+                        && weather.getTemperature() != null);
+
+        aggregate(
+                measurements,
+                weatherSerde,
+                TimeWindows.ofSizeAndGrace(config.getTumblingSize(), config.getGrace()),
+                TUMBLING_STORE,
+                config
+        );
+        aggregate(
+                measurements,
+                weatherSerde,
+                TimeWindows.ofSizeAndGrace(config.getHoppingSize(), config.getGrace())
+                        .advanceBy(config.getHoppingAdvance()),
+                HOPPING_STORE,
+                config
+        );
+        return measurements;
+    }
+
+    private static void aggregate(
+            final KStream<String, Weather> measurements,
+            final Serde<Weather> weatherSerde,
+            final TimeWindows windows,
+            final String storeName,
+            final StreamsConfigParams config
+    ) {
+        measurements
+                .groupByKey(Grouped.with(Serdes.String(), weatherSerde))
+                .windowedBy(windows)
+                .aggregate(
+                        WeatherWindowAggregate::new,
+                        (cityName, weather, aggregate) -> aggregate.add(weather.getTemperature()),
+                        Materialized.<String, WeatherWindowAggregate, WindowStore<Bytes, byte[]>>as(storeName)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(WeatherWindowAggregate.serde())
+                                .withRetention(config.getRetention())
+                );
+    }
+
+    /**
+     * Обработчик, пропускающий сообщения, которые не являются новыми измерениями:
+     * события изменения и удаления данных о погоде из журнала исходящих событий
+     * и повторно отправленные необработанные сообщения.
+     */
+    private static final class MeasurementsProcessor
+            extends ContextualFixedKeyProcessor<String, Weather, Weather> {
+
+        @Override
+        public void process(final FixedKeyRecord<String, Weather> record) {
+            final Headers headers = record.headers();
+            final boolean measurement = !WeatherOutboxRelay.isChangeEvent(headers)
+                    || WeatherOutboxRelay.eventTypeOf(headers) == WeatherEventType.CREATED;
+            if (measurement && !DeadLetterServiceImpl.isReplayedDeadLetter(headers)) {
+                context().forward(record);
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Компактный версионируемый двоичный формат данных о погоде.
+ * <p>
+ * Сообщение начинается с магического байта и номера версии формата,
+ * за которыми следуют поля в виде {@code (номер поля << 3) | тип кодирования} и значения.
+ * Незаполненные поля не записываются, а неизвестные поля пропускаются при чтении,
+ * поэтому новые поля можно добавлять без изменения версии формата.
+ * ID записываются 16 байтами вместо строкового представления.
+ * <p>
+ * Город и тип погоды записываются только названием, по которому получатель находит запись справочника,
+ * поскольку получатели сопоставляют данные о погоде со справочниками по названиям.
+ * ID города или типа погоды записывается, только если название не задано.
+ */
+public final class WeatherBinaryCodec {
+
+    /**
+     * Магический байт, с которого начинается сообщение.
+     */
+    public static final byte MAGIC = (byte) 0xB7;
+
+    /**
+     * Текущая версия формата.
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Тип кодирования: целое число переменной длины.
+     */
+    static final int WIRE_VARINT = 0;
+
+    /**
+     * Тип кодирования: 8 байт фиксированной длины.
+     */
+    static final int WIRE_FIXED64 = 1;
+
+    /**
+     * Тип кодирования: массив байт с длиной переменной длины.
+     */
+    static final int WIRE_BYTES = 2;
+
+    static final int FIELD_ID = 1;
+    static final int FIELD_CITY_ID = 2;
+    static final int FIELD_CITY_NAME = 3;
+    static final int FIELD_TYPE_ID = 4;
+    static final int FIELD_TYPE_NAME = 5;
+    static final int FIELD_TEMPERATURE = 6;
+    static final int FIELD_EPOCH_SECOND = 7;
+    static final int FIELD_NANO = 8;
+
+    /**
+     * Размер UUID в байтах.
+     */
+    private static final int UUID_SIZE = 16;
+
+    private WeatherBinaryCodec() {
+    }
+
+    /**
+     * Преобразует данные о погоде в двоичный формат.
+     *
+     * @param weather данные о погоде
+     * @return данные о погоде в двоичном формате
+     */
+    public static byte[] encode(final Weather weather) {
+        final Writer writer = new Writer();
+        writer.buffer[writer.position++] = MAGIC;
+        writer.buffer[writer.position++] = VERSION;
+
+        writer.writeUuid(FIELD_ID, weather.getId());
+
+        final City city = weather.getCity();
+        if (city != null) {
+            writer.writeReference(FIELD_CITY_ID, city.getId(), FIELD_CITY_NAME, city.getName());
+        }
+
+        final WeatherType type = weather.getType();
+        if (type != null) {
+            writer.writeReference(FIELD_TYPE_ID, type.getId(), FIELD_TYPE_NAME, type.getName());
+        }
+
+        if (weather.getTemperature() != null) {
+            writer.writeTag(FIELD_TEMPERATURE, WIRE_FIXED64);
+            writer.writeFixed64(Double.doubleToRawLongBits(weather.getTemperature()));
+        }
+
+        final LocalDateTime dateTime = weather.getDateTime();
+        if (dateTime != null) {
+            writer.writeTag(FIELD_EPOCH_SECOND, WIRE_VARINT);
+            writer.writeVarint(zigZag(dateTime.toEpochSecond(ZoneOffset.UTC)));
+            if (dateTime.getNano() != 0) {
+                writer.writeTag(FIELD_NANO, WIRE_VARINT);
+                writer.writeVarint(dateTime.getNano());
+            }
+        }
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * Преобразует данные о погоде из двоичного формата.
+     *
+     * @param data данные о погоде в двоичном формате
+     * @return данные о погоде
+     * @throws SerializationException если данные не соответствуют формату
+     */
+    public static Weather decode(final byte[] data) {
+        if (data.length < 2 || data[0] != MAGIC) {
+            throw new SerializationException("Data is not in weather binary format");
+        }
+        final int version = Byte.toUnsignedInt(data[1]);
+        if (version != VERSION) {
+            throw new SerializationException(MessageFormat.format(
+                    "Unsupported weather binary format version: {0}",
+                    version
+            ));
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(data, 2, data.length - 2);
+        UUID id = null;
+        UUID cityId = null;
+        String cityName = null;
+        UUID typeId = null;
+        String typeName = null;
+        Double temperature = null;
+        Long epochSecond = null;
+        int nano = 0;
+
+        try {
+            while (buffer.hasRemaining()) {
+                final int tag = (int) readVarint(buffer);
+                final int field = tag >>> 3;
+                final int wireType = tag & 0x7;
+
+                switch (field) {
+                    case FIELD_ID -> id = readUuid(buffer, wireType);
+                    case FIELD_CITY_ID -> cityId = readUuid(buffer, wireType);
+                    case FIELD_CITY_NAME -> cityName = readString(buffer, wireType);
+                    case FIELD_TYPE_ID -> typeId = readUuid(buffer, wireType);
+                    case FIELD_TYPE_NAME -> typeName = readString(buffer, wireType);
+                    case FIELD_TEMPERATURE -> {
+                        expectWireType(wireType, WIRE_FIXED64);
+                        temperature = Double.longBitsToDouble(buffer.getLong());
+                    }
+                    case FIELD_EPOCH_SECOND -> {
+                        expectWireType(wireType, WIRE_VARINT);
+                        epochSecond = unZigZag(readVarint(buffer));
+                    }
+                    case FIELD_NANO -> {
+                        expectWireType(wireType, WIRE_VARINT);
+                        nano = (int) readVarint(buffer);
+                    }
+                    default -> skip(buffer, wireType);
+                }
+            }
+        } catch (RuntimeException e) {
+            if (e instanceof SerializationException) {
+                throw e;
+            }
+            throw new SerializationException("Malformed weather binary data", e);
+        }
+
+        return Weather.builder()
+                .id(id)
+                .city(cityId == null && cityName == null ? null : new City(cityId, cityName))
+                .type(typeId == null && typeName == null ? null : new WeatherType(typeId, typeName))
+                .temperature(temperature)
+                .dateTime(epochSecond == null
+                        ? null
+                        : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC))
+                .build();
+    }
+
+    private static void expectWireType(final int actual, final int expected) {
+        if (actual != expected) {
+            throw new SerializationException(MessageFormat.format(
+                    "Unexpected wire type <{0}>, expected <{1}>",
+                    actual,
+                    expected
+            ));
+        }
+    }
+
+    private static UUID readUuid(final ByteBuffer buffer, final int wireType) {
+        expectWireType(wireType, WIRE_BYTES);
+        final int length = (int) readVarint(buffer);
+        if (length != UUID_SIZE) {
+            throw new SerializationException("Invalid UUID length: " + length);
+        }
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static String readString(final ByteBuffer buffer, final int wireType) {
+        expectWireType(wireType, WIRE_BYTES);
+        final int length = (int) readVarint(buffer);
+        final String value = new String(
+                buffer.array(),
+                buffer.arrayOffset() + buffer.position(),
+                length,
+                StandardCharsets.UTF_8
+        );
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void skip(final ByteBuffer buffer, final int wireType) {
+        switch (wireType) {
+            case WIRE_VARINT -> readVarint(buffer);
+            case WIRE_FIXED64 -> buffer.position(buffer.position() + Long.BYTES);
+            case WIRE_BYTES -> {
+                final int length = (int) readVarint(buffer);
+                buffer.position(buffer.position() + length);
+            }
+            default -> throw new SerializationException("Unknown wire type: " + wireType);
+        }
+    }
+
+    private static long readVarint(final ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Буфер для записи сообщения.
+     */
+    private static final class Writer {
+
+        private byte[] buffer = new byte[64];
+
+        private int position;
+
+        void writeTag(final int field, final int wireType) {
+            writeVarint(((long) field << 3) | wireType);
+        }
+
+        void writeUuid(final int field, final UUID value) {
+            if (value == null) {
+                return;
+            }
+            writeTag(field, WIRE_BYTES);
+            writeVarint(UUID_SIZE);
+            writeFixed64(value.getMostSignificantBits());
+            writeFixed64(value.getLeastSignificantBits());
+        }
+
+        /**
+         * Записывает ссылку на запись справочника: название, если оно задано, иначе ID.
+         *
+         * @param idField   номер поля ID
+         * @param id        ID
+         * @param nameField номер поля названия
+         * @param name      название
+         */
+        void writeReference(final int idField, final UUID id, final int nameField, final String name) {
+            if (name != null) {
+                writeString(nameField, name);
+            } else {
+                writeUuid(idField, id);
+            }
+        }
+
+        void writeString(final int field, final String value) {
+            if (value == null) {
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeTag(field, WIRE_BYTES);
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeFixed64(final long value) {
+            ensureCapacity(Long.BYTES);
+            for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import ru.bukhtaev.model.Weather;
+
+import java.util.Map;
+
+/**
+ * Десериализатор данных о погоде из компактного двоичного формата {@link WeatherBinaryCodec}.
+ * Сообщения в формате JSON, отправленные до перехода на двоичный формат,
+ * десериализуются с помощью {@link JsonDeserializer}.
+ */
+public class WeatherBinaryDeserializer implements Deserializer<Weather> {
+
+    /**
+     * Первый байт сообщения в формате JSON.
+     */
+    private static final byte JSON_OBJECT_START = '{';
+
+    /**
+     * Десериализатор сообщений в формате JSON.
+     */
+    private final JsonDeserializer<Weather> jsonDeserializer = new JsonDeserializer<>(Weather.class, false);
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Weather deserialize(final String topic, final byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] == JSON_OBJECT_START) {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        return WeatherBinaryCodec.decode(data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.common.serialization.Serializer;
+import ru.bukhtaev.model.Weather;
+
+/**
+ * Сериализатор данных о погоде в компактный двоичный формат {@link WeatherBinaryCodec}.
+ */
+public class WeatherBinarySerializer implements Serializer<Weather> {
+
+    @Override
+    public byte[] serialize(final String topic, final Weather data) {
+        if (data == null) {
+            return null;
+        }
+        return WeatherBinaryCodec.encode(data);
+    }
+}
@@ -0,0 +1,410 @@
+package ru.bukhtaev.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики обработки сообщений с данными о погоде в разрезе партиций.
+ */
+@Component
+public class WeatherConsumerMetrics {
+
+    /**
+     * Название метрики отставания обработки партиции от последнего сообщения в ней.
+     */
+    public static final String METRIC_LAG = "weather.consumer.lag";
+
+    /**
+     * Название метрики времени обработки сообщения.
+     */
+    public static final String METRIC_PROCESSING = "weather.consumer.processing";
+
+    /**
+     * Название метрики количества повторных попыток обработки сообщений.
+     */
+    public static final String METRIC_RETRIES = "weather.ingestion.retries";
+
+    /**
+     * Название метрики количества сообщений, обработка которых не удалась после всех попыток.
+     */
+    public static final String METRIC_DEAD_LETTERS = "weather.ingestion.dead-letters";
+
+    /**
+     * Название метрики количества повторно отправленных необработанных сообщений.
+     */
+    public static final String METRIC_REPLAYS = "weather.ingestion.replays";
+
+    /**
+     * Название метрики времени сохранения данных о погоде в базу данных.
+     */
+    public static final String METRIC_PERSIST = "weather.consumer.persist";
+
+    /**
+     * Название метрики количества приостановок получения сообщений из-за нагрузки на базу данных.
+     */
+    public static final String METRIC_PAUSES = "weather.consumer.backpressure.pauses";
+
+    /**
+     * Название метрики количества возобновлений получения сообщений.
+     */
+    public static final String METRIC_RESUMES = "weather.consumer.backpressure.resumes";
+
+    /**
+     * Название метрики признака приостановки получения сообщений.
+     */
+    public static final String METRIC_PAUSED = "weather.consumer.backpressure.paused";
+
+    /**
+     * Название метрики количества сообщений, обработанных при повторном чтении истории топика.
+     */
+    public static final String METRIC_BACKFILL_RECORDS = "weather.backfill.records";
+
+    /**
+     * Название метрики количества проверок наличия полученных данных о погоде в базе данных.
+     */
+    public static final String METRIC_DEDUPE_CHECKS = "weather.consumer.dedupe.checks";
+
+    /**
+     * Название метрики доли проверок наличия данных о погоде, пропущенных благодаря фильтру дубликатов.
+     */
+    public static final String METRIC_DEDUPE_SKIP_RATIO = "weather.consumer.dedupe.skip-ratio";
+
+    /**
+     * Название метрики объема памяти, занимаемого фильтром дубликатов.
+     */
+    public static final String METRIC_DEDUPE_FILTER_BYTES = "weather.consumer.dedupe.filter.bytes";
+
+    /**
+     * Процентиль времени сохранения, по которому оценивается нагрузка на базу данных.
+     */
+    private static final double PERSIST_PERCENTILE = 0.99;
+
+    /**
+     * Период, за который учитывается время сохранения.
+     * Короткий период позволяет быстро заметить как замедление базы данных, так и его окончание.
+     */
+    private static final Duration PERSIST_STATISTIC_EXPIRY = Duration.ofSeconds(30);
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Счетчик сообщений, обработка которых не удалась после всех попыток.
+     */
+    private final Counter deadLetters;
+
+    /**
+     * Счетчик повторно отправленных необработанных сообщений.
+     */
+    private final Counter replays;
+
+    /**
+     * Метрика времени сохранения данных о погоде в базу данных.
+     */
+    private final Timer persistTimer;
+
+    /**
+     * Счетчик приостановок получения сообщений.
+     */
+    private final Counter pauses;
+
+    /**
+     * Счетчик возобновлений получения сообщений.
+     */
+    private final Counter resumes;
+
+    /**
+     * Счетчик записей о погоде, созданных при повторном чтении истории топика.
+     */
+    private final Counter backfillInserted;
+
+    /**
+     * Счетчик записей о погоде, измененных при повторном чтении истории топика.
+     */
+    private final Counter backfillUpdated;
+
+    /**
+     * Счетчик записей о погоде, удаленных при повторном чтении истории топика.
+     */
+    private final Counter backfillDeleted;
+
+    /**
+     * Счетчик сообщений, пропущенных при повторном чтении истории топика.
+     */
+    private final Counter backfillSkipped;
+
+    /**
+     * Счетчик проверок наличия данных о погоде в базе данных, пропущенных благодаря фильтру дубликатов.
+     */
+    private final Counter dedupeSkipped;
+
+    /**
+     * Счетчик выполненных проверок наличия данных о погоде в базе данных.
+     */
+    private final Counter dedupeVerified;
+
+    /**
+     * Признак приостановки получения сообщений: 1, если получение приостановлено, иначе 0.
+     */
+    private final AtomicInteger paused = new AtomicInteger();
+
+    /**
+     * Последние известные значения отставания по партициям.
+     */
+    private final Map<TopicPartition, AtomicLong> lags = new ConcurrentHashMap<>();
+
+    /**
+     * Метрики отставания по партициям.
+     */
+    private final Map<TopicPartition, Gauge> lagGauges = new ConcurrentHashMap<>();
+
+    /**
+     * Метрики времени обработки сообщений по партициям.
+     */
+    private final Map<TopicPartition, Timer> processingTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор.
+     *
+     * @param meterRegistry реестр метрик
+     */
+    public WeatherConsumerMetrics(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.deadLetters = Counter.builder(METRIC_DEAD_LETTERS)
+                .description("Weather records that failed all processing attempts")
+                .register(meterRegistry);
+        this.replays = Counter.builder(METRIC_REPLAYS)
+                .description("Dead-lettered weather records sent back to the main topic")
+                .register(meterRegistry);
+        this.persistTimer = Timer.builder(METRIC_PERSIST)
+                .description("Time to persist a consumed weather record")
+                .publishPercentiles(PERSIST_PERCENTILE)
+                .distributionStatisticExpiry(PERSIST_STATISTIC_EXPIRY)
+                .register(meterRegistry);
+        this.pauses = Counter.builder(METRIC_PAUSES)
+                .description("Times weather consumption was paused to relieve the database")
+                .register(meterRegistry);
+        this.resumes = Counter.builder(METRIC_RESUMES)
+                .description("Times weather consumption was resumed")
+                .register(meterRegistry);
+        this.backfillInserted = Counter.builder(METRIC_BACKFILL_RECORDS)
+                .description("Weather records replayed from the topic history")
+                .tag("result", "inserted")
+                .register(meterRegistry);
+        this.backfillUpdated = Counter.builder(METRIC_BACKFILL_RECORDS)
+                .description("Weather records replayed from the topic history")
+                .tag("result", "updated")
+                .register(meterRegistry);
+        this.backfillDeleted = Counter.builder(METRIC_BACKFILL_RECORDS)
+                .description("Weather records replayed from the topic history")
+                .tag("result", "deleted")
+                .register(meterRegistry);
+        this.backfillSkipped = Counter.builder(METRIC_BACKFILL_RECORDS)
+                .description("Weather records replayed from the topic history")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        this.dedupeSkipped = Counter.builder(METRIC_DEDUPE_CHECKS)
+                .description("Duplicate lookups for consumed weather records")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        this.dedupeVerified = Counter.builder(METRIC_DEDUPE_CHECKS)
+                .description("Duplicate lookups for consumed weather records")
+                .tag("result", "verified")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PAUSED, paused, AtomicInteger::get)
+                .description("Whether weather consumption is currently paused")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_DEDUPE_SKIP_RATIO, this, WeatherConsumerMetrics::dedupeSkipRatio)
+                .description("Share of duplicate lookups skipped by the duplicate filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Учитывает повторную попытку обработки сообщения из топика повторных попыток.
+     *
+     * @param topic топик повторных попыток
+     */
+    public void recordRetry(final String topic) {
+        meterRegistry.counter(METRIC_RETRIES, "topic", topic).increment();
+    }
+
+    /**
+     * Учитывает сообщение, обработка которого не удалась после всех попыток.
+     */
+    public void recordDeadLetter() {
+        deadLetters.increment();
+    }
+
+    /**
+     * Учитывает повторно отправленное необработанное сообщение.
+     */
+    public void recordReplay() {
+        replays.increment();
+    }
+
+    /**
+     * Возвращает метрику времени сохранения данных о погоде в базу данных.
+     *
+     * @return метрику времени сохранения данных о погоде в базу данных
+     */
+    public Timer persistTimer() {
+        return persistTimer;
+    }
+
+    /**
+     * Возвращает 99-й процентиль времени сохранения данных о погоде
+     * за последний период в миллисекундах.
+     *
+     * @return 99-й процентиль времени сохранения в миллисекундах
+     */
+    public double persistLatencyP99Millis() {
+        for (final ValueAtPercentile value : persistTimer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == PERSIST_PERCENTILE) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Учитывает приостановку получения сообщений.
+     */
+    public void recordPause() {
+        pauses.increment();
+        paused.set(1);
+    }
+
+    /**
+     * Учитывает возобновление получения сообщений.
+     */
+    public void recordResume() {
+        resumes.increment();
+        paused.set(0);
+    }
+
+    /**
+     * Учитывает пакет сообщений, обработанный при повторном чтении истории топика.
+     *
+     * @param inserted количество созданных записей о погоде
+     * @param updated  количество измененных записей о погоде
+     * @param deleted  количество удаленных записей о погоде
+     * @param skipped  количество пропущенных сообщений
+     */
+    public void recordBackfill(
+            final long inserted,
+            final long updated,
+            final long deleted,
+            final long skipped
+    ) {
+        backfillInserted.increment(inserted);
+        backfillUpdated.increment(updated);
+        backfillDeleted.increment(deleted);
+        backfillSkipped.increment(skipped);
+    }
+
+    /**
+     * Учитывает проверку наличия полученных данных о погоде в базе данных.
+     *
+     * @param skipped {@code true}, если проверка пропущена благодаря фильтру дубликатов
+     */
+    public void recordDedupeCheck(final boolean skipped) {
+        if (skipped) {
+            dedupeSkipped.increment();
+        } else {
+            dedupeVerified.increment();
+        }
+    }
+
+    /**
+     * Регистрирует метрику объема памяти, занимаемого фильтром дубликатов.
+     *
+     * @param filter      фильтр дубликатов
+     * @param sizeInBytes функция, возвращающая объем памяти, занимаемый фильтром, в байтах
+     * @param <T>         тип фильтра дубликатов
+     */
+    public <T> void registerDuplicateFilter(final T filter, final ToDoubleFunction<T> sizeInBytes) {
+        Gauge.builder(METRIC_DEDUPE_FILTER_BYTES, filter, sizeInBytes)
+                .description("Memory used by the weather duplicate filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Сохраняет отставание обработки партиции.
+     *
+     * @param partition партиция
+     * @param lag       количество необработанных сообщений в партиции
+     */
+    public void recordLag(final TopicPartition partition, final long lag) {
+        lags.computeIfAbsent(partition, key -> {
+            final AtomicLong value = new AtomicLong();
+            lagGauges.put(key, Gauge.builder(METRIC_LAG, value, AtomicLong::get)
+                    .description("Number of records in the partition not yet processed by this consumer")
+                    .tags(tags(key))
+                    .register(meterRegistry));
+            return value;
+        }).set(lag);
+    }
+
+    /**
+     * Возвращает метрику времени обработки сообщений партиции.
+     *
+     * @param partition партиция
+     * @return метрику времени обработки сообщений партиции
+     */
+    public Timer processingTimer(final TopicPartition partition) {
+        return processingTimers.computeIfAbsent(partition, key -> Timer.builder(METRIC_PROCESSING)
+                .description("Weather record processing time")
+                .tags(tags(key))
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Удаляет метрики партиций, которые больше не обрабатываются этим экземпляром приложения.
+     *
+     * @param partitions партиции
+     */
+    public void remove(final Collection<TopicPartition> partitions) {
+        for (final TopicPartition partition : partitions) {
+            lags.remove(partition);
+            final Gauge gauge = lagGauges.remove(partition);
+            if (gauge != null) {
+                meterRegistry.remove(gauge);
+            }
+            final Timer timer = processingTimers.remove(partition);
+            if (timer != null) {
+                meterRegistry.remove(timer);
+            }
+        }
+    }
+
+    private double dedupeSkipRatio() {
+        final double total = dedupeSkipped.count() + dedupeVerified.count();
+        return total == 0 ? 0 : dedupeSkipped.count() / total;
+    }
+
+    private static Tags tags(final TopicPartition partition) {
+        return Tags.of(
+                "topic", partition.topic(),
+                "partition", String.valueOf(partition.partition())
+        );
+    }
+}
@@ -0,0 +1,223 @@
+package ru.bukhtaev.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.OutboxConfigParams;
+import ru.bukhtaev.model.OutboxEvent;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.repository.jdbc.OutboxEventJdbcRepository;
+import ru.bukhtaev.service.SchedulerCoordinator;
+import ru.bukhtaev.util.WeatherEventType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Сервис отправки исходящих событий изменения данных о погоде в Kafka-топик.
+ * События отправляются пакетами в порядке их создания: все сообщения пакета
+ * передаются производителю без ожидания, что позволяет ему объединять их
+ * в пакеты запросов к брокеру, после чего подтверждения ожидаются разом.
+ * Событие удаляется только после подтверждения его отправки.
+ * Из нескольких экземпляров приложения события отправляет только один,
+ * чтобы порядок событий в топике не нарушался.
+ * <p>
+ * События отправляются в порядке порядковых номеров, которые назначаются при добавлении события,
+ * а не при фиксации транзакции. Поэтому порядок событий одной записи о погоде, изменённой
+ * одновременными транзакциями, не гарантируется: событие транзакции, зафиксированной позже,
+ * может быть отправлено раньше. Получатели не должны полагаться на порядок таких событий.
+ * <p>
+ * События отправляются в основной топик с данными о погоде и отмечаются заголовком
+ * {@link #HEADER_EVENT_TYPE}; сервис сохранения полученных данных о погоде такие сообщения пропускает.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+        prefix = "weather.outbox",
+        name = "relay-enabled",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class WeatherOutboxRelay {
+
+    /**
+     * Название заголовка сообщения с типом события.
+     */
+    public static final String HEADER_EVENT_TYPE = "weather-event-type";
+
+    /**
+     * Репозиторий исходящих событий.
+     */
+    private final OutboxEventJdbcRepository repository;
+
+    /**
+     * Сервис для отправки сообщений.
+     */
+    private final KafkaTemplate<String, Weather> kafkaTemplate;
+
+    /**
+     * Параметры конфигурации отправки исходящих событий.
+     */
+    private final OutboxConfigParams outboxConfig;
+
+    /**
+     * Сервис согласования задач по расписанию между экземплярами приложения.
+     */
+    private final SchedulerCoordinator coordinator;
+
+    /**
+     * Конструктор.
+     *
+     * @param repository    репозиторий исходящих событий
+     * @param kafkaTemplate сервис для отправки сообщений
+     * @param outboxConfig  параметры конфигурации отправки исходящих событий
+     * @param coordinator   сервис согласования задач по расписанию между экземплярами приложения
+     */
+    public WeatherOutboxRelay(
+            final OutboxEventJdbcRepository repository,
+            final KafkaTemplate<String, Weather> kafkaTemplate,
+            final OutboxConfigParams outboxConfig,
+            final SchedulerCoordinator coordinator
+    ) {
+        this.repository = repository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.outboxConfig = outboxConfig;
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Возвращает {@code true}, если заголовки сообщения содержат тип события,
+     * то есть сообщение отправлено из журнала исходящих событий.
+     *
+     * @param headers заголовки сообщения
+     * @return {@code true}, если сообщение является событием изменения данных о погоде
+     */
+    public static boolean isChangeEvent(final Headers headers) {
+        return headers.lastHeader(HEADER_EVENT_TYPE) != null;
+    }
+
+    /**
+     * Возвращает {@code true}, если заголовки сообщения содержат тип события удаления данных о погоде.
+     *
+     * @param headers заголовки сообщения
+     * @return {@code true}, если сообщение является событием удаления данных о погоде
+     */
+    public static boolean isDeletion(final Headers headers) {
+        return eventTypeOf(headers) == WeatherEventType.DELETED;
+    }
+
+    /**
+     * Возвращает тип события изменения данных о погоде из заголовков сообщения.
+     *
+     * @param headers заголовки сообщения
+     * @return тип события или {@code null}, если сообщение не является событием
+     * изменения данных о погоде или тип события неизвестен
+     */
+    public static WeatherEventType eventTypeOf(final Headers headers) {
+        final var header = headers.lastHeader(HEADER_EVENT_TYPE);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+
+        final String name = new String(header.value(), StandardCharsets.UTF_8);
+        for (final WeatherEventType type : WeatherEventType.values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Отправляет накопленные события пакетами, пока они не закончатся
+     * или пока отправка одного из них не завершится ошибкой.
+     */
+    @Scheduled(fixedDelayString = "${weather.outbox.relay-interval:1000}")
+    void relay() {
+        if (!coordinator.tryLead(SchedulerCoordinator.TASK_OUTBOX_RELAY)) {
+            return;
+        }
+
+        final int batchSize = outboxConfig.getBatchSize();
+        List<OutboxEvent> batch;
+        do {
+            batch = repository.findFirst(batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            final List<Long> sentIds = send(batch);
+            repository.deleteAllByIds(sentIds);
+            log.debug("{} outbox events were published", sentIds.size());
+
+            if (sentIds.size() < batch.size()) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Отправляет пакет событий и возвращает порядковые номера событий,
+     * отправка которых подтверждена до первой ошибки.
+     * События после первой ошибки остаются в журнале и будут отправлены повторно,
+     * чтобы порядок событий в топике не нарушался.
+     *
+     * @param batch пакет событий
+     * @return порядковые номера отправленных событий
+     */
+    private List<Long> send(final List<OutboxEvent> batch) {
+        final List<CompletableFuture<SendResult<String, Weather>>> futures = new ArrayList<>(batch.size());
+        for (final OutboxEvent event : batch) {
+            futures.add(kafkaTemplate.send(toRecord(event)));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(outboxConfig.getSendTimeout());
+        final List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn(
+                        "Failed to publish outbox event <{}>, it will be retried: {}",
+                        batch.get(i).getId(),
+                        e.getMessage()
+                );
+                break;
+            }
+        }
+        return sentIds;
+    }
+
+    /**
+     * Возвращает сообщение для отправки события в топик по умолчанию.
+     *
+     * @param event событие
+     * @return сообщение
+     */
+    private ProducerRecord<String, Weather> toRecord(final OutboxEvent event) {
+        final var record = new ProducerRecord<String, Weather>(
+                kafkaTemplate.getDefaultTopic(),
+                event.getKey(),
+                WeatherBinaryCodec.decode(event.getPayload())
+        );
+        record.headers().add(
+                HEADER_EVENT_TYPE,
+                event.getEventType().name().getBytes(StandardCharsets.UTF_8)
+        );
+        return record;
+    }
+}
@@ -0,0 +1,158 @@
+package ru.bukhtaev.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.repository.jdbc.ConsumerOffsetJdbcRepository;
+import ru.bukhtaev.service.WeatherCache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обработчик перераспределения партиций топика с данными о погоде.
+ * Запоминает, какие города были получены из каждой партиции, и при отзыве партиции
+ * удаляет данные о погоде этих городов из локального кэша, так как новые данные о них
+ * теперь сохраняет другой экземпляр приложения.
+ * <p>
+ * В режиме обработки ровно один раз при назначении партиции переходит к смещению,
+ * сохраненному в базе данных вместе с данными о погоде, если оно опережает
+ * смещение, зафиксированное в Kafka. Это происходит, если приложение остановилось
+ * после сохранения данных, но до фиксации смещения в Kafka.
+ */
+@Slf4j
+@Component
+public class WeatherRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    /**
+     * Сервис, предоставляющий LRU-кэш для данных о погоде.
+     */
+    private final WeatherCache cache;
+
+    /**
+     * Метрики обработки сообщений с данными о погоде.
+     */
+    private final WeatherConsumerMetrics metrics;
+
+    /**
+     * Репозиторий смещений обработанных сообщений.
+     */
+    private final ConsumerOffsetJdbcRepository offsetRepository;
+
+    /**
+     * Параметры конфигурации Kafka-топика и его обработки.
+     */
+    private final KafkaConfigParams kafkaConfig;
+
+    /**
+     * Названия городов, полученных из каждой партиции.
+     */
+    private final Map<TopicPartition, Set<String>> citiesByPartition = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор.
+     *
+     * @param cache            сервис, предоставляющий LRU-кэш для данных о погоде
+     * @param metrics          метрики обработки сообщений с данными о погоде
+     * @param offsetRepository репозиторий смещений обработанных сообщений
+     * @param kafkaConfig      параметры конфигурации Kafka-топика и его обработки
+     */
+    public WeatherRebalanceListener(
+            final WeatherCache cache,
+            final WeatherConsumerMetrics metrics,
+            final ConsumerOffsetJdbcRepository offsetRepository,
+            final KafkaConfigParams kafkaConfig
+    ) {
+        this.cache = cache;
+        this.metrics = metrics;
+        this.offsetRepository = offsetRepository;
+        this.kafkaConfig = kafkaConfig;
+    }
+
+    /**
+     * Запоминает, что данные о погоде указанного города получены из указанной партиции.
+     *
+     * @param partition партиция
+     * @param cityName  название города
+     */
+    public void track(final TopicPartition partition, final String cityName) {
+        citiesByPartition.computeIfAbsent(partition, key -> ConcurrentHashMap.newKeySet())
+                .add(cityName);
+    }
+
+    @Override
+    public void onPartitionsAssigned(
+            final Consumer<?, ?> consumer,
+            final Collection<TopicPartition> partitions
+    ) {
+        log.info("Partitions assigned: {}", partitions);
+        if (kafkaConfig.isExactlyOnce() && !partitions.isEmpty()) {
+            seekToStoredOffsets(consumer, partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(
+            final Consumer<?, ?> consumer,
+            final Collection<TopicPartition> partitions
+    ) {
+        log.info("Partitions revoked: {}", partitions);
+        release(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(
+            final Consumer<?, ?> consumer,
+            final Collection<TopicPartition> partitions
+    ) {
+        log.warn("Partitions lost: {}", partitions);
+        release(partitions);
+    }
+
+    /**
+     * Переходит к смещениям, сохраненным в базе данных, в партициях,
+     * где они опережают текущую позицию получателя.
+     *
+     * @param consumer   получатель сообщений
+     * @param partitions назначенные партиции
+     */
+    private void seekToStoredOffsets(
+            final Consumer<?, ?> consumer,
+            final Collection<TopicPartition> partitions
+    ) {
+        final Map<TopicPartition, Long> stored = offsetRepository.findAllByGroup(
+                consumer.groupMetadata().groupId()
+        );
+        for (final TopicPartition partition : partitions) {
+            final Long offset = stored.get(partition);
+            if (offset != null && offset > consumer.position(partition)) {
+                log.warn(
+                        "Partition {} was processed up to offset {} before the offset was committed, seeking",
+                        partition,
+                        offset
+                );
+                consumer.seek(partition, offset);
+            }
+        }
+    }
+
+    /**
+     * Освобождает состояние, относящееся к партициям, которые больше не обрабатываются.
+     *
+     * @param partitions партиции
+     */
+    private void release(final Collection<TopicPartition> partitions) {
+        for (final TopicPartition partition : partitions) {
+            final Set<String> cities = citiesByPartition.remove(partition);
+            if (cities != null) {
+                cities.forEach(cache::evict);
+            }
+        }
+        metrics.remove(partitions);
+    }
+}
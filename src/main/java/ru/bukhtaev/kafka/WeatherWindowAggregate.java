@@ -0,0 +1,96 @@
+package ru.bukhtaev.kafka;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Агрегированная температура города за временное окно.
+ */
+@Getter
+@NoArgsConstructor
+public class WeatherWindowAggregate {
+
+    /**
+     * Размер агрегата в двоичном формате.
+     */
+    private static final int SIZE = Long.BYTES + 3 * Double.BYTES;
+
+    /**
+     * Количество измерений.
+     */
+    private long count;
+
+    /**
+     * Сумма температур.
+     */
+    private double sum;
+
+    /**
+     * Минимальная температура.
+     */
+    private double min = Double.POSITIVE_INFINITY;
+
+    /**
+     * Максимальная температура.
+     */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Учитывает измерение температуры.
+     *
+     * @param temperature температура
+     * @return этот же объект
+     */
+    public WeatherWindowAggregate add(final double temperature) {
+        count++;
+        sum += temperature;
+        min = Math.min(min, temperature);
+        max = Math.max(max, temperature);
+        return this;
+    }
+
+    /**
+     * Возвращает среднюю температуру.
+     *
+     * @return среднюю температуру
+     */
+    public double getAverage() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Возвращает объект для преобразования агрегатов в двоичный формат фиксированного размера и обратно.
+     *
+     * @return объект для преобразования агрегатов
+     */
+    public static Serde<WeatherWindowAggregate> serde() {
+        return Serdes.serdeFrom(
+                (topic, aggregate) -> aggregate == null ? null : ByteBuffer.allocate(SIZE)
+                        .putLong(aggregate.count)
+                        .putDouble(aggregate.sum)
+                        .putDouble(aggregate.min)
+                        .putDouble(aggregate.max)
+                        .array(),
+                (topic, data) -> {
+                    if (data == null) {
+                        return null;
+                    }
+                    if (data.length != SIZE) {
+                        throw new SerializationException("Invalid weather window aggregate length: " + data.length);
+                    }
+                    final ByteBuffer buffer = ByteBuffer.wrap(data);
+                    final WeatherWindowAggregate aggregate = new WeatherWindowAggregate();
+                    aggregate.count = buffer.getLong();
+                    aggregate.sum = buffer.getDouble();
+                    aggregate.min = buffer.getDouble();
+                    aggregate.max = buffer.getDouble();
+                    return aggregate;
+                }
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package ru.bukhtaev.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Сообщение с данными о погоде, обработка которого
+ * не удалась после всех повторных попыток.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "dead_letter")
+@NoArgsConstructor
+public class DeadLetter extends BaseEntity {
+
+    /**
+     * Название поля, хранящего дату и время создания.
+     */
+    public static final String FIELD_CREATED_AT = "createdAt";
+
+    /**
+     * Топик, из которого было получено сообщение.
+     */
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    /**
+     * Партиция, из которой было получено сообщение.
+     */
+    @Column(name = "partition_number", nullable = false)
+    private Integer partition;
+
+    /**
+     * Смещение сообщения в партиции.
+     */
+    @Column(name = "record_offset", nullable = false)
+    private Long offset;
+
+    /**
+     * Ключ сообщения.
+     */
+    @Column(name = "record_key")
+    private String key;
+
+    /**
+     * Данные о погоде в двоичном формате.
+     */
+    @Column(name = "payload")
+    private byte[] payload;
+
+    /**
+     * Заголовки сообщения в двоичном формате.
+     */
+    @Column(name = "record_headers")
+    private byte[] headers;
+
+    /**
+     * Сообщение об ошибке обработки.
+     */
+    @Column(name = "error_message", length = 1024)
+    private String errorMessage;
+
+    /**
+     * Дата и время создания.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата и время последней повторной отправки в топик.
+     */
+    @Column(name = "replayed_at")
+    private LocalDateTime replayedAt;
+
+    /**
+     * Конструктор.
+     *
+     * @param id           ID
+     * @param topic        топик, из которого было получено сообщение
+     * @param partition    партиция, из которой было получено сообщение
+     * @param offset       смещение сообщения в партиции
+     * @param key          ключ сообщения
+     * @param payload      данные о погоде в двоичном формате
+     * @param headers      заголовки сообщения в двоичном формате
+     * @param errorMessage сообщение об ошибке обработки
+     * @param createdAt    дата и время создания
+     * @param replayedAt   дата и время последней повторной отправки в топик
+     */
+    @Builder
+    public DeadLetter(
+            final UUID id,
+            final String topic,
+            final Integer partition,
+            final Long offset,
+            final String key,
+            final byte[] payload,
+            final byte[] headers,
+            final String errorMessage,
+            final LocalDateTime createdAt,
+            final LocalDateTime replayedAt
+    ) {
+        super(id);
+        this.topic = topic;
+        this.partition = partition;
+        this.offset = offset;
+        this.key = key;
+        this.payload = payload;
+        this.headers = headers;
+        this.errorMessage = errorMessage;
+        this.createdAt = createdAt;
+        this.replayedAt = replayedAt;
+    }
+}
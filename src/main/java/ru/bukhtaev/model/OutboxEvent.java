@@ -0,0 +1,90 @@
+package ru.bukhtaev.model;
+
+import jakarta.persistence.*;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.bukhtaev.util.WeatherEventType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Исходящее событие изменения данных о погоде,
+ * ожидающее отправки в Kafka-топик.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "weather_outbox")
+@NoArgsConstructor
+public class OutboxEvent {
+
+    /**
+     * Порядковый номер события.
+     * События отправляются в порядке возрастания порядкового номера.
+     */
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Тип события.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private WeatherEventType eventType;
+
+    /**
+     * ID записи о погоде.
+     */
+    @Column(name = "weather_id", nullable = false)
+    private UUID weatherId;
+
+    /**
+     * Ключ сообщения.
+     */
+    @Column(name = "record_key")
+    private String key;
+
+    /**
+     * Данные о погоде в двоичном формате.
+     */
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    /**
+     * Дата и время создания.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Конструктор.
+     *
+     * @param id        порядковый номер события
+     * @param eventType тип события
+     * @param weatherId ID записи о погоде
+     * @param key       ключ сообщения
+     * @param payload   данные о погоде в двоичном формате
+     * @param createdAt дата и время создания
+     */
+    @Builder
+    public OutboxEvent(
+            final Long id,
+            final WeatherEventType eventType,
+            final UUID weatherId,
+            final String key,
+            final byte[] payload,
+            final LocalDateTime createdAt
+    ) {
+        this.id = id;
+        this.eventType = eventType;
+        this.weatherId = weatherId;
+        this.key = key;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
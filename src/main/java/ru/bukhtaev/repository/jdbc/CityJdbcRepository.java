@@ -3,7 +3,9 @@ package ru.bukhtaev.repository.jdbc;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
 import ru.bukhtaev.model.City;
 
@@ -77,7 +79,16 @@ public class CityJdbcRepository {
      */
     private static final String INSERT = """
             INSERT INTO city(id, name)
-            VALUES (RANDOM_UUID(), :name)
+            VALUES (:id, :name)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для получения городов по названиям.
+     */
+    private static final String SELECT_ALL_BY_NAMES = """
+            SELECT *
+            FROM city
+            WHERE name IN (:names)
             """;
 
     /**
@@ -94,6 +105,11 @@ public class CityJdbcRepository {
      */
     public static final String PARAM_NAME = "name";
 
+    /**
+     * Название параметра для передачи названий.
+     */
+    private static final String PARAM_NAMES = "names";
+
     /**
      * Название параметра для передачи ID.
      */
@@ -163,23 +179,64 @@ public class CityJdbcRepository {
 
     /**
      * Создает город.
+     * ID генерируется на стороне приложения, поэтому созданная запись не перечитывается.
      *
      * @param city город
      * @return созданный город
      */
     public City create(final City city) {
+        final UUID id = UUID.randomUUID();
         jdbcTemplate.update(
                 INSERT,
-                Map.of(PARAM_NAME, city.getName())
+                Map.of(
+                        PARAM_ID, id,
+                        PARAM_NAME, city.getName()
+                )
         );
+        return new City(id, city.getName());
+    }
 
-        return jdbcTemplate.queryForObject(
-                SELECT_BY_NAME,
-                Map.of(PARAM_NAME, city.getName()),
+    /**
+     * Возвращает города с указанными названиями одним запросом.
+     *
+     * @param names названия
+     * @return найденные города в произвольном порядке
+     */
+    public List<City> findAllByNames(final Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(
+                SELECT_ALL_BY_NAMES,
+                Map.of(PARAM_NAMES, names),
                 MAPPER
         );
     }
 
+    /**
+     * Создает пакетом города с указанными названиями.
+     *
+     * @param names названия, которых ещё нет в базе данных
+     * @return созданные города в порядке следования названий
+     */
+    public List<City> createAll(final Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+
+        final List<City> created = names.stream()
+                .map(name -> new City(UUID.randomUUID(), name))
+                .toList();
+        final SqlParameterSource[] batchParams = created.stream()
+                .map(city -> new MapSqlParameterSource()
+                        .addValue(PARAM_ID, city.getId())
+                        .addValue(PARAM_NAME, city.getName()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT, batchParams);
+        return created;
+    }
+
     /**
      * Изменяет город с указанным ID.
      *
@@ -195,12 +252,7 @@ public class CityJdbcRepository {
                         PARAM_NAME, city.getName()
                 )
         );
-
-        return jdbcTemplate.queryForObject(
-                SELECT_BY_NAME,
-                Map.of(PARAM_NAME, city.getName()),
-                MAPPER
-        );
+        return new City(id, city.getName());
     }
 
     /**
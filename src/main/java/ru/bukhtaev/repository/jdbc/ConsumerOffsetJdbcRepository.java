@@ -0,0 +1,108 @@
+package ru.bukhtaev.repository.jdbc;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC-репозиторий смещений обработанных сообщений Kafka-топиков.
+ * Смещение сохраняется в текущей транзакции вместе с результатом обработки сообщения,
+ * поэтому после сбоя обработка продолжается ровно с первого необработанного сообщения.
+ */
+@Repository
+public class ConsumerOffsetJdbcRepository {
+
+    /**
+     * Шаблон SQL-запроса для изменения смещения.
+     */
+    private static final String UPDATE = """
+            UPDATE kafka_consumer_offset
+            SET next_offset = :nextOffset,
+                updated_at = :updatedAt
+            WHERE consumer_group = :group
+            AND topic = :topic
+            AND partition_number = :partition
+            """;
+
+    /**
+     * Шаблон SQL-запроса для добавления смещения.
+     */
+    private static final String INSERT = """
+            INSERT INTO kafka_consumer_offset(consumer_group, topic, partition_number, next_offset, updated_at)
+            VALUES (:group, :topic, :partition, :nextOffset, :updatedAt)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для получения всех смещений группы получателей.
+     */
+    private static final String SELECT_ALL_BY_GROUP = """
+            SELECT topic, partition_number, next_offset
+            FROM kafka_consumer_offset
+            WHERE consumer_group = :group
+            """;
+
+    /**
+     * Объект для выполнения SQL-запросов с использованием именованных параметров.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор.
+     *
+     * @param jdbcTemplate объект для выполнения SQL-запросов
+     */
+    @Autowired
+    public ConsumerOffsetJdbcRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Сохраняет смещение следующего сообщения для обработки в партиции.
+     * Партицию обрабатывает только один получатель группы,
+     * поэтому одновременное добавление одного смещения невозможно.
+     *
+     * @param group      группа получателей
+     * @param partition  партиция
+     * @param nextOffset смещение следующего сообщения для обработки
+     */
+    public void save(final String group, final TopicPartition partition, final long nextOffset) {
+        final Map<String, Object> params = Map.of(
+                "group", group,
+                "topic", partition.topic(),
+                "partition", partition.partition(),
+                "nextOffset", nextOffset,
+                "updatedAt", LocalDateTime.now()
+        );
+
+        if (jdbcTemplate.update(UPDATE, params) == 0) {
+            jdbcTemplate.update(INSERT, params);
+        }
+    }
+
+    /**
+     * Возвращает смещения следующих сообщений для обработки во всех партициях,
+     * обработанных группой получателей.
+     *
+     * @param group группа получателей
+     * @return смещения следующих сообщений для обработки по партициям
+     */
+    public Map<TopicPartition, Long> findAllByGroup(final String group) {
+        final Map<TopicPartition, Long> offsets = new HashMap<>();
+        jdbcTemplate.query(
+                SELECT_ALL_BY_GROUP,
+                Map.of("group", group),
+                rs -> {
+                    offsets.put(
+                            new TopicPartition(rs.getString("topic"), rs.getInt("partition_number")),
+                            rs.getLong("next_offset")
+                    );
+                }
+        );
+        return offsets;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.bukhtaev.repository.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.bukhtaev.model.OutboxEvent;
+import ru.bukhtaev.util.WeatherEventType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC-репозиторий исходящих событий изменения данных о погоде.
+ * Выполняет запросы в текущей транзакции, поэтому событие сохраняется
+ * атомарно с изменением данных о погоде, которое его вызвало,
+ * независимо от того, каким способом (JPA или JDBC) выполнено изменение.
+ */
+@Repository
+public class OutboxEventJdbcRepository {
+
+    /**
+     * Маппер для объектов типа {@link OutboxEvent}.
+     */
+    private static final RowMapper<OutboxEvent> MAPPER = (rs, rowNum) -> OutboxEvent.builder()
+            .id(rs.getLong("id"))
+            .eventType(WeatherEventType.valueOf(rs.getString("event_type")))
+            .weatherId(UUID.fromString(rs.getString("weather_id")))
+            .key(rs.getString("record_key"))
+            .payload(rs.getBytes("payload"))
+            .createdAt(rs.getObject("created_at", LocalDateTime.class))
+            .build();
+
+    /**
+     * Шаблон SQL-запроса для добавления события.
+     */
+    private static final String INSERT = """
+            INSERT INTO weather_outbox(event_type, weather_id, record_key, payload, created_at)
+            VALUES (:eventType, :weatherId, :key, :payload, :createdAt)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для получения первых событий в порядке их добавления.
+     * Порядковый номер назначается при добавлении события, а не при фиксации транзакции,
+     * поэтому для событий одновременных транзакций порядок фиксации не гарантируется.
+     */
+    private static final String SELECT_FIRST = """
+            SELECT id, event_type, weather_id, record_key, payload, created_at
+            FROM weather_outbox
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    /**
+     * Шаблон SQL-запроса для удаления событий по порядковым номерам.
+     */
+    private static final String DELETE_BY_IDS = """
+            DELETE FROM weather_outbox
+            WHERE id IN (:ids)
+            """;
+
+    /**
+     * Объект для выполнения SQL-запросов с использованием именованных параметров.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор.
+     *
+     * @param jdbcTemplate объект для выполнения SQL-запросов
+     */
+    @Autowired
+    public OutboxEventJdbcRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Сохраняет событие.
+     *
+     * @param event событие
+     */
+    public void create(final OutboxEvent event) {
+        // Map.of не допускает null, а ключ сообщения может отсутствовать
+        final Map<String, Object> params = new HashMap<>();
+        params.put("eventType", event.getEventType().name());
+        params.put("weatherId", event.getWeatherId());
+        params.put("key", event.getKey());
+        params.put("payload", event.getPayload());
+        params.put("createdAt", event.getCreatedAt());
+
+        jdbcTemplate.update(INSERT, params);
+    }
+
+    /**
+     * Возвращает не более указанного количества первых событий в порядке их создания.
+     *
+     * @param limit максимальное количество событий
+     * @return первые события в порядке их создания
+     */
+    public List<OutboxEvent> findFirst(final int limit) {
+        return jdbcTemplate.query(
+                SELECT_FIRST,
+                Map.of("limit", limit),
+                MAPPER
+        );
+    }
+
+    /**
+     * Удаляет события с указанными порядковыми номерами.
+     *
+     * @param ids порядковые номера событий
+     */
+    public void deleteAllByIds(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(
+                DELETE_BY_IDS,
+                Map.of("ids", ids)
+        );
+    }
+}
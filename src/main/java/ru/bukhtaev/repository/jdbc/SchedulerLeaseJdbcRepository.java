@@ -0,0 +1,135 @@
+package ru.bukhtaev.repository.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC-репозиторий аренд задач по расписанию.
+ * Запросы не используют специфичных для СУБД конструкций и выполняются как в H2, так и в PostgreSQL.
+ * Время окончания аренды вычисляется по часам экземпляра приложения,
+ * поэтому расхождение часов экземпляров должно быть значительно меньше длительности аренды.
+ */
+@Repository
+public class SchedulerLeaseJdbcRepository {
+
+    /**
+     * Шаблон SQL-запроса для продления аренды владельцем или получения истекшей аренды.
+     * Одновременные запросы разных владельцев сериализуются блокировкой строки,
+     * поэтому аренду получает только один из них.
+     */
+    private static final String UPDATE = """
+            UPDATE scheduler_lease
+            SET owner = :owner,
+                expires_at = :expiresAt
+            WHERE task_name = :taskName
+            AND (owner = :owner OR expires_at <= :now)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для добавления аренды, если её ещё нет.
+     */
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO scheduler_lease(task_name, owner, expires_at)
+            SELECT :taskName, :owner, :expiresAt
+            WHERE NOT EXISTS (SELECT 1
+                              FROM scheduler_lease
+                              WHERE task_name = :taskName)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для освобождения аренды.
+     */
+    private static final String DELETE = """
+            DELETE FROM scheduler_lease
+            WHERE task_name = :taskName
+            AND owner = :owner
+            """;
+
+    /**
+     * Шаблон SQL-запроса для получения владельца действующей аренды.
+     */
+    private static final String SELECT_OWNER = """
+            SELECT owner
+            FROM scheduler_lease
+            WHERE task_name = :taskName
+            AND expires_at > :now
+            """;
+
+    /**
+     * Объект для выполнения SQL-запросов с использованием именованных параметров.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор.
+     *
+     * @param jdbcTemplate объект для выполнения SQL-запросов
+     */
+    @Autowired
+    public SchedulerLeaseJdbcRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Получает или продлевает аренду задачи.
+     * Аренда изменяется, если она принадлежит тому же владельцу или истекла,
+     * и добавляется, если её нет. Если аренду одновременно добавил другой владелец,
+     * она остается за ним.
+     *
+     * @param taskName название задачи
+     * @param owner    идентификатор владельца
+     * @param duration длительность аренды
+     * @return {@code true}, если аренда принадлежит указанному владельцу
+     */
+    public boolean tryAcquire(final String taskName, final String owner, final Duration duration) {
+        final LocalDateTime now = LocalDateTime.now();
+        final Map<String, Object> params = Map.of(
+                "taskName", taskName,
+                "owner", owner,
+                "now", now,
+                "expiresAt", now.plus(duration)
+        );
+
+        if (jdbcTemplate.update(UPDATE, params) > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT_IF_ABSENT, params) > 0;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Освобождает аренду задачи, если она принадлежит указанному владельцу.
+     *
+     * @param taskName название задачи
+     * @param owner    идентификатор владельца
+     */
+    public void release(final String taskName, final String owner) {
+        jdbcTemplate.update(DELETE, Map.of("taskName", taskName, "owner", owner));
+    }
+
+    /**
+     * Возвращает владельца действующей аренды задачи.
+     *
+     * @param taskName название задачи
+     * @return владелец аренды, если аренда действует
+     */
+    public Optional<String> findOwner(final String taskName) {
+        return jdbcTemplate.queryForList(
+                        SELECT_OWNER,
+                        Map.of("taskName", taskName, "now", LocalDateTime.now()),
+                        String.class
+                )
+                .stream()
+                .findFirst();
+    }
+}
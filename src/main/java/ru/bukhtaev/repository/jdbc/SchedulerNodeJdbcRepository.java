@@ -0,0 +1,124 @@
+package ru.bukhtaev.repository.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-репозиторий живых экземпляров приложения.
+ * Запросы не используют специфичных для СУБД конструкций и выполняются как в H2, так и в PostgreSQL.
+ * Время сигналов о работе определяется по часам экземпляров приложения,
+ * поэтому расхождение их часов должно быть значительно меньше времени ожидания сигнала.
+ */
+@Repository
+public class SchedulerNodeJdbcRepository {
+
+    /**
+     * Шаблон SQL-запроса для обновления сигнала о работе экземпляра.
+     */
+    private static final String UPDATE = """
+            UPDATE scheduler_node
+            SET heartbeat_at = :heartbeatAt
+            WHERE instance_id = :instanceId
+            """;
+
+    /**
+     * Шаблон SQL-запроса для добавления экземпляра, если его ещё нет.
+     */
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO scheduler_node(instance_id, heartbeat_at)
+            SELECT :instanceId, :heartbeatAt
+            WHERE NOT EXISTS (SELECT 1
+                              FROM scheduler_node
+                              WHERE instance_id = :instanceId)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для удаления экземпляров, сигналы о работе которых устарели.
+     */
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM scheduler_node
+            WHERE heartbeat_at <= :aliveSince
+            """;
+
+    /**
+     * Шаблон SQL-запроса для получения живых экземпляров.
+     */
+    private static final String SELECT_ALIVE = """
+            SELECT instance_id
+            FROM scheduler_node
+            WHERE heartbeat_at > :aliveSince
+            ORDER BY instance_id
+            """;
+
+    /**
+     * Шаблон SQL-запроса для удаления экземпляра.
+     */
+    private static final String DELETE = """
+            DELETE FROM scheduler_node
+            WHERE instance_id = :instanceId
+            """;
+
+    /**
+     * Объект для выполнения SQL-запросов с использованием именованных параметров.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор.
+     *
+     * @param jdbcTemplate объект для выполнения SQL-запросов
+     */
+    @Autowired
+    public SchedulerNodeJdbcRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Сохраняет сигнал о работе экземпляра.
+     *
+     * @param instanceId идентификатор экземпляра
+     */
+    public void heartbeat(final String instanceId) {
+        final Map<String, Object> params = Map.of(
+                "instanceId", instanceId,
+                "heartbeatAt", LocalDateTime.now()
+        );
+
+        if (jdbcTemplate.update(UPDATE, params) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_IF_ABSENT, params);
+            } catch (DuplicateKeyException ex) {
+                // экземпляр с тем же идентификатором уже добавлен одновременным запросом
+            }
+        }
+    }
+
+    /**
+     * Удаляет экземпляры, от которых не было сигнала о работе дольше указанного времени,
+     * и возвращает остальные.
+     *
+     * @param timeout время, после которого экземпляр без сигнала о работе считается остановленным
+     * @return идентификаторы живых экземпляров
+     */
+    public List<String> findAlive(final Duration timeout) {
+        final Map<String, Object> params = Map.of("aliveSince", LocalDateTime.now().minus(timeout));
+        jdbcTemplate.update(DELETE_EXPIRED, params);
+        return jdbcTemplate.queryForList(SELECT_ALIVE, params, String.class);
+    }
+
+    /**
+     * Удаляет экземпляр.
+     *
+     * @param instanceId идентификатор экземпляра
+     */
+    public void delete(final String instanceId) {
+        jdbcTemplate.update(DELETE, Map.of("instanceId", instanceId));
+    }
+}
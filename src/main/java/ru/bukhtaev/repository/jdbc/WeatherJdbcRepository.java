@@ -1,13 +1,17 @@
 package ru.bukhtaev.repository.jdbc;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
 import ru.bukhtaev.model.Weather;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * JDBC-репозиторий данных о погоде.
@@ -117,6 +121,19 @@ public class WeatherJdbcRepository {
             WHERE c.name = :cityName
             """;
 
+    /**
+     * Шаблон SQL-запроса для получения названий городов, дат и времени данных о погоде,
+     * начиная с указанных даты и времени.
+     */
+    private static final String SELECT_KEYS_SINCE = """
+            SELECT c.name AS city_name,
+                   w.date_time AS date_time
+            FROM weather AS w
+                     JOIN city AS c
+                          ON w.city_id = c.id
+            WHERE w.date_time >= :dateTime
+            """;
+
     /**
      * Шаблон SQL-запроса для удаления записи о погоде.
      */
@@ -142,12 +159,52 @@ public class WeatherJdbcRepository {
             (SELECT id FROM city WHERE name = :cityName)
             """;
 
+    /**
+     * Шаблон SQL-запроса для удаления записи о погоде по названию города, дате и времени.
+     */
+    private static final String DELETE_BY_CITY_NAME_AND_DATE_TIME = """
+            DELETE FROM weather
+            WHERE city_id IN
+            (SELECT id FROM city WHERE name = :cityName)
+            AND date_time = :dateTime
+            """;
+
     /**
      * Шаблон SQL-запроса для добавления записи о погоде.
      */
     private static final String INSERT = """
             INSERT INTO weather(id, city_id, weather_type_id, temperature, date_time)
-            VALUES (RANDOM_UUID(), :cityId, :weatherTypeId, :temperature, :dateTime)
+            VALUES (:id, :cityId, :weatherTypeId, :temperature, :dateTime)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для добавления записи о погоде по названиям города и типа погоды,
+     * если записи о погоде в этом городе на эти дату и время ещё нет.
+     */
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO weather(id, city_id, weather_type_id, temperature, date_time)
+            SELECT :id, c.id, t.id, :temperature, :dateTime
+            FROM city AS c
+                     JOIN weather_type AS t
+                          ON t.name = :typeName
+            WHERE c.name = :cityName
+            AND NOT EXISTS (SELECT 1
+                            FROM weather AS w
+                            WHERE w.city_id = c.id
+                            AND w.date_time = :dateTime)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для добавления записи о погоде по ID города и типа погоды,
+     * если записи о погоде в этом городе на эти дату и время ещё нет.
+     */
+    private static final String INSERT_BY_IDS_IF_ABSENT = """
+            INSERT INTO weather(id, city_id, weather_type_id, temperature, date_time)
+            SELECT :id, :cityId, :weatherTypeId, :temperature, :dateTime
+            WHERE NOT EXISTS (SELECT 1
+                              FROM weather AS w
+                              WHERE w.city_id = :cityId
+                              AND w.date_time = :dateTime)
             """;
 
     /**
@@ -162,6 +219,19 @@ public class WeatherJdbcRepository {
             WHERE id = :id
             """;
 
+    /**
+     * Шаблон SQL-запроса для изменения типа погоды и температуры записи о погоде
+     * по названию города, дате и времени.
+     */
+    private static final String UPDATE_BY_CITY_NAME_AND_DATE_TIME = """
+            UPDATE weather
+            SET weather_type_id = (SELECT id FROM weather_type WHERE name = :typeName),
+                temperature = :temperature
+            WHERE city_id IN
+            (SELECT id FROM city WHERE name = :cityName)
+            AND date_time = :dateTime
+            """;
+
     /**
      * Название параметра для передачи ID города.
      */
@@ -187,6 +257,16 @@ public class WeatherJdbcRepository {
      */
     private static final String PARAM_ID = "id";
 
+    /**
+     * Название параметра для передачи названия города.
+     */
+    private static final String PARAM_CITY_NAME = "cityName";
+
+    /**
+     * Название параметра для передачи названия типа погоды.
+     */
+    private static final String PARAM_TYPE_NAME = "typeName";
+
     /**
      * Объект для выполнения SQL-запросов с использованием именованных параметров.
      */
@@ -241,6 +321,27 @@ public class WeatherJdbcRepository {
         );
     }
 
+    /**
+     * Передает указанному обработчику название города, дату и время каждой записи о погоде,
+     * начиная с указанных даты и времени. Записи читаются построчно и не накапливаются в памяти.
+     *
+     * @param from    дата и время, начиная с которых читаются записи о погоде
+     * @param handler обработчик названия города, даты и времени записи о погоде
+     */
+    public void forEachKeySince(
+            final LocalDateTime from,
+            final BiConsumer<String, LocalDateTime> handler
+    ) {
+        jdbcTemplate.query(
+                SELECT_KEYS_SINCE,
+                Map.of(PARAM_DATE_TIME, from),
+                (RowCallbackHandler) rs -> handler.accept(
+                        rs.getString("city_name"),
+                        rs.getObject("date_time", LocalDateTime.class)
+                )
+        );
+    }
+
 
     /**
      * Удаляет запись о погоде с указанным ID.
@@ -278,58 +379,127 @@ public class WeatherJdbcRepository {
 
     /**
      * Создает запись о погоде.
+     * ID генерируется на стороне приложения, поэтому созданная запись не перечитывается:
+     * город и тип погоды берутся из переданной записи и должны быть уже загружены.
      *
      * @param weather запись о погоде
      * @return созданную запись о погоде
      */
     public Weather create(final Weather weather) {
-        jdbcTemplate.update(
-                INSERT,
-                Map.of(
-                        PARAM_CITY_ID, weather.getCity().getId(),
-                        PARAM_WEATHER_TYPE_ID, weather.getType().getId(),
-                        PARAM_TEMPERATURE, weather.getTemperature(),
-                        PARAM_DATE_TIME, weather.getDateTime()
-                )
-        );
+        final UUID id = UUID.randomUUID();
+        jdbcTemplate.update(INSERT, toParams(id, weather));
+        return withId(id, weather);
+    }
 
-        return jdbcTemplate.queryForObject(
-                SELECT_BY_CITY_ID_AND_DATE_TIME,
-                Map.of(
-                        PARAM_CITY_ID, weather.getCity().getId(),
-                        PARAM_DATE_TIME, weather.getDateTime()
-                ),
-                MAPPER
-        );
+    /**
+     * Создает пакетом записи о погоде, которых ещё нет в базе данных.
+     * Город и тип погоды определяются по названиям и должны существовать.
+     * Записи, для которых уже есть запись о погоде в том же городе на те же дату и время,
+     * а также записи с несуществующим городом или типом погоды пропускаются.
+     *
+     * @param weatherData записи о погоде
+     * @return количество созданных записей о погоде
+     */
+    public int createAllIfAbsent(final Collection<Weather> weatherData) {
+        final SqlParameterSource[] batchParams = weatherData.stream()
+                .map(weather -> new MapSqlParameterSource()
+                        .addValue(PARAM_ID, UUID.randomUUID())
+                        .addValue(PARAM_CITY_NAME, weather.getCity().getName())
+                        .addValue(PARAM_TYPE_NAME, weather.getType().getName())
+                        .addValue(PARAM_TEMPERATURE, weather.getTemperature())
+                        .addValue(PARAM_DATE_TIME, weather.getDateTime()))
+                .toArray(SqlParameterSource[]::new);
+
+        return Arrays.stream(jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, batchParams))
+                .filter(count -> count > 0)
+                .sum();
+    }
+
+    /**
+     * Изменяет пакетом тип погоды и температуру записей о погоде
+     * в тех же городах на те же дату и время, что и у переданных записей.
+     * Город и тип погоды определяются по названиям и должны существовать.
+     * Записи, для которых нет записи о погоде в том же городе на те же дату и время, пропускаются.
+     *
+     * @param weatherData записи о погоде
+     * @return количество измененных записей о погоде
+     */
+    public int changeAllByCityNameAndDateTime(final Collection<Weather> weatherData) {
+        final SqlParameterSource[] batchParams = weatherData.stream()
+                .map(weather -> new MapSqlParameterSource()
+                        .addValue(PARAM_CITY_NAME, weather.getCity().getName())
+                        .addValue(PARAM_TYPE_NAME, weather.getType().getName())
+                        .addValue(PARAM_TEMPERATURE, weather.getTemperature())
+                        .addValue(PARAM_DATE_TIME, weather.getDateTime()))
+                .toArray(SqlParameterSource[]::new);
+
+        return Arrays.stream(jdbcTemplate.batchUpdate(UPDATE_BY_CITY_NAME_AND_DATE_TIME, batchParams))
+                .filter(count -> count > 0)
+                .sum();
+    }
+
+    /**
+     * Удаляет пакетом записи о погоде в тех же городах на те же дату и время,
+     * что и у переданных записей.
+     *
+     * @param weatherData записи о погоде
+     * @return количество удаленных записей о погоде
+     */
+    public int deleteAllByCityNameAndDateTime(final Collection<Weather> weatherData) {
+        final SqlParameterSource[] batchParams = weatherData.stream()
+                .map(weather -> new MapSqlParameterSource()
+                        .addValue(PARAM_CITY_NAME, weather.getCity().getName())
+                        .addValue(PARAM_DATE_TIME, weather.getDateTime()))
+                .toArray(SqlParameterSource[]::new);
+
+        return Arrays.stream(jdbcTemplate.batchUpdate(DELETE_BY_CITY_NAME_AND_DATE_TIME, batchParams))
+                .filter(count -> count > 0)
+                .sum();
+    }
+
+    /**
+     * Создает пакетом записи о погоде, которых ещё нет в базе данных.
+     * Город и тип погоды должны содержать ID существующих записей.
+     * Записи, для которых уже есть запись о погоде в том же городе на те же дату и время,
+     * в том числе более ранние записи того же пакета, пропускаются.
+     *
+     * @param weatherData записи о погоде
+     * @return созданные записи о погоде в порядке следования в пакете
+     */
+    public List<Weather> createAll(final List<Weather> weatherData) {
+        if (weatherData.isEmpty()) {
+            return List.of();
+        }
+
+        final UUID[] ids = new UUID[weatherData.size()];
+        final SqlParameterSource[] batchParams = new SqlParameterSource[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            batchParams[i] = new MapSqlParameterSource(toParams(ids[i], weatherData.get(i)));
+        }
+        final int[] counts = jdbcTemplate.batchUpdate(INSERT_BY_IDS_IF_ABSENT, batchParams);
+
+        final List<Weather> created = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                created.add(withId(ids[i], weatherData.get(i)));
+            }
+        }
+        return created;
     }
 
     /**
      * Изменяет запись о погоде.
+     * Измененная запись не перечитывается: город и тип погоды берутся из переданной записи
+     * и должны быть уже загружены.
      *
      * @param id      ID
      * @param weather запись о погоде
      * @return измененную запись о погоде
      */
     public Weather change(final UUID id, final Weather weather) {
-        jdbcTemplate.update(
-                UPDATE,
-                Map.of(
-                        PARAM_ID, id,
-                        PARAM_CITY_ID, weather.getCity().getId(),
-                        PARAM_WEATHER_TYPE_ID, weather.getType().getId(),
-                        PARAM_TEMPERATURE, weather.getTemperature(),
-                        PARAM_DATE_TIME, weather.getDateTime()
-                )
-        );
-
-        return jdbcTemplate.queryForObject(
-                SELECT_BY_CITY_ID_AND_DATE_TIME,
-                Map.of(
-                        PARAM_CITY_ID, weather.getCity().getId(),
-                        PARAM_DATE_TIME, weather.getDateTime()
-                ),
-                MAPPER
-        );
+        jdbcTemplate.update(UPDATE, toParams(id, weather));
+        return withId(id, weather);
     }
 
     /**
@@ -384,4 +554,38 @@ public class WeatherJdbcRepository {
                 ).stream()
                 .findAny();
     }
+
+    /**
+     * Возвращает параметры SQL-запроса для добавления или изменения записи о погоде.
+     *
+     * @param id      ID
+     * @param weather запись о погоде
+     * @return параметры SQL-запроса
+     */
+    private static Map<String, Object> toParams(final UUID id, final Weather weather) {
+        return Map.of(
+                PARAM_ID, id,
+                PARAM_CITY_ID, weather.getCity().getId(),
+                PARAM_WEATHER_TYPE_ID, weather.getType().getId(),
+                PARAM_TEMPERATURE, weather.getTemperature(),
+                PARAM_DATE_TIME, weather.getDateTime()
+        );
+    }
+
+    /**
+     * Возвращает копию записи о погоде с указанным ID.
+     *
+     * @param id      ID
+     * @param weather запись о погоде
+     * @return копию записи о погоде с указанным ID
+     */
+    private static Weather withId(final UUID id, final Weather weather) {
+        return Weather.builder()
+                .id(id)
+                .city(weather.getCity())
+                .type(weather.getType())
+                .temperature(weather.getTemperature())
+                .dateTime(weather.getDateTime())
+                .build();
+    }
 }
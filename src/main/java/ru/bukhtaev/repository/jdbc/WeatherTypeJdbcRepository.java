@@ -3,7 +3,9 @@ package ru.bukhtaev.repository.jdbc;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
 import ru.bukhtaev.model.WeatherType;
 
@@ -77,7 +79,16 @@ public class WeatherTypeJdbcRepository {
      */
     private static final String INSERT = """
             INSERT INTO weather_type(id, name)
-            VALUES (RANDOM_UUID(), :name)
+            VALUES (:id, :name)
+            """;
+
+    /**
+     * Шаблон SQL-запроса для получения типов погоды по названиям.
+     */
+    private static final String SELECT_ALL_BY_NAMES = """
+            SELECT *
+            FROM weather_type
+            WHERE name IN (:names)
             """;
 
     /**
@@ -94,6 +105,11 @@ public class WeatherTypeJdbcRepository {
      */
     public static final String PARAM_NAME = "name";
 
+    /**
+     * Название параметра для передачи названий.
+     */
+    private static final String PARAM_NAMES = "names";
+
     /**
      * Название параметра для передачи ID.
      */
@@ -163,23 +179,64 @@ public class WeatherTypeJdbcRepository {
 
     /**
      * Создает тип погоды.
+     * ID генерируется на стороне приложения, поэтому созданная запись не перечитывается.
      *
      * @param weatherType тип погоды
      * @return созданный тип погоды
      */
     public WeatherType create(final WeatherType weatherType) {
+        final UUID id = UUID.randomUUID();
         jdbcTemplate.update(
                 INSERT,
-                Map.of(PARAM_NAME, weatherType.getName())
+                Map.of(
+                        PARAM_ID, id,
+                        PARAM_NAME, weatherType.getName()
+                )
         );
+        return new WeatherType(id, weatherType.getName());
+    }
 
-        return jdbcTemplate.queryForObject(
-                SELECT_BY_NAME,
-                Map.of(PARAM_NAME, weatherType.getName()),
+    /**
+     * Возвращает типы погоды с указанными названиями одним запросом.
+     *
+     * @param names названия
+     * @return найденные типы погоды в произвольном порядке
+     */
+    public List<WeatherType> findAllByNames(final Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(
+                SELECT_ALL_BY_NAMES,
+                Map.of(PARAM_NAMES, names),
                 MAPPER
         );
     }
 
+    /**
+     * Создает пакетом типы погоды с указанными названиями.
+     *
+     * @param names названия, которых ещё нет в базе данных
+     * @return созданные типы погоды в порядке следования названий
+     */
+    public List<WeatherType> createAll(final Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+
+        final List<WeatherType> created = names.stream()
+                .map(name -> new WeatherType(UUID.randomUUID(), name))
+                .toList();
+        final SqlParameterSource[] batchParams = created.stream()
+                .map(weatherType -> new MapSqlParameterSource()
+                        .addValue(PARAM_ID, weatherType.getId())
+                        .addValue(PARAM_NAME, weatherType.getName()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT, batchParams);
+        return created;
+    }
+
     /**
      * Изменяет тип погоды с указанным ID.
      *
@@ -195,12 +252,7 @@ public class WeatherTypeJdbcRepository {
                         PARAM_NAME, weatherType.getName()
                 )
         );
-
-        return jdbcTemplate.queryForObject(
-                SELECT_BY_NAME,
-                Map.of(PARAM_NAME, weatherType.getName()),
-                MAPPER
-        );
+        return new WeatherType(id, weatherType.getName());
     }
 
     /**
@@ -4,6 +4,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.bukhtaev.model.City;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,4 +18,6 @@ public interface ICityJpaRepository extends JpaRepository<City, UUID> {
     Optional<City> findFirstByName(final String name);
 
     Optional<City> findFirstByNameAndIdNot(final String name, final UUID id);
+
+    List<City> findAllByNameIn(final Collection<String> names);
 }
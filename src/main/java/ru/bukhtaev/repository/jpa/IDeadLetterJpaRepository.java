@@ -0,0 +1,24 @@
+package ru.bukhtaev.repository.jpa;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.bukhtaev.model.DeadLetter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JPA-репозиторий необработанных сообщений с данными о погоде.
+ */
+@Repository
+public interface IDeadLetterJpaRepository extends JpaRepository<DeadLetter, UUID> {
+
+    /**
+     * Возвращает необработанные сообщения, которые ещё не отправлялись повторно.
+     *
+     * @param sort сортировка
+     * @return необработанные сообщения, которые ещё не отправлялись повторно
+     */
+    List<DeadLetter> findAllByReplayedAtIsNull(final Sort sort);
+}
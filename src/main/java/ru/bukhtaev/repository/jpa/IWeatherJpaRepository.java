@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import ru.bukhtaev.model.Weather;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +38,11 @@ public interface IWeatherJpaRepository extends JpaRepository<Weather, UUID> {
             final LocalDateTime dateTime
     );
 
+    List<Weather> findAllByCityIdInAndDateTimeIn(
+            final Collection<UUID> cityIds,
+            final Collection<LocalDateTime> dateTimes
+    );
+
     Optional<Weather> findFirstByCityIdAndDateTimeAndIdNot(
             final UUID cityId,
             final LocalDateTime dateTime,
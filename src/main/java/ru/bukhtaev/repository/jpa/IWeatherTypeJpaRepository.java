@@ -4,6 +4,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.bukhtaev.model.WeatherType;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,4 +18,6 @@ public interface IWeatherTypeJpaRepository extends JpaRepository<WeatherType, UU
     Optional<WeatherType> findFirstByName(final String name);
 
     Optional<WeatherType> findFirstByNameAndIdNot(final String name, final UUID id);
+
+    List<WeatherType> findAllByNameIn(final Collection<String> names);
 }
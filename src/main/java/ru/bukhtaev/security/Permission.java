@@ -43,7 +43,12 @@ public enum Permission {
     /**
      * Доступ к консоли базы данных H2.
      */
-    H2_CONSOLE("h2:console");
+    H2_CONSOLE("h2:console"),
+
+    /**
+     * Управление получением данных о погоде.
+     */
+    INGESTION_ADMIN("ingestion:admin");
 
     /**
      * Дескриптор роли.
@@ -2,33 +2,92 @@ package ru.bukhtaev.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.bukhtaev.config.external.ExternalApiConfigParams;
-import ru.bukhtaev.dto.external.ExternalApiErrorResponse;
-import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
+import ru.bukhtaev.config.external.HedgingConfigParams;
+import ru.bukhtaev.dto.external.*;
 import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.exception.CommonException;
 import ru.bukhtaev.exception.CommonServerSideException;
 import ru.bukhtaev.exception.external.*;
+import ru.bukhtaev.model.NameableEntity;
 import ru.bukhtaev.model.Weather;
 import ru.bukhtaev.util.ErrorCode;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Частичная реализация сервиса для выполнения запросов к внешнему API данных о погоде.
+ * <p>
+ * Запросы к внешнему API защищены общим ограничителем частоты запросов,
+ * а также автоматическим выключателем и ограничителем количества одновременных вызовов,
+ * настраиваемыми отдельно для каждой операции. Асинхронные запросы дополнительно
+ * ограничены по времени и при необходимости дублируются. Дублирующий запрос выполняется в обход
+ * прокси, поэтому разрешения политик для него запрашиваются явно. Операции с базой данных
+ * этими политиками не ограничиваются. Токен для каждого запроса выбирается из пула токенов.
  */
-@RateLimiter(name = "rateLimitedApi")
+@Slf4j
 public abstract class AbstractExternalWeatherApiService implements IExternalWeatherApiService {
 
+    /**
+     * Название ограничителя частоты запросов к внешнему API.
+     */
+    public static final String RATE_LIMITER_NAME = "rateLimitedApi";
+
+    /**
+     * Название политик отказоустойчивости для запроса погоды в реальном времени.
+     */
+    public static final String CURRENT_OPERATION_NAME = "externalApiCurrent";
+
+    /**
+     * Название политик отказоустойчивости для массового запроса погоды в реальном времени.
+     */
+    public static final String BULK_OPERATION_NAME = "externalApiBulk";
+
     /**
      * Название параметра для передачи местоположения.
      */
     protected static final String LOCATION_PARAM_NAME = "location";
 
+    /**
+     * Значение параметра местоположения для массового запроса.
+     */
+    protected static final String BULK_LOCATION_PARAM_VALUE = "bulk";
+
     /**
      * Параметры конфигурации внешнего API.
      */
@@ -39,6 +98,11 @@ public abstract class AbstractExternalWeatherApiService implements IExternalWeat
      */
     protected final RestTemplate restTemplate;
 
+    /**
+     * Асинхронный клиент.
+     */
+    protected final CloseableHttpAsyncClient asyncHttpClient;
+
     /**
      * Маппер объектов.
      */
@@ -49,65 +113,540 @@ public abstract class AbstractExternalWeatherApiService implements IExternalWeat
      */
     protected final IWeatherMapper dtoMapper;
 
+    /**
+     * Адаптивное ограничение запросов в соответствии с квотой токенов.
+     */
+    protected final ExternalApiQuotaThrottle quotaThrottle;
+
+    /**
+     * Пул токенов для взаимодействия с внешним API.
+     */
+    protected final ExternalApiTokenPool tokenPool;
+
+    /**
+     * Реестр ограничителей частоты запросов.
+     */
+    private final RateLimiterRegistry rateLimiterRegistry;
+
+    /**
+     * Реестр автоматических выключателей.
+     */
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    /**
+     * Реестр ограничителей количества одновременных вызовов.
+     */
+    private final BulkheadRegistry bulkheadRegistry;
+
+    /**
+     * Читатель ответов на запрос погоды в реальном времени.
+     */
+    private final ObjectReader weatherReader;
+
+    /**
+     * Читатель ответов с ошибкой.
+     */
+    private final ObjectReader errorReader;
+
+    /**
+     * Потоковый читатель краткой информации о погоде.
+     */
+    private final CurrentWeatherSummaryReader summaryReader;
+
     /**
      * Конструктор.
      *
-     * @param apiConfig    параметры конфигурации внешнего API
-     * @param restTemplate клиент
-     * @param objectMapper маппер объектов
-     * @param dtoMapper    маппер для объектов типа {@link Weather}.
+     * @param apiConfig              параметры конфигурации внешнего API
+     * @param restTemplate           клиент
+     * @param asyncHttpClient        асинхронный клиент
+     * @param objectMapper           маппер объектов
+     * @param dtoMapper              маппер для объектов типа {@link Weather}.
+     * @param quotaThrottle          адаптивное ограничение запросов в соответствии с квотой токенов
+     * @param tokenPool              пул токенов для взаимодействия с внешним API
+     * @param rateLimiterRegistry    реестр ограничителей частоты запросов
+     * @param circuitBreakerRegistry реестр автоматических выключателей
+     * @param bulkheadRegistry       реестр ограничителей количества одновременных вызовов
      */
     protected AbstractExternalWeatherApiService(
             final ExternalApiConfigParams apiConfig,
             final RestTemplate restTemplate,
+            final CloseableHttpAsyncClient asyncHttpClient,
             final ObjectMapper objectMapper,
-            final IWeatherMapper dtoMapper
+            final IWeatherMapper dtoMapper,
+            final ExternalApiQuotaThrottle quotaThrottle,
+            final ExternalApiTokenPool tokenPool,
+            final RateLimiterRegistry rateLimiterRegistry,
+            final CircuitBreakerRegistry circuitBreakerRegistry,
+            final BulkheadRegistry bulkheadRegistry
     ) {
         this.apiConfig = apiConfig;
         this.restTemplate = restTemplate;
+        this.asyncHttpClient = asyncHttpClient;
         this.objectMapper = objectMapper;
         this.dtoMapper = dtoMapper;
+        this.quotaThrottle = quotaThrottle;
+        this.tokenPool = tokenPool;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.weatherReader = objectMapper.readerFor(ExternalApiWeatherResponse.class);
+        this.errorReader = objectMapper.readerFor(ExternalApiErrorResponse.class);
+        this.summaryReader = new CurrentWeatherSummaryReader(objectMapper.getFactory());
     }
 
     @Override
+    @RateLimiter(name = RATE_LIMITER_NAME)
+    @CircuitBreaker(name = CURRENT_OPERATION_NAME)
+    @Bulkhead(name = CURRENT_OPERATION_NAME)
     public ExternalApiWeatherResponse getCurrent(
             final String location,
             final String language,
             final Boolean aqi
     ) {
-        final String url = buildUrl(location, language, aqi);
-        final ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-        final HttpStatusCode statusCode = response.getStatusCode();
-        final String responseBody = response.getBody();
+        final String token = tokenPool.acquire();
+        final String url = buildUrl(token, location, language, aqi);
+        quotaThrottle.recordCalls(1);
+        return restTemplate.execute(
+                url,
+                HttpMethod.GET,
+                null,
+                response -> readResponse(
+                        response.getStatusCode(),
+                        response.getBody(),
+                        this::readWeather,
+                        token,
+                        location,
+                        url
+                )
+        );
+    }
 
+    @Override
+    @RateLimiter(name = RATE_LIMITER_NAME)
+    @CircuitBreaker(name = CURRENT_OPERATION_NAME)
+    @Bulkhead(name = CURRENT_OPERATION_NAME)
+    @TimeLimiter(name = CURRENT_OPERATION_NAME)
+    public CompletableFuture<ExternalApiWeatherResponse> getCurrentAsync(
+            final String location,
+            final String language,
+            final Boolean aqi
+    ) {
+        return executeAsync(location, language, aqi, this::readWeather);
+    }
+
+    @Override
+    @RateLimiter(name = RATE_LIMITER_NAME)
+    @CircuitBreaker(name = CURRENT_OPERATION_NAME)
+    @Bulkhead(name = CURRENT_OPERATION_NAME)
+    @TimeLimiter(name = CURRENT_OPERATION_NAME)
+    public CompletableFuture<CurrentWeatherSummary> getCurrentSummaryAsync(
+            final String location,
+            final String language
+    ) {
+        return executeAsync(location, language, Boolean.FALSE, summaryReader::read);
+    }
+
+    /**
+     * Возвращает записи справочника с указанными названиями, создавая отсутствующие.
+     * Существующие записи определяются одним запросом, отсутствующие создаются одним пакетом.
+     *
+     * @param names   названия
+     * @param finder  функция поиска записей справочника по названиям
+     * @param creator функция создания записей справочника с названиями
+     * @param kind    название справочника для вывода в лог
+     * @param <T>     тип записи справочника
+     * @return записи справочника по названиям
+     */
+    protected static <T extends NameableEntity> Map<String, T> resolveByNames(
+            final Set<String> names,
+            final Function<Collection<String>, List<T>> finder,
+            final Function<Collection<String>, List<T>> creator,
+            final String kind
+    ) {
+        final Map<String, T> resolved = new HashMap<>(names.size());
+        finder.apply(names).forEach(entity -> resolved.put(entity.getName(), entity));
+
+        final Set<String> missing = new HashSet<>(names);
+        missing.removeAll(resolved.keySet());
+        if (!missing.isEmpty()) {
+            log.info("{} with names {} were not found! Creating new ones...", kind, missing);
+            creator.apply(missing).forEach(entity -> resolved.put(entity.getName(), entity));
+        }
+        return resolved;
+    }
+
+    /**
+     * Асинхронно выполняет запрос погоды в реальном времени
+     * и читает тело ответа с помощью указанного читателя.
+     * Если включены дублирующие запросы и ответ не получен за заданное время,
+     * выполняется второй такой же запрос с очередным токеном из пула.
+     *
+     * @param location местоположение
+     * @param language язык
+     * @param aqi      надобность информации о качестве воздуха
+     * @param reader   читатель тела успешного ответа
+     * @param <T>      тип результата
+     * @return результат, который будет получен после ответа внешнего API
+     */
+    private <T> CompletableFuture<T> executeAsync(
+            final String location,
+            final String language,
+            final Boolean aqi,
+            final BodyReader<T> reader
+    ) {
+        final HedgingConfigParams hedging = apiConfig.getHedging();
+        final CompletableFuture<T> primary = sendAsync(location, language, aqi, reader);
+
+        if (!hedging.isEnabled()) {
+            return primary;
+        }
+        return hedge(primary, () -> sendHedgedAsync(location, language, aqi, reader), hedging.getDelay());
+    }
+
+    /**
+     * Асинхронно выполняет дублирующий запрос погоды в реальном времени.
+     * Запрос выполняется в обход прокси, поэтому разрешения ограничителя частоты запросов,
+     * ограничителя количества одновременных вызовов и автоматического выключателя
+     * запрашиваются явно, а результат запроса учитывается автоматическим выключателем.
+     * Если какое-либо разрешение не получено, запрос не выполняется.
+     *
+     * @param location местоположение
+     * @param language язык
+     * @param aqi      надобность информации о качестве воздуха
+     * @param reader   читатель тела успешного ответа
+     * @param <T>      тип результата
+     * @return результат, который будет получен после ответа внешнего API,
+     * или ошибка, если запрос не разрешен
+     */
+    private <T> CompletableFuture<T> sendHedgedAsync(
+            final String location,
+            final String language,
+            final Boolean aqi,
+            final BodyReader<T> reader
+    ) {
+        final var rateLimiter = rateLimiterRegistry.rateLimiter(RATE_LIMITER_NAME);
+        if (!rateLimiter.acquirePermission()) {
+            log.debug("Hedged request is skipped, the rate limit is exhausted");
+            return CompletableFuture.failedFuture(RequestNotPermitted.createRequestNotPermitted(rateLimiter));
+        }
+
+        final var bulkhead = bulkheadRegistry.bulkhead(CURRENT_OPERATION_NAME);
+        if (!bulkhead.tryAcquirePermission()) {
+            log.debug("Hedged request is skipped, the bulkhead is full");
+            return CompletableFuture.failedFuture(BulkheadFullException.createBulkheadFullException(bulkhead));
+        }
+
+        final var circuitBreaker = circuitBreakerRegistry.circuitBreaker(CURRENT_OPERATION_NAME);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.onComplete();
+            log.debug("Hedged request is skipped, the circuit breaker does not permit calls");
+            return CompletableFuture.failedFuture(
+                    CallNotPermittedException.createCallNotPermittedException(circuitBreaker)
+            );
+        }
+
+        final long start = System.nanoTime();
+        final CompletableFuture<T> attempt = sendAsync(location, language, aqi, reader);
+        attempt.whenComplete((value, ex) -> {
+            bulkhead.onComplete();
+            final long duration = System.nanoTime() - start;
+            if (attempt.isCancelled()) {
+                circuitBreaker.releasePermission();
+            } else if (ex == null) {
+                circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+            } else {
+                circuitBreaker.onError(duration, TimeUnit.NANOSECONDS, ex);
+            }
+        });
+        return attempt;
+    }
+
+    /**
+     * Асинхронно выполняет запрос погоды в реальном времени к внешнему API с очередным токеном из пула.
+     * Отмена возвращаемого объекта отменяет запрос и освобождает соединение.
+     *
+     * @param location местоположение
+     * @param language язык
+     * @param aqi      надобность информации о качестве воздуха
+     * @param reader   читатель тела успешного ответа
+     * @param <T>      тип результата
+     * @return результат, который будет получен после ответа внешнего API
+     */
+    private <T> CompletableFuture<T> sendAsync(
+            final String location,
+            final String language,
+            final Boolean aqi,
+            final BodyReader<T> reader
+    ) {
+        final var result = new CompletableFuture<T>();
+        final String token = tokenPool.acquire();
+        final String url = buildUrl(token, location, language, aqi);
+
+        quotaThrottle.recordCalls(1);
+        final Future<SimpleHttpResponse> request = asyncHttpClient.execute(
+                SimpleRequestBuilder.get(url).build(),
+                new FutureCallback<>() {
+
+                    @Override
+                    public void completed(final SimpleHttpResponse response) {
+                        final byte[] body = response.getBodyBytes();
+                        try {
+                            result.complete(readResponse(
+                                    HttpStatusCode.valueOf(response.getCode()),
+                                    new ByteArrayInputStream(body == null ? new byte[0] : body),
+                                    reader,
+                                    token,
+                                    location,
+                                    url
+                            ));
+                        } catch (IOException e) {
+                            result.completeExceptionally(new UncheckedIOException(e));
+                        } catch (RuntimeException e) {
+                            result.completeExceptionally(e);
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception e) {
+                        log.error("Request to the external API failed", e);
+                        result.completeExceptionally(new CommonServerSideException(
+                                "Failed to get current weather from the external API"
+                        ));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                }
+        );
+
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Возвращает результат первого успешного из основного и дублирующего запросов.
+     * Дублирующий запрос выполняется, только если основной не завершился за указанное время.
+     * Ошибка возвращается, если завершились с ошибкой все выполненные запросы,
+     * при этом возвращается первая из полученных ошибок.
+     * После получения результата незавершенный запрос отменяется.
+     *
+     * @param primary основной запрос
+     * @param backup  функция выполнения дублирующего запроса
+     * @param delay   время ожидания ответа, после которого выполняется дублирующий запрос
+     * @param <T>     тип результата
+     * @return результат первого успешного запроса
+     */
+    private static <T> CompletableFuture<T> hedge(
+            final CompletableFuture<T> primary,
+            final Supplier<CompletableFuture<T>> backup,
+            final Duration delay
+    ) {
+        final var result = new CompletableFuture<T>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        final AtomicReference<CompletableFuture<T>> hedged = new AtomicReference<>();
+        final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        final BiConsumer<T, Throwable> onComplete = (value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+
+            firstError.compareAndSet(null, ex);
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(firstError.get());
+            }
+        };
+        primary.whenComplete(onComplete);
+
+        CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone() || pending.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0) {
+                return;
+            }
+
+            log.debug("No response from the external API within {}, trying a hedged request", delay);
+            final CompletableFuture<T> attempt = backup.get();
+            hedged.set(attempt);
+            attempt.whenComplete(onComplete);
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        });
+
+        result.whenComplete((value, ex) -> {
+            primary.cancel(true);
+            final CompletableFuture<T> attempt = hedged.get();
+            if (attempt != null) {
+                attempt.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Читает ответ внешнего API на запрос погоды в реальном времени непосредственно из потока,
+     * не копируя тело ответа в строку. Тело ответа с HTTP статусом 5xx не читается.
+     *
+     * @param statusCode HTTP статус ответа
+     * @param body       поток с телом ответа
+     * @param reader     читатель тела успешного ответа
+     * @param token      токен, с которым выполнялся запрос
+     * @param location   местоположение
+     * @param url        URL запроса
+     * @param <T>        тип результата
+     * @return результат чтения тела успешного ответа
+     * @throws IOException если не удалось прочитать поток
+     */
+    private <T> T readResponse(
+            final HttpStatusCode statusCode,
+            final InputStream body,
+            final BodyReader<T> reader,
+            final String token,
+            final String location,
+            final String url
+    ) throws IOException {
         try {
+            if (statusCode.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+                throw quotaExceeded(token);
+            }
+
             if (statusCode.is4xxClientError()) {
-                handle4xxError(responseBody, location, url);
+                throw toException(readError(body), token, location, url);
             }
 
             if (statusCode.is5xxServerError()) {
                 throw new CommonServerSideException("Failed to get current weather from the external API");
             }
 
-            return objectMapper.readValue(
-                    responseBody,
-                    ExternalApiWeatherResponse.class
-            );
+            final T result = reader.read(body);
+            quotaThrottle.onSuccess();
+            return result;
 
         } catch (JsonProcessingException e) {
-            throw new ResponseBodyProceedingException(responseBody);
+            throw new ResponseBodyProceedingException(e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    @RateLimiter(name = RATE_LIMITER_NAME)
+    @CircuitBreaker(name = BULK_OPERATION_NAME)
+    @Bulkhead(name = BULK_OPERATION_NAME)
+    public List<BulkWeatherResult> getCurrentBulk(
+            final List<String> locations,
+            final String language,
+            final Boolean aqi
+    ) {
+        final int limit = apiConfig.getBulkRequest().getLocationsLimit();
+        if (locations.size() > limit) {
+            throw new TooManyLocationsException(limit);
+        }
+
+        final List<BulkLocationDto> bulkLocations = new ArrayList<>(locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            bulkLocations.add(BulkLocationDto.builder()
+                    .query(locations.get(i))
+                    .customId(String.valueOf(i))
+                    .build());
+        }
+
+        final String token = tokenPool.acquire(locations.size());
+        final String url = buildUrl(token, BULK_LOCATION_PARAM_VALUE, language, aqi);
+        quotaThrottle.recordCalls(locations.size());
+        return restTemplate.execute(
+                url,
+                HttpMethod.POST,
+                restTemplate.httpEntityCallback(new ExternalApiBulkRequest(bulkLocations)),
+                response -> readResponse(
+                        response.getStatusCode(),
+                        response.getBody(),
+                        body -> readBulk(body, locations, token, url),
+                        token,
+                        BULK_LOCATION_PARAM_VALUE,
+                        url
+                )
+        );
+    }
+
+    /**
+     * Читает ответ на массовый запрос из потока и сопоставляет его элементы
+     * запрошенным местоположениям по пользовательскому идентификатору, сохраняя порядок запроса.
+     * Каждый элемент сразу преобразуется в краткую информацию о погоде.
+     *
+     * @param body      поток с телом ответа
+     * @param locations запрошенные местоположения
+     * @param token     токен, с которым выполнялся запрос
+     * @param url       URL запроса
+     * @return результаты для каждого из запрошенных местоположений
+     * @throws IOException если не удалось прочитать поток или тело ответа не является корректным JSON
+     */
+    private List<BulkWeatherResult> readBulk(
+            final InputStream body,
+            final List<String> locations,
+            final String token,
+            final String url
+    ) throws IOException {
+        final BulkWeatherResult[] results = new BulkWeatherResult[locations.size()];
+
+        summaryReader.readBulk(body, (customId, summary, error) -> {
+            final Integer index = parseIndex(customId, locations.size());
+            if (index == null) {
+                return;
+            }
+
+            final String location = locations.get(index);
+            results[index] = error == null
+                    ? BulkWeatherResult.success(location, summary)
+                    : BulkWeatherResult.failure(location, toException(error, token, location, url));
+        });
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = BulkWeatherResult.failure(
+                        locations.get(i),
+                        new CommonServerSideException(MessageFormat.format(
+                                "External API bulk response contains no result for location <{0}>",
+                                locations.get(i)
+                        ))
+                );
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Преобразует пользовательский идентификатор местоположения в индекс в запросе.
+     *
+     * @param customId пользовательский идентификатор местоположения
+     * @param size     количество местоположений в запросе
+     * @return индекс местоположения в запросе или {@code null}, если идентификатор некорректен
+     */
+    private static Integer parseIndex(final String customId, final int size) {
+        try {
+            final int index = Integer.parseInt(customId);
+            return index >= 0 && index < size ? index : null;
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
     /**
      * Создает URL для запроса.
      *
+     * @param token     токен
      * @param location  местоположение
      * @param language  язык
      * @param aqiNeeded надобность информации о качестве воздуха
      * @return URL для запроса
      */
     private String buildUrl(
+            final String token,
             final String location,
             final String language,
             final Boolean aqiNeeded
@@ -115,7 +654,7 @@ public abstract class AbstractExternalWeatherApiService implements IExternalWeat
         final UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(
                         apiConfig.getBaseUrl() + apiConfig.getCurrent().getUrl()
                 )
-                .queryParam(apiConfig.getTokenParamName(), apiConfig.getToken());
+                .queryParam(apiConfig.getTokenParamName(), token);
 
         if (location != null && !location.isEmpty()) {
             uriBuilder.queryParam(
@@ -142,60 +681,116 @@ public abstract class AbstractExternalWeatherApiService implements IExternalWeat
     }
 
     /**
-     * Обрабатывает ошибку с HTTP статусом 4xx.
+     * Читает тело ответа с HTTP статусом 4xx из потока и преобразует его в ошибку API.
      *
-     * @param responseBody тело ответа
-     * @param location     местоположение
-     * @param url          URL запроса
-     * @throws JsonProcessingException если не может преобразовать тело ответа
-     *                                 в объект типа {@link ExternalApiErrorResponse}
-     */
-    private void handle4xxError(
-            final String responseBody,
-            final String location,
-            final String url
-    ) throws JsonProcessingException {
+     * @param body поток с телом ответа
+     * @return ошибку API
+     * @throws IOException если не может прочитать поток или преобразовать тело ответа
+     *                     в объект типа {@link ExternalApiErrorResponse}
+     */
+    private ApiErrorDto readError(final InputStream body) throws IOException {
+        return errorReader.<ExternalApiErrorResponse>readValue(body).getError();
+    }
 
-        final var errorResponse = objectMapper.readValue(
-                responseBody,
-                ExternalApiErrorResponse.class
-        );
+    /**
+     * Читает тело ответа на запрос погоды в реальном времени из потока.
+     *
+     * @param body поток с телом ответа
+     * @return информацию о погоде в данный момент времени
+     * @throws IOException если не может прочитать поток или преобразовать тело ответа
+     *                     в объект типа {@link ExternalApiWeatherResponse}
+     */
+    private ExternalApiWeatherResponse readWeather(final InputStream body) throws IOException {
+        return weatherReader.readValue(body);
+    }
 
-        final ErrorCode code = ErrorCode.withCode(errorResponse.getError().getCode());
+    /**
+     * Исключает токен с превышенной квотой из выбора и, если доступных токенов не осталось,
+     * сообщает ограничению запросов о превышении квоты. Возвращает соответствующее исключение.
+     *
+     * @param token токен, с которым выполнялся запрос
+     * @return исключение о превышении квоты токена
+     */
+    private TokenLimitExceededException quotaExceeded(final String token) {
+        tokenPool.onTokenError(token, ErrorCode.TOKEN_LIMIT_EXCEEDED);
+        if (!tokenPool.hasAvailable()) {
+            quotaThrottle.onQuotaExceeded();
+        }
+        return new TokenLimitExceededException(apiConfig.getTokenParamName());
+    }
+
+    /**
+     * Возвращает исключение, соответствующее ошибке API.
+     *
+     * @param error    ошибка API
+     * @param token    токен, с которым выполнялся запрос
+     * @param location местоположение
+     * @param url      URL запроса
+     * @return исключение, соответствующее ошибке API
+     */
+    private CommonException toException(
+            final ApiErrorDto error,
+            final String token,
+            final String location,
+            final String url
+    ) {
+        final ErrorCode code = ErrorCode.withCode(error.getCode());
 
         if (code == null) {
-            throw new CommonServerSideException(
+            return new CommonServerSideException(
                     MessageFormat.format(
                             "Unknown API response error code: {0}",
-                            errorResponse.getError().getCode()
+                            error.getCode()
                     )
             );
         }
 
-        switch (code) {
-            case LOCATION_NOT_PROVIDED -> throw new LocationNotProvidedException(LOCATION_PARAM_NAME);
+        if (code == ErrorCode.DISABLED_TOKEN || code == ErrorCode.INVALID_TOKEN) {
+            tokenPool.onTokenError(token, code);
+        }
+
+        return switch (code) {
+            case LOCATION_NOT_PROVIDED -> new LocationNotProvidedException(LOCATION_PARAM_NAME);
 
-            case LOCATION_NOT_FOUND -> throw new LocationNotFoundException(LOCATION_PARAM_NAME, location);
+            case LOCATION_NOT_FOUND -> new LocationNotFoundException(LOCATION_PARAM_NAME, location);
 
-            case TOKEN_NOT_PROVIDED -> throw new TokenNotProvidedException(apiConfig.getTokenParamName());
+            case TOKEN_NOT_PROVIDED -> new TokenNotProvidedException(apiConfig.getTokenParamName());
 
-            case TOKEN_LIMIT_EXCEEDED -> throw new TokenLimitExceededException(apiConfig.getTokenParamName());
+            case TOKEN_LIMIT_EXCEEDED -> quotaExceeded(token);
 
-            case DISABLED_TOKEN -> throw new DisabledTokenException(apiConfig.getTokenParamName());
+            case DISABLED_TOKEN -> new DisabledTokenException(apiConfig.getTokenParamName());
 
-            case INVALID_TOKEN -> throw new InvalidTokenException(apiConfig.getTokenParamName());
+            case INVALID_TOKEN -> new InvalidTokenException(apiConfig.getTokenParamName());
 
-            case ACCESS_DENIED -> throw new AccessDeniedException(apiConfig.getTokenParamName());
+            case ACCESS_DENIED -> new AccessDeniedException(apiConfig.getTokenParamName());
 
-            case INVALID_URL -> throw new InvalidUrlException(url);
+            case INVALID_URL -> new InvalidUrlException(url);
 
-            case INVALID_JSON -> throw new InvalidJsonBodyException();
+            case INVALID_JSON -> new InvalidJsonBodyException();
 
-            case TOO_MANY_LOCATIONS -> throw new TooManyLocationsException(
+            case TOO_MANY_LOCATIONS -> new TooManyLocationsException(
                     apiConfig.getBulkRequest().getLocationsLimit()
             );
 
-            case EXTERNAL_API_ERROR -> throw new ExternalApiErrorException();
-        }
+            case EXTERNAL_API_ERROR -> new ExternalApiErrorException();
+        };
+    }
+
+    /**
+     * Читатель тела успешного ответа внешнего API.
+     *
+     * @param <T> тип результата
+     */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+
+        /**
+         * Читает тело ответа из потока.
+         *
+         * @param body поток с телом ответа
+         * @return результат чтения
+         * @throws IOException если не удалось прочитать поток или преобразовать тело ответа
+         */
+        T read(final InputStream body) throws IOException;
     }
 }
@@ -1,48 +1,457 @@
 package ru.bukhtaev.service;
 
-import jakarta.validation.constraints.Size;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.validation.annotation.Validated;
 import ru.bukhtaev.config.CitiesConfigParams;
+import ru.bukhtaev.config.DemandPollingConfigParams;
+import ru.bukhtaev.config.PollingConfigParams;
+import ru.bukhtaev.util.DecayingCounter;
 
-import java.util.ArrayDeque;
-import java.util.Arrays;
-import java.util.Deque;
-import java.util.stream.Collectors;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Сервис предоставления названий городов.
+ * Сервис предоставления названий городов для опроса по расписанию.
+ * <p>
+ * Каждый город опрашивается не чаще одного раза за свой интервал, время следующего опроса
+ * может случайно смещаться на долю интервала. Города, время опроса которых наступило,
+ * выдаются в порядке наступления этого времени, поэтому отложенные города выдаются первыми.
+ * Время опроса отсчитывается от предыдущего запланированного, а не от фактического времени,
+ * чтобы интервал не увеличивался из-за задержек, но пропущенные опросы не накапливаются.
+ * Города могут добавляться и удаляться во время работы, выдача безопасна для нескольких потоков.
+ * Задержка опроса каждого города относительно запланированного времени учитывается в метриках.
+ * <p>
+ * Если включено распределение опросов по частоте чтения, общий бюджет опросов, соответствующий
+ * интервалу по умолчанию для всех городов, перераспределяется: каждый город получает минимальную
+ * частоту опроса, определяемую максимальным интервалом, а оставшийся бюджет делится пропорционально
+ * затухающим счетчикам чтений городов. Интервал не бывает меньше минимального, поэтому бюджет
+ * может расходоваться не полностью. Пока чтений нет, все города опрашиваются с интервалом по умолчанию.
+ * Города с явно заданным интервалом в распределении не участвуют.
+ * <p>
+ * Если опрос городов распределяется между экземплярами приложения, выдаются только города,
+ * принадлежащие текущему экземпляру. Опросы остальных городов планируются так же, но пропускаются,
+ * поэтому при перераспределении город начинает опрашиваться новым владельцем в пределах интервала.
+ * <p>
+ * Выданные города, которые не удалось опросить, могут быть отложены до следующего опроса.
  */
-@Validated
+@Slf4j
 @Component
 public class CitiesProvider {
 
     /**
-     * Двунаправленная очередь с названиями городов.
+     * Название метрики задержки опроса города относительно запланированного времени.
      */
-    @Size(min = 1)
-    private final Deque<String> deque;
+    public static final String METRIC_SCHEDULE_LAG = "weather.polling.schedule.lag";
+
+    /**
+     * Время, в течение которого используется вычисленная суммарная частота чтения городов.
+     */
+    private static final Duration DEMAND_SNAPSHOT_TTL = Duration.ofSeconds(1);
+
+    /**
+     * Параметры конфигурации опроса внешнего API.
+     */
+    private final PollingConfigParams pollingConfig;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Сервис согласования задач по расписанию между экземплярами приложения.
+     */
+    private final SchedulerCoordinator coordinator;
+
+    /**
+     * Часы.
+     */
+    private final Clock clock;
+
+    /**
+     * Очередь запланированных опросов городов в порядке наступления времени опроса.
+     * Может содержать устаревшие записи удаленных городов, которые пропускаются при выдаче.
+     */
+    private final DelayQueue<ScheduledCity> queue = new DelayQueue<>();
+
+    /**
+     * Актуальные запланированные опросы по названиям городов.
+     */
+    private final Map<String, ScheduledCity> scheduled = new ConcurrentHashMap<>();
+
+    /**
+     * Метрики задержки опроса по названиям городов.
+     */
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Порядковый номер следующей записи для упорядочивания опросов с одинаковым временем.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Затухающие счетчики чтений по нормализованным названиям городов.
+     */
+    private final Map<String, DecayingCounter> demand = new ConcurrentHashMap<>();
+
+    /**
+     * Последняя вычисленная суммарная частота чтения городов.
+     */
+    private volatile DemandSnapshot demandSnapshot = new DemandSnapshot(Instant.MIN, 0, 0);
 
     /**
      * Конструктор.
      *
      * @param citiesConfigParams параметры конфигурации для получения
      *                           данных о погоде по расписанию
+     * @param meterRegistry      реестр метрик
+     * @param coordinator        сервис согласования задач по расписанию
+     */
+    @Autowired
+    public CitiesProvider(
+            final CitiesConfigParams citiesConfigParams,
+            final MeterRegistry meterRegistry,
+            final SchedulerCoordinator coordinator
+    ) {
+        this(citiesConfigParams, meterRegistry, coordinator, Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param citiesConfigParams параметры конфигурации для получения
+     *                           данных о погоде по расписанию
+     * @param meterRegistry      реестр метрик
+     * @param coordinator        сервис согласования задач по расписанию
+     * @param clock              часы
+     */
+    CitiesProvider(
+            final CitiesConfigParams citiesConfigParams,
+            final MeterRegistry meterRegistry,
+            final SchedulerCoordinator coordinator,
+            final Clock clock
+    ) {
+        this.pollingConfig = citiesConfigParams.getPolling();
+        this.meterRegistry = meterRegistry;
+        this.coordinator = coordinator;
+        this.clock = clock;
+
+        for (final String city : citiesConfigParams.getCities()) {
+            addCity(city);
+        }
+    }
+
+    /**
+     * Добавляет город. Первый опрос города запланирован на текущее время.
+     *
+     * @param city название города
+     * @return {@code true}, если город добавлен, {@code false}, если он уже был добавлен
+     */
+    public boolean addCity(final String city) {
+        final Instant now = clock.instant();
+        final var entry = new ScheduledCity(city, now, now, sequence.getAndIncrement());
+        if (scheduled.putIfAbsent(city, entry) != null) {
+            return false;
+        }
+
+        demand.putIfAbsent(normalize(city), new DecayingCounter(pollingConfig.getDemand().getHalfLife(), now));
+        lagTimers.put(city, Timer.builder(METRIC_SCHEDULE_LAG)
+                .description("Delay of city polling relative to its scheduled time")
+                .tag("city", city)
+                .register(meterRegistry));
+        queue.offer(entry);
+        log.debug("City <{}> is scheduled for polling", city);
+        return true;
+    }
+
+    /**
+     * Удаляет город. Уже выданный город может быть опрошен ещё раз.
+     *
+     * @param city название города
+     * @return {@code true}, если город удален, {@code false}, если он не был добавлен
+     */
+    public boolean removeCity(final String city) {
+        final ScheduledCity entry = scheduled.remove(city);
+        if (entry == null) {
+            return false;
+        }
+
+        queue.remove(entry);
+        demand.remove(normalize(city));
+        final Timer timer = lagTimers.remove(city);
+        if (timer != null) {
+            meterRegistry.remove(timer);
+        }
+        log.debug("City <{}> is no longer polled", city);
+        return true;
+    }
+
+    /**
+     * Учитывает чтение пользователем данных о погоде в указанном городе.
+     * Название города сопоставляется с опрашиваемыми городами без учета регистра
+     * и пробелов по краям. Чтения городов, которые не опрашиваются, не учитываются.
+     *
+     * @param city название города
+     */
+    public void recordDemand(final String city) {
+        if (city == null || !pollingConfig.getDemand().isEnabled()) {
+            return;
+        }
+
+        final DecayingCounter counter = demand.get(normalize(city));
+        if (counter != null) {
+            counter.increment(clock.instant());
+        }
+    }
+
+    /**
+     * Возвращает не более указанного количества городов текущего экземпляра,
+     * время опроса которых наступило, и планирует следующий опрос всех пройденных городов.
+     *
+     * @param count максимальное количество городов
+     * @return города в порядке наступления времени опроса
+     */
+    public List<String> getCities(final int count) {
+        final List<String> cities = new ArrayList<>(Math.min(count, scheduled.size()));
+        final DemandSnapshot snapshot = demandSnapshot();
+        while (cities.size() < count) {
+            final ScheduledCity entry = queue.poll();
+            if (entry == null) {
+                break;
+            }
+
+            final String city = entry.city();
+            final Instant now = clock.instant();
+            final ScheduledCity next = entry.next(now, intervalOf(city, snapshot), sequence.getAndIncrement());
+            if (scheduled.replace(city, entry, next)) {
+                queue.offer(next);
+                if (coordinator.owns(city)) {
+                    recordLag(city, Duration.between(entry.due(), now));
+                    cities.add(city);
+                }
+            }
+        }
+        return cities;
+    }
+
+    /**
+     * Откладывает опрос выданных, но не опрошенных городов: их следующий опрос
+     * планируется на текущее время, поэтому они выдаются первыми при следующем опросе.
+     * Удаленные города не возвращаются.
+     *
+     * @param cities названия городов
+     */
+    public void postpone(final Collection<String> cities) {
+        final Instant now = clock.instant();
+        for (final String city : cities) {
+            final ScheduledCity current = scheduled.get(city);
+            if (current == null) {
+                continue;
+            }
+
+            final var entry = new ScheduledCity(city, now, now, sequence.getAndIncrement());
+            if (scheduled.replace(city, current, entry)) {
+                queue.offer(entry);
+            }
+        }
+    }
+
+    /**
+     * Возвращает неизменяемый снимок всех городов в произвольном порядке.
+     *
+     * @return все города
+     */
+    public List<String> getCities() {
+        return List.copyOf(scheduled.keySet());
+    }
+
+    /**
+     * Возвращает интервал опроса указанного города.
+     *
+     * @param city     название города
+     * @param snapshot суммарная частота чтения городов
+     * @return интервал опроса
+     */
+    private Duration intervalOf(final String city, final DemandSnapshot snapshot) {
+        final Duration configured = pollingConfig.getIntervals().get(city);
+        if (configured != null) {
+            return configured;
+        }
+
+        final DemandPollingConfigParams demandConfig = pollingConfig.getDemand();
+        final DecayingCounter counter = demand.get(normalize(city));
+        if (!demandConfig.isEnabled() || counter == null || snapshot.total() <= 0) {
+            return pollingConfig.getInterval();
+        }
+
+        final double floorRate = 1.0 / demandConfig.getMaxInterval().toMillis();
+        final double spareRate = snapshot.count()
+                * Math.max(0, 1.0 / pollingConfig.getInterval().toMillis() - floorRate);
+        final double rate = floorRate + spareRate * counter.get(snapshot.computedAt()) / snapshot.total();
+        final long intervalMillis = Math.round(1 / rate);
+        return Duration.ofMillis(Math.min(
+                Math.max(intervalMillis, demandConfig.getMinInterval().toMillis()),
+                demandConfig.getMaxInterval().toMillis()
+        ));
+    }
+
+    /**
+     * Возвращает суммарную частоту чтения городов, участвующих в распределении опросов,
+     * при необходимости вычисляя её заново.
+     *
+     * @return суммарная частота чтения городов
+     */
+    private DemandSnapshot demandSnapshot() {
+        final Instant now = clock.instant();
+        final DemandSnapshot snapshot = demandSnapshot;
+        if (!pollingConfig.getDemand().isEnabled()
+                || now.isBefore(snapshot.computedAt().plus(DEMAND_SNAPSHOT_TTL))) {
+            return snapshot;
+        }
+
+        double total = 0;
+        int count = 0;
+        for (final String city : scheduled.keySet()) {
+            final DecayingCounter counter = demand.get(normalize(city));
+            if (counter != null && !pollingConfig.getIntervals().containsKey(city)) {
+                total += counter.get(now);
+                count++;
+            }
+        }
+
+        final var computed = new DemandSnapshot(now, total, count);
+        demandSnapshot = computed;
+        return computed;
+    }
+
+    /**
+     * Возвращает название города, по которому учитываются чтения.
+     *
+     * @param city название города
+     * @return название города без пробелов по краям в нижнем регистре
+     */
+    private static String normalize(final String city) {
+        return city.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Учитывает задержку опроса города в метриках.
+     *
+     * @param city название города
+     * @param lag  задержка опроса
+     */
+    private void recordLag(final String city, final Duration lag) {
+        final Timer timer = lagTimers.get(city);
+        if (timer != null) {
+            timer.record(lag);
+        }
+    }
+
+    /**
+     * Возвращает случайное смещение времени опроса для указанного интервала.
+     *
+     * @param interval интервал опроса
+     * @return смещение времени опроса
      */
-    public CitiesProvider(final CitiesConfigParams citiesConfigParams) {
-        this.deque = Arrays.stream(citiesConfigParams.getCities())
-                .distinct()
-                .collect(Collectors.toCollection(ArrayDeque::new));
+    private Duration jitter(final Duration interval) {
+        final double jitter = pollingConfig.getJitter();
+        if (jitter <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(Math.round(
+                interval.toMillis() * ThreadLocalRandom.current().nextDouble(-jitter, jitter)
+        ));
     }
 
     /**
-     * Возвращает города по очереди.
+     * Суммарная частота чтения городов, участвующих в распределении опросов.
      *
-     * @return города по очереди
+     * @param computedAt время вычисления
+     * @param total      сумма затухающих счетчиков чтений
+     * @param count      количество городов
+     */
+    private record DemandSnapshot(Instant computedAt, double total, int count) {
+    }
+
+    /**
+     * Запланированный опрос города.
      */
-    public String getCity() {
-        final String city = this.deque.poll();
-        this.deque.addLast(city);
-        return city;
+    private final class ScheduledCity implements Delayed {
+
+        /**
+         * Название города.
+         */
+        private final String city;
+
+        /**
+         * Запланированное время опроса без случайного смещения.
+         */
+        private final Instant base;
+
+        /**
+         * Запланированное время опроса.
+         */
+        private final Instant due;
+
+        /**
+         * Порядковый номер записи.
+         */
+        private final long sequence;
+
+        ScheduledCity(final String city, final Instant base, final Instant due, final long sequence) {
+            this.city = city;
+            this.base = base;
+            this.due = due;
+            this.sequence = sequence;
+        }
+
+        String city() {
+            return city;
+        }
+
+        Instant due() {
+            return due;
+        }
+
+        /**
+         * Возвращает следующий опрос города.
+         *
+         * @param now          текущее время
+         * @param interval     интервал опроса
+         * @param nextSequence порядковый номер следующей записи
+         * @return следующий опрос города
+         */
+        ScheduledCity next(final Instant now, final Duration interval, final long nextSequence) {
+            final Instant planned = base.plus(interval);
+            final Instant nextBase = planned.isBefore(now) ? now : planned;
+            return new ScheduledCity(city, nextBase, nextBase.plus(jitter(interval)), nextSequence);
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(Duration.between(clock.instant(), due));
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            final ScheduledCity that = (ScheduledCity) other;
+            final int byDue = due.compareTo(that.due);
+            return byDue != 0 ? byDue : Long.compare(sequence, that.sequence);
+        }
     }
 }
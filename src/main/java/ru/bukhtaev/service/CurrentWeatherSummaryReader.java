@@ -0,0 +1,335 @@
+package ru.bukhtaev.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import ru.bukhtaev.dto.external.ApiErrorDto;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Потоковое чтение краткой информации о погоде {@link CurrentWeatherSummary}
+ * из ответа внешнего API на запрос погоды в реальном времени.
+ * <p>
+ * Ответ читается по токенам непосредственно из потока: из него извлекаются только
+ * название местоположения, местная дата и время, температура по Цельсию и описание погодных условий,
+ * а остальные поля пропускаются без создания объектов.
+ * Ответ на массовый запрос читается так же: каждый его элемент передается обработчику
+ * {@link BulkItemHandler} сразу после чтения, без построения промежуточного списка.
+ */
+public class CurrentWeatherSummaryReader {
+
+    private static final String FIELD_LOCATION = "location";
+
+    private static final String FIELD_CURRENT = "current";
+
+    private static final String FIELD_NAME = "name";
+
+    private static final String FIELD_LOCALTIME = "localtime";
+
+    private static final String FIELD_TEMPERATURE_C = "temp_c";
+
+    private static final String FIELD_CONDITION = "condition";
+
+    private static final String FIELD_TEXT = "text";
+
+    private static final String FIELD_BULK = "bulk";
+
+    private static final String FIELD_QUERY = "query";
+
+    private static final String FIELD_CUSTOM_ID = "custom_id";
+
+    private static final String FIELD_ERROR = "error";
+
+    private static final String FIELD_CODE = "code";
+
+    private static final String FIELD_MESSAGE = "message";
+
+    /**
+     * Фабрика парсеров JSON.
+     */
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Конструктор.
+     *
+     * @param jsonFactory фабрика парсеров JSON
+     */
+    public CurrentWeatherSummaryReader(final JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Читает краткую информацию о погоде из потока.
+     *
+     * @param body поток с телом ответа
+     * @return краткую информацию о погоде
+     * @throws IOException если не удалось прочитать поток или тело ответа не является корректным JSON
+     */
+    public CurrentWeatherSummary read(final InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Читает краткую информацию о погоде из массива байт.
+     *
+     * @param body тело ответа
+     * @return краткую информацию о погоде
+     * @throws IOException если тело ответа не является корректным JSON
+     */
+    public CurrentWeatherSummary read(final byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Читает ответ на массовый запрос погоды в реальном времени из потока
+     * и передает обработчику краткую информацию о погоде или ошибку для каждого его элемента.
+     *
+     * @param body    поток с телом ответа
+     * @param handler обработчик элементов ответа
+     * @throws IOException если не удалось прочитать поток или тело ответа не является корректным JSON
+     */
+    public void readBulk(final InputStream body, final BulkItemHandler handler) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            readBulk(parser, handler);
+        }
+    }
+
+    /**
+     * Читает ответ на массовый запрос погоды в реальном времени из массива байт
+     * и передает обработчику краткую информацию о погоде или ошибку для каждого его элемента.
+     *
+     * @param body    тело ответа
+     * @param handler обработчик элементов ответа
+     * @throws IOException если тело ответа не является корректным JSON
+     */
+    public void readBulk(final byte[] body, final BulkItemHandler handler) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            readBulk(parser, handler);
+        }
+    }
+
+    private CurrentWeatherSummary read(final JsonParser parser) throws IOException {
+        final var summary = CurrentWeatherSummary.builder();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "External API response must be a JSON object");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+
+            if (FIELD_LOCATION.equals(field) && startObject(parser, value)) {
+                readLocation(parser, summary);
+            } else if (FIELD_CURRENT.equals(field) && startObject(parser, value)) {
+                readCurrent(parser, summary);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return summary.build();
+    }
+
+    private static void readBulk(final JsonParser parser, final BulkItemHandler handler) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "External API bulk response must be a JSON object");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+
+            if (FIELD_BULK.equals(field) && startArray(parser, value)) {
+                readItems(parser, handler);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readItems(final JsonParser parser, final BulkItemHandler handler) throws IOException {
+        JsonToken item;
+        while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (!startObject(parser, item)) {
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+
+                if (FIELD_QUERY.equals(field) && startObject(parser, value)) {
+                    readQuery(parser, handler);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readQuery(final JsonParser parser, final BulkItemHandler handler) throws IOException {
+        final var summary = CurrentWeatherSummary.builder();
+        String customId = null;
+        ApiErrorDto error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+
+            if (FIELD_CUSTOM_ID.equals(field)) {
+                customId = readText(parser, value);
+            } else if (FIELD_LOCATION.equals(field) && startObject(parser, value)) {
+                readLocation(parser, summary);
+            } else if (FIELD_CURRENT.equals(field) && startObject(parser, value)) {
+                readCurrent(parser, summary);
+            } else if (FIELD_ERROR.equals(field) && startObject(parser, value)) {
+                error = readError(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        handler.handle(customId, error == null ? summary.build() : null, error);
+    }
+
+    private static ApiErrorDto readError(final JsonParser parser) throws IOException {
+        final var error = ApiErrorDto.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+
+            if (FIELD_CODE.equals(field)) {
+                error.code(value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null);
+            } else if (FIELD_MESSAGE.equals(field)) {
+                error.message(readText(parser, value));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return error.build();
+    }
+
+    private static void readLocation(
+            final JsonParser parser,
+            final CurrentWeatherSummary.CurrentWeatherSummaryBuilder summary
+    ) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+
+            if (FIELD_NAME.equals(field)) {
+                summary.cityName(readText(parser, value));
+            } else if (FIELD_LOCALTIME.equals(field)) {
+                summary.localtime(readText(parser, value));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readCurrent(
+            final JsonParser parser,
+            final CurrentWeatherSummary.CurrentWeatherSummaryBuilder summary
+    ) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+
+            if (FIELD_TEMPERATURE_C.equals(field)) {
+                summary.temperatureC(value.isNumeric() ? parser.getDoubleValue() : null);
+            } else if (FIELD_CONDITION.equals(field) && startObject(parser, value)) {
+                readCondition(parser, summary);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readCondition(
+            final JsonParser parser,
+            final CurrentWeatherSummary.CurrentWeatherSummaryBuilder summary
+    ) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+
+            if (FIELD_TEXT.equals(field)) {
+                summary.conditionText(readText(parser, value));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Проверяет, что значение поля является объектом.
+     * Значения других типов, кроме {@code null}, считаются некорректными.
+     *
+     * @param parser парсер
+     * @param value  токен значения поля
+     * @return {@code true}, если значение поля является объектом,
+     * и {@code false}, если значение равно {@code null}
+     * @throws JsonParseException если значение поля не является объектом и не равно {@code null}
+     */
+    private static boolean startObject(final JsonParser parser, final JsonToken value) throws JsonParseException {
+        if (value == JsonToken.START_OBJECT) {
+            return true;
+        }
+        if (value == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        throw new JsonParseException(parser, "Expected JSON object but found " + value);
+    }
+
+    /**
+     * Проверяет, что значение поля является массивом.
+     * Значения других типов, кроме {@code null}, считаются некорректными.
+     *
+     * @param parser парсер
+     * @param value  токен значения поля
+     * @return {@code true}, если значение поля является массивом,
+     * и {@code false}, если значение равно {@code null}
+     * @throws JsonParseException если значение поля не является массивом и не равно {@code null}
+     */
+    private static boolean startArray(final JsonParser parser, final JsonToken value) throws JsonParseException {
+        if (value == JsonToken.START_ARRAY) {
+            return true;
+        }
+        if (value == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        throw new JsonParseException(parser, "Expected JSON array but found " + value);
+    }
+
+    private static String readText(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value.isScalarValue()) {
+            return value == JsonToken.VALUE_NULL ? null : parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * Обработчик элемента ответа на массовый запрос.
+     */
+    @FunctionalInterface
+    public interface BulkItemHandler {
+
+        /**
+         * Обрабатывает элемент ответа на массовый запрос.
+         *
+         * @param customId пользовательский идентификатор местоположения
+         * @param summary  краткая информация о погоде или {@code null}, если элемент содержит ошибку
+         * @param error    ошибка для данного местоположения или {@code null}
+         */
+        void handle(String customId, CurrentWeatherSummary summary, ApiErrorDto error);
+    }
+}
@@ -0,0 +1,318 @@
+package ru.bukhtaev.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.data.domain.Sort;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bukhtaev.dto.DeadLetterReplayResultDto;
+import ru.bukhtaev.exception.CommonException;
+import ru.bukhtaev.exception.CommonServerSideException;
+import ru.bukhtaev.exception.DataNotFoundException;
+import ru.bukhtaev.kafka.KafkaHeadersCodec;
+import ru.bukhtaev.kafka.WeatherBinaryCodec;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.model.DeadLetter;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.repository.jpa.IDeadLetterJpaRepository;
+import ru.bukhtaev.validation.MessageProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import static org.springframework.transaction.TransactionDefinition.ISOLATION_READ_COMMITTED;
+import static org.springframework.transaction.annotation.Isolation.READ_COMMITTED;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+import static ru.bukhtaev.model.BaseEntity.FIELD_ID;
+import static ru.bukhtaev.model.DeadLetter.FIELD_CREATED_AT;
+import static ru.bukhtaev.validation.MessageUtils.MESSAGE_CODE_DEAD_LETTER_NOT_FOUND;
+
+/**
+ * Реализация сервиса для работы с необработанными сообщениями с данными о погоде.
+ */
+@Slf4j
+@Service
+@Transactional(
+        isolation = READ_COMMITTED,
+        readOnly = true
+)
+public class DeadLetterServiceImpl implements IDeadLetterService {
+
+    /**
+     * Заголовок с ID необработанного сообщения, которым отмечаются повторно отправленные сообщения.
+     * Данные о погоде такого сообщения уже были получены из основного топика,
+     * поэтому они не учитываются повторно при агрегации температуры.
+     */
+    public static final String HEADER_DEAD_LETTER_ID = "weather-dead-letter-id";
+
+    /**
+     * Максимальная длина сохраняемого сообщения об ошибке.
+     */
+    private static final int ERROR_MESSAGE_MAX_LENGTH = 1024;
+
+    /**
+     * Сортировка по дате и времени создания.
+     */
+    private static final Sort CREATED_AT_ASC = Sort.by(FIELD_CREATED_AT);
+
+    /**
+     * Служебные заголовки топиков повторных попыток и топика необработанных сообщений.
+     * Они не сохраняются и не отправляются повторно: иначе повторно отправленное сообщение
+     * унаследовало бы исчерпанный счетчик попыток и при новой ошибке сразу попало бы
+     * в топик необработанных сообщений, а трассировки стека накапливались бы с каждым циклом.
+     */
+    private static final Set<String> RETRY_HEADERS = Set.of(
+            RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS,
+            RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP,
+            RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP,
+            KafkaHeaders.DLT_EXCEPTION_FQCN,
+            KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN,
+            KafkaHeaders.DLT_EXCEPTION_STACKTRACE,
+            KafkaHeaders.DLT_EXCEPTION_MESSAGE,
+            KafkaHeaders.DLT_KEY_EXCEPTION_FQCN,
+            KafkaHeaders.DLT_KEY_EXCEPTION_STACKTRACE,
+            KafkaHeaders.DLT_KEY_EXCEPTION_MESSAGE,
+            KafkaHeaders.DLT_ORIGINAL_TOPIC,
+            KafkaHeaders.DLT_ORIGINAL_PARTITION,
+            KafkaHeaders.DLT_ORIGINAL_OFFSET,
+            KafkaHeaders.DLT_ORIGINAL_TIMESTAMP,
+            KafkaHeaders.DLT_ORIGINAL_TIMESTAMP_TYPE,
+            KafkaHeaders.DLT_ORIGINAL_CONSUMER_GROUP
+    );
+
+    /**
+     * Репозиторий.
+     */
+    private final IDeadLetterJpaRepository repository;
+
+    /**
+     * Сервис для отправки сообщений.
+     */
+    private final KafkaTemplate<String, Weather> kafkaTemplate;
+
+    /**
+     * Метрики обработки сообщений с данными о погоде.
+     */
+    private final WeatherConsumerMetrics metrics;
+
+    /**
+     * Сервис предоставления сообщений.
+     */
+    private final MessageProvider messageProvider;
+
+    /**
+     * Объект для управления транзакциями повторной отправки отдельных сообщений.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Конструктор.
+     *
+     * @param repository         репозиторий
+     * @param kafkaTemplate      сервис для отправки сообщений
+     * @param metrics            метрики обработки сообщений с данными о погоде
+     * @param messageProvider    сервис предоставления сообщений
+     * @param transactionManager менеджер транзакций
+     */
+    public DeadLetterServiceImpl(
+            final IDeadLetterJpaRepository repository,
+            final KafkaTemplate<String, Weather> kafkaTemplate,
+            final WeatherConsumerMetrics metrics,
+            final MessageProvider messageProvider,
+            final PlatformTransactionManager transactionManager
+    ) {
+        this.repository = repository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.metrics = metrics;
+        this.messageProvider = messageProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(ISOLATION_READ_COMMITTED);
+    }
+
+    @Override
+    @Transactional(isolation = READ_COMMITTED)
+    public DeadLetter save(final ConsumerRecord<String, Weather> record, final String errorMessage) {
+        final Weather weather = record.value();
+        final DeadLetter saved = repository.save(DeadLetter.builder()
+                .topic(record.topic())
+                .partition(record.partition())
+                .offset(record.offset())
+                .key(record.key())
+                .payload(weather == null ? null : WeatherBinaryCodec.encode(weather))
+                .headers(KafkaHeadersCodec.encode(applicationHeaders(record.headers())))
+                .errorMessage(truncate(errorMessage))
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        metrics.recordDeadLetter();
+        log.warn(
+                "Weather record {}-{}@{} was dead-lettered: {}",
+                record.topic(),
+                record.partition(),
+                record.offset(),
+                errorMessage
+        );
+        return saved;
+    }
+
+    @Override
+    public List<DeadLetter> getAll(final boolean pendingOnly) {
+        return pendingOnly
+                ? repository.findAllByReplayedAtIsNull(CREATED_AT_ASC)
+                : repository.findAll(CREATED_AT_ASC);
+    }
+
+    @Override
+    @Transactional(isolation = READ_COMMITTED)
+    public DeadLetter replay(final UUID id) {
+        final DeadLetter deadLetter = repository.findById(id)
+                .orElseThrow(() -> new DataNotFoundException(
+                        messageProvider.getMessage(
+                                MESSAGE_CODE_DEAD_LETTER_NOT_FOUND,
+                                id
+                        ),
+                        FIELD_ID
+                ));
+
+        send(deadLetter);
+        return deadLetter;
+    }
+
+    @Override
+    @Transactional(propagation = NOT_SUPPORTED)
+    public DeadLetterReplayResultDto replayAll() {
+        final List<DeadLetter> pending = repository.findAllByReplayedAtIsNull(CREATED_AT_ASC);
+        final Map<UUID, String> failures = new LinkedHashMap<>();
+        int replayed = 0;
+
+        for (final DeadLetter deadLetter : pending) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    send(deadLetter);
+                    repository.save(deadLetter);
+                });
+                replayed++;
+            } catch (RuntimeException e) {
+                failures.put(deadLetter.getId(), errorMessageOf(e));
+                log.error("Failed to replay dead letter <{}>", deadLetter.getId(), e);
+            }
+        }
+
+        return DeadLetterReplayResultDto.builder()
+                .replayed(replayed)
+                .failures(failures)
+                .build();
+    }
+
+    /**
+     * Отправляет необработанное сообщение с исходными прикладными заголовками и его ID
+     * в основной топик, где оно заново проходит все повторные попытки, и дожидается подтверждения, после чего отмечает его как отправленное повторно.
+     *
+     * @param deadLetter необработанное сообщение
+     */
+    private void send(final DeadLetter deadLetter) {
+        if (deadLetter.getPayload() == null) {
+            throw new CommonServerSideException(MessageFormat.format(
+                    "Dead letter <{0}> has no payload to replay",
+                    deadLetter.getId()
+            ));
+        }
+
+        final Weather weather = WeatherBinaryCodec.decode(deadLetter.getPayload());
+        final String key = deadLetter.getKey() != null
+                ? deadLetter.getKey()
+                : weather.getCity().getName();
+
+        final Headers headers = applicationHeaders(KafkaHeadersCodec.decode(deadLetter.getHeaders()));
+        headers.remove(HEADER_DEAD_LETTER_ID);
+        headers.add(HEADER_DEAD_LETTER_ID, deadLetter.getId().toString().getBytes(StandardCharsets.UTF_8));
+
+        try {
+            kafkaTemplate.send(new ProducerRecord<>(
+                    kafkaTemplate.getDefaultTopic(),
+                    null,
+                    key,
+                    weather,
+                    headers
+            )).join();
+        } catch (CompletionException e) {
+            throw new CommonServerSideException(MessageFormat.format(
+                    "Failed to replay dead letter <{0}>: {1}",
+                    deadLetter.getId(),
+                    e.getCause() == null ? e.getMessage() : e.getCause().getMessage()
+            ));
+        }
+
+        deadLetter.setReplayedAt(LocalDateTime.now());
+        metrics.recordReplay();
+        log.info("Dead letter <{}> was replayed", deadLetter.getId());
+    }
+
+    /**
+     * Возвращает {@code true}, если сообщение является повторно отправленным необработанным сообщением.
+     *
+     * @param headers заголовки сообщения
+     * @return {@code true}, если сообщение отправлено повторно из необработанных сообщений
+     */
+    public static boolean isReplayedDeadLetter(final Headers headers) {
+        return headers.lastHeader(HEADER_DEAD_LETTER_ID) != null;
+    }
+
+    /**
+     * Возвращает прикладные заголовки сообщения без служебных заголовков
+     * топиков повторных попыток и топика необработанных сообщений.
+     *
+     * @param headers заголовки сообщения
+     * @return прикладные заголовки
+     */
+    private static Headers applicationHeaders(final Headers headers) {
+        final RecordHeaders filtered = new RecordHeaders();
+        for (final Header header : headers) {
+            if (!RETRY_HEADERS.contains(header.key())) {
+                filtered.add(header);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Возвращает сообщение об ошибке исключения.
+     *
+     * @param exception исключение
+     * @return сообщение об ошибке
+     */
+    private static String errorMessageOf(final RuntimeException exception) {
+        return exception instanceof CommonException common
+                ? common.getErrorMessage()
+                : exception.getMessage();
+    }
+
+    /**
+     * Обрезает сообщение об ошибке до максимальной длины столбца.
+     *
+     * @param errorMessage сообщение об ошибке
+     * @return обрезанное сообщение об ошибке
+     */
+    private static String truncate(final String errorMessage) {
+        if (errorMessage == null || errorMessage.length() <= ERROR_MESSAGE_MAX_LENGTH) {
+            return errorMessage;
+        }
+        return errorMessage.substring(0, ERROR_MESSAGE_MAX_LENGTH);
+    }
+}
@@ -0,0 +1,325 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.QuotaConfigParams;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Адаптивное ограничение фоновых запросов к внешнему API в соответствии с квотой токенов.
+ * <p>
+ * Учитывает все запросы к внешнему API за текущий период квоты. Квота равна сумме квот
+ * всех токенов пула. Фоновому опросу выделяется
+ * квота, оставшаяся за вычетом резерва для запросов пользователей в реальном времени, равномерно
+ * распределенная на время до конца периода: если квота расходуется быстрее, опрос замедляется,
+ * а отложенные города опрашиваются позже. После ответа внешнего API о превышении квоты
+ * (код ошибки 2007 или HTTP статус 429) для всех токенов пула фоновые запросы приостанавливаются с экспоненциально
+ * растущей задержкой, по истечении которой выполняется один пробный запрос.
+ * После первого успешного ответа считается, что квота восстановлена.
+ * Запросы пользователей в реальном времени не ограничиваются, а только учитываются.
+ */
+@Slf4j
+@Component
+public class ExternalApiQuotaThrottle {
+
+    /**
+     * Название метрики количества запросов к внешнему API.
+     */
+    public static final String METRIC_CALLS = "external-api.quota.calls";
+
+    /**
+     * Название метрики количества отложенных фоновых запросов.
+     */
+    public static final String METRIC_DEFERRED = "external-api.quota.deferred";
+
+    /**
+     * Название метрики оставшейся квоты.
+     */
+    public static final String METRIC_REMAINING = "external-api.quota.remaining";
+
+    /**
+     * Название метрики скорости расхода квоты.
+     */
+    public static final String METRIC_BURN_RATE = "external-api.quota.burn-rate";
+
+    /**
+     * Название метрики оставшегося времени приостановки фоновых запросов.
+     */
+    public static final String METRIC_BACKOFF = "external-api.quota.backoff";
+
+    /**
+     * Параметры конфигурации ограничения.
+     */
+    private final QuotaConfigParams config;
+
+    /**
+     * Количество запросов, доступных всем токенам пула за период квоты.
+     */
+    private final long limit;
+
+    /**
+     * Часы.
+     */
+    private final Clock clock;
+
+    /**
+     * Счетчик запросов к внешнему API.
+     */
+    private final Counter calls;
+
+    /**
+     * Счетчик отложенных фоновых запросов.
+     */
+    private final Counter deferred;
+
+    /**
+     * Начало текущего периода квоты.
+     */
+    private Instant periodStart;
+
+    /**
+     * Количество запросов за текущий период квоты.
+     */
+    private long used;
+
+    /**
+     * Количество фоновых запросов, которое может быть выполнено сейчас.
+     */
+    private double credit;
+
+    /**
+     * Время последнего пополнения количества доступных фоновых запросов.
+     */
+    private Instant lastRefill;
+
+    /**
+     * Текущее время приостановки фоновых запросов.
+     * Равно нулю, если внешний API не сообщал о превышении квоты.
+     */
+    private Duration backoff = Duration.ZERO;
+
+    /**
+     * Время, до которого фоновые запросы приостановлены.
+     */
+    private Instant backoffUntil = Instant.MIN;
+
+    /**
+     * Конструктор.
+     *
+     * @param apiConfig     параметры конфигурации внешнего API
+     * @param tokenPool     пул токенов для взаимодействия с внешним API
+     * @param meterRegistry реестр метрик
+     */
+    @Autowired
+    public ExternalApiQuotaThrottle(
+            final ExternalApiConfigParams apiConfig,
+            final ExternalApiTokenPool tokenPool,
+            final MeterRegistry meterRegistry
+    ) {
+        this(apiConfig.getQuota(), tokenPool.size(), meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param config        параметры конфигурации ограничения
+     * @param tokensCount   количество токенов в пуле
+     * @param meterRegistry реестр метрик
+     * @param clock         часы
+     */
+    ExternalApiQuotaThrottle(
+            final QuotaConfigParams config,
+            final int tokensCount,
+            final MeterRegistry meterRegistry,
+            final Clock clock
+    ) {
+        this.config = config;
+        this.limit = config.getLimit() * tokensCount;
+        this.clock = clock;
+        startPeriod(clock.instant());
+
+        this.calls = Counter.builder(METRIC_CALLS)
+                .description("External API calls counted against the token quota")
+                .register(meterRegistry);
+        this.deferred = Counter.builder(METRIC_DEFERRED)
+                .description("Background external API calls deferred to stay within the token quota")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_REMAINING, this, ExternalApiQuotaThrottle::getRemaining)
+                .description("External API calls remaining in the current quota period")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_BURN_RATE, this, ExternalApiQuotaThrottle::getBurnRate)
+                .description("External API calls per hour in the current quota period")
+                .baseUnit("calls/h")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_BACKOFF, this, ExternalApiQuotaThrottle::getBackoffSeconds)
+                .description("Remaining time background external API calls are paused after the quota was exceeded")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Учитывает выполненные запросы к внешнему API.
+     *
+     * @param count количество запросов
+     */
+    public synchronized void recordCalls(final int count) {
+        renewIfDue(clock.instant());
+        used += count;
+        calls.increment(count);
+    }
+
+    /**
+     * Возвращает количество фоновых запросов из запрошенного, которое может быть выполнено сейчас,
+     * и резервирует его. Остальные запросы следует отложить до следующего опроса.
+     *
+     * @param requested необходимое количество запросов
+     * @return количество запросов, которое может быть выполнено сейчас
+     */
+    public synchronized int acquireBackground(final int requested) {
+        if (requested <= 0) {
+            return 0;
+        }
+
+        final Instant now = clock.instant();
+        renewIfDue(now);
+        if (!config.isEnabled()) {
+            return requested;
+        }
+
+        int granted = 0;
+        if (now.isBefore(backoffUntil)) {
+            log.debug("Background external API calls are paused until {}", backoffUntil);
+        } else if (!backoff.isZero()) {
+            // Пробный запрос: успешный ответ означает, что квота восстановлена
+            granted = 1;
+            backoffUntil = now.plus(backoff);
+        } else {
+            refill(now);
+            granted = (int) Math.max(0, Math.min(requested, Math.min((long) credit, backgroundAvailable())));
+            credit -= granted;
+        }
+
+        if (granted < requested) {
+            deferred.increment(requested - granted);
+            log.debug("{} of {} background external API calls are deferred by the quota throttle",
+                    requested - granted, requested);
+        }
+        return granted;
+    }
+
+    /**
+     * Обрабатывает ответ внешнего API о превышении квоты:
+     * приостанавливает фоновые запросы, удваивая время приостановки при каждом повторном ответе.
+     */
+    public synchronized void onQuotaExceeded() {
+        final Instant now = clock.instant();
+        backoff = backoff.isZero()
+                ? config.getInitialBackoff()
+                : min(backoff.multipliedBy(2), config.getMaxBackoff());
+        backoffUntil = now.plus(backoff);
+        used = Math.max(used, limit);
+        credit = 0;
+        log.warn("External API quota is exceeded, background calls are paused for {}", backoff);
+    }
+
+    /**
+     * Обрабатывает успешный ответ внешнего API. Если ранее внешний API сообщал о превышении квоты,
+     * считается, что квота восстановлена: начинается новый период, и фоновые запросы возобновляются.
+     */
+    public synchronized void onSuccess() {
+        if (backoff.isZero()) {
+            return;
+        }
+
+        log.info("External API quota is renewed, background calls are resumed");
+        startPeriod(clock.instant());
+    }
+
+    /**
+     * Возвращает количество запросов, оставшееся в текущем периоде квоты.
+     *
+     * @return количество оставшихся запросов
+     */
+    public synchronized long getRemaining() {
+        return Math.max(0, limit - used);
+    }
+
+    /**
+     * Возвращает среднее количество запросов в час за текущий период квоты.
+     *
+     * @return среднее количество запросов в час
+     */
+    public synchronized double getBurnRate() {
+        final long elapsedMillis = Math.max(
+                Duration.ofMinutes(1).toMillis(),
+                Duration.between(periodStart, clock.instant()).toMillis()
+        );
+        return (double) used * Duration.ofHours(1).toMillis() / elapsedMillis;
+    }
+
+    private synchronized double getBackoffSeconds() {
+        final Instant now = clock.instant();
+        return now.isBefore(backoffUntil) ? Duration.between(now, backoffUntil).toMillis() / 1000.0 : 0;
+    }
+
+    /**
+     * Начинает новый период квоты, если текущий закончился.
+     *
+     * @param now текущее время
+     */
+    private void renewIfDue(final Instant now) {
+        if (!now.isBefore(periodStart.plus(config.getPeriod()))) {
+            startPeriod(now);
+        }
+    }
+
+    private void startPeriod(final Instant now) {
+        periodStart = now;
+        lastRefill = now;
+        used = 0;
+        credit = config.getMaxBurst();
+        backoff = Duration.ZERO;
+        backoffUntil = Instant.MIN;
+    }
+
+    /**
+     * Пополняет количество доступных фоновых запросов так, чтобы оставшаяся
+     * фоновому опросу квота расходовалась равномерно до конца периода.
+     *
+     * @param now текущее время
+     */
+    private void refill(final Instant now) {
+        final double secondsLeft = Math.max(
+                1,
+                Duration.between(now, periodStart.plus(config.getPeriod())).toSeconds()
+        );
+        final double secondsElapsed = Duration.between(lastRefill, now).toMillis() / 1000.0;
+        credit = Math.min(
+                config.getMaxBurst(),
+                credit + Math.max(0, backgroundAvailable()) * secondsElapsed / secondsLeft
+        );
+        lastRefill = now;
+    }
+
+    /**
+     * Возвращает количество запросов, оставшееся фоновому опросу в текущем периоде квоты.
+     *
+     * @return количество запросов, оставшееся фоновому опросу
+     */
+    private long backgroundAvailable() {
+        final long reserve = Math.round(limit * config.getRealtimeReserve());
+        return limit - reserve - used;
+    }
+
+    private static Duration min(final Duration first, final Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+}
@@ -0,0 +1,380 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.QuotaConfigParams;
+import ru.bukhtaev.config.external.TokenPoolConfigParams;
+import ru.bukhtaev.util.ErrorCode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Пул токенов для взаимодействия с внешним API.
+ * <p>
+ * Выбирает токен для каждого запроса по очереди или по наименьшему количеству запросов
+ * и учитывает количество запросов и ошибок для каждого токена. Запросы для выбора учитываются
+ * в пределах периода квоты: с началом нового периода счетчики всех токенов обнуляются,
+ * а токену, вернувшемуся после превышения квоты, засчитывается столько же запросов,
+ * сколько наименее загруженному из доступных токенов, чтобы он разделял нагрузку с остальными,
+ * а не получал все запросы, пока не догонит их. Токен, квота которого превышена
+ * (код ошибки 2007 или HTTP статус 429), а также выключенный (код ошибки 2008)
+ * или некорректный (код ошибки 2006) токен временно исключается из выбора.
+ * Если исключены все токены, используется токен, который будет исключен меньше всего.
+ * В метриках токены обозначаются порядковым номером в пуле, а не значением.
+ */
+@Slf4j
+@Component
+public class ExternalApiTokenPool {
+
+    /**
+     * Название метрики количества запросов к внешнему API с каждым токеном.
+     */
+    public static final String METRIC_CALLS = "external-api.token-pool.calls";
+
+    /**
+     * Название метрики количества ошибок токенов.
+     */
+    public static final String METRIC_ERRORS = "external-api.token-pool.errors";
+
+    /**
+     * Название метрики количества доступных токенов.
+     */
+    public static final String METRIC_AVAILABLE = "external-api.token-pool.available";
+
+    /**
+     * Параметры конфигурации пула.
+     */
+    private final TokenPoolConfigParams config;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Часы.
+     */
+    private final Clock clock;
+
+    /**
+     * Период квоты, в пределах которого учитываются запросы для выбора токена,
+     * или {@code null}, если запросы учитываются без ограничения периода.
+     */
+    private final Duration period;
+
+    /**
+     * Время начала текущего периода квоты.
+     */
+    private Instant periodStart;
+
+    /**
+     * Токены пула. Основной токен первый.
+     */
+    private final List<PooledToken> tokens;
+
+    /**
+     * Индекс токена, с которого начинается выбор по очереди.
+     */
+    private int next;
+
+    /**
+     * Конструктор.
+     *
+     * @param apiConfig     параметры конфигурации внешнего API
+     * @param meterRegistry реестр метрик
+     */
+    @Autowired
+    public ExternalApiTokenPool(
+            final ExternalApiConfigParams apiConfig,
+            final MeterRegistry meterRegistry
+    ) {
+        this(apiConfig, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param apiConfig     параметры конфигурации внешнего API
+     * @param meterRegistry реестр метрик
+     * @param clock         часы
+     */
+    ExternalApiTokenPool(
+            final ExternalApiConfigParams apiConfig,
+            final MeterRegistry meterRegistry,
+            final Clock clock
+    ) {
+        this.config = apiConfig.getTokenPool();
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.period = Optional.ofNullable(apiConfig.getQuota())
+                .map(QuotaConfigParams::getPeriod)
+                .orElse(null);
+        this.periodStart = clock.instant();
+
+        final Set<String> values = new LinkedHashSet<>();
+        values.add(apiConfig.getToken());
+        config.getAdditionalTokens()
+                .stream()
+                .filter(token -> token != null && !token.isBlank())
+                .map(String::trim)
+                .forEach(values::add);
+
+        this.tokens = new ArrayList<>(values.size());
+        for (final String value : values) {
+            final String index = String.valueOf(tokens.size());
+            tokens.add(new PooledToken(
+                    value,
+                    index,
+                    Counter.builder(METRIC_CALLS)
+                            .description("External API calls made with the pooled token")
+                            .tag("token", index)
+                            .register(meterRegistry)
+            ));
+        }
+
+        Gauge.builder(METRIC_AVAILABLE, this, ExternalApiTokenPool::getAvailableCount)
+                .description("External API tokens not benched after quota or token errors")
+                .register(meterRegistry);
+        log.info("External API token pool contains {} token(s)", tokens.size());
+    }
+
+    /**
+     * Возвращает количество токенов в пуле.
+     *
+     * @return количество токенов
+     */
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Выбирает токен для очередного запроса и учитывает запрос.
+     *
+     * @return токен
+     */
+    public String acquire() {
+        return acquire(1);
+    }
+
+    /**
+     * Выбирает токен для очередного запроса и учитывает его как указанное количество запросов.
+     * Массовый запрос расходует квоту токена по количеству местоположений в нем.
+     *
+     * @param calls количество запросов, которое расходует запрос
+     * @return токен
+     */
+    public synchronized String acquire(final int calls) {
+        final Instant now = clock.instant();
+        renewIfDue(now);
+        returnFromBench(now);
+
+        final PooledToken token = switch (config.getSelection()) {
+            case ROUND_ROBIN -> nextAvailable(now);
+            case LEAST_USED -> leastUsedAvailable(now);
+        };
+
+        final PooledToken selected = token != null ? token : soonestReturning();
+        selected.calls += calls;
+        selected.callsCounter.increment(calls);
+        return selected.value;
+    }
+
+    /**
+     * Обрабатывает ошибку внешнего API, связанную с токеном:
+     * временно исключает токен из выбора, если его квота превышена, или он выключен или некорректен.
+     *
+     * @param token токен, с которым выполнялся запрос
+     * @param code  код ошибки
+     */
+    public synchronized void onTokenError(final String token, final ErrorCode code) {
+        final PooledToken pooled = find(token);
+        if (pooled == null) {
+            return;
+        }
+
+        Counter.builder(METRIC_ERRORS)
+                .description("External API errors caused by the pooled token")
+                .tag("token", pooled.index)
+                .tag("code", code.name())
+                .register(meterRegistry)
+                .increment();
+
+        final Duration bench = switch (code) {
+            case TOKEN_LIMIT_EXCEEDED -> config.getLimitExceededBench();
+            case DISABLED_TOKEN, INVALID_TOKEN -> config.getInvalidBench();
+            default -> Duration.ZERO;
+        };
+        if (bench.isZero()) {
+            return;
+        }
+
+        pooled.benchedUntil = clock.instant().plus(bench);
+        pooled.returning = true;
+        log.warn("External API token #{} is benched for {} after error {}", pooled.index, bench, code);
+    }
+
+    /**
+     * Проверяет, есть ли в пуле токены, не исключенные из выбора.
+     *
+     * @return {@code true}, если есть доступные токены
+     */
+    public synchronized boolean hasAvailable() {
+        return getAvailableCount() > 0;
+    }
+
+    /**
+     * Возвращает количество запросов, учтенных для указанного токена в текущем периоде квоты.
+     *
+     * @param token токен
+     * @return количество запросов в текущем периоде квоты
+     */
+    public synchronized long getCalls(final String token) {
+        renewIfDue(clock.instant());
+        final PooledToken pooled = find(token);
+        return pooled == null ? 0 : pooled.calls;
+    }
+
+    private synchronized int getAvailableCount() {
+        final Instant now = clock.instant();
+        return (int) tokens.stream()
+                .filter(token -> token.isAvailable(now))
+                .count();
+    }
+
+    /**
+     * Обнуляет счетчики запросов всех токенов, если период квоты закончился.
+     *
+     * @param now текущее время
+     */
+    private void renewIfDue(final Instant now) {
+        if (period == null || now.isBefore(periodStart.plus(period))) {
+            return;
+        }
+
+        periodStart = now;
+        for (final PooledToken token : tokens) {
+            token.calls = 0;
+        }
+    }
+
+    /**
+     * Засчитывает токенам, вернувшимся к выбору после исключения, столько же запросов,
+     * сколько наименее загруженному из остальных доступных токенов.
+     *
+     * @param now текущее время
+     */
+    private void returnFromBench(final Instant now) {
+        Long baseline = null;
+        for (final PooledToken token : tokens) {
+            if (!token.returning && token.isAvailable(now) && (baseline == null || token.calls < baseline)) {
+                baseline = token.calls;
+            }
+        }
+
+        for (final PooledToken token : tokens) {
+            if (token.returning && token.isAvailable(now)) {
+                token.calls = baseline == null ? 0 : baseline;
+                token.returning = false;
+            }
+        }
+    }
+
+    private PooledToken nextAvailable(final Instant now) {
+        for (int i = 0; i < tokens.size(); i++) {
+            final PooledToken token = tokens.get((next + i) % tokens.size());
+            if (token.isAvailable(now)) {
+                next = (next + i + 1) % tokens.size();
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private PooledToken leastUsedAvailable(final Instant now) {
+        PooledToken result = null;
+        for (final PooledToken token : tokens) {
+            if (token.isAvailable(now) && (result == null || token.calls < result.calls)) {
+                result = token;
+            }
+        }
+        return result;
+    }
+
+    private PooledToken soonestReturning() {
+        PooledToken result = tokens.get(0);
+        for (final PooledToken token : tokens) {
+            if (token.benchedUntil.isBefore(result.benchedUntil)) {
+                result = token;
+            }
+        }
+        log.debug("All external API tokens are benched, token #{} is used", result.index);
+        return result;
+    }
+
+    private PooledToken find(final String token) {
+        for (final PooledToken pooled : tokens) {
+            if (pooled.value.equals(token)) {
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Состояние токена в пуле.
+     */
+    private static class PooledToken {
+
+        /**
+         * Значение токена.
+         */
+        private final String value;
+
+        /**
+         * Порядковый номер токена в пуле.
+         */
+        private final String index;
+
+        /**
+         * Счетчик запросов с токеном.
+         */
+        private final Counter callsCounter;
+
+        /**
+         * Количество запросов с токеном в текущем периоде квоты.
+         */
+        private long calls;
+
+        /**
+         * Признак того, что токен исключен из выбора и еще не вернулся к нему.
+         */
+        private boolean returning;
+
+        /**
+         * Время, до которого токен исключен из выбора.
+         */
+        private Instant benchedUntil = Instant.MIN;
+
+        PooledToken(final String value, final String index, final Counter callsCounter) {
+            this.value = value;
+            this.index = index;
+            this.callsCounter = callsCounter;
+        }
+
+        boolean isAvailable(final Instant now) {
+            return !now.isBefore(benchedUntil);
+        }
+    }
+}
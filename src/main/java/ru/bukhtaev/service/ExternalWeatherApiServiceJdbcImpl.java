@@ -1,7 +1,11 @@
 package ru.bukhtaev.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -12,13 +16,20 @@ import ru.bukhtaev.dto.mapper.IWeatherMapper;
 import ru.bukhtaev.model.City;
 import ru.bukhtaev.model.Weather;
 import ru.bukhtaev.model.WeatherType;
+import ru.bukhtaev.repository.jdbc.CityJdbcRepository;
+import ru.bukhtaev.repository.jdbc.WeatherJdbcRepository;
+import ru.bukhtaev.repository.jdbc.WeatherTypeJdbcRepository;
 import ru.bukhtaev.service.crud.ICrudService;
 import ru.bukhtaev.service.crud.IDictionaryCrudService;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.springframework.transaction.TransactionDefinition.ISOLATION_SERIALIZABLE;
+import static ru.bukhtaev.util.WeatherEventType.CREATED;
 
 /**
  * JDBC-реализация сервиса для выполнения запросов к внешнему API данных о погоде.
@@ -42,6 +53,26 @@ public class ExternalWeatherApiServiceJdbcImpl extends AbstractExternalWeatherAp
      */
     private final IDictionaryCrudService<WeatherType, UUID> jdbcTypeCrudService;
 
+    /**
+     * JDBC-репозиторий городов.
+     */
+    private final CityJdbcRepository cityRepository;
+
+    /**
+     * JDBC-репозиторий типов погоды.
+     */
+    private final WeatherTypeJdbcRepository typeRepository;
+
+    /**
+     * JDBC-репозиторий данных о погоде.
+     */
+    private final WeatherJdbcRepository weatherRepository;
+
+    /**
+     * Журнал исходящих событий изменения данных о погоде.
+     */
+    private final WeatherOutbox outbox;
+
     /**
      * Объект для управления транзакциями.
      */
@@ -49,34 +80,64 @@ public class ExternalWeatherApiServiceJdbcImpl extends AbstractExternalWeatherAp
 
     /**
      * @param restTemplate           клиент
+     * @param asyncHttpClient        асинхронный клиент
      * @param jdbcWeatherCrudService JDBC-реализация сервиса CRUD операций над данными о погоде
      * @param jdbcCityCrudService    JDBC-реализация сервиса CRUD операций над городами
      * @param jdbcTypeCrudService    JDBC-реализация сервиса CRUD операций над типами погоды
+     * @param cityRepository         JDBC-репозиторий городов
+     * @param typeRepository         JDBC-репозиторий типов погоды
+     * @param weatherRepository      JDBC-репозиторий данных о погоде
+     * @param outbox                 журнал исходящих событий изменения данных о погоде
      * @param transactionTemplate    объект для управления транзакциями
      * @param apiConfig              параметры конфигурации внешнего API
      * @param objectMapper           маппер объектов
      * @param dtoMapper              маппер для объектов типа {@link Weather}
+     * @param quotaThrottle          адаптивное ограничение запросов в соответствии с квотой токенов
+     * @param tokenPool              пул токенов для взаимодействия с внешним API
+     * @param rateLimiterRegistry    реестр ограничителей частоты запросов
+     * @param circuitBreakerRegistry реестр автоматических выключателей
+     * @param bulkheadRegistry       реестр ограничителей количества одновременных вызовов
      */
     @Autowired
     public ExternalWeatherApiServiceJdbcImpl(
             final ExternalApiConfigParams apiConfig,
             final RestTemplate restTemplate,
+            @Qualifier("externalApiAsyncHttpClient") final CloseableHttpAsyncClient asyncHttpClient,
             final ObjectMapper objectMapper,
             final IWeatherMapper dtoMapper,
+            final ExternalApiQuotaThrottle quotaThrottle,
+            final ExternalApiTokenPool tokenPool,
+            final RateLimiterRegistry rateLimiterRegistry,
+            final CircuitBreakerRegistry circuitBreakerRegistry,
+            final BulkheadRegistry bulkheadRegistry,
             final TransactionTemplate transactionTemplate,
             @Qualifier("weatherCrudServiceJdbc") final ICrudService<Weather, UUID> jdbcWeatherCrudService,
             @Qualifier("cityCrudServiceJdbc") final IDictionaryCrudService<City, UUID> jdbcCityCrudService,
-            @Qualifier("typeCrudServiceJdbc") final IDictionaryCrudService<WeatherType, UUID> jdbcTypeCrudService
+            @Qualifier("typeCrudServiceJdbc") final IDictionaryCrudService<WeatherType, UUID> jdbcTypeCrudService,
+            final CityJdbcRepository cityRepository,
+            final WeatherTypeJdbcRepository typeRepository,
+            final WeatherJdbcRepository weatherRepository,
+            final WeatherOutbox outbox
     ) {
         super(
                 apiConfig,
                 restTemplate,
+                asyncHttpClient,
                 objectMapper,
-                dtoMapper
+                dtoMapper,
+                quotaThrottle,
+                tokenPool,
+                rateLimiterRegistry,
+                circuitBreakerRegistry,
+                bulkheadRegistry
         );
         this.jdbcWeatherCrudService = jdbcWeatherCrudService;
         this.jdbcCityCrudService = jdbcCityCrudService;
         this.jdbcTypeCrudService = jdbcTypeCrudService;
+        this.cityRepository = cityRepository;
+        this.typeRepository = typeRepository;
+        this.weatherRepository = weatherRepository;
+        this.outbox = outbox;
         this.transactionTemplate = transactionTemplate;
     }
 
@@ -118,4 +179,40 @@ public class ExternalWeatherApiServiceJdbcImpl extends AbstractExternalWeatherAp
             return jdbcWeatherCrudService.create(weather);
         });
     }
+
+    @Override
+    public List<Weather> saveAllWithTransaction(final List<Weather> weatherData) {
+        if (weatherData.isEmpty()) {
+            return List.of();
+        }
+
+        transactionTemplate.setReadOnly(false);
+        transactionTemplate.setIsolationLevel(ISOLATION_SERIALIZABLE);
+        return transactionTemplate.execute(status -> {
+            final Map<String, City> cities = resolveByNames(
+                    weatherData.stream()
+                            .map(weather -> weather.getCity().getName())
+                            .collect(Collectors.toSet()),
+                    cityRepository::findAllByNames,
+                    cityRepository::createAll,
+                    "Cities"
+            );
+            final Map<String, WeatherType> types = resolveByNames(
+                    weatherData.stream()
+                            .map(weather -> weather.getType().getName())
+                            .collect(Collectors.toSet()),
+                    typeRepository::findAllByNames,
+                    typeRepository::createAll,
+                    "Weather types"
+            );
+            for (final Weather weather : weatherData) {
+                weather.setCity(cities.get(weather.getCity().getName()));
+                weather.setType(types.get(weather.getType().getName()));
+            }
+
+            final List<Weather> created = weatherRepository.createAll(weatherData);
+            created.forEach(weather -> outbox.append(CREATED, weather));
+            return created;
+        });
+    }
 }
@@ -1,7 +1,11 @@
 package ru.bukhtaev.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -12,13 +16,23 @@ import ru.bukhtaev.dto.mapper.IWeatherMapper;
 import ru.bukhtaev.model.City;
 import ru.bukhtaev.model.Weather;
 import ru.bukhtaev.model.WeatherType;
+import ru.bukhtaev.repository.jpa.ICityJpaRepository;
+import ru.bukhtaev.repository.jpa.IWeatherJpaRepository;
+import ru.bukhtaev.repository.jpa.IWeatherTypeJpaRepository;
 import ru.bukhtaev.service.crud.ICrudService;
 import ru.bukhtaev.service.crud.IDictionaryCrudService;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.springframework.transaction.annotation.Isolation.SERIALIZABLE;
+import static ru.bukhtaev.util.WeatherEventType.CREATED;
 
 /**
  * JPA-реализация сервиса для выполнения запросов к внешнему API данных о погоде.
@@ -42,36 +56,94 @@ public class ExternalWeatherApiServiceJpaImpl extends AbstractExternalWeatherApi
      */
     private final IDictionaryCrudService<WeatherType, UUID> jpaTypeCrudService;
 
+    /**
+     * JPA-репозиторий городов.
+     */
+    private final ICityJpaRepository cityRepository;
+
+    /**
+     * JPA-репозиторий типов погоды.
+     */
+    private final IWeatherTypeJpaRepository typeRepository;
+
+    /**
+     * JPA-репозиторий данных о погоде.
+     */
+    private final IWeatherJpaRepository weatherRepository;
+
+    /**
+     * Журнал исходящих событий изменения данных о погоде.
+     */
+    private final WeatherOutbox outbox;
+
+    /**
+     * LRU-кэш для данных о погоде.
+     */
+    private final WeatherCache cache;
+
     /**
      * Конструктор.
      *
-     * @param restTemplate          клиент
-     * @param jpaWeatherCrudService JPA-реализация сервиса CRUD операций над данными о погоде
-     * @param jpaCityCrudService    JPA-реализация сервиса CRUD операций над городами
-     * @param jpaTypeCrudService    JPA-реализация сервиса CRUD операций над типами погоды
-     * @param apiConfig             параметры конфигурации внешнего API
-     * @param objectMapper          маппер объектов
-     * @param dtoMapper             маппер для объектов типа {@link Weather}
+     * @param restTemplate           клиент
+     * @param asyncHttpClient        асинхронный клиент
+     * @param jpaWeatherCrudService  JPA-реализация сервиса CRUD операций над данными о погоде
+     * @param jpaCityCrudService     JPA-реализация сервиса CRUD операций над городами
+     * @param jpaTypeCrudService     JPA-реализация сервиса CRUD операций над типами погоды
+     * @param cityRepository         JPA-репозиторий городов
+     * @param typeRepository         JPA-репозиторий типов погоды
+     * @param weatherRepository      JPA-репозиторий данных о погоде
+     * @param outbox                 журнал исходящих событий изменения данных о погоде
+     * @param cache                  LRU-кэш для данных о погоде
+     * @param apiConfig              параметры конфигурации внешнего API
+     * @param objectMapper           маппер объектов
+     * @param dtoMapper              маппер для объектов типа {@link Weather}
+     * @param quotaThrottle          адаптивное ограничение запросов в соответствии с квотой токенов
+     * @param tokenPool              пул токенов для взаимодействия с внешним API
+     * @param rateLimiterRegistry    реестр ограничителей частоты запросов
+     * @param circuitBreakerRegistry реестр автоматических выключателей
+     * @param bulkheadRegistry       реестр ограничителей количества одновременных вызовов
      */
     @Autowired
     public ExternalWeatherApiServiceJpaImpl(
             ExternalApiConfigParams apiConfig,
             RestTemplate restTemplate,
+            @Qualifier("externalApiAsyncHttpClient") CloseableHttpAsyncClient asyncHttpClient,
             ObjectMapper objectMapper,
             IWeatherMapper dtoMapper,
+            ExternalApiQuotaThrottle quotaThrottle,
+            ExternalApiTokenPool tokenPool,
+            RateLimiterRegistry rateLimiterRegistry,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
             @Qualifier("weatherCrudServiceJpa") ICrudService<Weather, UUID> jpaWeatherCrudService,
             @Qualifier("cityCrudServiceJpa") IDictionaryCrudService<City, UUID> jpaCityCrudService,
-            @Qualifier("typeCrudServiceJpa") IDictionaryCrudService<WeatherType, UUID> jpaTypeCrudService
+            @Qualifier("typeCrudServiceJpa") IDictionaryCrudService<WeatherType, UUID> jpaTypeCrudService,
+            ICityJpaRepository cityRepository,
+            IWeatherTypeJpaRepository typeRepository,
+            IWeatherJpaRepository weatherRepository,
+            WeatherOutbox outbox,
+            WeatherCache cache
     ) {
         super(
                 apiConfig,
                 restTemplate,
+                asyncHttpClient,
                 objectMapper,
-                dtoMapper
+                dtoMapper,
+                quotaThrottle,
+                tokenPool,
+                rateLimiterRegistry,
+                circuitBreakerRegistry,
+                bulkheadRegistry
         );
         this.jpaWeatherCrudService = jpaWeatherCrudService;
         this.jpaCityCrudService = jpaCityCrudService;
         this.jpaTypeCrudService = jpaTypeCrudService;
+        this.cityRepository = cityRepository;
+        this.typeRepository = typeRepository;
+        this.weatherRepository = weatherRepository;
+        this.outbox = outbox;
+        this.cache = cache;
     }
 
     @Override
@@ -109,4 +181,58 @@ public class ExternalWeatherApiServiceJpaImpl extends AbstractExternalWeatherApi
 
         return jpaWeatherCrudService.create(weather);
     }
+
+    @Override
+    @Transactional(isolation = SERIALIZABLE)
+    public List<Weather> saveAllWithTransaction(final List<Weather> weatherData) {
+        if (weatherData.isEmpty()) {
+            return List.of();
+        }
+
+        final Map<String, City> cities = resolveByNames(
+                weatherData.stream()
+                        .map(weather -> weather.getCity().getName())
+                        .collect(Collectors.toSet()),
+                cityRepository::findAllByNameIn,
+                names -> cityRepository.saveAll(names.stream()
+                        .map(name -> City.builder()
+                                .name(name)
+                                .build())
+                        .toList()),
+                "Cities"
+        );
+        final Map<String, WeatherType> types = resolveByNames(
+                weatherData.stream()
+                        .map(weather -> weather.getType().getName())
+                        .collect(Collectors.toSet()),
+                typeRepository::findAllByNameIn,
+                names -> typeRepository.saveAll(names.stream()
+                        .map(name -> WeatherType.builder()
+                                .name(name)
+                                .build())
+                        .toList()),
+                "Weather types"
+        );
+        for (final Weather weather : weatherData) {
+            weather.setCity(cities.get(weather.getCity().getName()));
+            weather.setType(types.get(weather.getType().getName()));
+        }
+
+        final Set<Map.Entry<UUID, LocalDateTime>> keys = weatherRepository.findAllByCityIdInAndDateTimeIn(
+                        cities.values().stream().map(City::getId).toList(),
+                        weatherData.stream().map(Weather::getDateTime).collect(Collectors.toSet())
+                ).stream()
+                .map(weather -> Map.entry(weather.getCity().getId(), weather.getDateTime()))
+                .collect(Collectors.toCollection(HashSet::new));
+        final List<Weather> newWeather = weatherData.stream()
+                .filter(weather -> keys.add(Map.entry(weather.getCity().getId(), weather.getDateTime())))
+                .toList();
+
+        final List<Weather> created = weatherRepository.saveAll(newWeather);
+        for (final Weather weather : created) {
+            outbox.append(CREATED, weather);
+            cache.put(weather);
+        }
+        return created;
+    }
 }
@@ -0,0 +1,282 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.ResponseCacheConfigParams;
+import ru.bukhtaev.dto.external.Current;
+import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш ответов внешнего API на запросы погоды в реальном времени.
+ * <p>
+ * Ключом служат нормализованные параметры запроса: местоположение, язык и надобность
+ * информации о качестве воздуха. Ответ хранится до ожидаемого времени следующего обновления
+ * данных внешним API, которое вычисляется по времени последнего обновления из ответа.
+ * Одновременные одинаковые запросы объединяются: к внешнему API выполняется один запрос,
+ * результат которого получают все ожидающие. Ответы с ошибкой не кэшируются.
+ */
+@Component
+public class ExternalWeatherResponseCache {
+
+    /**
+     * Название метрики количества запросов к кэшу.
+     */
+    public static final String METRIC_REQUESTS = "external-api.response-cache.requests";
+
+    /**
+     * Название метрики количества ответов в кэше.
+     */
+    public static final String METRIC_SIZE = "external-api.response-cache.size";
+
+    /**
+     * Параметры конфигурации кэша.
+     */
+    private final ResponseCacheConfigParams config;
+
+    /**
+     * Часы.
+     */
+    private final Clock clock;
+
+    /**
+     * Записи кэша по нормализованным параметрам запроса.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Счетчик запросов, получивших ответ из кэша.
+     */
+    private final Counter hits;
+
+    /**
+     * Счетчик запросов, объединенных с выполняющимся одинаковым запросом.
+     */
+    private final Counter coalesced;
+
+    /**
+     * Счетчик запросов, выполненных к внешнему API.
+     */
+    private final Counter misses;
+
+    /**
+     * Конструктор.
+     *
+     * @param apiConfig     параметры конфигурации внешнего API
+     * @param meterRegistry реестр метрик
+     */
+    @Autowired
+    public ExternalWeatherResponseCache(
+            final ExternalApiConfigParams apiConfig,
+            final MeterRegistry meterRegistry
+    ) {
+        this(apiConfig.getResponseCache(), meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param config        параметры конфигурации кэша
+     * @param meterRegistry реестр метрик
+     * @param clock         часы
+     */
+    ExternalWeatherResponseCache(
+            final ResponseCacheConfigParams config,
+            final MeterRegistry meterRegistry,
+            final Clock clock
+    ) {
+        this.config = config;
+        this.clock = clock;
+        this.hits = counter(meterRegistry, "hit");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        this.misses = counter(meterRegistry, "miss");
+        Gauge.builder(METRIC_SIZE, entries, Map::size)
+                .description("External API current weather responses in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает ответ внешнего API из кэша или получает его с помощью указанного загрузчика.
+     *
+     * @param location местоположение
+     * @param language язык
+     * @param aqi      надобность информации о качестве воздуха
+     * @param loader   загрузчик, выполняющий запрос к внешнему API
+     * @return информацию о погоде в данный момент времени для указанного местоположения
+     */
+    public ExternalApiWeatherResponse get(
+            final String location,
+            final String language,
+            final Boolean aqi,
+            final Supplier<ExternalApiWeatherResponse> loader
+    ) {
+        if (!config.isEnabled()) {
+            return loader.get();
+        }
+
+        try {
+            return getAsync(
+                    location,
+                    language,
+                    aqi,
+                    () -> CompletableFuture.completedFuture(loader.get())
+            ).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Асинхронно возвращает ответ внешнего API из кэша или получает его с помощью указанного загрузчика.
+     *
+     * @param location местоположение
+     * @param language язык
+     * @param aqi      надобность информации о качестве воздуха
+     * @param loader   загрузчик, асинхронно выполняющий запрос к внешнему API
+     * @return информацию о погоде в данный момент времени для указанного местоположения,
+     * которая будет получена после ответа внешнего API
+     */
+    public CompletableFuture<ExternalApiWeatherResponse> getAsync(
+            final String location,
+            final String language,
+            final Boolean aqi,
+            final Supplier<CompletableFuture<ExternalApiWeatherResponse>> loader
+    ) {
+        if (!config.isEnabled()) {
+            return loader.get();
+        }
+
+        final String key = key(location, language, aqi);
+        final Instant now = clock.instant();
+        final Entry created = new Entry();
+        final Entry entry = entries.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(now) ? existing : created
+        );
+
+        if (entry != created) {
+            (entry.future.isDone() ? hits : coalesced).increment();
+            return entry.future.copy();
+        }
+
+        misses.increment();
+        evictIfFull(now);
+
+        CompletableFuture<ExternalApiWeatherResponse> loading;
+        try {
+            loading = loader.get();
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+
+        loading.whenComplete((response, ex) -> {
+            if (ex == null) {
+                created.expiresAt = expiresAt(response);
+                created.future.complete(response);
+            } else {
+                entries.remove(key, created);
+                created.future.completeExceptionally(
+                        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex
+                );
+            }
+        });
+
+        return created.future.copy();
+    }
+
+    /**
+     * Вычисляет время, до которого ответ хранится в кэше:
+     * ожидаемое время следующего обновления данных внешним API,
+     * но не меньше минимального и не больше максимального времени хранения.
+     *
+     * @param response ответ внешнего API
+     * @return время, до которого ответ хранится в кэше
+     */
+    private Instant expiresAt(final ExternalApiWeatherResponse response) {
+        final Instant now = clock.instant();
+        Instant expiresAt = now.plus(config.getMinTtl());
+
+        final Current current = response == null ? null : response.getCurrent();
+        if (current != null && current.getLastUpdatedEpoch() != null) {
+            final Instant nextUpdate = Instant.ofEpochSecond(current.getLastUpdatedEpoch())
+                    .plus(config.getUpdateInterval());
+            if (nextUpdate.isAfter(expiresAt)) {
+                expiresAt = nextUpdate;
+            }
+        }
+
+        final Instant maxExpiresAt = now.plus(config.getMaxTtl());
+        return expiresAt.isAfter(maxExpiresAt) ? maxExpiresAt : expiresAt;
+    }
+
+    /**
+     * Удаляет устаревшие ответы, если количество ответов в кэше превышает максимальное,
+     * а если этого недостаточно - произвольные полученные ответы.
+     *
+     * @param now текущее время
+     */
+    private void evictIfFull(final Instant now) {
+        if (entries.size() <= config.getMaxSize()) {
+            return;
+        }
+
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > config.getMaxSize() && iterator.hasNext()) {
+            if (iterator.next().future.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String key(final String location, final String language, final Boolean aqi) {
+        return normalize(location) + '|' + normalize(language) + '|' + Boolean.TRUE.equals(aqi);
+    }
+
+    private static String normalize(final String value) {
+        return value == null ? "" : value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter counter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder(METRIC_REQUESTS)
+                .description("External API current weather requests served by the response cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запись кэша.
+     */
+    private static class Entry {
+
+        /**
+         * Ответ внешнего API.
+         */
+        private final CompletableFuture<ExternalApiWeatherResponse> future = new CompletableFuture<>();
+
+        /**
+         * Время, до которого ответ хранится в кэше.
+         * Пока ответ не получен, запись не устаревает.
+         */
+        private volatile Instant expiresAt = Instant.MAX;
+
+        private boolean isExpired(final Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
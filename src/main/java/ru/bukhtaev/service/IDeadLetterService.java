@@ -0,0 +1,49 @@
+package ru.bukhtaev.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import ru.bukhtaev.dto.DeadLetterReplayResultDto;
+import ru.bukhtaev.model.DeadLetter;
+import ru.bukhtaev.model.Weather;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сервис для работы с необработанными сообщениями с данными о погоде.
+ */
+public interface IDeadLetterService {
+
+    /**
+     * Сохраняет сообщение, обработка которого не удалась после всех повторных попыток.
+     *
+     * @param record       сообщение
+     * @param errorMessage сообщение об ошибке обработки
+     * @return сохраненное необработанное сообщение
+     */
+    DeadLetter save(final ConsumerRecord<String, Weather> record, final String errorMessage);
+
+    /**
+     * Возвращает необработанные сообщения.
+     *
+     * @param pendingOnly возвращать только сообщения, которые ещё не отправлялись повторно
+     * @return необработанные сообщения
+     */
+    List<DeadLetter> getAll(final boolean pendingOnly);
+
+    /**
+     * Повторно отправляет необработанное сообщение с указанным ID в основной топик.
+     *
+     * @param id ID необработанного сообщения
+     * @return повторно отправленное необработанное сообщение
+     */
+    DeadLetter replay(final UUID id);
+
+    /**
+     * Повторно отправляет в основной топик все необработанные сообщения,
+     * которые ещё не отправлялись повторно. Каждое сообщение отмечается как отправленное
+     * в отдельной транзакции, ошибка отправки одного сообщения не прерывает отправку остальных.
+     *
+     * @return количество повторно отправленных сообщений и ошибки отправки остальных
+     */
+    DeadLetterReplayResultDto replayAll();
+}
@@ -1,8 +1,13 @@
 package ru.bukhtaev.service;
 
+import ru.bukhtaev.dto.external.BulkWeatherResult;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
 import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
 import ru.bukhtaev.model.Weather;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Сервис для выполнения запросов к внешнему API данных о погоде.
  */
@@ -22,10 +27,72 @@ public interface IExternalWeatherApiService {
             final Boolean aqi
     );
 
+    /**
+     * Асинхронно возвращает информацию о погоде в данный момент времени для указанного местоположения.
+     * Вызывающий поток не ожидает ответа внешнего API: запрос выполняется асинхронным клиентом
+     * с пулом соединений, а результат передается через возвращаемый объект.
+     *
+     * @param location местоположение
+     * @param language язык
+     * @param aqi      надобность информации о качестве воздуха
+     * @return информацию о погоде в данный момент времени для указанного местоположения,
+     * которая будет получена после ответа внешнего API
+     */
+    CompletableFuture<ExternalApiWeatherResponse> getCurrentAsync(
+            final String location,
+            final String language,
+            final Boolean aqi
+    );
+
+    /**
+     * Асинхронно возвращает краткую информацию о погоде в данный момент времени
+     * для указанного местоположения: название местоположения, описание погодных условий,
+     * температуру и местную дату и время. Ответ внешнего API читается потоково,
+     * остальные поля пропускаются без создания объектов.
+     *
+     * @param location местоположение
+     * @param language язык
+     * @return краткую информацию о погоде в данный момент времени для указанного местоположения,
+     * которая будет получена после ответа внешнего API
+     */
+    CompletableFuture<CurrentWeatherSummary> getCurrentSummaryAsync(
+            final String location,
+            final String language
+    );
+
+    /**
+     * Возвращает краткую информацию о погоде в данный момент времени
+     * для нескольких местоположений одним массовым запросом.
+     * Ошибки для отдельных местоположений не прерывают обработку остальных
+     * и возвращаются в составе соответствующих результатов.
+     *
+     * @param locations местоположения, не более лимита массового запроса
+     * @param language  язык
+     * @param aqi       надобность информации о качестве воздуха
+     * @return результаты для каждого из местоположений в порядке запроса
+     */
+    List<BulkWeatherResult> getCurrentBulk(
+            final List<String> locations,
+            final String language,
+            final Boolean aqi
+    );
+
     /**
      * Сохраняет данные о погоде, полученные от внешнего API, в транзакции.
      *
      * @param weather сохраненные данные о погоде
      */
     Weather saveWithTransaction(final Weather weather);
+
+    /**
+     * Сохраняет пакет данных о погоде, полученных от внешнего API, в одной транзакции.
+     * Города и типы погоды всех записей определяются одним запросом на каждый справочник,
+     * отсутствующие создаются пакетом, после чего записи о погоде также добавляются пакетом.
+     * Записи, для которых уже есть запись о погоде в том же городе на те же дату и время,
+     * пропускаются.
+     *
+     * @param weatherData данные о погоде
+     * @return сохраненные данные о погоде в произвольном порядке
+     */
+    List<Weather> saveAllWithTransaction(final List<Weather> weatherData);
 }
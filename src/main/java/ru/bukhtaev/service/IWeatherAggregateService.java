@@ -0,0 +1,30 @@
+package ru.bukhtaev.service;
+
+import ru.bukhtaev.dto.WeatherWindowAggregateDto;
+import ru.bukhtaev.util.WindowType;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Сервис для получения агрегированной температуры городов за временные окна.
+ */
+public interface IWeatherAggregateService {
+
+    /**
+     * Возвращает агрегаты температуры города за окна указанного типа,
+     * начало которых находится в указанном интервале, в порядке начала окна.
+     *
+     * @param cityName   название города
+     * @param windowType тип окна
+     * @param from       начало интервала
+     * @param to         конец интервала
+     * @return агрегаты температуры города
+     */
+    List<WeatherWindowAggregateDto> getAggregates(
+            final String cityName,
+            final WindowType windowType,
+            final Instant from,
+            final Instant to
+    );
+}
@@ -0,0 +1,30 @@
+package ru.bukhtaev.service;
+
+import ru.bukhtaev.dto.FetchJobDto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сервис заданий получения данных о погоде от внешнего API и их сохранения.
+ */
+public interface IWeatherFetchJobService {
+
+    /**
+     * Ставит в очередь задание получения данных о погоде в текущее время
+     * для указанных местоположений и их сохранения.
+     *
+     * @param locations местоположения
+     * @param aqi       надобность информации о качестве воздуха
+     * @return поставленное в очередь задание
+     */
+    FetchJobDto submit(final List<String> locations, final Boolean aqi);
+
+    /**
+     * Возвращает состояние и результат задания с указанным ID.
+     *
+     * @param id ID задания
+     * @return задание
+     */
+    FetchJobDto getJob(final UUID id);
+}
@@ -0,0 +1,38 @@
+package ru.bukhtaev.service;
+
+import ru.bukhtaev.dto.ReplayProgressDto;
+
+import java.time.Instant;
+
+/**
+ * Сервис повторного чтения истории Kafka-топика с данными о погоде
+ * для восстановления таблицы данных о погоде.
+ */
+public interface IWeatherReplayService {
+
+    /**
+     * Запускает повторное чтение истории топика в фоне.
+     * Если не указаны ни смещение, ни время, чтение продолжается
+     * с сохраненных смещений группы повторного чтения или с начала партиций.
+     *
+     * @param offset    смещение, с которого читаются все партиции
+     * @param timestamp время, с которого читаются все партиции
+     * @return ход повторного чтения
+     */
+    ReplayProgressDto start(final Long offset, final Instant timestamp);
+
+    /**
+     * Отменяет выполняющееся повторное чтение. Уже сохраненные данные остаются в базе данных,
+     * а смещения обработанных сообщений сохраняются в группе повторного чтения.
+     *
+     * @return ход повторного чтения
+     */
+    ReplayProgressDto cancel();
+
+    /**
+     * Возвращает ход последнего запущенного повторного чтения.
+     *
+     * @return ход повторного чтения
+     */
+    ReplayProgressDto getProgress();
+}
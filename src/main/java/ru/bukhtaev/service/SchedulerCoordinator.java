@@ -0,0 +1,229 @@
+package ru.bukhtaev.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.CoordinationConfigParams;
+import ru.bukhtaev.repository.jdbc.SchedulerLeaseJdbcRepository;
+import ru.bukhtaev.repository.jdbc.SchedulerNodeJdbcRepository;
+import ru.bukhtaev.util.ConsistentHashRing;
+import ru.bukhtaev.util.CoordinationMode;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сервис согласования задач по расписанию между экземплярами приложения.
+ * <p>
+ * Каждую задачу выполняет только экземпляр, владеющий её арендой в базе данных.
+ * Аренда продлевается при каждом запуске задачи, поэтому длительность аренды должна превышать
+ * период запуска. Если владелец аренды останавливается без её освобождения,
+ * задачу начинает выполнять другой экземпляр не позднее чем через длительность аренды.
+ * Если база данных недоступна, задача не выполняется, чтобы избежать дублирования.
+ * <p>
+ * В режиме {@link CoordinationMode#SHARDING} опрос городов распределяется между всеми живыми
+ * экземплярами: каждый экземпляр периодически отмечается в базе данных, а владелец города
+ * определяется по кольцу согласованного хеширования, построенному из живых экземпляров.
+ * При появлении или остановке экземпляра к другому владельцу переходит только часть городов,
+ * пропорциональная доле этого экземпляра. Экземпляр, который не может отметиться в базе данных
+ * или ещё не получил состав живых экземпляров, опрашивает все города, чтобы опрос не прекращался:
+ * до восстановления связи с базой данных часть городов может опрашиваться несколькими экземплярами.
+ */
+@Slf4j
+@Component
+public class SchedulerCoordinator {
+
+    /**
+     * Название задачи опроса внешнего API.
+     */
+    public static final String TASK_WEATHER_POLLING = "weather-polling";
+
+    /**
+     * Название задачи отправки исходящих событий.
+     */
+    public static final String TASK_OUTBOX_RELAY = "weather-outbox-relay";
+
+    /**
+     * Параметры конфигурации согласования.
+     */
+    private final CoordinationConfigParams config;
+
+    /**
+     * Репозиторий аренд задач.
+     */
+    private final SchedulerLeaseJdbcRepository repository;
+
+    /**
+     * Репозиторий живых экземпляров приложения.
+     */
+    private final SchedulerNodeJdbcRepository nodeRepository;
+
+    /**
+     * Идентификатор экземпляра приложения.
+     */
+    private final String instanceId;
+
+    /**
+     * Названия задач, арендой которых владеет экземпляр.
+     */
+    private final Set<String> leadingTasks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Кольцо согласованного хеширования живых экземпляров.
+     * До первого сигнала о работе и при недоступности базы данных пустое.
+     */
+    private volatile ConsistentHashRing ring;
+
+    /**
+     * Конструктор.
+     *
+     * @param config         параметры конфигурации согласования
+     * @param repository     репозиторий аренд задач
+     * @param nodeRepository репозиторий живых экземпляров приложения
+     */
+    @Autowired
+    public SchedulerCoordinator(
+            final CoordinationConfigParams config,
+            final SchedulerLeaseJdbcRepository repository,
+            final SchedulerNodeJdbcRepository nodeRepository
+    ) {
+        this.config = config;
+        this.repository = repository;
+        this.nodeRepository = nodeRepository;
+        this.ring = new ConsistentHashRing(List.of(), config.getVirtualNodes());
+        this.instanceId = config.getInstanceId() == null || config.getInstanceId().isBlank()
+                ? hostName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : config.getInstanceId();
+    }
+
+    /**
+     * Возвращает идентификатор экземпляра приложения.
+     *
+     * @return идентификатор экземпляра приложения
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Возвращает признак распределения опроса городов между живыми экземплярами.
+     *
+     * @return {@code true}, если согласование включено в режиме {@link CoordinationMode#SHARDING}
+     */
+    public boolean isSharding() {
+        return config.isEnabled() && config.getMode() == CoordinationMode.SHARDING;
+    }
+
+    /**
+     * Возвращает признак того, что экземпляр должен опрашивать указанный город.
+     * Если опрос городов не распределяется или состав живых экземпляров неизвестен,
+     * экземпляр опрашивает все города.
+     *
+     * @param city название города
+     * @return {@code true}, если экземпляр должен опрашивать город
+     */
+    public boolean owns(final String city) {
+        final ConsistentHashRing current = ring;
+        return !isSharding() || current.getNodes().isEmpty() || instanceId.equals(current.nodeFor(city));
+    }
+
+    /**
+     * Отмечает экземпляр в базе данных и перестраивает кольцо согласованного хеширования,
+     * если изменился состав живых экземпляров.
+     */
+    @Scheduled(fixedDelayString = "${weather.coordination.heartbeat-interval:5000}")
+    public void heartbeat() {
+        if (!isSharding()) {
+            return;
+        }
+
+        List<String> nodes;
+        try {
+            nodeRepository.heartbeat(instanceId);
+            nodes = nodeRepository.findAlive(config.getNodeTimeout());
+        } catch (DataAccessException ex) {
+            log.warn("Failed to send heartbeat of instance <{}>, it polls all cities: {}", instanceId, ex.getMessage());
+            nodes = List.of();
+        }
+
+        if (!ring.getNodes().equals(Set.copyOf(nodes))) {
+            ring = new ConsistentHashRing(nodes, config.getVirtualNodes());
+            log.info("Instance <{}> sees polling nodes {}", instanceId, nodes);
+        }
+    }
+
+    /**
+     * Получает или продлевает аренду задачи.
+     * Если согласование выключено, задачу выполняет каждый экземпляр.
+     *
+     * @param taskName название задачи
+     * @return {@code true}, если экземпляр должен выполнить задачу
+     */
+    public boolean tryLead(final String taskName) {
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        boolean leading;
+        try {
+            leading = repository.tryAcquire(taskName, instanceId, config.getLeaseDuration());
+        } catch (DataAccessException ex) {
+            log.warn("Failed to acquire lease for task <{}>, it is skipped: {}", taskName, ex.getMessage());
+            leading = false;
+        }
+
+        if (leading && leadingTasks.add(taskName)) {
+            log.info("Instance <{}> has become the leader of task <{}>", instanceId, taskName);
+        } else if (!leading && leadingTasks.remove(taskName)) {
+            log.info("Instance <{}> is no longer the leader of task <{}>", instanceId, taskName);
+        }
+        return leading;
+    }
+
+    /**
+     * Освобождает аренды задач и удаляет отметку экземпляра при его остановке,
+     * чтобы другие экземпляры начали выполнять его задачи и опрашивать его города
+     * без ожидания окончания аренды.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        for (final String taskName : leadingTasks) {
+            try {
+                repository.release(taskName, instanceId);
+                log.info("Instance <{}> has released lease for task <{}>", instanceId, taskName);
+            } catch (DataAccessException ex) {
+                log.warn("Failed to release lease for task <{}>: {}", taskName, ex.getMessage());
+            }
+        }
+        leadingTasks.clear();
+
+        if (isSharding()) {
+            try {
+                nodeRepository.delete(instanceId);
+                log.info("Instance <{}> has left polling nodes", instanceId);
+            } catch (DataAccessException ex) {
+                log.warn("Failed to remove instance <{}> from polling nodes: {}", instanceId, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Возвращает имя хоста или {@code "unknown"}, если его не удалось определить.
+     *
+     * @return имя хоста
+     */
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
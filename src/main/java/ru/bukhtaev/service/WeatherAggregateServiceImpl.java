@@ -0,0 +1,110 @@
+package ru.bukhtaev.service;
+
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+import ru.bukhtaev.config.StreamsConfigParams;
+import ru.bukhtaev.dto.WeatherWindowAggregateDto;
+import ru.bukhtaev.exception.StateStoreUnavailableException;
+import ru.bukhtaev.kafka.WeatherAggregationTopology;
+import ru.bukhtaev.kafka.WeatherWindowAggregate;
+import ru.bukhtaev.util.WindowType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реализация сервиса для получения агрегированной температуры городов за временные окна
+ * из локальных хранилищ состояния Kafka Streams.
+ * Экземпляр приложения возвращает агрегаты только тех городов,
+ * партиции которых назначены его топологии.
+ */
+@Service
+@ConditionalOnProperty(
+        prefix = "weather.streams",
+        name = "enabled",
+        havingValue = "true"
+)
+public class WeatherAggregateServiceImpl implements IWeatherAggregateService {
+
+    /**
+     * Фабрика, управляющая жизненным циклом Kafka Streams.
+     */
+    private final StreamsBuilderFactoryBean streamsFactory;
+
+    /**
+     * Параметры конфигурации потоковой агрегации.
+     */
+    private final StreamsConfigParams streamsConfig;
+
+    /**
+     * Конструктор.
+     *
+     * @param streamsFactory фабрика, управляющая жизненным циклом Kafka Streams
+     * @param streamsConfig  параметры конфигурации потоковой агрегации
+     */
+    public WeatherAggregateServiceImpl(
+            final StreamsBuilderFactoryBean streamsFactory,
+            final StreamsConfigParams streamsConfig
+    ) {
+        this.streamsFactory = streamsFactory;
+        this.streamsConfig = streamsConfig;
+    }
+
+    @Override
+    public List<WeatherWindowAggregateDto> getAggregates(
+            final String cityName,
+            final WindowType windowType,
+            final Instant from,
+            final Instant to
+    ) {
+        final String storeName = WeatherAggregationTopology.storeName(windowType);
+        final Duration windowSize = windowType == WindowType.TUMBLING
+                ? streamsConfig.getTumblingSize()
+                : streamsConfig.getHoppingSize();
+
+        final List<WeatherWindowAggregateDto> result = new ArrayList<>();
+        try (var iterator = getStore(storeName).fetch(cityName, from, to)) {
+            iterator.forEachRemaining(entry -> {
+                final Instant windowStart = Instant.ofEpochMilli(entry.key);
+                final WeatherWindowAggregate aggregate = entry.value;
+                result.add(WeatherWindowAggregateDto.builder()
+                        .cityName(cityName)
+                        .windowStart(windowStart)
+                        .windowEnd(windowStart.plus(windowSize))
+                        .count(aggregate.getCount())
+                        .average(aggregate.getAverage())
+                        .min(aggregate.getMin())
+                        .max(aggregate.getMax())
+                        .build());
+            });
+        } catch (InvalidStateStoreException ex) {
+            throw new StateStoreUnavailableException(storeName);
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает локальное хранилище агрегатов окон.
+     *
+     * @param storeName название хранилища
+     * @return локальное хранилище агрегатов окон
+     */
+    private ReadOnlyWindowStore<String, WeatherWindowAggregate> getStore(final String storeName) {
+        final KafkaStreams streams = streamsFactory.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING) {
+            throw new StateStoreUnavailableException(storeName);
+        }
+        return streams.store(StoreQueryParameters.fromNameAndType(
+                storeName,
+                QueryableStoreTypes.windowStore()
+        ));
+    }
+}
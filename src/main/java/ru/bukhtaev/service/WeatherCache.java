@@ -156,6 +156,28 @@ public class WeatherCache {
         }
     }
 
+    /**
+     * Удаляет из кэша запись о погоде с указанным названием города,
+     * если такая запись существует в кэше.
+     *
+     * @param cityName название города
+     */
+    public void evict(@NotBlank final String cityName) {
+        lock.lock();
+        try {
+            final Weather weather = cityNameCache.get(cityName);
+            if (weather == null) {
+                return;
+            }
+
+            uuidCache.delete(weather.getId());
+            cityNameCache.delete(cityName);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Проверяет переданную для кэширования запись о погоде на валидность.
      *
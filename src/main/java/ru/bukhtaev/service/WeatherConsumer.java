@@ -1,13 +1,35 @@
 package ru.bukhtaev.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.exception.UniqueWeatherException;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.kafka.WeatherOutboxRelay;
+import ru.bukhtaev.kafka.WeatherRebalanceListener;
 import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.repository.jdbc.ConsumerOffsetJdbcRepository;
 import ru.bukhtaev.repository.jpa.IWeatherJpaRepository;
 
+import java.time.LocalDateTime;
+
+import static org.springframework.transaction.TransactionDefinition.ISOLATION_SERIALIZABLE;
 import static ru.bukhtaev.util.WeatherSort.DATE_TIME_DESC;
 
 /**
@@ -32,21 +54,162 @@ public class WeatherConsumer {
      */
     private final IWeatherJpaRepository weatherRepository;
 
+    /**
+     * Метрики обработки сообщений с данными о погоде.
+     */
+    private final WeatherConsumerMetrics metrics;
+
+    /**
+     * Обработчик перераспределения партиций топика с данными о погоде.
+     */
+    private final WeatherRebalanceListener rebalanceListener;
+
+    /**
+     * Сервис для работы с необработанными сообщениями.
+     */
+    private final IDeadLetterService deadLetterService;
+
+    /**
+     * Основной топик с данными о погоде.
+     */
+    private final String mainTopic;
+
+    /**
+     * Журнал исходящих событий изменения данных о погоде.
+     */
+    private final WeatherOutbox outbox;
+
+    /**
+     * Вероятностный фильтр дубликатов данных о погоде.
+     */
+    private final WeatherDuplicateFilter duplicateFilter;
+
+    /**
+     * Репозиторий смещений обработанных сообщений.
+     */
+    private final ConsumerOffsetJdbcRepository offsetRepository;
+
+    /**
+     * Параметры конфигурации Kafka-топика и его обработки.
+     */
+    private final KafkaConfigParams kafkaConfig;
+
+    /**
+     * Объект для управления транзакциями сохранения данных о погоде
+     * вместе со смещением сообщения.
+     */
+    private final TransactionTemplate transactionTemplate;
+
     /**
      * Конструктор.
      *
      * @param weatherRepository  JPA-репозиторий данных о погоде
      * @param processingService  сервис для обработки данных о погоде
      * @param externalApiService сервис для выполнения запросов к внешнему API данных о погоде
+     * @param metrics            метрики обработки сообщений с данными о погоде
+     * @param rebalanceListener  обработчик перераспределения партиций топика с данными о погоде
+     * @param deadLetterService  сервис для работы с необработанными сообщениями
+     * @param mainTopic          основной топик с данными о погоде
+     * @param outbox             журнал исходящих событий изменения данных о погоде
+     * @param duplicateFilter    вероятностный фильтр дубликатов данных о погоде
+     * @param offsetRepository   репозиторий смещений обработанных сообщений
+     * @param kafkaConfig        параметры конфигурации Kafka-топика и его обработки
+     * @param transactionManager менеджер транзакций
      */
     public WeatherConsumer(
             final IWeatherJpaRepository weatherRepository,
             final IWeatherProcessingService processingService,
-            @Qualifier("weatherApiServiceJpa") final IExternalWeatherApiService externalApiService
+            @Qualifier("weatherApiServiceJpa") final IExternalWeatherApiService externalApiService,
+            final WeatherConsumerMetrics metrics,
+            final WeatherRebalanceListener rebalanceListener,
+            final IDeadLetterService deadLetterService,
+            @Value("${spring.kafka.template.default-topic}") final String mainTopic,
+            final WeatherOutbox outbox,
+            final WeatherDuplicateFilter duplicateFilter,
+            final ConsumerOffsetJdbcRepository offsetRepository,
+            final KafkaConfigParams kafkaConfig,
+            final PlatformTransactionManager transactionManager
     ) {
         this.externalApiService = externalApiService;
         this.processingService = processingService;
         this.weatherRepository = weatherRepository;
+        this.metrics = metrics;
+        this.rebalanceListener = rebalanceListener;
+        this.deadLetterService = deadLetterService;
+        this.mainTopic = mainTopic;
+        this.outbox = outbox;
+        this.duplicateFilter = duplicateFilter;
+        this.offsetRepository = offsetRepository;
+        this.kafkaConfig = kafkaConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(ISOLATION_SERIALIZABLE);
+    }
+
+    /**
+     * Обрабатывает сообщение из Kafka-топика и обновляет метрики его партиции.
+     * Сообщения одной партиции обрабатываются последовательно в одном потоке,
+     * поэтому данные о погоде одного города обрабатываются в порядке их отправки.
+     * Сообщение, обработка которого завершилась ошибкой, не блокирует партицию:
+     * оно отправляется в топик повторных попыток с экспоненциально растущей задержкой,
+     * а после исчерпания попыток - в топик необработанных сообщений.
+     * События изменения данных о погоде из журнала исходящих событий не обрабатываются:
+     * они отражают уже сохраненные изменения, и их повторное сохранение могло бы
+     * восстановить удаленную запись или продублировать измененную.
+     * В режиме обработки ровно один раз смещение сообщения сохраняется
+     * в одной транзакции с данными о погоде.
+     *
+     * @param record   сообщение с данными о погоде
+     * @param consumer получатель сообщений
+     */
+    @RetryableTopic(
+            attempts = "${weather.kafka.retry.attempts}",
+            backoff = @Backoff(
+                    delayExpression = "${weather.kafka.retry.initial-delay}",
+                    multiplierExpression = "${weather.kafka.retry.multiplier}",
+                    maxDelayExpression = "${weather.kafka.retry.max-delay}"
+            ),
+            numPartitions = "${weather.kafka.partitions}",
+            replicationFactor = "${weather.kafka.replicas}",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltStrategy = DltStrategy.FAIL_ON_ERROR,
+            kafkaTemplate = "kafkaTemplate"
+    )
+    @KafkaListener(topics = "${spring.kafka.template.default-topic}")
+    void listen(
+            final ConsumerRecord<String, Weather> record,
+            final Consumer<?, ?> consumer
+    ) {
+        final var partition = new TopicPartition(record.topic(), record.partition());
+        if (!mainTopic.equals(record.topic())) {
+            metrics.recordRetry(record.topic());
+        }
+        consumer.currentLag(partition)
+                .ifPresent(lag -> metrics.recordLag(partition, lag));
+
+        final Weather weather = record.value();
+        if (WeatherOutboxRelay.isChangeEvent(record.headers())) {
+            log.debug("Weather data <{}> change event was skipped", weather.getId());
+            return;
+        }
+
+        rebalanceListener.track(partition, weather.getCity().getName());
+        metrics.processingTimer(partition)
+                .record(() -> process(record, consumer));
+    }
+
+    /**
+     * Сохраняет сообщение, обработка которого не удалась после всех попыток,
+     * для последующего анализа и повторной отправки.
+     *
+     * @param record       сообщение с данными о погоде
+     * @param errorMessage сообщение об ошибке последней попытки обработки
+     */
+    @DltHandler
+    private void handleDeadLetter(
+            final ConsumerRecord<String, Weather> record,
+            @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) final String errorMessage
+    ) {
+        deadLetterService.save(record, errorMessage);
     }
 
     /**
@@ -54,21 +217,21 @@ public class WeatherConsumer {
      * и выводит в лог скользящее среднее за 30 периодов города,
      * который пришел в сообщении.
      *
-     * @param weather полученные данные о погоде
+     * @param record   сообщение с данными о погоде
+     * @param consumer получатель сообщений
      */
-    @KafkaListener(topics = "${spring.kafka.template.default-topic}")
-    private void process(final Weather weather) {
+    private void process(
+            final ConsumerRecord<String, Weather> record,
+            final Consumer<?, ?> consumer
+    ) {
+        final Weather weather = record.value();
         final String cityName = weather.getCity().getName();
         log.info("Weather data for city <{}> was successfully received", cityName);
 
-        final var optExistent = weatherRepository.findFirstByCityNameAndDateTime(
-                cityName,
-                weather.getDateTime()
-        );
-
-        if (optExistent.isEmpty()) {
-            externalApiService.saveWithTransaction(weather);
-            log.info("Weather data for city <{}> was successfully saved", cityName);
+        if (kafkaConfig.isExactlyOnce()) {
+            saveExactlyOnce(record, consumer.groupMetadata().groupId());
+        } else {
+            saveIfAbsent(weather);
         }
 
         final var data = weatherRepository.findAllByCityName(
@@ -87,4 +250,67 @@ public class WeatherConsumer {
                 avgTemp
         );
     }
+
+    /**
+     * Сохраняет данные о погоде, если их ещё нет в базе данных.
+     * Используется без однократной обработки сообщений, и только в этом режиме работает фильтр дубликатов:
+     * наличие данных проверяется в базе данных, только если фильтр не может гарантировать, что данные новые. Если такие же данные были сохранены
+     * в обход фильтра, их повторное сохранение отклоняется проверкой уникальности.
+     *
+     * @param weather данные о погоде
+     */
+    private void saveIfAbsent(final Weather weather) {
+        final String cityName = weather.getCity().getName();
+        final LocalDateTime dateTime = weather.getDateTime();
+
+        final boolean maybeSaved = duplicateFilter.mightContain(cityName, dateTime);
+        metrics.recordDedupeCheck(!maybeSaved);
+        if (maybeSaved && weatherRepository.findFirstByCityNameAndDateTime(cityName, dateTime).isPresent()) {
+            duplicateFilter.put(cityName, dateTime);
+            return;
+        }
+
+        try {
+            metrics.persistTimer().record(() ->
+                    outbox.withoutEvents(() -> externalApiService.saveWithTransaction(weather))
+            );
+            log.info("Weather data for city <{}> was successfully saved", cityName);
+        } catch (UniqueWeatherException e) {
+            log.info("Weather data for city <{}> has already been saved", cityName);
+        }
+        duplicateFilter.put(cityName, dateTime);
+    }
+
+    /**
+     * Сохраняет данные о погоде и смещение следующего сообщения партиции в одной транзакции.
+     * Повторно полученное после сбоя сообщение пропускается благодаря переходу
+     * к сохраненному смещению при назначении партиции, поэтому отдельная проверка
+     * наличия данных перед сохранением не выполняется. Если такие же данные
+     * уже были получены от внешнего API ранее, сохраняется только смещение.
+     * Фильтр дубликатов в этом режиме не используется.
+     *
+     * @param record сообщение с данными о погоде
+     * @param group  группа получателей
+     */
+    private void saveExactlyOnce(
+            final ConsumerRecord<String, Weather> record,
+            final String group
+    ) {
+        final var partition = new TopicPartition(record.topic(), record.partition());
+        final long nextOffset = record.offset() + 1;
+        final String cityName = record.value().getCity().getName();
+
+        try {
+            metrics.persistTimer().record(() -> transactionTemplate.executeWithoutResult(status -> {
+                outbox.withoutEvents(() -> externalApiService.saveWithTransaction(record.value()));
+                offsetRepository.save(group, partition, nextOffset);
+            }));
+            log.info("Weather data for city <{}> was successfully saved", cityName);
+        } catch (UniqueWeatherException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    offsetRepository.save(group, partition, nextOffset)
+            );
+            log.info("Weather data for city <{}> has already been saved", cityName);
+        }
+    }
 }
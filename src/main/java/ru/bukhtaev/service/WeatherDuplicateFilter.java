@@ -0,0 +1,185 @@
+package ru.bukhtaev.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.DuplicateFilterConfigParams;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.repository.jdbc.WeatherJdbcRepository;
+import ru.bukhtaev.util.BloomFilter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Вероятностный фильтр дубликатов данных о погоде по названию города, дате и времени.
+ * <p>
+ * Фильтр позволяет не проверять в базе данных наличие данных о погоде, которые заведомо новые:
+ * если фильтр отвечает, что ключ не встречался, данные сохраняются без предварительного запроса.
+ * Ответ "возможно, встречался" требует обычной проверки в базе данных.
+ * Фильтр не заменяет проверку уникальности при сохранении: данные, сохраненные в обход фильтра,
+ * например через REST API или другим экземпляром приложения, в нем отсутствуют.
+ * <p>
+ * Чтобы доля ложноположительных ответов не росла вместе с количеством ключей,
+ * фильтр состоит из двух поколений: при заполнении текущего поколения оно становится предыдущим,
+ * а самое старое поколение отбрасывается.
+ * <p>
+ * Фильтр используется только при сохранении данных о погоде без гарантии однократной обработки
+ * ({@code kafka.exactly-once: false}). При однократной обработке повторные сообщения пропускаются
+ * благодаря сохраненным смещениям, и наличие данных перед сохранением не проверяется,
+ * поэтому фильтр выключается: не загружает ключи, не занимает память и не публикует метрики.
+ */
+@Slf4j
+@Component
+public class WeatherDuplicateFilter {
+
+    /**
+     * JDBC-репозиторий данных о погоде.
+     */
+    private final WeatherJdbcRepository weatherRepository;
+
+    /**
+     * Параметры конфигурации фильтра дубликатов.
+     */
+    private final DuplicateFilterConfigParams config;
+
+    /**
+     * Признак использования фильтра.
+     */
+    private final boolean enabled;
+
+    /**
+     * Текущее поколение фильтра, в которое добавляются ключи.
+     */
+    private volatile BloomFilter current;
+
+    /**
+     * Предыдущее поколение фильтра.
+     */
+    private volatile BloomFilter previous;
+
+    /**
+     * Признак готовности фильтра: ключи существующих данных о погоде загружены.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Конструктор.
+     *
+     * @param weatherRepository JDBC-репозиторий данных о погоде
+     * @param kafkaConfig       параметры конфигурации Kafka-топика и его обработки
+     * @param metrics           метрики обработки сообщений с данными о погоде
+     */
+    @Autowired
+    public WeatherDuplicateFilter(
+            final WeatherJdbcRepository weatherRepository,
+            final KafkaConfigParams kafkaConfig,
+            final WeatherConsumerMetrics metrics
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.config = kafkaConfig.getDuplicateFilter();
+        this.enabled = config.isEnabled() && !kafkaConfig.isExactlyOnce();
+        if (enabled) {
+            this.current = newGeneration();
+            metrics.registerDuplicateFilter(this, WeatherDuplicateFilter::getSizeInBytes);
+        } else if (config.isEnabled()) {
+            log.info("Weather duplicate filter is not used because messages are processed exactly once");
+        }
+    }
+
+    /**
+     * Загружает в фильтр ключи данных о погоде за последний период.
+     * Если загрузка не удалась, фильтр не используется и наличие данных
+     * проверяется в базе данных для каждого сообщения.
+     */
+    @PostConstruct
+    void seed() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            final LocalDateTime from = LocalDateTime.now().minus(config.getSeedPeriod());
+            weatherRepository.forEachKeySince(from, this::put);
+            ready = true;
+            log.info(
+                    "Weather duplicate filter was seeded with {} keys, size is {} bytes",
+                    current.getInsertions(),
+                    getSizeInBytes()
+            );
+        } catch (RuntimeException e) {
+            log.warn("Weather duplicate filter could not be seeded and will not be used", e);
+        }
+    }
+
+    /**
+     * Возвращает {@code false}, если данных о погоде в городе с указанным названием
+     * на указанные дату и время точно нет, и {@code true}, если они, возможно, есть.
+     *
+     * @param cityName название города
+     * @param dateTime дата и время
+     * @return {@code false}, если данных о погоде точно нет
+     */
+    public boolean mightContain(final String cityName, final LocalDateTime dateTime) {
+        if (!ready) {
+            return true;
+        }
+
+        final String key = key(cityName, dateTime);
+        final BloomFilter older = previous;
+        return current.mightContain(key) || older != null && older.mightContain(key);
+    }
+
+    /**
+     * Добавляет в фильтр ключ сохраненных данных о погоде.
+     *
+     * @param cityName название города
+     * @param dateTime дата и время
+     */
+    public void put(final String cityName, final LocalDateTime dateTime) {
+        if (!enabled) {
+            return;
+        }
+
+        BloomFilter generation = current;
+        if (generation.getInsertions() >= config.getExpectedInsertions()) {
+            generation = rotate(generation);
+        }
+        generation.put(key(cityName, dateTime));
+    }
+
+    /**
+     * Возвращает объем памяти, занимаемый фильтром, в байтах.
+     *
+     * @return объем памяти, занимаемый фильтром, в байтах
+     */
+    public long getSizeInBytes() {
+        final BloomFilter newer = current;
+        final BloomFilter older = previous;
+        return (newer == null ? 0 : newer.getSizeInBytes())
+                + (older == null ? 0 : older.getSizeInBytes());
+    }
+
+    /**
+     * Начинает новое поколение фильтра, если заполненное поколение всё ещё текущее.
+     *
+     * @param full заполненное поколение
+     * @return текущее поколение
+     */
+    private synchronized BloomFilter rotate(final BloomFilter full) {
+        if (current == full) {
+            previous = full;
+            current = newGeneration();
+        }
+        return current;
+    }
+
+    private BloomFilter newGeneration() {
+        return new BloomFilter(config.getExpectedInsertions(), config.getFalsePositiveRate());
+    }
+
+    private static String key(final String cityName, final LocalDateTime dateTime) {
+        return cityName + '|' + dateTime;
+    }
+}
@@ -0,0 +1,350 @@
+package ru.bukhtaev.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import ru.bukhtaev.config.FetchJobConfigParams;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.dto.FetchJobDto;
+import ru.bukhtaev.dto.external.BulkWeatherResult;
+import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.exception.CommonException;
+import ru.bukhtaev.exception.DataNotFoundException;
+import ru.bukhtaev.exception.FetchJobRejectedException;
+import ru.bukhtaev.exception.InvalidPropertyException;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.util.FetchJobStatus;
+import ru.bukhtaev.validation.MessageProvider;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static ru.bukhtaev.validation.MessageUtils.*;
+
+/**
+ * Реализация сервиса заданий получения данных о погоде от внешнего API и их сохранения.
+ * <p>
+ * Задания выполняются пулом потоков фиксированного размера с ограниченной очередью,
+ * поэтому потоки обработки HTTP-запросов не ожидают ответа внешнего API и сохранения данных,
+ * а при заполненной очереди новые задания отклоняются. Местоположения задания запрашиваются
+ * массовыми запросами, каждый из которых содержит не более лимита местоположений внешнего API,
+ * после чего все полученные данные сохраняются одной транзакцией. Ошибка массового запроса
+ * учитывается для каждого его местоположения и не прерывает задание.
+ * Хранится состояние только последних завершенных заданий, задания в очереди и выполняемые задания
+ * не удаляются.
+ */
+@Slf4j
+@Service
+public class WeatherFetchJobServiceImpl implements IWeatherFetchJobService {
+
+    /**
+     * Префикс названий потоков выполнения заданий.
+     */
+    private static final String THREAD_NAME_PREFIX = "weather-fetch-job-";
+
+    /**
+     * Название параметра местоположений.
+     */
+    private static final String PARAM_LOCATIONS = "locations";
+
+    /**
+     * Название параметра ID задания.
+     */
+    private static final String PARAM_ID = "id";
+
+    /**
+     * Сервис для выполнения запросов к внешнему API данных о погоде.
+     */
+    private final IExternalWeatherApiService externalApiService;
+
+    /**
+     * Маппер для объектов типа {@link Weather}.
+     */
+    private final IWeatherMapper mapper;
+
+    /**
+     * Сервис предоставления сообщений.
+     */
+    private final MessageProvider messageProvider;
+
+    /**
+     * Параметры конфигурации заданий.
+     */
+    private final FetchJobConfigParams jobConfig;
+
+    /**
+     * Максимальное количество местоположений в одном массовом запросе к внешнему API.
+     */
+    private final int locationsLimit;
+
+    /**
+     * Исполнитель заданий.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Последние задания по ID в порядке постановки в очередь.
+     */
+    private final Map<UUID, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Конструктор.
+     *
+     * @param externalApiService сервис для выполнения запросов к внешнему API
+     * @param mapper             маппер для объектов типа {@link Weather}
+     * @param messageProvider    сервис предоставления сообщений
+     * @param jobConfig          параметры конфигурации заданий
+     * @param apiConfig          параметры конфигурации внешнего API
+     */
+    @Autowired
+    public WeatherFetchJobServiceImpl(
+            @Qualifier("weatherApiServiceJpa") final IExternalWeatherApiService externalApiService,
+            final IWeatherMapper mapper,
+            final MessageProvider messageProvider,
+            final FetchJobConfigParams jobConfig,
+            final ExternalApiConfigParams apiConfig
+    ) {
+        this(
+                externalApiService,
+                mapper,
+                messageProvider,
+                jobConfig,
+                apiConfig,
+                new ThreadPoolExecutor(
+                        jobConfig.getThreads(),
+                        jobConfig.getThreads(),
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(jobConfig.getQueueCapacity()),
+                        new CustomizableThreadFactory(THREAD_NAME_PREFIX)
+                )
+        );
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param externalApiService сервис для выполнения запросов к внешнему API
+     * @param mapper             маппер для объектов типа {@link Weather}
+     * @param messageProvider    сервис предоставления сообщений
+     * @param jobConfig          параметры конфигурации заданий
+     * @param apiConfig          параметры конфигурации внешнего API
+     * @param executor           исполнитель заданий
+     */
+    WeatherFetchJobServiceImpl(
+            final IExternalWeatherApiService externalApiService,
+            final IWeatherMapper mapper,
+            final MessageProvider messageProvider,
+            final FetchJobConfigParams jobConfig,
+            final ExternalApiConfigParams apiConfig,
+            final ExecutorService executor
+    ) {
+        this.externalApiService = externalApiService;
+        this.mapper = mapper;
+        this.messageProvider = messageProvider;
+        this.jobConfig = jobConfig;
+        this.locationsLimit = apiConfig.getBulkRequest().getLocationsLimit();
+        this.executor = executor;
+    }
+
+    @Override
+    public FetchJobDto submit(final List<String> locations, final Boolean aqi) {
+        final int maxLocations = jobConfig.getMaxLocations();
+        if (locations == null || locations.isEmpty() || locations.size() > maxLocations) {
+            throw new InvalidPropertyException(
+                    messageProvider.getMessage(
+                            MESSAGE_CODE_FETCH_JOB_INVALID_LOCATIONS_COUNT,
+                            maxLocations
+                    ),
+                    PARAM_LOCATIONS
+            );
+        }
+
+        final Job job = new Job(List.copyOf(new LinkedHashSet<>(locations)));
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+        try {
+            executor.execute(() -> run(job, aqi));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            throw new FetchJobRejectedException(
+                    messageProvider.getMessage(MESSAGE_CODE_FETCH_JOB_REJECTED)
+            );
+        }
+
+        log.info("Fetch job <{}> for {} locations is queued", job.id, job.locations.size());
+        return job.toDto();
+    }
+
+    @Override
+    public FetchJobDto getJob(final UUID id) {
+        final Job job = jobs.get(id);
+        if (job == null) {
+            throw new DataNotFoundException(
+                    messageProvider.getMessage(MESSAGE_CODE_FETCH_JOB_NOT_FOUND, id),
+                    PARAM_ID
+            );
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Останавливает исполнитель заданий.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Удаляет самые старые завершенные задания, пока количество заданий превышает
+     * количество хранимых заданий.
+     */
+    private void evictFinishedJobs() {
+        synchronized (jobs) {
+            int excess = jobs.size() - jobConfig.getRetainedJobs();
+            final Iterator<Job> iterator = jobs.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                    excess--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Выполняет задание: запрашивает данные о погоде массовыми запросами
+     * и сохраняет все полученные данные одной транзакцией.
+     * Если массовый запрос не выполнен, ошибка учитывается для каждого его местоположения.
+     *
+     * @param job задание
+     * @param aqi надобность информации о качестве воздуха
+     */
+    private void run(final Job job, final Boolean aqi) {
+        job.startedAt = Instant.now();
+        job.status = FetchJobStatus.RUNNING;
+        try {
+            final String language = Locale.ENGLISH.getLanguage();
+            final List<Weather> fetched = new ArrayList<>(job.locations.size());
+            for (int from = 0; from < job.locations.size(); from += locationsLimit) {
+                final List<String> chunk = job.locations.subList(
+                        from,
+                        Math.min(from + locationsLimit, job.locations.size())
+                );
+                final List<BulkWeatherResult> results;
+                try {
+                    results = externalApiService.getCurrentBulk(chunk, language, aqi);
+                } catch (RuntimeException ex) {
+                    final String errorMessage = errorMessageOf(ex);
+                    chunk.forEach(location -> job.errors.put(location, errorMessage));
+                    log.warn("Fetch job <{}> failed to fetch locations {}: {}", job.id, chunk, errorMessage);
+                    continue;
+                }
+
+                for (final BulkWeatherResult result : results) {
+                    if (result.isSuccess()) {
+                        fetched.add(mapper.convertFromSummary(result.getSummary()));
+                    } else {
+                        job.errors.put(result.getLocation(), errorMessageOf(result.getError()));
+                    }
+                }
+            }
+
+            final List<Weather> saved = externalApiService.saveAllWithTransaction(fetched);
+            job.skipped = fetched.size() - saved.size();
+            job.saved = saved;
+            job.finish(FetchJobStatus.COMPLETED, null);
+            log.info(
+                    "Fetch job <{}> is completed: {} saved, {} skipped, {} failed",
+                    job.id,
+                    saved.size(),
+                    job.skipped,
+                    job.errors.size()
+            );
+        } catch (RuntimeException ex) {
+            job.finish(FetchJobStatus.FAILED, errorMessageOf(ex));
+            log.warn("Fetch job <{}> has failed", job.id, ex);
+        }
+        evictFinishedJobs();
+    }
+
+    /**
+     * Возвращает сообщение об ошибке исключения.
+     *
+     * @param exception исключение
+     * @return сообщение об ошибке, не {@code null}
+     */
+    private static String errorMessageOf(final RuntimeException exception) {
+        final String errorMessage = exception instanceof CommonException common
+                ? common.getErrorMessage()
+                : exception.getMessage();
+        return errorMessage == null ? exception.getClass().getSimpleName() : errorMessage;
+    }
+
+    /**
+     * Задание получения и сохранения данных о погоде.
+     */
+    private final class Job {
+
+        private final UUID id = UUID.randomUUID();
+
+        private final List<String> locations;
+
+        private final Instant submittedAt = Instant.now();
+
+        private final Map<String, String> errors = new ConcurrentHashMap<>();
+
+        private volatile FetchJobStatus status = FetchJobStatus.QUEUED;
+
+        private volatile Instant startedAt;
+
+        private volatile Instant finishedAt;
+
+        private volatile List<Weather> saved = List.of();
+
+        private volatile int skipped;
+
+        private volatile String errorMessage;
+
+        Job(final List<String> locations) {
+            this.locations = locations;
+        }
+
+        boolean isFinished() {
+            return status == FetchJobStatus.COMPLETED || status == FetchJobStatus.FAILED;
+        }
+
+        void finish(final FetchJobStatus status, final String errorMessage) {
+            this.errorMessage = errorMessage;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        FetchJobDto toDto() {
+            return FetchJobDto.builder()
+                    .id(id)
+                    .status(status)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .totalLocations(locations.size())
+                    .skippedLocations(skipped)
+                    .saved(saved.stream()
+                            .map(mapper::convertToDto)
+                            .toList())
+                    .errors(Map.copyOf(errors))
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ru.bukhtaev.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.bukhtaev.kafka.WeatherBinaryCodec;
+import ru.bukhtaev.model.OutboxEvent;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.repository.jdbc.OutboxEventJdbcRepository;
+import ru.bukhtaev.util.WeatherEventType;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Журнал исходящих событий изменения данных о погоде (transactional outbox).
+ * События сохраняются в той же транзакции, что и изменение данных о погоде,
+ * и отправляются в Kafka-топик асинхронно, поэтому время обработки запроса
+ * не зависит от доступности брокера.
+ */
+@Component
+public class WeatherOutbox {
+
+    /**
+     * Признак того, что в текущем потоке события не записываются.
+     */
+    private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * Репозиторий исходящих событий.
+     */
+    private final OutboxEventJdbcRepository repository;
+
+    /**
+     * Конструктор.
+     *
+     * @param repository репозиторий исходящих событий
+     */
+    @Autowired
+    public WeatherOutbox(final OutboxEventJdbcRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Записывает событие изменения данных о погоде в текущей транзакции.
+     * Ключом сообщения является название города, поэтому события одного города
+     * попадают в одну партицию и обрабатываются в порядке их создания.
+     *
+     * @param eventType тип события
+     * @param weather   данные о погоде
+     */
+    public void append(final WeatherEventType eventType, final Weather weather) {
+        if (SUPPRESSED.get()) {
+            return;
+        }
+        repository.create(OutboxEvent.builder()
+                .eventType(eventType)
+                .weatherId(weather.getId())
+                .key(weather.getCity() == null ? null : weather.getCity().getName())
+                .payload(WeatherBinaryCodec.encode(weather))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Выполняет действие, не записывая вызванные им события.
+     * Используется при сохранении данных, уже полученных из Kafka-топика,
+     * чтобы они не отправлялись в топик повторно.
+     *
+     * @param action действие
+     * @param <T>    тип результата действия
+     * @return результат действия
+     */
+    public <T> T withoutEvents(final Supplier<T> action) {
+        final boolean previous = SUPPRESSED.get();
+        SUPPRESSED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            SUPPRESSED.set(previous);
+        }
+    }
+}
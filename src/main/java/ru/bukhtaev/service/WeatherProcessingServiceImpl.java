@@ -46,22 +46,30 @@ public class WeatherProcessingServiceImpl implements IWeatherProcessingService {
      */
     private final WeatherCache cache;
 
+    /**
+     * Сервис предоставления названий городов для опроса по расписанию.
+     */
+    private final CitiesProvider citiesProvider;
+
     /**
      * Конструктор.
      *
      * @param weatherRepository репозиторий данных о погоде
      * @param messageProvider   сервис предоставления сообщений
      * @param cache             LRU-кэш для данных о погоде
+     * @param citiesProvider    сервис предоставления названий городов для опроса по расписанию
      */
     @Autowired
     public WeatherProcessingServiceImpl(
             final IWeatherJpaRepository weatherRepository,
             final MessageProvider messageProvider,
-            final WeatherCache cache
+            final WeatherCache cache,
+            final CitiesProvider citiesProvider
     ) {
         this.weatherRepository = weatherRepository;
         this.messageProvider = messageProvider;
         this.cache = cache;
+        this.citiesProvider = citiesProvider;
     }
 
     @Override
@@ -76,6 +84,7 @@ public class WeatherProcessingServiceImpl implements IWeatherProcessingService {
 
     @Override
     public Double getTemperature(final String cityName, final ChronoUnit timeUnit) {
+        citiesProvider.recordDemand(cityName);
         final LocalDateTime now = LocalDateTime.now();
 
         final Weather weather = cache.get(cityName)
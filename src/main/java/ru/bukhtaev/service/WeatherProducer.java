@@ -1,15 +1,33 @@
 package ru.bukhtaev.service;
 
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import ru.bukhtaev.config.CitiesConfigParams;
+import ru.bukhtaev.config.PollingConfigParams;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.dto.external.BulkWeatherResult;
 import ru.bukhtaev.dto.mapper.IWeatherMapper;
 import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.util.PollingMode;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+import static ru.bukhtaev.service.AbstractExternalWeatherApiService.RATE_LIMITER_NAME;
 
 /**
  * Сервис запроса данных о погоде из внешнего API
@@ -39,56 +57,269 @@ public class WeatherProducer {
      */
     private final IExternalWeatherApiService weatherApiService;
 
+    /**
+     * Параметры конфигурации опроса внешнего API.
+     */
+    private final PollingConfigParams pollingConfig;
+
+    /**
+     * Параметры конфигурации внешнего API.
+     */
+    private final ExternalApiConfigParams apiConfig;
+
+    /**
+     * Исполнитель задач опроса внешнего API.
+     */
+    private final ExecutorService pollingExecutor;
+
+    /**
+     * Ограничитель частоты запросов к внешнему API.
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Семафор, ограничивающий количество одновременных запросов к внешнему API.
+     */
+    private final Semaphore concurrencyPermits;
+
+    /**
+     * Названия городов, запросы для которых выполняются в данный момент.
+     */
+    private final Set<String> inFlightCities = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Ограничение фоновых запросов к внешнему API в соответствии с квотой токена.
+     */
+    private final ExternalApiQuotaThrottle quotaThrottle;
+
+    /**
+     * Сервис согласования задач по расписанию между экземплярами приложения.
+     */
+    private final SchedulerCoordinator coordinator;
+
     /**
      * Конструктор.
      *
-     * @param mapper            маппер для объектов типа {@link Weather}
-     * @param citiesProvider    сервис предоставления названий городов
-     * @param kafkaTemplate     сервис для отправки сообщений
-     * @param weatherApiService сервис для выполнения запросов к внешнему API данных о погоде
+     * @param mapper              маппер для объектов типа {@link Weather}
+     * @param citiesProvider      сервис предоставления названий городов
+     * @param kafkaTemplate       сервис для отправки сообщений
+     * @param weatherApiService   сервис для выполнения запросов к внешнему API данных о погоде
+     * @param citiesConfigParams  параметры конфигурации для получения данных о погоде по расписанию
+     * @param apiConfig           параметры конфигурации внешнего API
+     * @param pollingExecutor     исполнитель задач опроса внешнего API
+     * @param rateLimiterRegistry реестр ограничителей частоты запросов
+     * @param quotaThrottle       ограничение фоновых запросов к внешнему API в соответствии с квотой токена
+     * @param coordinator         сервис согласования задач по расписанию между экземплярами приложения
      */
     @Autowired
     public WeatherProducer(
             final IWeatherMapper mapper,
             final CitiesProvider citiesProvider,
             final KafkaTemplate<String, Weather> kafkaTemplate,
-            @Qualifier("weatherApiServiceJpa") final IExternalWeatherApiService weatherApiService
+            @Qualifier("weatherApiServiceJpa") final IExternalWeatherApiService weatherApiService,
+            final CitiesConfigParams citiesConfigParams,
+            final ExternalApiConfigParams apiConfig,
+            @Qualifier("pollingExecutor") final ExecutorService pollingExecutor,
+            final RateLimiterRegistry rateLimiterRegistry,
+            final ExternalApiQuotaThrottle quotaThrottle,
+            final SchedulerCoordinator coordinator
     ) {
         this.mapper = mapper;
         this.kafkaTemplate = kafkaTemplate;
         this.citiesProvider = citiesProvider;
         this.weatherApiService = weatherApiService;
+        this.pollingConfig = citiesConfigParams.getPolling();
+        this.apiConfig = apiConfig;
+        this.pollingExecutor = pollingExecutor;
+        this.rateLimiter = rateLimiterRegistry.rateLimiter(RATE_LIMITER_NAME);
+        this.concurrencyPermits = new Semaphore(pollingConfig.getMaxConcurrency());
+        this.quotaThrottle = quotaThrottle;
+        this.coordinator = coordinator;
     }
 
     /**
      * Получает данные о погоде в данный момент времени
-     * для указанного города и отправляет их в Kafka-топик.
+     * и отправляет их в Kafka-топик в соответствии с режимом опроса.
+     * Опрашиваются только города, время опроса которых наступило.
+     * Из нескольких экземпляров приложения опрос выполняет только один,
+     * либо каждый опрашивает свою часть городов, если опрос распределяется между экземплярами.
+     * Если квота токена внешнего API расходуется слишком быстро, опрос откладывается.
      */
     @Scheduled(cron = "${weather.frequency}")
-    private void publish() {
+    void publish() {
+        if (!coordinator.isSharding() && !coordinator.tryLead(SchedulerCoordinator.TASK_WEATHER_POLLING)) {
+            log.debug("Polling is performed by another instance");
+        } else if (pollingConfig.getMode() == PollingMode.CONCURRENT) {
+            publishAll();
+        } else {
+            publishNext();
+        }
+    }
 
-        final String location = citiesProvider.getCity();
-        final String language = Locale.ENGLISH.getLanguage();
+    /**
+     * Запрашивает данные о погоде для одного города, время опроса которого наступило.
+     * Если квота токена внешнего API не позволяет выполнить запрос, опрос города откладывается.
+     */
+    private void publishNext() {
+        final List<String> cities = citiesProvider.getCities(1);
+        if (cities.isEmpty()) {
+            log.debug("No city is due for polling");
+        } else if (quotaThrottle.acquireBackground(cities.size()) > 0) {
+            cities.forEach(this::fetchAndSend);
+        } else {
+            citiesProvider.postpone(cities);
+            log.debug("Polling is deferred by the external API quota throttle");
+        }
+    }
 
-        final var weather = mapper.convertFromExternalDto(
-                weatherApiService.getCurrent(
-                        location,
-                        language,
-                        Boolean.FALSE
-                )
+    /**
+     * Параллельно запрашивает данные о погоде для всех городов, время опроса которых наступило,
+     * массовыми запросами, каждый из которых содержит не более лимита местоположений внешнего API.
+     * Количество запросов ограничено свободными слотами одновременных запросов
+     * и оставшимся лимитом ограничителя частоты запросов, а количество городов - квотой токена.
+     * Слоты одновременных запросов занимаются до резервирования квоты,
+     * чтобы квота не расходовалась на города, запросы для которых не будут выполнены.
+     * Города, которые не удалось опросить, в том числе города, запрос для которых ещё не завершился,
+     * откладываются и опрашиваются первыми при следующем опросе.
+     */
+    private void publishAll() {
+        final int chunkSize = apiConfig.getBulkRequest().getLocationsLimit();
+        final int budget = Math.min(
+                Math.max(0, rateLimiter.getMetrics().getAvailablePermissions()),
+                concurrencyPermits.availablePermits()
         );
+        final List<String> cities = citiesProvider.getCities(budget * chunkSize);
+        if (cities.isEmpty()) {
+            log.debug("No city is due for polling within {} available city chunks", budget);
+            return;
+        }
+
+        final Map<Boolean, List<String>> byInFlight = cities.stream()
+                .collect(Collectors.partitioningBy(inFlightCities::contains));
+        final List<String> inFlight = byInFlight.get(Boolean.TRUE);
+        if (!inFlight.isEmpty()) {
+            citiesProvider.postpone(inFlight);
+            log.debug("Cities {} are still being polled and are postponed", inFlight);
+        }
+
+        final List<String> notInFlight = byInFlight.get(Boolean.FALSE);
+        final int chunksNeeded = (notInFlight.size() + chunkSize - 1) / chunkSize;
+        int permits = 0;
+        while (permits < chunksNeeded && concurrencyPermits.tryAcquire()) {
+            permits++;
+        }
+        final int capacity = Math.min(notInFlight.size(), permits * chunkSize);
+        if (capacity < notInFlight.size()) {
+            final List<String> remaining = notInFlight.subList(capacity, notInFlight.size());
+            citiesProvider.postpone(remaining);
+            log.warn("Maximum polling concurrency reached, cities {} are postponed to the next run", remaining);
+        }
+
+        final int quota = quotaThrottle.acquireBackground(capacity);
+        final List<String> dueCities = notInFlight.subList(0, quota);
+        if (quota < capacity) {
+            citiesProvider.postpone(notInFlight.subList(quota, capacity));
+        }
+        concurrencyPermits.release(permits - (quota + chunkSize - 1) / chunkSize);
+
+        for (int from = 0; from < dueCities.size(); from += chunkSize) {
+            final List<String> chunk = dueCities.subList(from, Math.min(from + chunkSize, dueCities.size()));
+            inFlightCities.addAll(chunk);
+
+            try {
+                pollingExecutor.execute(() -> fetchAndSendReleasing(chunk));
+            } catch (RejectedExecutionException ex) {
+                release(chunk);
+                citiesProvider.postpone(chunk);
+                log.error("Polling of cities {} was rejected and is postponed", chunk, ex);
+            }
+        }
+    }
+
+    /**
+     * Получает одним массовым запросом и отправляет данные о погоде для указанных городов,
+     * после чего освобождает занятые при планировании ресурсы.
+     * Опрос городов, данные о погоде которых получить не удалось, откладывается.
+     *
+     * @param locations названия городов
+     */
+    private void fetchAndSendReleasing(final List<String> locations) {
+        try {
+            final List<BulkWeatherResult> results = weatherApiService.getCurrentBulk(
+                    locations,
+                    Locale.ENGLISH.getLanguage(),
+                    Boolean.FALSE
+            );
+
+            final List<String> failed = new ArrayList<>();
+            for (final BulkWeatherResult result : results) {
+                if (result.isSuccess()) {
+                    sendWeather(mapper.convertFromSummary(result.getSummary()));
+                } else {
+                    failed.add(result.getLocation());
+                    log.warn(
+                            "Failed to poll weather data for city <{}>, it is postponed: {}",
+                            result.getLocation(),
+                            result.getError().getErrorMessage()
+                    );
+                }
+            }
+            if (!failed.isEmpty()) {
+                citiesProvider.postpone(failed);
+            }
+        } catch (RuntimeException ex) {
+            citiesProvider.postpone(locations);
+            log.error("Failed to poll weather data for cities {}, they are postponed", locations, ex);
+        } finally {
+            release(locations);
+        }
+    }
 
-        sendWeather(weather);
+    /**
+     * Освобождает ресурсы, занятые для опроса указанных городов.
+     *
+     * @param locations названия городов
+     */
+    private void release(final List<String> locations) {
+        locations.forEach(inFlightCities::remove);
+        concurrencyPermits.release();
+    }
+
+    /**
+     * Асинхронно получает данные о погоде в данный момент времени
+     * для указанного города и отправляет их в Kafka-топик.
+     * Вызывающий поток не ожидает ответа внешнего API.
+     * Если данные получить не удалось, опрос города откладывается, как и в режиме одновременного опроса.
+     *
+     * @param location название города
+     */
+    private void fetchAndSend(final String location) {
+        weatherApiService.getCurrentSummaryAsync(location, Locale.ENGLISH.getLanguage())
+                .thenApply(mapper::convertFromSummary)
+                .whenComplete((weather, ex) -> {
+                    if (ex == null) {
+                        sendWeather(weather);
+                    } else {
+                        citiesProvider.postpone(List.of(location));
+                        log.error("Failed to poll weather data for city <{}>, it is postponed", location, ex);
+                    }
+                });
     }
 
     /**
-     * Отправляет данные о погоде в Kafka-топик по умолчанию.
+     * Асинхронно отправляет данные о погоде в Kafka-топик по умолчанию.
      *
      * @param weather данные о погоде
      */
     private void sendWeather(final Weather weather) {
         final String cityName = weather.getCity().getName();
-        kafkaTemplate.sendDefault(cityName, weather);
-        log.info("Weather data for city <{}> was successfully sent", cityName);
+        kafkaTemplate.sendDefault(cityName, weather)
+                .whenComplete((result, ex) -> {
+                    if (ex == null) {
+                        log.info("Weather data for city <{}> was successfully sent", cityName);
+                    } else {
+                        log.error("Failed to send weather data for city <{}>", cityName, ex);
+                    }
+                });
     }
 }
@@ -0,0 +1,731 @@
+package ru.bukhtaev.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.config.ReplayConfigParams;
+import ru.bukhtaev.dto.ReplayProgressDto;
+import ru.bukhtaev.exception.InvalidPropertyException;
+import ru.bukhtaev.exception.ReplayAlreadyRunningException;
+import ru.bukhtaev.exception.UniqueNameException;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.kafka.WeatherOutboxRelay;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+import ru.bukhtaev.repository.jdbc.WeatherJdbcRepository;
+import ru.bukhtaev.service.crud.IDictionaryCrudService;
+import ru.bukhtaev.util.ReplayStatus;
+import ru.bukhtaev.util.WeatherEventType;
+import ru.bukhtaev.validation.MessageProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.springframework.transaction.TransactionDefinition.ISOLATION_READ_COMMITTED;
+import static ru.bukhtaev.validation.MessageUtils.MESSAGE_CODE_REPLAY_ALREADY_RUNNING;
+import static ru.bukhtaev.validation.MessageUtils.MESSAGE_CODE_REPLAY_AMBIGUOUS_START;
+
+/**
+ * Реализация сервиса повторного чтения истории Kafka-топика с данными о погоде.
+ * <p>
+ * Топик читается отдельным получателем в собственной группе, поэтому основная группа
+ * {@link WeatherConsumer} не затрагивается. Граница чтения фиксируется при запуске
+ * по последним смещениям партиций. Каждый полученный пакет сообщений сводится
+ * к одному изменению на город, дату и время с учетом порядка сообщений в партиции:
+ * события удаления удаляют запись о погоде, события изменения изменяют или создают её,
+ * а остальные сообщения создают запись о погоде, только если её ещё нет.
+ * Изменения сохраняются пакетными запросами в нескольких потоках: они распределяются
+ * по потокам по названию города, поэтому записи одного города не сохраняются параллельно.
+ * Записи о погоде сопоставляются с событиями по городу, дате и времени, так как при повторном
+ * чтении ID записей создаются заново; поэтому изменение города, даты или времени записи
+ * о погоде не удаляет запись с прежними значениями. Смещения группы
+ * повторного чтения сохраняются после сохранения каждого пакета, что позволяет
+ * продолжить прерванное чтение. События журнала исходящих событий при этом не создаются.
+ */
+@Slf4j
+@Service
+public class WeatherReplayServiceImpl implements IWeatherReplayService {
+
+    /**
+     * Префикс названия потока чтения топика.
+     */
+    private static final String REPLAY_THREAD_NAME_PREFIX = "weather-replay-";
+
+    /**
+     * Префикс названий потоков сохранения данных о погоде.
+     */
+    private static final String WRITER_THREAD_NAME_PREFIX = "weather-replay-writer-";
+
+    /**
+     * Название параметра смещения.
+     */
+    private static final String PARAM_OFFSET = "offset";
+
+    /**
+     * Название параметра времени.
+     */
+    private static final String PARAM_TIMESTAMP = "timestamp";
+
+    /**
+     * Фабрика получателей сообщений.
+     */
+    private final ConsumerFactory<String, Weather> consumerFactory;
+
+    /**
+     * JDBC-репозиторий данных о погоде.
+     */
+    private final WeatherJdbcRepository weatherRepository;
+
+    /**
+     * JDBC-реализация сервиса CRUD операций над городами.
+     */
+    private final IDictionaryCrudService<City, UUID> cityCrudService;
+
+    /**
+     * JDBC-реализация сервиса CRUD операций над типами погоды.
+     */
+    private final IDictionaryCrudService<WeatherType, UUID> typeCrudService;
+
+    /**
+     * Метрики обработки сообщений с данными о погоде.
+     */
+    private final WeatherConsumerMetrics metrics;
+
+    /**
+     * Сервис предоставления сообщений.
+     */
+    private final MessageProvider messageProvider;
+
+    /**
+     * Параметры конфигурации повторного чтения истории топика.
+     */
+    private final ReplayConfigParams replayConfig;
+
+    /**
+     * Топик с данными о погоде.
+     */
+    private final String topic;
+
+    /**
+     * Объект для управления транзакциями сохранения пакетов данных о погоде.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Исполнитель задачи чтения топика.
+     */
+    private final ExecutorService replayExecutor;
+
+    /**
+     * Исполнитель задач сохранения данных о погоде.
+     */
+    private final ExecutorService writerExecutor;
+
+    /**
+     * Ход последнего запущенного повторного чтения.
+     */
+    private final AtomicReference<Progress> current = new AtomicReference<>();
+
+    /**
+     * Конструктор.
+     *
+     * @param consumerFactory    фабрика получателей сообщений
+     * @param weatherRepository  JDBC-репозиторий данных о погоде
+     * @param cityCrudService    JDBC-реализация сервиса CRUD операций над городами
+     * @param typeCrudService    JDBC-реализация сервиса CRUD операций над типами погоды
+     * @param metrics            метрики обработки сообщений с данными о погоде
+     * @param messageProvider    сервис предоставления сообщений
+     * @param kafkaConfig        параметры конфигурации Kafka-топика и его обработки
+     * @param topic              топик с данными о погоде
+     * @param transactionManager менеджер транзакций
+     */
+    public WeatherReplayServiceImpl(
+            final ConsumerFactory<String, Weather> consumerFactory,
+            final WeatherJdbcRepository weatherRepository,
+            @Qualifier("cityCrudServiceJdbc") final IDictionaryCrudService<City, UUID> cityCrudService,
+            @Qualifier("typeCrudServiceJdbc") final IDictionaryCrudService<WeatherType, UUID> typeCrudService,
+            final WeatherConsumerMetrics metrics,
+            final MessageProvider messageProvider,
+            final KafkaConfigParams kafkaConfig,
+            @Value("${spring.kafka.template.default-topic}") final String topic,
+            final PlatformTransactionManager transactionManager
+    ) {
+        this.consumerFactory = consumerFactory;
+        this.weatherRepository = weatherRepository;
+        this.cityCrudService = cityCrudService;
+        this.typeCrudService = typeCrudService;
+        this.metrics = metrics;
+        this.messageProvider = messageProvider;
+        this.replayConfig = kafkaConfig.getReplay();
+        this.topic = topic;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(ISOLATION_READ_COMMITTED);
+        this.replayExecutor = Executors.newSingleThreadExecutor(
+                new CustomizableThreadFactory(REPLAY_THREAD_NAME_PREFIX)
+        );
+        this.writerExecutor = Executors.newFixedThreadPool(
+                replayConfig.getParallelism(),
+                new CustomizableThreadFactory(WRITER_THREAD_NAME_PREFIX)
+        );
+    }
+
+    @Override
+    public ReplayProgressDto start(final Long offset, final Instant timestamp) {
+        final Progress progress = begin(offset, timestamp);
+        replayExecutor.execute(() -> replay(progress));
+        return progress.toDto();
+    }
+
+    @Override
+    public ReplayProgressDto cancel() {
+        final Progress progress = current.get();
+        if (progress == null) {
+            return getProgress();
+        }
+        progress.cancelled = true;
+        return progress.toDto();
+    }
+
+    @Override
+    public ReplayProgressDto getProgress() {
+        final Progress progress = current.get();
+        return progress == null
+                ? ReplayProgressDto.builder().status(ReplayStatus.IDLE).build()
+                : progress.toDto();
+    }
+
+    /**
+     * Останавливает повторное чтение при остановке приложения.
+     */
+    @PreDestroy
+    void shutdown() {
+        cancel();
+        replayExecutor.shutdownNow();
+        writerExecutor.shutdownNow();
+    }
+
+    /**
+     * Регистрирует новое повторное чтение, если предыдущее не выполняется.
+     *
+     * @param offset    смещение, с которого читаются все партиции
+     * @param timestamp время, с которого читаются все партиции
+     * @return ход нового повторного чтения
+     */
+    Progress begin(final Long offset, final Instant timestamp) {
+        if (offset != null && timestamp != null) {
+            throw new InvalidPropertyException(
+                    messageProvider.getMessage(MESSAGE_CODE_REPLAY_AMBIGUOUS_START),
+                    PARAM_OFFSET,
+                    PARAM_TIMESTAMP
+            );
+        }
+
+        final Progress previous = current.get();
+        final Progress progress = new Progress(offset, timestamp);
+        if ((previous != null && previous.status == ReplayStatus.RUNNING)
+                || !current.compareAndSet(previous, progress)) {
+            throw new ReplayAlreadyRunningException(
+                    messageProvider.getMessage(MESSAGE_CODE_REPLAY_ALREADY_RUNNING)
+            );
+        }
+        return progress;
+    }
+
+    /**
+     * Читает топик до зафиксированной при запуске границы и сохраняет данные о погоде.
+     *
+     * @param progress ход повторного чтения
+     */
+    void replay(final Progress progress) {
+        log.info("Weather topic replay started");
+        try (Consumer<String, Weather> consumer = createConsumer()) {
+            final List<TopicPartition> partitions = consumer.partitionsFor(topic)
+                    .stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            final Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            seek(consumer, partitions, endOffsets, progress);
+
+            final Map<TopicPartition, Long> remaining = new HashMap<>();
+            for (final TopicPartition partition : partitions) {
+                final long position = consumer.position(partition);
+                final long end = endOffsets.get(partition);
+                if (position < end) {
+                    remaining.put(partition, end);
+                    progress.total.addAndGet(end - position);
+                }
+            }
+            consumer.pause(partitions.stream()
+                    .filter(partition -> !remaining.containsKey(partition))
+                    .toList());
+
+            while (!remaining.isEmpty() && !progress.cancelled) {
+                final Map<Key, Change> batch = new LinkedHashMap<>();
+                final Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+                int applicable = 0;
+                for (final ConsumerRecord<String, Weather> record
+                        : consumer.poll(Duration.ofMillis(replayConfig.getPollTimeout()))) {
+                    final var partition = new TopicPartition(record.topic(), record.partition());
+                    final Long end = remaining.get(partition);
+                    if (end == null || record.offset() >= end) {
+                        continue;
+                    }
+
+                    progress.read.incrementAndGet();
+                    processed.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    final Change change = toChange(record);
+                    if (change != null) {
+                        final Weather weather = change.weather();
+                        batch.merge(
+                                new Key(weather.getCity().getName(), weather.getDateTime()),
+                                change,
+                                WeatherReplayServiceImpl::fold
+                        );
+                        applicable++;
+                    } else {
+                        progress.skipped.incrementAndGet();
+                    }
+                }
+
+                write(batch.values(), applicable, progress);
+                if (!processed.isEmpty()) {
+                    consumer.commitSync(processed);
+                }
+
+                final List<TopicPartition> completed = remaining.keySet()
+                        .stream()
+                        .filter(partition -> consumer.position(partition) >= remaining.get(partition))
+                        .toList();
+                completed.forEach(remaining::remove);
+                consumer.pause(completed);
+            }
+
+            progress.finish(progress.cancelled ? ReplayStatus.CANCELLED : ReplayStatus.COMPLETED, null);
+            log.info(
+                    "Weather topic replay finished: {} records read, {} rows inserted, "
+                            + "{} rows updated, {} rows deleted, {} records skipped",
+                    progress.read.get(),
+                    progress.inserted.get(),
+                    progress.updated.get(),
+                    progress.deleted.get(),
+                    progress.skipped.get()
+            );
+        } catch (RuntimeException ex) {
+            final Throwable cause = ex instanceof CompletionException && ex.getCause() != null
+                    ? ex.getCause()
+                    : ex;
+            progress.finish(ReplayStatus.FAILED, cause.getMessage());
+            log.error("Weather topic replay failed", cause);
+        }
+    }
+
+    /**
+     * Создает получателя сообщений группы повторного чтения.
+     *
+     * @return получателя сообщений
+     */
+    private Consumer<String, Weather> createConsumer() {
+        final var properties = new Properties();
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, replayConfig.getBatchSize());
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return consumerFactory.createConsumer(
+                replayConfig.getGroupId(),
+                null,
+                REPLAY_THREAD_NAME_PREFIX,
+                properties
+        );
+    }
+
+    /**
+     * Устанавливает начальные позиции чтения партиций.
+     *
+     * @param consumer   получатель сообщений
+     * @param partitions партиции топика
+     * @param endOffsets смещения, до которых читаются партиции
+     * @param progress   ход повторного чтения
+     */
+    private void seek(
+            final Consumer<String, Weather> consumer,
+            final List<TopicPartition> partitions,
+            final Map<TopicPartition, Long> endOffsets,
+            final Progress progress
+    ) {
+        if (progress.fromOffset != null) {
+            final Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+            partitions.forEach(partition -> consumer.seek(partition, Math.min(
+                    Math.max(progress.fromOffset, beginningOffsets.get(partition)),
+                    endOffsets.get(partition)
+            )));
+        } else if (progress.fromTimestamp != null) {
+            final Map<TopicPartition, Long> timestamps = new HashMap<>();
+            partitions.forEach(partition -> timestamps.put(partition, progress.fromTimestamp.toEpochMilli()));
+            final Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(timestamps);
+            partitions.forEach(partition -> {
+                final OffsetAndTimestamp offset = offsets.get(partition);
+                consumer.seek(partition, offset == null ? endOffsets.get(partition) : offset.offset());
+            });
+        } else {
+            final Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+            final List<TopicPartition> fromBeginning = new ArrayList<>();
+            for (final TopicPartition partition : partitions) {
+                final OffsetAndMetadata offset = committed.get(partition);
+                if (offset == null) {
+                    fromBeginning.add(partition);
+                } else {
+                    consumer.seek(partition, offset.offset());
+                }
+            }
+            consumer.seekToBeginning(fromBeginning);
+        }
+    }
+
+    /**
+     * Возвращает изменение записи о погоде, которое требуется применить по сообщению.
+     * События удаления достаточно содержать город, дату и время,
+     * остальные сообщения должны содержать полные данные о погоде.
+     *
+     * @param record сообщение с данными о погоде
+     * @return изменение записи о погоде или {@code null}, если сообщение пропускается
+     */
+    private static Change toChange(final ConsumerRecord<String, Weather> record) {
+        final Weather weather = record.value();
+        if (weather == null
+                || weather.getCity() == null
+                || weather.getCity().getName() == null
+                || weather.getDateTime() == null) {
+            return null;
+        }
+
+        final WeatherEventType eventType = WeatherOutboxRelay.eventTypeOf(record.headers());
+        if (eventType == WeatherEventType.DELETED) {
+            return new Change(Action.DELETE, weather);
+        }
+        if (weather.getType() == null
+                || weather.getType().getName() == null
+                || weather.getTemperature() == null) {
+            return null;
+        }
+        return new Change(
+                eventType == WeatherEventType.UPDATED ? Action.MERGE : Action.CREATE_IF_ABSENT,
+                weather
+        );
+    }
+
+    /**
+     * Сводит два последовательных изменения записи о погоде с одним городом, датой и временем
+     * к одному изменению с тем же результатом.
+     *
+     * @param previous предыдущее изменение
+     * @param next     следующее изменение
+     * @return сводное изменение
+     */
+    private static Change fold(final Change previous, final Change next) {
+        if (next.action() != Action.CREATE_IF_ABSENT) {
+            return next;
+        }
+        return switch (previous.action()) {
+            case CREATE_IF_ABSENT, MERGE -> previous;
+            case DELETE -> new Change(Action.MERGE, next.weather());
+        };
+    }
+
+    /**
+     * Сохраняет изменения пакета в нескольких потоках и дожидается завершения сохранения.
+     *
+     * @param batch    изменения пакета, не более одного на город, дату и время
+     * @param records  количество сообщений, из которых получены изменения
+     * @param progress ход повторного чтения
+     */
+    private void write(final Collection<Change> batch, final int records, final Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ensureDictionaries(batch, progress);
+
+        final int parallelism = replayConfig.getParallelism();
+        final List<List<Change>> chunks = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            chunks.add(new ArrayList<>());
+        }
+        for (final Change change : batch) {
+            chunks.get(Math.floorMod(change.weather().getCity().getName().hashCode(), parallelism)).add(change);
+        }
+
+        final List<CompletableFuture<Written>> futures = chunks.stream()
+                .filter(chunk -> !chunk.isEmpty())
+                .map(chunk -> CompletableFuture.supplyAsync(() -> writeChunk(chunk), writerExecutor))
+                .toList();
+        int inserted = 0;
+        int updated = 0;
+        int deleted = 0;
+        for (final CompletableFuture<Written> future : futures) {
+            final Written written = future.join();
+            inserted += written.inserted();
+            updated += written.updated();
+            deleted += written.deleted();
+        }
+
+        final int skipped = records - inserted - updated - deleted;
+        progress.inserted.addAndGet(inserted);
+        progress.updated.addAndGet(updated);
+        progress.deleted.addAndGet(deleted);
+        progress.skipped.addAndGet(skipped);
+        metrics.recordBackfill(inserted, updated, deleted, skipped);
+    }
+
+    /**
+     * Сохраняет часть изменений пакета в одной транзакции.
+     * Если запись о погоде была одновременно сохранена основным получателем,
+     * сохранение повторяется: существующая запись будет пропущена или изменена.
+     *
+     * @param chunk часть изменений пакета
+     * @return количество созданных, измененных и удаленных записей о погоде
+     */
+    private Written writeChunk(final List<Change> chunk) {
+        final List<Weather> deletions = new ArrayList<>();
+        final List<Weather> merges = new ArrayList<>();
+        final List<Weather> creations = new ArrayList<>();
+        for (final Change change : chunk) {
+            switch (change.action()) {
+                case DELETE -> deletions.add(change.weather());
+                case MERGE -> {
+                    merges.add(change.weather());
+                    creations.add(change.weather());
+                }
+                case CREATE_IF_ABSENT -> creations.add(change.weather());
+            }
+        }
+
+        try {
+            return transactionTemplate.execute(status -> applyChunk(deletions, merges, creations));
+        } catch (DuplicateKeyException ex) {
+            return transactionTemplate.execute(status -> applyChunk(deletions, merges, creations));
+        }
+    }
+
+    /**
+     * Удаляет, изменяет и создает записи о погоде части пакета.
+     * Изменяемые записи о погоде, которых нет в базе данных, создаются.
+     *
+     * @param deletions записи о погоде, которые требуется удалить
+     * @param merges    записи о погоде, которые требуется изменить
+     * @param creations записи о погоде, которые требуется создать, если их ещё нет
+     * @return количество созданных, измененных и удаленных записей о погоде
+     */
+    private Written applyChunk(
+            final List<Weather> deletions,
+            final List<Weather> merges,
+            final List<Weather> creations
+    ) {
+        final int deleted = deletions.isEmpty()
+                ? 0
+                : weatherRepository.deleteAllByCityNameAndDateTime(deletions);
+        final int updated = merges.isEmpty()
+                ? 0
+                : weatherRepository.changeAllByCityNameAndDateTime(merges);
+        final int inserted = creations.isEmpty()
+                ? 0
+                : weatherRepository.createAllIfAbsent(creations);
+        return new Written(inserted, updated, deleted);
+    }
+
+    /**
+     * Создает города и типы погоды из создаваемых и изменяемых записей пакета,
+     * которых ещё нет в базе данных.
+     *
+     * @param batch    изменения пакета
+     * @param progress ход повторного чтения
+     */
+    private void ensureDictionaries(final Collection<Change> batch, final Progress progress) {
+        for (final Change change : batch) {
+            if (change.action() == Action.DELETE) {
+                continue;
+            }
+            final Weather weather = change.weather();
+            ensureExists(
+                    weather.getCity().getName(),
+                    progress.knownCities,
+                    cityCrudService,
+                    name -> City.builder().name(name).build()
+            );
+            ensureExists(
+                    weather.getType().getName(),
+                    progress.knownTypes,
+                    typeCrudService,
+                    name -> WeatherType.builder().name(name).build()
+            );
+        }
+    }
+
+    private static <T> void ensureExists(
+            final String name,
+            final Set<String> knownNames,
+            final IDictionaryCrudService<T, UUID> crudService,
+            final Function<String, T> factory
+    ) {
+        if (knownNames.contains(name)) {
+            return;
+        }
+        if (crudService.getByName(name).isEmpty()) {
+            try {
+                crudService.create(factory.apply(name));
+            } catch (UniqueNameException ex) {
+                log.debug("Dictionary entry <{}> was created concurrently", name);
+            }
+        }
+        knownNames.add(name);
+    }
+
+    /**
+     * Действие над записью о погоде при повторном чтении.
+     */
+    private enum Action {
+
+        /**
+         * Создать запись о погоде, если её ещё нет.
+         */
+        CREATE_IF_ABSENT,
+
+        /**
+         * Изменить запись о погоде или создать её, если её нет.
+         */
+        MERGE,
+
+        /**
+         * Удалить запись о погоде.
+         */
+        DELETE
+    }
+
+    /**
+     * Изменение записи о погоде при повторном чтении.
+     *
+     * @param action  действие
+     * @param weather данные о погоде
+     */
+    private record Change(Action action, Weather weather) {
+    }
+
+    /**
+     * Город, дата и время записи о погоде.
+     *
+     * @param cityName название города
+     * @param dateTime дата и время
+     */
+    private record Key(String cityName, LocalDateTime dateTime) {
+    }
+
+    /**
+     * Количество созданных, измененных и удаленных записей о погоде.
+     *
+     * @param inserted количество созданных записей о погоде
+     * @param updated  количество измененных записей о погоде
+     * @param deleted  количество удаленных записей о погоде
+     */
+    private record Written(int inserted, int updated, int deleted) {
+    }
+
+    /**
+     * Ход повторного чтения.
+     */
+    static final class Progress {
+
+        private final Long fromOffset;
+
+        private final Instant fromTimestamp;
+
+        private final Instant startedAt = Instant.now();
+
+        private final AtomicLong total = new AtomicLong();
+
+        private final AtomicLong read = new AtomicLong();
+
+        private final AtomicLong inserted = new AtomicLong();
+
+        private final AtomicLong updated = new AtomicLong();
+
+        private final AtomicLong deleted = new AtomicLong();
+
+        private final AtomicLong skipped = new AtomicLong();
+
+        /**
+         * Названия городов, наличие которых в базе данных уже проверено.
+         */
+        private final Set<String> knownCities = new HashSet<>();
+
+        /**
+         * Названия типов погоды, наличие которых в базе данных уже проверено.
+         */
+        private final Set<String> knownTypes = new HashSet<>();
+
+        private volatile ReplayStatus status = ReplayStatus.RUNNING;
+
+        private volatile boolean cancelled;
+
+        private volatile Instant finishedAt;
+
+        private volatile String errorMessage;
+
+        Progress(final Long fromOffset, final Instant fromTimestamp) {
+            this.fromOffset = fromOffset;
+            this.fromTimestamp = fromTimestamp;
+        }
+
+        void finish(final ReplayStatus status, final String errorMessage) {
+            this.errorMessage = errorMessage;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        ReplayProgressDto toDto() {
+            final Instant end = finishedAt == null ? Instant.now() : finishedAt;
+            final double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            final long totalRecords = total.get();
+            final long readRecords = read.get();
+            return ReplayProgressDto.builder()
+                    .status(status)
+                    .fromOffset(fromOffset)
+                    .fromTimestamp(fromTimestamp)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .totalRecords(totalRecords)
+                    .readRecords(readRecords)
+                    .insertedRows(inserted.get())
+                    .updatedRows(updated.get())
+                    .deletedRows(deleted.get())
+                    .skippedRecords(skipped.get())
+                    .percentComplete(totalRecords == 0
+                            ? (status == ReplayStatus.COMPLETED ? 100 : 0)
+                            : 100.0 * readRecords / totalRecords)
+                    .rowsPerSecond(inserted.get() / seconds)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import ru.bukhtaev.model.WeatherType;
 import ru.bukhtaev.repository.jdbc.CityJdbcRepository;
 import ru.bukhtaev.repository.jdbc.WeatherJdbcRepository;
 import ru.bukhtaev.repository.jdbc.WeatherTypeJdbcRepository;
+import ru.bukhtaev.service.WeatherOutbox;
 import ru.bukhtaev.validation.MessageProvider;
 
 import java.util.List;
@@ -23,6 +24,7 @@ import static org.springframework.transaction.TransactionDefinition.ISOLATION_SE
 import static ru.bukhtaev.model.BaseEntity.FIELD_ID;
 import static ru.bukhtaev.model.Weather.*;
 import static ru.bukhtaev.util.Utils.DATE_TIME_FORMATTER;
+import static ru.bukhtaev.util.WeatherEventType.*;
 import static ru.bukhtaev.validation.MessageUtils.*;
 
 /**
@@ -56,6 +58,11 @@ public class WeatherCrudServiceJdbcImpl implements ICrudService<Weather, UUID> {
      */
     private final MessageProvider messageProvider;
 
+    /**
+     * Журнал исходящих событий изменения данных о погоде.
+     */
+    private final WeatherOutbox outbox;
+
     /**
      * Конструктор.
      *
@@ -64,6 +71,7 @@ public class WeatherCrudServiceJdbcImpl implements ICrudService<Weather, UUID> {
      * @param weatherRepository     репозиторий данных о погоде
      * @param transactionTemplate   объект для управления транзакциями
      * @param messageProvider       сервис предоставления сообщений
+     * @param outbox                журнал исходящих событий изменения данных о погоде
      */
     @Autowired
     public WeatherCrudServiceJdbcImpl(
@@ -71,13 +79,15 @@ public class WeatherCrudServiceJdbcImpl implements ICrudService<Weather, UUID> {
             final WeatherTypeJdbcRepository weatherTypeRepository,
             final WeatherJdbcRepository weatherRepository,
             final TransactionTemplate transactionTemplate,
-            final MessageProvider messageProvider
+            final MessageProvider messageProvider,
+            final WeatherOutbox outbox
     ) {
         this.cityRepository = cityRepository;
         this.weatherTypeRepository = weatherTypeRepository;
         this.weatherRepository = weatherRepository;
         this.transactionTemplate = transactionTemplate;
         this.messageProvider = messageProvider;
+        this.outbox = outbox;
     }
 
     @Override
@@ -136,7 +146,9 @@ public class WeatherCrudServiceJdbcImpl implements ICrudService<Weather, UUID> {
             final WeatherType foundType = findWeatherTypeById(newType.getId());
             newWeather.setType(foundType);
 
-            return weatherRepository.create(newWeather);
+            final Weather created = weatherRepository.create(newWeather);
+            outbox.append(CREATED, created);
+            return created;
         });
     }
 
@@ -144,7 +156,12 @@ public class WeatherCrudServiceJdbcImpl implements ICrudService<Weather, UUID> {
     public void delete(final UUID id) {
         transactionTemplate.setReadOnly(false);
         transactionTemplate.setIsolationLevel(ISOLATION_READ_COMMITTED);
-        transactionTemplate.executeWithoutResult(status -> weatherRepository.deleteById(id));
+        transactionTemplate.executeWithoutResult(status ->
+                weatherRepository.findById(id).ifPresent(weather -> {
+                    weatherRepository.deleteById(id);
+                    outbox.append(DELETED, weather);
+                })
+        );
     }
 
     @Override
@@ -187,7 +204,9 @@ public class WeatherCrudServiceJdbcImpl implements ICrudService<Weather, UUID> {
                 weatherToBeUpdated.setType(type);
             }
 
-            return weatherRepository.change(id, weatherToBeUpdated);
+            final Weather updated = weatherRepository.change(id, weatherToBeUpdated);
+            outbox.append(UPDATED, updated);
+            return updated;
         });
     }
 
@@ -239,7 +258,9 @@ public class WeatherCrudServiceJdbcImpl implements ICrudService<Weather, UUID> {
             final WeatherType foundType = findWeatherTypeById(newType.getId());
             weatherToBeReplaced.setType(foundType);
 
-            return weatherRepository.change(id, weatherToBeReplaced);
+            final Weather replaced = weatherRepository.change(id, weatherToBeReplaced);
+            outbox.append(UPDATED, replaced);
+            return replaced;
         });
     }
 
@@ -13,6 +13,7 @@ import ru.bukhtaev.repository.jpa.ICityJpaRepository;
 import ru.bukhtaev.repository.jpa.IWeatherJpaRepository;
 import ru.bukhtaev.repository.jpa.IWeatherTypeJpaRepository;
 import ru.bukhtaev.service.WeatherCache;
+import ru.bukhtaev.service.WeatherOutbox;
 import ru.bukhtaev.validation.MessageProvider;
 
 import java.util.List;
@@ -24,6 +25,7 @@ import static org.springframework.transaction.annotation.Isolation.SERIALIZABLE;
 import static ru.bukhtaev.model.BaseEntity.FIELD_ID;
 import static ru.bukhtaev.model.Weather.*;
 import static ru.bukhtaev.util.Utils.DATE_TIME_FORMATTER;
+import static ru.bukhtaev.util.WeatherEventType.*;
 import static ru.bukhtaev.validation.MessageUtils.*;
 
 /**
@@ -61,6 +63,11 @@ public class WeatherCrudServiceJpaImpl implements ICrudService<Weather, UUID> {
      */
     private final WeatherCache cache;
 
+    /**
+     * Журнал исходящих событий изменения данных о погоде.
+     */
+    private final WeatherOutbox outbox;
+
     /**
      * Конструктор.
      *
@@ -69,6 +76,7 @@ public class WeatherCrudServiceJpaImpl implements ICrudService<Weather, UUID> {
      * @param weatherRepository     репозиторий данных о погоде
      * @param messageProvider       сервис предоставления сообщений
      * @param cache                 LRU-кэш для данных о погоде
+     * @param outbox                журнал исходящих событий изменения данных о погоде
      */
     @Autowired
     public WeatherCrudServiceJpaImpl(
@@ -76,13 +84,15 @@ public class WeatherCrudServiceJpaImpl implements ICrudService<Weather, UUID> {
             final IWeatherTypeJpaRepository weatherTypeRepository,
             final IWeatherJpaRepository weatherRepository,
             final MessageProvider messageProvider,
-            final WeatherCache cache
+            final WeatherCache cache,
+            final WeatherOutbox outbox
     ) {
         this.cityRepository = cityRepository;
         this.weatherTypeRepository = weatherTypeRepository;
         this.weatherRepository = weatherRepository;
         this.messageProvider = messageProvider;
         this.cache = cache;
+        this.outbox = outbox;
     }
 
     @Override
@@ -138,16 +148,19 @@ public class WeatherCrudServiceJpaImpl implements ICrudService<Weather, UUID> {
         final WeatherType foundType = findWeatherTypeById(newType.getId());
         newWeather.setType(foundType);
 
-        return cache.put(
-                weatherRepository.save(newWeather)
-        );
+        final Weather created = weatherRepository.save(newWeather);
+        outbox.append(CREATED, created);
+        return cache.put(created);
     }
 
     @Override
     @Transactional(isolation = READ_COMMITTED)
     public void delete(final UUID id) {
         weatherRepository.deleteAllById(id)
-                .forEach(cache::delete);
+                .forEach(weather -> {
+                    cache.delete(weather);
+                    outbox.append(DELETED, weather);
+                });
     }
 
     @Override
@@ -188,9 +201,9 @@ public class WeatherCrudServiceJpaImpl implements ICrudService<Weather, UUID> {
         Optional.ofNullable(changedWeather.getDateTime())
                 .ifPresent(weatherToBeUpdated::setDateTime);
 
-        return cache.put(
-                weatherRepository.save(weatherToBeUpdated)
-        );
+        final Weather updated = weatherRepository.save(weatherToBeUpdated);
+        outbox.append(UPDATED, updated);
+        return cache.put(updated);
     }
 
     @Override
@@ -241,9 +254,9 @@ public class WeatherCrudServiceJpaImpl implements ICrudService<Weather, UUID> {
         final WeatherType foundType = findWeatherTypeById(newType.getId());
         weatherToBeReplaced.setType(foundType);
 
-        return cache.put(
-                weatherRepository.save(weatherToBeReplaced)
-        );
+        final Weather replaced = weatherRepository.save(weatherToBeReplaced);
+        outbox.append(UPDATED, replaced);
+        return cache.put(replaced);
     }
 
     /**
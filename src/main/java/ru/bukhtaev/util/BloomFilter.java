@@ -0,0 +1,161 @@
+package ru.bukhtaev.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасная реализация фильтра Блума для строковых ключей.
+ * <p>
+ * Фильтр отвечает на вопрос, добавлялся ли ключ ранее: ответ {@code false} точен,
+ * а ответ {@code true} может быть ложноположительным с вероятностью, заданной при создании,
+ * пока количество добавленных ключей не превышает ожидаемое.
+ * Размер битового массива и количество хеш-функций вычисляются по ожидаемому количеству ключей
+ * и допустимой вероятности ложноположительного ответа.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Bloom_filter">Фильтр Блума</a>
+ */
+public class BloomFilter {
+
+    /**
+     * Смещение хеш-функции FNV-1a.
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * Простое число хеш-функции FNV-1a.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Битовый массив.
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * Количество бит.
+     */
+    private final long bitSize;
+
+    /**
+     * Количество хеш-функций.
+     */
+    private final int hashFunctions;
+
+    /**
+     * Количество добавленных ключей.
+     */
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Конструктор.
+     *
+     * @param expectedInsertions ожидаемое количество ключей
+     * @param falsePositiveRate  допустимая вероятность ложноположительного ответа
+     */
+    public BloomFilter(final long expectedInsertions, final double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+
+        final double ln2 = Math.log(2);
+        final long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2)
+        );
+        final int words = (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * Long.SIZE;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * ln2));
+    }
+
+    /**
+     * Добавляет ключ в фильтр.
+     *
+     * @param key ключ
+     */
+    public void put(final String key) {
+        final long hash1 = hash(key);
+        final long hash2 = mix(hash1 + FNV_PRIME) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            final long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            final int word = (int) (index >>> 6);
+            final long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Возвращает {@code false}, если ключ точно не добавлялся в фильтр,
+     * и {@code true}, если ключ, возможно, добавлялся.
+     *
+     * @param key ключ
+     * @return {@code false}, если ключ точно не добавлялся в фильтр
+     */
+    public boolean mightContain(final String key) {
+        final long hash1 = hash(key);
+        final long hash2 = mix(hash1 + FNV_PRIME) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            final long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает количество добавленных ключей.
+     *
+     * @return количество добавленных ключей
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * Возвращает размер битового массива в байтах.
+     *
+     * @return размер битового массива в байтах
+     */
+    public long getSizeInBytes() {
+        return bitSize / Byte.SIZE;
+    }
+
+    /**
+     * Возвращает количество хеш-функций.
+     *
+     * @return количество хеш-функций
+     */
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    private static long hash(final String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (final byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Перемешивает биты хеша (финализатор MurmurHash3), чтобы близкие ключи
+     * давали независимые позиции в битовом массиве.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93e53fe4a87L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
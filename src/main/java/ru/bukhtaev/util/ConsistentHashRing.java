@@ -0,0 +1,91 @@
+package ru.bukhtaev.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Кольцо консистентного хеширования.
+ * <p>
+ * Каждый узел размещается на кольце в нескольких точках (виртуальных узлах), а ключ назначается
+ * узлу первой точки, следующей за хешем ключа. При добавлении или удалении узла переназначаются
+ * только ключи, попадающие на его участки кольца, примерно {@code 1/N} всех ключей.
+ * Назначение зависит только от набора узлов, поэтому совпадает на всех экземплярах приложения.
+ */
+public class ConsistentHashRing {
+
+    /**
+     * Точки кольца.
+     */
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    /**
+     * Узлы кольца.
+     */
+    private final Set<String> nodes;
+
+    /**
+     * Конструктор.
+     *
+     * @param nodes        узлы
+     * @param virtualNodes количество точек кольца для каждого узла
+     */
+    public ConsistentHashRing(final Collection<String> nodes, final int virtualNodes) {
+        this.nodes = Set.copyOf(new TreeSet<>(nodes));
+        for (final String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * Возвращает узлы кольца.
+     *
+     * @return узлы кольца
+     */
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Возвращает узел, которому назначен ключ,
+     * или {@code null}, если кольцо не содержит узлов.
+     *
+     * @param key ключ
+     * @return узел, которому назначен ключ
+     */
+    public String nodeFor(final String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+
+        final Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null
+                ? entry.getValue()
+                : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Возвращает хеш строки: первые 8 байт её MD5-дайджеста.
+     *
+     * @param value строка
+     * @return хеш строки
+     */
+    private static long hash(final String value) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.bukhtaev.util;
+
+/**
+ * Перечисление с режимами распределения опроса внешнего API между экземплярами приложения.
+ */
+public enum CoordinationMode {
+
+    /**
+     * Все города опрашивает один экземпляр, владеющий арендой задачи опроса.
+     */
+    LEADER,
+
+    /**
+     * Города распределяются между живыми экземплярами с помощью консистентного хеширования,
+     * каждый экземпляр опрашивает только свои города.
+     */
+    SHARDING
+}
@@ -0,0 +1,61 @@
+package ru.bukhtaev.util;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Счетчик событий, значение которого экспоненциально уменьшается со временем.
+ * Вклад каждого события уменьшается вдвое за период полураспада,
+ * поэтому значение отражает частоту недавних событий.
+ */
+public class DecayingCounter {
+
+    /**
+     * Период полураспада в миллисекундах.
+     */
+    private final double halfLifeMillis;
+
+    /**
+     * Значение на момент последнего изменения.
+     */
+    private double value;
+
+    /**
+     * Время последнего изменения.
+     */
+    private Instant updatedAt;
+
+    /**
+     * Конструктор.
+     *
+     * @param halfLife период полураспада
+     * @param now      текущее время
+     */
+    public DecayingCounter(final Duration halfLife, final Instant now) {
+        this.halfLifeMillis = Math.max(1, halfLife.toMillis());
+        this.updatedAt = now;
+    }
+
+    /**
+     * Учитывает событие.
+     *
+     * @param now время события
+     */
+    public synchronized void increment(final Instant now) {
+        value = get(now) + 1;
+        updatedAt = now;
+    }
+
+    /**
+     * Возвращает значение счетчика на указанное время.
+     *
+     * @param now текущее время
+     * @return значение счетчика
+     */
+    public synchronized double get(final Instant now) {
+        final long elapsed = Duration.between(updatedAt, now).toMillis();
+        return elapsed <= 0
+                ? value
+                : value * Math.pow(0.5, elapsed / halfLifeMillis);
+    }
+}
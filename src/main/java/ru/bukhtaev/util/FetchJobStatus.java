@@ -0,0 +1,27 @@
+package ru.bukhtaev.util;
+
+/**
+ * Перечисление с состояниями задания получения и сохранения данных о погоде.
+ */
+public enum FetchJobStatus {
+
+    /**
+     * Задание ожидает выполнения в очереди.
+     */
+    QUEUED,
+
+    /**
+     * Задание выполняется.
+     */
+    RUNNING,
+
+    /**
+     * Задание завершено. Ошибки для отдельных местоположений не прерывают выполнение задания.
+     */
+    COMPLETED,
+
+    /**
+     * Задание завершилось ошибкой.
+     */
+    FAILED
+}
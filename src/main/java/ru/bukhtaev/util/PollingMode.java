@@ -0,0 +1,17 @@
+package ru.bukhtaev.util;
+
+/**
+ * Перечисление с режимами опроса внешнего API данных о погоде по расписанию.
+ */
+public enum PollingMode {
+
+    /**
+     * Один город за срабатывание расписания по очереди.
+     */
+    SEQUENTIAL,
+
+    /**
+     * Все города за срабатывание расписания параллельно.
+     */
+    CONCURRENT
+}
@@ -0,0 +1,32 @@
+package ru.bukhtaev.util;
+
+/**
+ * Перечисление с состояниями повторного чтения истории Kafka-топика с данными о погоде.
+ */
+public enum ReplayStatus {
+
+    /**
+     * Повторное чтение не запускалось.
+     */
+    IDLE,
+
+    /**
+     * Повторное чтение выполняется.
+     */
+    RUNNING,
+
+    /**
+     * Повторное чтение завершено.
+     */
+    COMPLETED,
+
+    /**
+     * Повторное чтение отменено.
+     */
+    CANCELLED,
+
+    /**
+     * Повторное чтение завершилось ошибкой.
+     */
+    FAILED
+}
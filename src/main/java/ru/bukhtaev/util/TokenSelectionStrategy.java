@@ -0,0 +1,17 @@
+package ru.bukhtaev.util;
+
+/**
+ * Перечисление со способами выбора токена из пула токенов внешнего API.
+ */
+public enum TokenSelectionStrategy {
+
+    /**
+     * Доступные токены по очереди.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Доступный токен с наименьшим количеством запросов.
+     */
+    LEAST_USED
+}
@@ -0,0 +1,22 @@
+package ru.bukhtaev.util;
+
+/**
+ * Перечисление с типами событий изменения данных о погоде.
+ */
+public enum WeatherEventType {
+
+    /**
+     * Запись о погоде создана.
+     */
+    CREATED,
+
+    /**
+     * Запись о погоде изменена.
+     */
+    UPDATED,
+
+    /**
+     * Запись о погоде удалена.
+     */
+    DELETED
+}
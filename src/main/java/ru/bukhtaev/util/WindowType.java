@@ -0,0 +1,17 @@
+package ru.bukhtaev.util;
+
+/**
+ * Перечисление с типами временных окон агрегации данных о погоде.
+ */
+public enum WindowType {
+
+    /**
+     * Неперекрывающиеся окна фиксированного размера.
+     */
+    TUMBLING,
+
+    /**
+     * Перекрывающиеся окна фиксированного размера, сдвигающиеся с фиксированным шагом.
+     */
+    HOPPING
+}
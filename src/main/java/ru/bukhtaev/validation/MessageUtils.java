@@ -111,4 +111,36 @@ public final class MessageUtils {
      */
     public static final String MESSAGE_CODE_WEATHER_UNIQUE_CITY_AND_TIME
             = "validation.weather-type.unique-city-and-time";
+
+    /**
+     * Код сообщения о том, что необработанное сообщение с указанным ID не найдено.
+     */
+    public static final String MESSAGE_CODE_DEAD_LETTER_NOT_FOUND = "validation.dead-letter.not-found";
+
+    /**
+     * Код сообщения о том, что повторное чтение истории Kafka-топика уже выполняется.
+     */
+    public static final String MESSAGE_CODE_REPLAY_ALREADY_RUNNING = "validation.replay.already-running";
+
+    /**
+     * Код сообщения о том, что для начала повторного чтения указаны и смещение, и время.
+     */
+    public static final String MESSAGE_CODE_REPLAY_AMBIGUOUS_START = "validation.replay.ambiguous-start";
+
+    /**
+     * Код сообщения о том, что задание получения и сохранения данных о погоде с указанным ID не найдено.
+     */
+    public static final String MESSAGE_CODE_FETCH_JOB_NOT_FOUND = "validation.fetch-job.not-found";
+
+    /**
+     * Код сообщения о недопустимом количестве местоположений в задании получения и сохранения данных о погоде.
+     */
+    public static final String MESSAGE_CODE_FETCH_JOB_INVALID_LOCATIONS_COUNT
+            = "validation.fetch-job.invalid-locations-count";
+
+    /**
+     * Код сообщения о том, что задание получения и сохранения данных о погоде отклонено
+     * из-за заполненной очереди заданий.
+     */
+    public static final String MESSAGE_CODE_FETCH_JOB_REJECTED = "validation.fetch-job.rejected";
 }
@@ -1,5 +1,7 @@
 package ru.bukhtaev.validation.handling;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
@@ -16,8 +18,11 @@ import ru.bukhtaev.exception.CommonServerSideException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 /**
@@ -98,6 +103,26 @@ public class ApiRequestExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public ResponseEntity<ErrorResponse> handleUnavailable(final RuntimeException exception) {
+        log.error(exception.getMessage(), exception);
+        return ResponseEntity.status(SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(
+                        new Violation("External API is temporarily unavailable"),
+                        LocalDateTime.now()
+                ));
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<ErrorResponse> handle(final TimeoutException exception) {
+        log.error(exception.getMessage(), exception);
+        return ResponseEntity.status(GATEWAY_TIMEOUT)
+                .body(new ErrorResponse(
+                        new Violation("External API response timed out"),
+                        LocalDateTime.now()
+                ));
+    }
+
     /**
      * Распознает название параметра, значение которого нарушает правила валидации.
      *
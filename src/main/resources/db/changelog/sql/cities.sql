@@ -1,22 +1,22 @@
 INSERT INTO city(id, name)
-VALUES (RANDOM_UUID(), 'Moscow'),
-       (RANDOM_UUID(), 'Saint Petersburg'),
-       (RANDOM_UUID(), 'Novosibirsk'),
-       (RANDOM_UUID(), 'Yekaterinburg'),
-       (RANDOM_UUID(), 'Kazan'),
-       (RANDOM_UUID(), 'Nizhny Novgorod'),
-       (RANDOM_UUID(), 'Chelyabinsk'),
-       (RANDOM_UUID(), 'Samara'),
-       (RANDOM_UUID(), 'Omsk'),
-       (RANDOM_UUID(), 'Rostov-on-Don'),
-       (RANDOM_UUID(), 'Ufa'),
-       (RANDOM_UUID(), 'Krasnoyarsk'),
-       (RANDOM_UUID(), 'Voronezh'),
-       (RANDOM_UUID(), 'Perm'),
-       (RANDOM_UUID(), 'Volgograd'),
-       (RANDOM_UUID(), 'Krasnodar'),
-       (RANDOM_UUID(), 'Saratov'),
-       (RANDOM_UUID(), 'Tyumen'),
-       (RANDOM_UUID(), 'Tolyatti'),
-       (RANDOM_UUID(), 'Izhevsk'),
-       (RANDOM_UUID(), 'Kaliningrad');
\ No newline at end of file
+VALUES (${uuid_function}, 'Moscow'),
+       (${uuid_function}, 'Saint Petersburg'),
+       (${uuid_function}, 'Novosibirsk'),
+       (${uuid_function}, 'Yekaterinburg'),
+       (${uuid_function}, 'Kazan'),
+       (${uuid_function}, 'Nizhny Novgorod'),
+       (${uuid_function}, 'Chelyabinsk'),
+       (${uuid_function}, 'Samara'),
+       (${uuid_function}, 'Omsk'),
+       (${uuid_function}, 'Rostov-on-Don'),
+       (${uuid_function}, 'Ufa'),
+       (${uuid_function}, 'Krasnoyarsk'),
+       (${uuid_function}, 'Voronezh'),
+       (${uuid_function}, 'Perm'),
+       (${uuid_function}, 'Volgograd'),
+       (${uuid_function}, 'Krasnodar'),
+       (${uuid_function}, 'Saratov'),
+       (${uuid_function}, 'Tyumen'),
+       (${uuid_function}, 'Tolyatti'),
+       (${uuid_function}, 'Izhevsk'),
+       (${uuid_function}, 'Kaliningrad');
\ No newline at end of file
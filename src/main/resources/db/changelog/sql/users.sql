@@ -1,2 +1,2 @@
 INSERT INTO user_table(id, username, password, role)
-VALUES (RANDOM_UUID(), 'admin', '$2a$12$C7h7lHe2MA1nr0shhT4SzuANuitA2uYUwR1XdDuhh5S3YSDBzxj5a', 'ADMIN');
\ No newline at end of file
+VALUES (${uuid_function}, 'admin', '$2a$12$C7h7lHe2MA1nr0shhT4SzuANuitA2uYUwR1XdDuhh5S3YSDBzxj5a', 'ADMIN');
\ No newline at end of file
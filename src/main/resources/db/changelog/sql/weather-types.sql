@@ -1,52 +1,52 @@
 -- Взял отсюда: https://www.weatherapi.com/docs/conditions.json
 
 INSERT INTO weather_type(id, name)
-VALUES (RANDOM_UUID(), 'Sunny'),
-       (RANDOM_UUID(), 'Clear'),
-       (RANDOM_UUID(), 'Partly Cloudy'),
-       (RANDOM_UUID(), 'Cloudy'),
-       (RANDOM_UUID(), 'Overcast'),
-       (RANDOM_UUID(), 'Mist'),
-       (RANDOM_UUID(), 'Patchy rain nearby'),
-       (RANDOM_UUID(), 'Patchy snow nearby'),
-       (RANDOM_UUID(), 'Patchy sleet nearby'),
-       (RANDOM_UUID(), 'Patchy freezing drizzle nearby'),
-       (RANDOM_UUID(), 'Thundery outbreaks in nearby'),
-       (RANDOM_UUID(), 'Blowing snow'),
-       (RANDOM_UUID(), 'Blizzard'),
-       (RANDOM_UUID(), 'Fog'),
-       (RANDOM_UUID(), 'Freezing fog'),
-       (RANDOM_UUID(), 'Patchy light drizzle'),
-       (RANDOM_UUID(), 'Light drizzle'),
-       (RANDOM_UUID(), 'Freezing drizzle'),
-       (RANDOM_UUID(), 'Heavy freezing drizzle'),
-       (RANDOM_UUID(), 'Patchy light rain'),
-       (RANDOM_UUID(), 'Light rain'),
-       (RANDOM_UUID(), 'Moderate rain at times'),
-       (RANDOM_UUID(), 'Moderate rain'),
-       (RANDOM_UUID(), 'Heavy rain at times'),
-       (RANDOM_UUID(), 'Heavy rain'),
-       (RANDOM_UUID(), 'Light freezing rain'),
-       (RANDOM_UUID(), 'Moderate or heavy freezing rain'),
-       (RANDOM_UUID(), 'Light sleet'),
-       (RANDOM_UUID(), 'Moderate or heavy sleet'),
-       (RANDOM_UUID(), 'Patchy light snow'),
-       (RANDOM_UUID(), 'Light snow'),
-       (RANDOM_UUID(), 'Patchy moderate snow'),
-       (RANDOM_UUID(), 'Moderate snow'),
-       (RANDOM_UUID(), 'Patchy heavy snow'),
-       (RANDOM_UUID(), 'Heavy snow'),
-       (RANDOM_UUID(), 'Ice pellets'),
-       (RANDOM_UUID(), 'Light rain shower'),
-       (RANDOM_UUID(), 'Moderate or heavy rain shower'),
-       (RANDOM_UUID(), 'Torrential rain shower'),
-       (RANDOM_UUID(), 'Light sleet showers'),
-       (RANDOM_UUID(), 'Moderate or heavy sleet showers'),
-       (RANDOM_UUID(), 'Light snow showers'),
-       (RANDOM_UUID(), 'Moderate or heavy snow showers'),
-       (RANDOM_UUID(), 'Light showers of ice pellets'),
-       (RANDOM_UUID(), 'Moderate or heavy showers of ice pellets'),
-       (RANDOM_UUID(), 'Patchy light rain in area with thunder'),
-       (RANDOM_UUID(), 'Moderate or heavy rain in area with thunder'),
-       (RANDOM_UUID(), 'Patchy light snow in area with thunder'),
-       (RANDOM_UUID(), 'Moderate or heavy snow in area with thunder');
\ No newline at end of file
+VALUES (${uuid_function}, 'Sunny'),
+       (${uuid_function}, 'Clear'),
+       (${uuid_function}, 'Partly Cloudy'),
+       (${uuid_function}, 'Cloudy'),
+       (${uuid_function}, 'Overcast'),
+       (${uuid_function}, 'Mist'),
+       (${uuid_function}, 'Patchy rain nearby'),
+       (${uuid_function}, 'Patchy snow nearby'),
+       (${uuid_function}, 'Patchy sleet nearby'),
+       (${uuid_function}, 'Patchy freezing drizzle nearby'),
+       (${uuid_function}, 'Thundery outbreaks in nearby'),
+       (${uuid_function}, 'Blowing snow'),
+       (${uuid_function}, 'Blizzard'),
+       (${uuid_function}, 'Fog'),
+       (${uuid_function}, 'Freezing fog'),
+       (${uuid_function}, 'Patchy light drizzle'),
+       (${uuid_function}, 'Light drizzle'),
+       (${uuid_function}, 'Freezing drizzle'),
+       (${uuid_function}, 'Heavy freezing drizzle'),
+       (${uuid_function}, 'Patchy light rain'),
+       (${uuid_function}, 'Light rain'),
+       (${uuid_function}, 'Moderate rain at times'),
+       (${uuid_function}, 'Moderate rain'),
+       (${uuid_function}, 'Heavy rain at times'),
+       (${uuid_function}, 'Heavy rain'),
+       (${uuid_function}, 'Light freezing rain'),
+       (${uuid_function}, 'Moderate or heavy freezing rain'),
+       (${uuid_function}, 'Light sleet'),
+       (${uuid_function}, 'Moderate or heavy sleet'),
+       (${uuid_function}, 'Patchy light snow'),
+       (${uuid_function}, 'Light snow'),
+       (${uuid_function}, 'Patchy moderate snow'),
+       (${uuid_function}, 'Moderate snow'),
+       (${uuid_function}, 'Patchy heavy snow'),
+       (${uuid_function}, 'Heavy snow'),
+       (${uuid_function}, 'Ice pellets'),
+       (${uuid_function}, 'Light rain shower'),
+       (${uuid_function}, 'Moderate or heavy rain shower'),
+       (${uuid_function}, 'Torrential rain shower'),
+       (${uuid_function}, 'Light sleet showers'),
+       (${uuid_function}, 'Moderate or heavy sleet showers'),
+       (${uuid_function}, 'Light snow showers'),
+       (${uuid_function}, 'Moderate or heavy snow showers'),
+       (${uuid_function}, 'Light showers of ice pellets'),
+       (${uuid_function}, 'Moderate or heavy showers of ice pellets'),
+       (${uuid_function}, 'Patchy light rain in area with thunder'),
+       (${uuid_function}, 'Moderate or heavy rain in area with thunder'),
+       (${uuid_function}, 'Patchy light snow in area with thunder'),
+       (${uuid_function}, 'Moderate or heavy snow in area with thunder');
\ No newline at end of file
@@ -7,11 +7,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.bukhtaev.config.external.ExternalApiConfigParams;
@@ -23,13 +25,17 @@ import ru.bukhtaev.repository.jpa.IWeatherTypeJpaRepository;
 import ru.bukhtaev.util.ErrorCode;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 
 import static org.hamcrest.Matchers.*;
-import static org.mockito.BDDMockito.given;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -184,12 +190,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         final BigDecimal temperature = weatherResponse.getCurrent().getTemperatureC();
         final String conditionText = weatherResponse.getCurrent().getCondition().getText();
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(ResponseEntity.ok(
-                objectMapper.writeValueAsString(weatherResponse)
-        ));
+        givenExternalApiResponse(HttpStatus.OK, objectMapper.writeValueAsString(weatherResponse));
 
         // when
         final var requestBuilder = get(
@@ -215,12 +216,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
     @WithMockUser
     void get_withoutReadAuthority_accessShouldBeDenied() throws Exception {
         // given
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(ResponseEntity.ok(
-                objectMapper.writeValueAsString(weatherResponse)
-        ));
+        givenExternalApiResponse(HttpStatus.OK, objectMapper.writeValueAsString(weatherResponse));
 
         // when
         final var requestBuilder = get(
@@ -239,12 +235,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
     @WithAnonymousUser
     void get_withoutAuthentication_accessShouldBeDenied() throws Exception {
         // given
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(ResponseEntity.ok(
-                objectMapper.writeValueAsString(weatherResponse)
-        ));
+        givenExternalApiResponse(HttpStatus.OK, objectMapper.writeValueAsString(weatherResponse));
 
         // when
         final var requestBuilder = get(
@@ -317,13 +308,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(TOKEN_NOT_PROVIDED);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.UNAUTHORIZED, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -349,13 +334,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(TOKEN_LIMIT_EXCEEDED);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.FORBIDDEN, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -381,13 +360,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(DISABLED_TOKEN);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.FORBIDDEN, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -413,13 +386,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(INVALID_TOKEN);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.UNAUTHORIZED, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -445,13 +412,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(ACCESS_DENIED);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.FORBIDDEN, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -477,13 +438,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(INVALID_URL);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -509,13 +464,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(INVALID_JSON);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -541,13 +490,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(TOO_MANY_LOCATIONS);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -573,13 +516,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
         // given
         final var errorResponse = getResponseWithCode(EXTERNAL_API_ERROR);
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = get(
@@ -603,10 +540,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
     @Test
     void get_with5xxError_shouldThrowServerSideException() throws Exception {
         // given
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(new ResponseEntity<>(INTERNAL_SERVER_ERROR));
+        givenExternalApiResponse(INTERNAL_SERVER_ERROR, "");
 
         // when
         final var requestBuilder = get(
@@ -637,12 +571,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(ResponseEntity.ok(
-                objectMapper.writeValueAsString(weatherResponse)
-        ));
+        givenExternalApiResponse(HttpStatus.OK, objectMapper.writeValueAsString(weatherResponse));
 
         // when
         final var requestBuilder = post(
@@ -677,12 +606,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(ResponseEntity.ok(
-                objectMapper.writeValueAsString(weatherResponse)
-        ));
+        givenExternalApiResponse(HttpStatus.OK, objectMapper.writeValueAsString(weatherResponse));
 
         // when
         final var requestBuilder = post(
@@ -706,12 +630,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(ResponseEntity.ok(
-                objectMapper.writeValueAsString(weatherResponse)
-        ));
+        givenExternalApiResponse(HttpStatus.OK, objectMapper.writeValueAsString(weatherResponse));
 
         // when
         final var requestBuilder = post(
@@ -797,13 +716,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.UNAUTHORIZED, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -833,13 +746,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.FORBIDDEN, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -869,13 +776,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.FORBIDDEN, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -905,13 +806,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.UNAUTHORIZED, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -941,13 +836,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.FORBIDDEN, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -977,13 +866,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -1013,13 +896,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -1049,13 +926,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -1085,13 +956,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(
-                ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(objectMapper.writeValueAsString(errorResponse))
-        );
+        givenExternalApiResponse(HttpStatus.BAD_REQUEST, objectMapper.writeValueAsString(errorResponse));
 
         // when
         final var requestBuilder = post(
@@ -1120,10 +985,7 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 Locale.ENGLISH.getLanguage()
         );
 
-        given(restTemplate.getForEntity(
-                uriBuilder.toUriString(),
-                String.class
-        )).willReturn(new ResponseEntity<>(INTERNAL_SERVER_ERROR));
+        givenExternalApiResponse(INTERNAL_SERVER_ERROR, "");
 
         // when
         final var requestBuilder = post(
@@ -1144,6 +1006,24 @@ class ExternalWeatherApiControllerIT extends AbstractIntegrationTest {
                 );
     }
 
+    /**
+     * Настраивает ответ внешнего API на запрос погоды в реальном времени.
+     * Тело ответа передается извлекателю клиента в виде потока, как при реальном запросе.
+     *
+     * @param status HTTP статус ответа
+     * @param body   тело ответа
+     */
+    private void givenExternalApiResponse(final HttpStatus status, final String body) {
+        willAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3).extractData(
+                new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), status)
+        )).given(restTemplate).execute(
+                eq(uriBuilder.toUriString()),
+                eq(HttpMethod.GET),
+                isNull(),
+                any(ResponseExtractor.class)
+        );
+    }
+
     /**
      * Возвращает объект типа {@link ExternalApiErrorResponse} с указанным кодом {@link ErrorCode}.
      *
@@ -0,0 +1,184 @@
+package ru.bukhtaev.kafka;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import ru.bukhtaev.config.KafkaConfigParams;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+import static ru.bukhtaev.kafka.WeatherConsumerMetrics.*;
+
+/**
+ * Модульные тесты для сервиса приостановки получения сообщений
+ * при высокой нагрузке на базу данных {@link ConsumerBackpressureController}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsumerBackpressureControllerTest {
+
+    private static final int MAX_POOL_SIZE = 8;
+
+    /**
+     * Имитация реестра контейнеров обработчиков сообщений.
+     */
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    /**
+     * Имитация контейнера обработчика сообщений основного топика.
+     */
+    @Mock
+    private MessageListenerContainer mainContainer;
+
+    /**
+     * Имитация контейнера обработчика сообщений топика повторных попыток.
+     */
+    @Mock
+    private MessageListenerContainer retryContainer;
+
+    /**
+     * Имитация источника данных.
+     */
+    @Mock
+    private HikariDataSource dataSource;
+
+    /**
+     * Имитация пула соединений.
+     */
+    @Mock
+    private HikariPoolMXBean pool;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WeatherConsumerMetrics metrics;
+
+    private ConsumerBackpressureController underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new WeatherConsumerMetrics(meterRegistry);
+        underTest = new ConsumerBackpressureController(
+                listenerRegistry,
+                dataSource,
+                metrics,
+                new KafkaConfigParams()
+        );
+
+        given(dataSource.getHikariPoolMXBean())
+                .willReturn(pool);
+        given(dataSource.getMaximumPoolSize())
+                .willReturn(MAX_POOL_SIZE);
+        lenient().when(listenerRegistry.getListenerContainers())
+                .thenReturn(List.of(mainContainer, retryContainer));
+    }
+
+    @Test
+    void check_withSaturatedPool_shouldPauseAllContainers() {
+        // given
+        given(pool.getActiveConnections())
+                .willReturn(6);
+
+        // when
+        underTest.check();
+
+        // then
+        assertThat(underTest.isPaused()).isTrue();
+        verify(mainContainer, times(1)).pause();
+        verify(retryContainer, times(1)).pause();
+        assertThat(meterRegistry.get(METRIC_PAUSES).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(METRIC_PAUSED).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void check_withThreadsAwaitingConnection_shouldPause() {
+        // given
+        given(pool.getActiveConnections())
+                .willReturn(2);
+        given(pool.getThreadsAwaitingConnection())
+                .willReturn(1);
+
+        // when
+        underTest.check();
+
+        // then
+        assertThat(underTest.isPaused()).isTrue();
+        verify(mainContainer, times(1)).pause();
+    }
+
+    @Test
+    void check_withSlowPersistence_shouldPause() {
+        // given
+        given(pool.getActiveConnections())
+                .willReturn(1);
+        metrics.persistTimer().record(Duration.ofMillis(800));
+
+        // when
+        underTest.check();
+
+        // then
+        assertThat(underTest.isPaused()).isTrue();
+        verify(mainContainer, times(1)).pause();
+    }
+
+    @Test
+    void check_whenPausedAndLoadBetweenThresholds_shouldStayPaused() {
+        // given
+        given(pool.getActiveConnections())
+                .willReturn(6)
+                .willReturn(5);
+        underTest.check();
+
+        // when
+        underTest.check();
+
+        // then
+        assertThat(underTest.isPaused()).isTrue();
+        verify(mainContainer, never()).resume();
+        assertThat(meterRegistry.get(METRIC_PAUSES).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void check_whenPausedAndLoadDropped_shouldResumeAllContainers() {
+        // given
+        given(pool.getActiveConnections())
+                .willReturn(6)
+                .willReturn(2);
+        underTest.check();
+
+        // when
+        underTest.check();
+
+        // then
+        assertThat(underTest.isPaused()).isFalse();
+        verify(mainContainer, times(1)).resume();
+        verify(retryContainer, times(1)).resume();
+        assertThat(meterRegistry.get(METRIC_RESUMES).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(METRIC_PAUSED).gauge().value()).isZero();
+    }
+
+    @Test
+    void check_withNormalLoad_shouldNotTouchContainers() {
+        // given
+        given(pool.getActiveConnections())
+                .willReturn(2);
+
+        // when
+        underTest.check();
+
+        // then
+        assertThat(underTest.isPaused()).isFalse();
+        verifyNoInteractions(mainContainer, retryContainer);
+    }
+}
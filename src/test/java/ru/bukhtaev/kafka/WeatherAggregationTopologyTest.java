@@ -0,0 +1,195 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.bukhtaev.config.StreamsConfigParams;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.service.DeadLetterServiceImpl;
+import ru.bukhtaev.util.WeatherEventType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Модульные тесты для топологии агрегации данных о погоде {@link WeatherAggregationTopology}.
+ */
+class WeatherAggregationTopologyTest {
+
+    private static final String TOPIC = "weather";
+
+    private static final String CITY_NAME = "Kazan";
+
+    private static final Instant START = Instant.parse("2023-10-10T12:00:00Z");
+
+    private TopologyTestDriver driver;
+
+    private TestInputTopic<String, Weather> input;
+
+    @BeforeEach
+    void setUp() {
+        final var config = new StreamsConfigParams();
+        config.setTumblingSize(Duration.ofMinutes(1));
+        config.setHoppingSize(Duration.ofMinutes(2));
+        config.setHoppingAdvance(Duration.ofMinutes(1));
+        config.setGrace(Duration.ofSeconds(10));
+        config.setRetention(Duration.ofHours(1));
+
+        final var builder = new StreamsBuilder();
+        WeatherAggregationTopology.build(builder, TOPIC, config);
+
+        final var properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "weather-aggregates-test");
+        properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+
+        driver = new TopologyTestDriver(builder.build(), properties);
+        input = driver.createInputTopic(TOPIC, new StringSerializer(), new WeatherBinarySerializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    void tumblingWindow_shouldAggregateMeasurementsOfSameWindow() {
+        // given
+        input.pipeInput(CITY_NAME, weather(10.0), START.plusSeconds(5));
+        input.pipeInput(CITY_NAME, weather(14.0), START.plusSeconds(20));
+        input.pipeInput(CITY_NAME, weather(12.0), START.plusSeconds(50));
+        input.pipeInput(CITY_NAME, weather(-3.0), START.plusSeconds(70));
+
+        // when
+        final List<KeyValue<Long, WeatherWindowAggregate>> windows =
+                fetch(WeatherAggregationTopology.TUMBLING_STORE);
+
+        // then
+        assertThat(windows).hasSize(2);
+
+        assertThat(windows.get(0).key).isEqualTo(START.toEpochMilli());
+        final WeatherWindowAggregate first = windows.get(0).value;
+        assertThat(first.getCount()).isEqualTo(3);
+        assertThat(first.getAverage()).isCloseTo(12.0, within(1e-9));
+        assertThat(first.getMin()).isEqualTo(10.0);
+        assertThat(first.getMax()).isEqualTo(14.0);
+
+        assertThat(windows.get(1).key).isEqualTo(START.plusSeconds(60).toEpochMilli());
+        assertThat(windows.get(1).value.getCount()).isEqualTo(1);
+        assertThat(windows.get(1).value.getAverage()).isEqualTo(-3.0);
+    }
+
+    @Test
+    void hoppingWindow_shouldAddMeasurementToEveryOverlappingWindow() {
+        // given
+        input.pipeInput(CITY_NAME, weather(10.0), START.plusSeconds(30));
+        input.pipeInput(CITY_NAME, weather(20.0), START.plusSeconds(90));
+
+        // when
+        final List<KeyValue<Long, WeatherWindowAggregate>> windows =
+                fetch(WeatherAggregationTopology.HOPPING_STORE);
+
+        // then
+        assertThat(windows).hasSize(3);
+        assertThat(windows.get(0).key).isEqualTo(START.minusSeconds(60).toEpochMilli());
+        assertThat(windows.get(0).value.getCount()).isEqualTo(1);
+
+        assertThat(windows.get(1).key).isEqualTo(START.toEpochMilli());
+        assertThat(windows.get(1).value.getCount()).isEqualTo(2);
+        assertThat(windows.get(1).value.getAverage()).isCloseTo(15.0, within(1e-9));
+
+        assertThat(windows.get(2).key).isEqualTo(START.plusSeconds(60).toEpochMilli());
+        assertThat(windows.get(2).value.getCount()).isEqualTo(1);
+        assertThat(windows.get(2).value.getMax()).isEqualTo(20.0);
+    }
+
+    @Test
+    void aggregate_withDeletionEventOrMissingTemperature_shouldSkipIt() {
+        // given
+        input.pipeInput(new TestRecord<>(
+                CITY_NAME, weather(-40.0), event(WeatherEventType.DELETED), START.plusSeconds(5)
+        ));
+        input.pipeInput(CITY_NAME, weather(null), START.plusSeconds(10));
+        input.pipeInput(CITY_NAME, weather(7.0), START.plusSeconds(15));
+
+        // when
+        final List<KeyValue<Long, WeatherWindowAggregate>> windows =
+                fetch(WeatherAggregationTopology.TUMBLING_STORE);
+
+        // then
+        assertThat(windows).hasSize(1);
+        assertThat(windows.get(0).value.getCount()).isEqualTo(1);
+        assertThat(windows.get(0).value.getMin()).isEqualTo(7.0);
+    }
+
+    @Test
+    void aggregate_withUpdateEventOrReplayedDeadLetter_shouldSkipIt() {
+        // given
+        input.pipeInput(new TestRecord<>(
+                CITY_NAME, weather(5.0), event(WeatherEventType.CREATED), START.plusSeconds(5)
+        ));
+        input.pipeInput(new TestRecord<>(
+                CITY_NAME, weather(30.0), event(WeatherEventType.UPDATED), START.plusSeconds(10)
+        ));
+        final var replayHeaders = new RecordHeaders();
+        replayHeaders.add(
+                DeadLetterServiceImpl.HEADER_DEAD_LETTER_ID,
+                "b8f5b5a4-0c32-4d7e-9f3e-5a1f1d6c7e21".getBytes(StandardCharsets.UTF_8)
+        );
+        input.pipeInput(new TestRecord<>(CITY_NAME, weather(-20.0), replayHeaders, START.plusSeconds(15)));
+        input.pipeInput(CITY_NAME, weather(7.0), START.plusSeconds(20));
+
+        // when
+        final List<KeyValue<Long, WeatherWindowAggregate>> windows =
+                fetch(WeatherAggregationTopology.TUMBLING_STORE);
+
+        // then
+        assertThat(windows).hasSize(1);
+        assertThat(windows.get(0).value.getCount()).isEqualTo(2);
+        assertThat(windows.get(0).value.getMin()).isEqualTo(5.0);
+        assertThat(windows.get(0).value.getMax()).isEqualTo(7.0);
+    }
+
+    private List<KeyValue<Long, WeatherWindowAggregate>> fetch(final String storeName) {
+        final WindowStore<String, WeatherWindowAggregate> store = driver.getWindowStore(storeName);
+        try (var iterator = store.fetch(CITY_NAME, START.minusSeconds(3600), START.plusSeconds(3600))) {
+            final var result = new ArrayList<KeyValue<Long, WeatherWindowAggregate>>();
+            iterator.forEachRemaining(result::add);
+            return result;
+        }
+    }
+
+    private static RecordHeaders event(final WeatherEventType eventType) {
+        final var headers = new RecordHeaders();
+        headers.add(
+                WeatherOutboxRelay.HEADER_EVENT_TYPE,
+                eventType.name().getBytes(StandardCharsets.UTF_8)
+        );
+        return headers;
+    }
+
+    private static Weather weather(final Double temperature) {
+        return Weather.builder()
+                .city(City.builder().name(CITY_NAME).build())
+                .temperature(temperature)
+                .dateTime(LocalDateTime.of(2023, 10, 10, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Модульные тесты для сериализатора {@link WeatherBinarySerializer}
+ * и десериализатора {@link WeatherBinaryDeserializer} данных о погоде.
+ */
+class WeatherBinarySerdeTest {
+
+    private static final String TOPIC = "weather";
+
+    private final WeatherBinarySerializer serializer = new WeatherBinarySerializer();
+
+    private final WeatherBinaryDeserializer deserializer = new WeatherBinaryDeserializer();
+
+    @Test
+    void serializeAndDeserialize_withAllFields_shouldRestoreWeatherWithCityAndTypeNames() {
+        // given
+        final Weather weather = Weather.builder()
+                .id(UUID.randomUUID())
+                .city(new City(UUID.randomUUID(), "Казань"))
+                .type(new WeatherType(UUID.randomUUID(), "Ясно"))
+                .temperature(-12.75)
+                .dateTime(LocalDateTime.of(1969, 12, 31, 23, 59, 30, 125))
+                .build();
+
+        // when
+        final Weather restored = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, weather));
+
+        // then
+        assertThat(restored).isEqualTo(Weather.builder()
+                .id(weather.getId())
+                .city(City.builder().name("Казань").build())
+                .type(WeatherType.builder().name("Ясно").build())
+                .temperature(-12.75)
+                .dateTime(weather.getDateTime())
+                .build());
+    }
+
+    @Test
+    void serializeAndDeserialize_withoutNames_shouldRestoreIdsOnly() {
+        // given
+        final Weather weather = Weather.builder()
+                .city(City.builder().id(UUID.randomUUID()).build())
+                .type(WeatherType.builder().id(UUID.randomUUID()).build())
+                .temperature(24.5)
+                .build();
+
+        // when
+        final Weather restored = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, weather));
+
+        // then
+        assertThat(restored.getCity().getId()).isEqualTo(weather.getCity().getId());
+        assertThat(restored.getCity().getName()).isNull();
+        assertThat(restored.getType().getId()).isEqualTo(weather.getType().getId());
+        assertThat(restored.getType().getName()).isNull();
+    }
+
+    @Test
+    void serializeAndDeserialize_withoutIds_shouldRestoreNamesOnly() {
+        // given
+        final Weather weather = Weather.builder()
+                .city(City.builder().name("Kazan").build())
+                .type(WeatherType.builder().name("Sunny").build())
+                .temperature(24.5)
+                .dateTime(LocalDateTime.of(2023, 10, 10, 12, 30))
+                .build();
+
+        // when
+        final byte[] data = serializer.serialize(TOPIC, weather);
+        final Weather restored = deserializer.deserialize(TOPIC, data);
+
+        // then
+        assertThat(data[0]).isEqualTo(WeatherBinaryCodec.MAGIC);
+        assertThat(data[1]).isEqualTo(WeatherBinaryCodec.VERSION);
+        assertThat(restored.getId()).isNull();
+        assertThat(restored.getCity().getId()).isNull();
+        assertThat(restored.getCity().getName()).isEqualTo("Kazan");
+        assertThat(restored.getType().getId()).isNull();
+        assertThat(restored.getType().getName()).isEqualTo("Sunny");
+        assertThat(restored.getTemperature()).isEqualTo(24.5);
+        assertThat(restored.getDateTime()).isEqualTo(weather.getDateTime());
+    }
+
+    @Test
+    void deserialize_withUnknownFields_shouldSkipThem() {
+        // given
+        final Weather weather = Weather.builder()
+                .city(City.builder().name("Kazan").build())
+                .temperature(1.0)
+                .build();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(serializer.serialize(TOPIC, weather));
+        // поле 15 с массивом байт длиной 3
+        out.write((15 << 3) | WeatherBinaryCodec.WIRE_BYTES);
+        out.write(3);
+        out.writeBytes(new byte[]{1, 2, 3});
+        // поле 14 с целым числом переменной длины
+        out.write((14 << 3) | WeatherBinaryCodec.WIRE_VARINT);
+        out.write(0x96);
+        out.write(0x01);
+        // поле 13 с 8 байтами фиксированной длины
+        out.write((13 << 3) | WeatherBinaryCodec.WIRE_FIXED64);
+        out.writeBytes(new byte[Long.BYTES]);
+
+        // when
+        final Weather restored = deserializer.deserialize(TOPIC, out.toByteArray());
+
+        // then
+        assertThat(restored.getCity().getName()).isEqualTo("Kazan");
+        assertThat(restored.getTemperature()).isEqualTo(1.0);
+    }
+
+    @Test
+    void deserialize_withJsonMessage_shouldFallBackToJson() {
+        // given
+        final Weather weather = Weather.builder()
+                .id(UUID.randomUUID())
+                .city(new City(UUID.randomUUID(), "Kazan"))
+                .type(new WeatherType(UUID.randomUUID(), "Sunny"))
+                .temperature(3.5)
+                .dateTime(LocalDateTime.of(2023, 10, 10, 12, 30))
+                .build();
+        final byte[] json;
+        try (JsonSerializer<Weather> jsonSerializer = new JsonSerializer<>()) {
+            jsonSerializer.setAddTypeInfo(false);
+            json = jsonSerializer.serialize(TOPIC, weather);
+        }
+        deserializer.configure(Map.of(), false);
+
+        // when
+        final Weather restored = deserializer.deserialize(TOPIC, json);
+
+        // then
+        assertThat(restored).isEqualTo(weather);
+    }
+
+    @Test
+    void deserialize_withNewerVersion_shouldThrowException() {
+        // given
+        final byte[] data = {WeatherBinaryCodec.MAGIC, WeatherBinaryCodec.VERSION + 1};
+
+        // when
+        // then
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, data))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void deserialize_withVersionAboveSignedByteRange_shouldThrowException() {
+        // given
+        final byte[] data = {WeatherBinaryCodec.MAGIC, (byte) 0x80};
+
+        // when
+        // then
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, data))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void deserialize_withTruncatedMessage_shouldThrowException() {
+        // given
+        final byte[] data = serializer.serialize(TOPIC, Weather.builder()
+                .id(UUID.randomUUID())
+                .build());
+        final byte[] truncated = Arrays.copyOf(data, data.length - 4);
+
+        // when
+        // then
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,212 @@
+package ru.bukhtaev.kafka;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import ru.bukhtaev.config.CoordinationConfigParams;
+import ru.bukhtaev.config.OutboxConfigParams;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.OutboxEvent;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+import ru.bukhtaev.repository.jdbc.OutboxEventJdbcRepository;
+import ru.bukhtaev.repository.jdbc.SchedulerLeaseJdbcRepository;
+import ru.bukhtaev.service.SchedulerCoordinator;
+import ru.bukhtaev.util.WeatherEventType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+import static ru.bukhtaev.kafka.WeatherOutboxRelay.HEADER_EVENT_TYPE;
+
+/**
+ * Модульные тесты для сервиса отправки исходящих событий {@link WeatherOutboxRelay}.
+ */
+@ExtendWith(MockitoExtension.class)
+class WeatherOutboxRelayTest {
+
+    private static final String TOPIC = "weather";
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+    /**
+     * Имитация репозитория исходящих событий.
+     */
+    @Mock
+    private OutboxEventJdbcRepository repository;
+
+    /**
+     * Имитация сервиса для отправки сообщений.
+     */
+    @Mock
+    private KafkaTemplate<String, Weather> kafkaTemplate;
+
+    /**
+     * Имитация репозитория аренд задач по расписанию.
+     */
+    @Mock
+    private SchedulerLeaseJdbcRepository leaseRepository;
+
+    /**
+     * Перехватчик отправляемого сообщения.
+     */
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, Weather>> recordCaptor;
+
+    private OutboxConfigParams outboxConfig;
+
+    private CoordinationConfigParams coordinationConfig;
+
+    private WeatherOutboxRelay underTest;
+
+    @BeforeEach
+    void setUp() {
+        outboxConfig = new OutboxConfigParams();
+        outboxConfig.setBatchSize(3);
+        outboxConfig.setSendTimeout(1_000);
+        coordinationConfig = new CoordinationConfigParams();
+        underTest = createRelay();
+    }
+
+    @Test
+    void relay_shouldSendWholeBatchBeforeWaitingAndDeleteSentEventsInOrder() {
+        // given
+        final var batch = List.of(
+                event(1L, WeatherEventType.CREATED, "Kazan"),
+                event(2L, WeatherEventType.UPDATED, "Irkutsk"),
+                event(3L, WeatherEventType.DELETED, "Kazan")
+        );
+        given(repository.findFirst(3))
+                .willReturn(batch)
+                .willReturn(List.of());
+        given(kafkaTemplate.getDefaultTopic())
+                .willReturn(TOPIC);
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(sent());
+
+        // when
+        underTest.relay();
+
+        // then
+        verify(kafkaTemplate, times(3)).send(recordCaptor.capture());
+        final var records = recordCaptor.getAllValues();
+        assertThat(records)
+                .extracting(ProducerRecord::key)
+                .containsExactly("Kazan", "Irkutsk", "Kazan");
+        assertThat(records)
+                .extracting(record -> new String(
+                        record.headers().lastHeader(HEADER_EVENT_TYPE).value(),
+                        StandardCharsets.UTF_8
+                ))
+                .containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(records.get(1).topic()).isEqualTo(TOPIC);
+        assertThat(records.get(1).value().getCity().getName()).isEqualTo("Irkutsk");
+
+        verify(repository, times(1)).deleteAllByIds(List.of(1L, 2L, 3L));
+        verify(repository, times(2)).findFirst(3);
+    }
+
+    @Test
+    void relay_withFailedSend_shouldKeepFailedAndFollowingEvents() {
+        // given
+        final var batch = List.of(
+                event(1L, WeatherEventType.CREATED, "Kazan"),
+                event(2L, WeatherEventType.CREATED, "Irkutsk"),
+                event(3L, WeatherEventType.UPDATED, "Kazan")
+        );
+        given(repository.findFirst(3))
+                .willReturn(batch);
+        given(kafkaTemplate.getDefaultTopic())
+                .willReturn(TOPIC);
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(sent())
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker is unavailable")))
+                .willReturn(sent());
+
+        // when
+        underTest.relay();
+
+        // then
+        verify(repository, times(1)).deleteAllByIds(List.of(1L));
+        verify(repository, times(1)).findFirst(3);
+    }
+
+    @Test
+    void relay_withoutEvents_shouldNotSendAnything() {
+        // given
+        given(repository.findFirst(3))
+                .willReturn(List.of());
+
+        // when
+        underTest.relay();
+
+        // then
+        verifyNoInteractions(kafkaTemplate);
+        verify(repository, never()).deleteAllByIds(any());
+    }
+
+    @Test
+    void relay_onInstanceWithoutLease_shouldNotSendAnything() {
+        // given
+        coordinationConfig.setEnabled(true);
+        coordinationConfig.setInstanceId("second");
+        given(leaseRepository.tryAcquire(anyString(), anyString(), any(Duration.class)))
+                .willReturn(false);
+        underTest = createRelay();
+
+        // when
+        underTest.relay();
+
+        // then
+        verify(leaseRepository, times(1))
+                .tryAcquire(SchedulerCoordinator.TASK_OUTBOX_RELAY, "second", coordinationConfig.getLeaseDuration());
+        verifyNoInteractions(repository, kafkaTemplate);
+    }
+
+    private WeatherOutboxRelay createRelay() {
+        return new WeatherOutboxRelay(
+                repository,
+                kafkaTemplate,
+                outboxConfig,
+                new SchedulerCoordinator(coordinationConfig, leaseRepository, null)
+        );
+    }
+
+    private static CompletableFuture<SendResult<String, Weather>> sent() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static OutboxEvent event(final Long id, final WeatherEventType eventType, final String cityName) {
+        final Weather weather = Weather.builder()
+                .id(UUID.randomUUID())
+                .city(City.builder().id(UUID.randomUUID()).name(cityName).build())
+                .type(WeatherType.builder().id(UUID.randomUUID()).name("Sunny").build())
+                .temperature(12.5)
+                .dateTime(NOW)
+                .build();
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType(eventType)
+                .weatherId(weather.getId())
+                .key(cityName)
+                .payload(WeatherBinaryCodec.encode(weather))
+                .createdAt(NOW)
+                .build();
+    }
+}
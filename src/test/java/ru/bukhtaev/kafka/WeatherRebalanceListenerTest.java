@@ -0,0 +1,151 @@
+package ru.bukhtaev.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.repository.jdbc.ConsumerOffsetJdbcRepository;
+import ru.bukhtaev.service.WeatherCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+import static ru.bukhtaev.kafka.WeatherConsumerMetrics.METRIC_LAG;
+import static ru.bukhtaev.kafka.WeatherConsumerMetrics.METRIC_PROCESSING;
+
+/**
+ * Модульные тесты для обработчика перераспределения партиций {@link WeatherRebalanceListener}.
+ */
+@ExtendWith(MockitoExtension.class)
+class WeatherRebalanceListenerTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("weather", 0);
+
+    private static final TopicPartition PARTITION_1 = new TopicPartition("weather", 1);
+
+    /**
+     * Имитация сервиса, предоставляющего LRU-кэш для данных о погоде.
+     */
+    @Mock
+    private WeatherCache cache;
+
+    /**
+     * Имитация репозитория смещений обработанных сообщений.
+     */
+    @Mock
+    private ConsumerOffsetJdbcRepository offsetRepository;
+
+    /**
+     * Имитация получателя сообщений.
+     */
+    @Mock
+    private Consumer<String, Object> consumer;
+
+    private KafkaConfigParams kafkaConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WeatherConsumerMetrics metrics;
+
+    private WeatherRebalanceListener underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new WeatherConsumerMetrics(meterRegistry);
+        kafkaConfig = new KafkaConfigParams();
+        kafkaConfig.setExactlyOnce(true);
+        underTest = new WeatherRebalanceListener(cache, metrics, offsetRepository, kafkaConfig);
+    }
+
+    @Test
+    void onPartitionsRevokedAfterCommit_shouldEvictCitiesOfRevokedPartitionsOnly() {
+        // given
+        underTest.track(PARTITION_0, "Kazan");
+        underTest.track(PARTITION_0, "Irkutsk");
+        underTest.track(PARTITION_1, "Yekaterinburg");
+
+        // when
+        underTest.onPartitionsRevokedAfterCommit(null, List.of(PARTITION_0));
+
+        // then
+        verify(cache, times(1)).evict("Kazan");
+        verify(cache, times(1)).evict("Irkutsk");
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    void onPartitionsLost_shouldRemoveMetricsOfLostPartitions() {
+        // given
+        metrics.recordLag(PARTITION_0, 5);
+        metrics.recordLag(PARTITION_1, 7);
+        metrics.processingTimer(PARTITION_0).record(() -> { });
+
+        // when
+        underTest.onPartitionsLost(null, List.of(PARTITION_0));
+
+        // then
+        assertThat(meterRegistry.find(METRIC_LAG).tag("partition", "0").gauge()).isNull();
+        assertThat(meterRegistry.find(METRIC_PROCESSING).tag("partition", "0").timer()).isNull();
+        assertThat(meterRegistry.get(METRIC_LAG).tag("partition", "1").gauge().value()).isEqualTo(7);
+    }
+
+    @Test
+    void onPartitionsAssigned_afterCrashBetweenPersistenceAndCommit_shouldSeekToStoredOffset() {
+        // given
+        // данные сохранены вместе со смещением 43, но смещение в Kafka зафиксировано только до 40
+        given(consumer.groupMetadata())
+                .willReturn(new ConsumerGroupMetadata("weather-group"));
+        given(offsetRepository.findAllByGroup("weather-group"))
+                .willReturn(Map.of(PARTITION_0, 43L, PARTITION_1, 10L));
+        given(consumer.position(PARTITION_0))
+                .willReturn(40L);
+        given(consumer.position(PARTITION_1))
+                .willReturn(10L);
+
+        // when
+        underTest.onPartitionsAssigned(consumer, List.of(PARTITION_0, PARTITION_1));
+
+        // then
+        verify(consumer, times(1)).seek(PARTITION_0, 43L);
+        verify(consumer, never()).seek(eq(PARTITION_1), anyLong());
+    }
+
+    @Test
+    void onPartitionsAssigned_withStoredOffsetBehindCommitted_shouldNotSeek() {
+        // given
+        given(consumer.groupMetadata())
+                .willReturn(new ConsumerGroupMetadata("weather-group"));
+        given(offsetRepository.findAllByGroup("weather-group"))
+                .willReturn(Map.of(PARTITION_0, 30L));
+        given(consumer.position(PARTITION_0))
+                .willReturn(40L);
+
+        // when
+        underTest.onPartitionsAssigned(consumer, List.of(PARTITION_0));
+
+        // then
+        verify(consumer, never()).seek(any(TopicPartition.class), anyLong());
+    }
+
+    @Test
+    void onPartitionsAssigned_withExactlyOnceDisabled_shouldNotReadStoredOffsets() {
+        // given
+        kafkaConfig.setExactlyOnce(false);
+
+        // when
+        underTest.onPartitionsAssigned(consumer, List.of(PARTITION_0));
+
+        // then
+        verifyNoInteractions(offsetRepository, consumer);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.bukhtaev.kafka;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение размера сообщений и пропускной способности сериализации
+ * данных о погоде в двоичном формате {@link WeatherBinaryCodec} и в формате JSON.
+ * Запускается задачей {@code benchmark} и исключен из задачи {@code test}.
+ */
+@Tag("benchmark")
+class WeatherSerializationBenchmarkTest {
+
+    private static final String TOPIC = "weather";
+
+    private static final int MESSAGES_COUNT = 1_000;
+
+    private static final int WARMUP_ROUNDS = 20;
+
+    private static final int MEASURED_ROUNDS = 50;
+
+    private static final List<Weather> MESSAGES = new ArrayList<>(MESSAGES_COUNT);
+
+    @BeforeAll
+    static void setUp() {
+        final String[] cities = {"Kazan", "Yekaterinburg", "Kaliningrad", "Novosibirsk", "Irkutsk"};
+        final String[] types = {"Sunny", "Partly cloudy", "Light rain", "Overcast", "Moderate snow"};
+        final LocalDateTime start = LocalDateTime.of(2023, 10, 10, 0, 0);
+
+        for (int i = 0; i < MESSAGES_COUNT; i++) {
+            MESSAGES.add(Weather.builder()
+                    .id(UUID.randomUUID())
+                    .city(new City(UUID.randomUUID(), cities[i % cities.length]))
+                    .type(new WeatherType(UUID.randomUUID(), types[i % types.length]))
+                    .temperature(-30 + (i % 600) / 10.0)
+                    .dateTime(start.plusMinutes(i))
+                    .build());
+        }
+    }
+
+    @Test
+    void compareBinaryAndJsonSerialization() {
+        try (JsonSerializer<Weather> jsonSerializer = new JsonSerializer<>();
+             JsonDeserializer<Weather> jsonDeserializer = new JsonDeserializer<>(Weather.class, false);
+             WeatherBinarySerializer binarySerializer = new WeatherBinarySerializer();
+             WeatherBinaryDeserializer binaryDeserializer = new WeatherBinaryDeserializer()) {
+
+            jsonSerializer.setAddTypeInfo(false);
+
+            final List<byte[]> json = serializeAll(weather -> jsonSerializer.serialize(TOPIC, weather));
+            final List<byte[]> binary = serializeAll(weather -> binarySerializer.serialize(TOPIC, weather));
+
+            final double jsonBytes = averageSize(json);
+            final double binaryBytes = averageSize(binary);
+
+            final double jsonSerializeRate = measure(() -> serializeAll(weather -> jsonSerializer.serialize(TOPIC, weather)));
+            final double binarySerializeRate = measure(() -> serializeAll(weather -> binarySerializer.serialize(TOPIC, weather)));
+            final double jsonDeserializeRate = measure(() -> json.forEach(data -> jsonDeserializer.deserialize(TOPIC, data)));
+            final double binaryDeserializeRate = measure(() -> binary.forEach(data -> binaryDeserializer.deserialize(TOPIC, data)));
+
+            System.out.printf("%-8s %14s %18s %20s%n", "format", "bytes/message", "serialize msg/s", "deserialize msg/s");
+            System.out.printf("%-8s %14.1f %18.0f %20.0f%n", "json", jsonBytes, jsonSerializeRate, jsonDeserializeRate);
+            System.out.printf("%-8s %14.1f %18.0f %20.0f%n", "binary", binaryBytes, binarySerializeRate, binaryDeserializeRate);
+
+            assertThat(binaryBytes).isLessThan(jsonBytes);
+        }
+    }
+
+    private static List<byte[]> serializeAll(final Function<Weather, byte[]> serializer) {
+        final List<byte[]> result = new ArrayList<>(MESSAGES_COUNT);
+        for (final Weather weather : MESSAGES) {
+            result.add(serializer.apply(weather));
+        }
+        return result;
+    }
+
+    private static double averageSize(final List<byte[]> messages) {
+        return messages.stream()
+                .mapToInt(data -> data.length)
+                .average()
+                .orElse(0);
+    }
+
+    private static double measure(final Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        return (double) MESSAGES_COUNT * MEASURED_ROUNDS / elapsed * 1_000_000_000L;
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import ru.bukhtaev.AbstractContainerizedTest;
 import ru.bukhtaev.model.City;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -390,4 +392,47 @@ class CityJdbcRepositoryTest extends AbstractContainerizedTest {
         // then
         assertThat(optCity).isNotPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByNames_shouldReturnOnlyExistentEntitiesWithOneQuery() {
+        // given
+        underTest.create(cityYekaterinburg);
+        underTest.create(cityKazan);
+
+        // when
+        final var cities = underTest.findAllByNames(List.of("Казань", "Новосибирск"));
+
+        // then
+        assertThat(cities)
+                .extracting(City::getName)
+                .containsExactly("Казань");
+    }
+
+    @Test
+    void findAllByNames_withEmptyNames_shouldReturnEmptyList() {
+        // given
+        underTest.create(cityKazan);
+
+        // when
+        final var cities = underTest.findAllByNames(List.of());
+
+        // then
+        assertThat(cities).isEmpty();
+    }
+
+    @Test
+    void createAll_shouldCreateAllEntitiesAndReturnThemWithIds() {
+        // given
+        underTest.create(cityKazan);
+
+        // when
+        final var created = underTest.createAll(Set.of("Екатеринбург", "Новосибирск"));
+
+        // then
+        assertThat(created)
+                .extracting(City::getName)
+                .containsExactlyInAnyOrder("Екатеринбург", "Новосибирск");
+        assertThat(created).allMatch(city -> city.getId() != null);
+        assertThat(underTest.findAll()).hasSize(3);
+    }
+}
@@ -0,0 +1,151 @@
+package ru.bukhtaev.repository.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.bukhtaev.AbstractContainerizedTest;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Модульные тесты для JDBC-репозитория аренд задач по расписанию {@link SchedulerLeaseJdbcRepository}.
+ */
+@JdbcTest
+class SchedulerLeaseJdbcRepositoryTest extends AbstractContainerizedTest {
+
+    private static final String TASK = "weather-polling";
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    /**
+     * Объект для выполнения SQL-запросов
+     * с использованием именованных параметров.
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Тестируемый JDBC-репозиторий аренд задач по расписанию.
+     */
+    private SchedulerLeaseJdbcRepository underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new SchedulerLeaseJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    void tryAcquire_withoutLease_shouldAcquireLease() {
+        // when
+        final boolean acquired = underTest.tryAcquire(TASK, "first", LEASE);
+
+        // then
+        assertThat(acquired).isTrue();
+        assertThat(underTest.findOwner(TASK)).contains("first");
+    }
+
+    @Test
+    void tryAcquire_withActiveLeaseOfAnotherOwner_shouldNotAcquireLease() {
+        // given
+        underTest.tryAcquire(TASK, "first", LEASE);
+
+        // when
+        final boolean acquired = underTest.tryAcquire(TASK, "second", LEASE);
+
+        // then
+        assertThat(acquired).isFalse();
+        assertThat(underTest.findOwner(TASK)).contains("first");
+    }
+
+    @Test
+    void tryAcquire_byOwner_shouldRenewLease() {
+        // given
+        underTest.tryAcquire(TASK, "first", Duration.ofSeconds(1));
+
+        // when
+        final boolean renewed = underTest.tryAcquire(TASK, "first", LEASE);
+
+        // then
+        assertThat(renewed).isTrue();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT expires_at > LOCALTIMESTAMP + INTERVAL '10 seconds' FROM scheduler_lease WHERE task_name = :taskName",
+                Map.of("taskName", TASK),
+                Boolean.class
+        )).isTrue();
+    }
+
+    @Test
+    void tryAcquire_withExpiredLeaseOfAnotherOwner_shouldTakeOverLease() {
+        // given
+        underTest.tryAcquire(TASK, "first", LEASE);
+        expireLease();
+
+        // when
+        final boolean acquired = underTest.tryAcquire(TASK, "second", LEASE);
+
+        // then
+        assertThat(acquired).isTrue();
+        assertThat(underTest.findOwner(TASK)).contains("second");
+    }
+
+    @Test
+    void tryAcquire_forAnotherTask_shouldAcquireLeaseIndependently() {
+        // given
+        underTest.tryAcquire(TASK, "first", LEASE);
+
+        // when
+        final boolean acquired = underTest.tryAcquire("weather-outbox-relay", "second", LEASE);
+
+        // then
+        assertThat(acquired).isTrue();
+        assertThat(underTest.findOwner(TASK)).contains("first");
+    }
+
+    @Test
+    void release_byOwner_shouldReleaseLease() {
+        // given
+        underTest.tryAcquire(TASK, "first", LEASE);
+
+        // when
+        underTest.release(TASK, "first");
+
+        // then
+        assertThat(underTest.findOwner(TASK)).isEmpty();
+        assertThat(underTest.tryAcquire(TASK, "second", LEASE)).isTrue();
+    }
+
+    @Test
+    void release_byAnotherOwner_shouldKeepLease() {
+        // given
+        underTest.tryAcquire(TASK, "first", LEASE);
+
+        // when
+        underTest.release(TASK, "second");
+
+        // then
+        assertThat(underTest.findOwner(TASK)).contains("first");
+    }
+
+    @Test
+    void findOwner_withExpiredLease_shouldReturnEmptyOptional() {
+        // given
+        underTest.tryAcquire(TASK, "first", LEASE);
+        expireLease();
+
+        // when
+        // then
+        assertThat(underTest.findOwner(TASK)).isEmpty();
+    }
+
+    private void expireLease() {
+        jdbcTemplate.update(
+                "UPDATE scheduler_lease SET expires_at = LOCALTIMESTAMP - INTERVAL '1 second' WHERE task_name = :taskName",
+                Map.of("taskName", TASK)
+        );
+    }
+}
@@ -0,0 +1,103 @@
+package ru.bukhtaev.repository.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.bukhtaev.AbstractContainerizedTest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Модульные тесты для JDBC-репозитория живых экземпляров приложения {@link SchedulerNodeJdbcRepository}.
+ */
+@JdbcTest
+class SchedulerNodeJdbcRepositoryTest extends AbstractContainerizedTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+    /**
+     * Объект для выполнения SQL-запросов
+     * с использованием именованных параметров.
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Тестируемый JDBC-репозиторий живых экземпляров приложения.
+     */
+    private SchedulerNodeJdbcRepository underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new SchedulerNodeJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    void heartbeat_shouldRegisterInstancesOnce() {
+        // when
+        underTest.heartbeat("second");
+        underTest.heartbeat("first");
+        underTest.heartbeat("second");
+
+        // then
+        assertThat(underTest.findAlive(TIMEOUT)).containsExactly("first", "second");
+    }
+
+    @Test
+    void heartbeat_ofExpiredInstance_shouldRegisterItAgain() {
+        // given
+        underTest.heartbeat("first");
+        expireHeartbeat("first");
+
+        // when
+        underTest.heartbeat("first");
+
+        // then
+        assertThat(underTest.findAlive(TIMEOUT)).containsExactly("first");
+    }
+
+    @Test
+    void findAlive_withExpiredInstance_shouldDeleteIt() {
+        // given
+        underTest.heartbeat("first");
+        underTest.heartbeat("second");
+        expireHeartbeat("second");
+
+        // when
+        final List<String> alive = underTest.findAlive(TIMEOUT);
+
+        // then
+        assertThat(alive).containsExactly("first");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM scheduler_node",
+                Map.of(),
+                Integer.class
+        )).isEqualTo(1);
+    }
+
+    @Test
+    void delete_shouldRemoveOnlySpecifiedInstance() {
+        // given
+        underTest.heartbeat("first");
+        underTest.heartbeat("second");
+
+        // when
+        underTest.delete("first");
+
+        // then
+        assertThat(underTest.findAlive(TIMEOUT)).containsExactly("second");
+    }
+
+    private void expireHeartbeat(final String instanceId) {
+        jdbcTemplate.update(
+                "UPDATE scheduler_node SET heartbeat_at = LOCALTIMESTAMP - INTERVAL '1 minute' WHERE instance_id = :instanceId",
+                Map.of("instanceId", instanceId)
+        );
+    }
+}
@@ -433,6 +433,58 @@ class WeatherJdbcRepositoryTest extends AbstractContainerizedTest {
         }
     }
 
+    @Test
+    void deleteAllByCityNameAndDateTime_shouldDeleteOnlyMatchingEntities() {
+        // given
+        underTest.create(weather1);
+        final Weather saved = underTest.create(weather2);
+        underTest.create(weather3);
+        final var absent = Weather.builder()
+                .city(cityKazan)
+                .dateTime(YESTERDAY)
+                .build();
+
+        // when
+        final int deleted = underTest.deleteAllByCityNameAndDateTime(List.of(weather1, weather3, absent));
+
+        // then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(underTest.findAll())
+                .extracting(Weather::getId)
+                .containsExactly(saved.getId());
+    }
+
+    @Test
+    void changeAllByCityNameAndDateTime_shouldChangeOnlyExistentEntities() {
+        // given
+        final Weather saved = underTest.create(weather1);
+        final var changedWeather = Weather.builder()
+                .city(cityKazan)
+                .type(typeBlizzard)
+                .temperature(-5.5)
+                .dateTime(NOW)
+                .build();
+        final var absent = Weather.builder()
+                .city(cityKazan)
+                .type(typeBlizzard)
+                .temperature(-7.5)
+                .dateTime(YESTERDAY)
+                .build();
+
+        // when
+        final int changed = underTest.changeAllByCityNameAndDateTime(List.of(changedWeather, absent));
+
+        // then
+        assertThat(changed).isEqualTo(1);
+        final var weatherData = underTest.findAll();
+        assertThat(weatherData).hasSize(1);
+        final Weather weather = weatherData.get(0);
+        assertThat(weather.getId()).isEqualTo(saved.getId());
+        assertThat(weather.getType().getId()).isEqualTo(typeBlizzard.getId());
+        assertThat(weather.getTemperature()).isEqualTo(-5.5);
+        assertThat(weather.getDateTime()).isEqualTo(NOW);
+    }
+
     @Test
     void create_withNonExistentCityAndDateTimeCombination_shouldCreateEntity() {
         // given
@@ -519,6 +571,35 @@ class WeatherJdbcRepositoryTest extends AbstractContainerizedTest {
         }
     }
 
+    @Test
+    void create_shouldReturnEntityEqualToStoredOne() {
+        // when
+        final Weather created = underTest.create(weather1);
+
+        // then
+        assertThat(created.getId()).isNotNull();
+        assertThat(underTest.findById(created.getId()))
+                .get()
+                .usingRecursiveComparison()
+                .isEqualTo(created);
+    }
+
+    @Test
+    void change_shouldReturnEntityEqualToStoredOne() {
+        // given
+        final Weather saved = underTest.create(weather1);
+
+        // when
+        final Weather changed = underTest.change(saved.getId(), weather3);
+
+        // then
+        assertThat(changed.getId()).isEqualTo(saved.getId());
+        assertThat(underTest.findById(saved.getId()))
+                .get()
+                .usingRecursiveComparison()
+                .isEqualTo(changed);
+    }
+
     @Test
     void change_withNonExistentCityAndDateTimeCombination_shouldUpdateEntity() {
         // given
@@ -739,4 +820,103 @@ class WeatherJdbcRepositoryTest extends AbstractContainerizedTest {
         // then
         assertThat(optWeather).isNotPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void createAllIfAbsent_shouldCreateOnlyMissingEntitiesWithExistentCityAndType() {
+        // given
+        underTest.create(weather1);
+        final Weather duplicate = Weather.builder()
+                .city(City.builder().name(cityKazan.getName()).build())
+                .type(WeatherType.builder().name(typeBlizzard.getName()).build())
+                .temperature(-1.0)
+                .dateTime(NOW)
+                .build();
+        final Weather unknownCity = Weather.builder()
+                .city(City.builder().name("Иркутск").build())
+                .type(WeatherType.builder().name(typeClear.getName()).build())
+                .temperature(3.5)
+                .dateTime(NOW)
+                .build();
+        final Weather repeated = Weather.builder()
+                .city(City.builder().name(cityYekaterinburg.getName()).build())
+                .type(WeatherType.builder().name(typeClear.getName()).build())
+                .temperature(0.46)
+                .dateTime(NOW)
+                .build();
+
+        // when
+        final int created = underTest.createAllIfAbsent(List.of(
+                weather2,
+                duplicate,
+                unknownCity,
+                repeated,
+                repeated
+        ));
+
+        // then
+        assertThat(created).isEqualTo(2);
+
+        final var weatherData = underTest.findAll();
+        assertThat(weatherData).hasSize(3);
+        assertThat(underTest.findFirstByCityIdAndDateTime(cityKazan.getId(), NOW))
+                .get()
+                .extracting(Weather::getTemperature)
+                .isEqualTo(weather1.getTemperature());
+        assertThat(underTest.findFirstByCityIdAndDateTime(cityYekaterinburg.getId(), YESTERDAY))
+                .isPresent();
+        assertThat(underTest.findFirstByCityIdAndDateTime(cityYekaterinburg.getId(), NOW))
+                .get()
+                .extracting(weather -> weather.getType().getId())
+                .isEqualTo(typeClear.getId());
+    }
+
+    @Test
+    void createAll_shouldCreateOnlyMissingEntitiesAndReturnThem() {
+        // given
+        underTest.create(weather1);
+        final Weather duplicate = Weather.builder()
+                .city(cityKazan)
+                .type(typeBlizzard)
+                .temperature(-1.0)
+                .dateTime(NOW)
+                .build();
+        final Weather repeated = Weather.builder()
+                .city(cityYekaterinburg)
+                .type(typeBlizzard)
+                .temperature(-30.0)
+                .dateTime(NOW)
+                .build();
+
+        // when
+        final List<Weather> created = underTest.createAll(List.of(
+                weather2,
+                duplicate,
+                weather3,
+                repeated
+        ));
+
+        // then
+        assertThat(created)
+                .extracting(Weather::getTemperature)
+                .containsExactlyInAnyOrder(weather2.getTemperature(), weather3.getTemperature());
+        assertThat(created).allMatch(weather -> weather.getId() != null);
+        assertThat(underTest.findAll()).hasSize(3);
+        assertThat(underTest.findFirstByCityIdAndDateTime(cityKazan.getId(), NOW))
+                .get()
+                .extracting(Weather::getTemperature)
+                .isEqualTo(weather1.getTemperature());
+    }
+
+    @Test
+    void createAll_withOnlyExistentEntities_shouldReturnEmptyList() {
+        // given
+        underTest.create(weather1);
+
+        // when
+        final List<Weather> created = underTest.createAll(List.of(weather1));
+
+        // then
+        assertThat(created).isEmpty();
+        assertThat(underTest.findAll()).hasSize(1);
+    }
+}
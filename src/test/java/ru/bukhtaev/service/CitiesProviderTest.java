@@ -0,0 +1,359 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.bukhtaev.config.CitiesConfigParams;
+import ru.bukhtaev.config.CoordinationConfigParams;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.bukhtaev.service.CitiesProvider.METRIC_SCHEDULE_LAG;
+
+/**
+ * Модульные тесты для сервиса предоставления названий городов {@link CitiesProvider}.
+ */
+class CitiesProviderTest {
+
+    private static final Instant START = Instant.parse("2023-10-10T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CitiesConfigParams citiesConfig;
+
+    private SchedulerCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new SchedulerCoordinator(new CoordinationConfigParams(), null, null);
+        citiesConfig = new CitiesConfigParams();
+        citiesConfig.setCities(new String[]{"Kazan", "Yekaterinburg", "Kazan", "Irkutsk"});
+        citiesConfig.getPolling().setInterval(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getCities_shouldReturnDistinctCitiesInConfiguredOrder() {
+        // given
+        final var underTest = createProvider();
+
+        // when
+        final List<String> cities = underTest.getCities(10);
+
+        // then
+        assertThat(cities).containsExactly("Kazan", "Yekaterinburg", "Irkutsk");
+    }
+
+    @Test
+    void getCities_beforeInterval_shouldNotReturnPolledCities() {
+        // given
+        final var underTest = createProvider();
+        underTest.getCities(2);
+
+        // when
+        clock.advance(Duration.ofSeconds(59));
+        final List<String> cities = underTest.getCities(10);
+
+        // then
+        assertThat(cities).containsExactly("Irkutsk");
+        assertThat(underTest.getCities(10)).isEmpty();
+    }
+
+    @Test
+    void getCities_afterInterval_shouldReturnMostOverdueCitiesFirst() {
+        // given
+        citiesConfig.getPolling().setIntervals(Map.of("Irkutsk", Duration.ofSeconds(10)));
+        final var underTest = createProvider();
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofMinutes(2));
+        final List<String> cities = underTest.getCities(10);
+
+        // then
+        assertThat(cities).containsExactly("Irkutsk", "Kazan", "Yekaterinburg");
+    }
+
+    @Test
+    void getCities_withCityInterval_shouldPollCityWithItsOwnInterval() {
+        // given
+        citiesConfig.getPolling().setIntervals(Map.of("Irkutsk", Duration.ofSeconds(10)));
+        final var underTest = createProvider();
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofSeconds(10));
+        final List<String> cities = underTest.getCities(10);
+
+        // then
+        assertThat(cities).containsExactly("Irkutsk");
+    }
+
+    @Test
+    void getCities_afterMissedPolls_shouldNotAccumulateThem() {
+        // given
+        final var underTest = createProvider();
+        underTest.getCities(10);
+        clock.advance(Duration.ofMinutes(5));
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofSeconds(59));
+        final List<String> cities = underTest.getCities(10);
+
+        // then
+        assertThat(cities).isEmpty();
+    }
+
+    @Test
+    void getCities_withJitter_shouldScheduleWithinJitterRange() {
+        // given
+        citiesConfig.getPolling().setJitter(0.5);
+        final var underTest = createProvider();
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofSeconds(29));
+        final List<String> early = underTest.getCities(10);
+        clock.advance(Duration.ofSeconds(61));
+        final List<String> late = underTest.getCities(10);
+
+        // then
+        assertThat(early).isEmpty();
+        assertThat(late).hasSize(3);
+    }
+
+    @Test
+    void getCities_withDemand_shouldPollReadCitiesMoreOftenThanOthers() {
+        // given
+        enableDemand();
+        final var underTest = createProvider();
+        underTest.recordDemand("Kazan");
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofSeconds(24));
+        final List<String> hot = underTest.getCities(10);
+        clock.advance(Duration.ofSeconds(275));
+        final List<String> beforeFloor = underTest.getCities(10);
+        clock.advance(Duration.ofSeconds(1));
+        final List<String> cold = underTest.getCities(10);
+
+        // then
+        assertThat(hot).containsExactly("Kazan");
+        assertThat(beforeFloor).containsExactly("Kazan");
+        assertThat(cold).containsExactlyInAnyOrder("Yekaterinburg", "Irkutsk");
+    }
+
+    @Test
+    void getCities_withDemandForDifferentlyWrittenName_shouldPollMatchingCityMoreOften() {
+        // given
+        enableDemand();
+        final var underTest = createProvider();
+        underTest.recordDemand("  kAZAN ");
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofSeconds(24));
+        final List<String> hot = underTest.getCities(10);
+
+        // then
+        assertThat(hot).containsExactly("Kazan");
+    }
+
+    @Test
+    void getCities_withDemand_shouldNotPollHotCityMoreOftenThanMinInterval() {
+        // given
+        enableDemand();
+        citiesConfig.getPolling().setInterval(Duration.ofSeconds(15));
+        final var underTest = createProvider();
+        underTest.recordDemand("Kazan");
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofSeconds(9));
+        final List<String> early = underTest.getCities(10);
+        clock.advance(Duration.ofSeconds(1));
+        final List<String> cities = underTest.getCities(10);
+
+        // then
+        assertThat(early).isEmpty();
+        assertThat(cities).containsExactly("Kazan");
+    }
+
+    @Test
+    void getCities_withDemandButWithoutReads_shouldUseDefaultInterval() {
+        // given
+        enableDemand();
+        final var underTest = createProvider();
+        underTest.recordDemand("Nowhere");
+        underTest.getCities(10);
+
+        // when
+        clock.advance(Duration.ofMinutes(1));
+        final List<String> cities = underTest.getCities(10);
+
+        // then
+        assertThat(cities).containsExactly("Kazan", "Yekaterinburg", "Irkutsk");
+    }
+
+    @Test
+    void getCities_withCitiesOfOtherInstance_shouldSkipThemAndReturnThemAfterRebalance() {
+        // given
+        final Set<String> foreign = ConcurrentHashMap.newKeySet();
+        foreign.add("Kazan");
+        coordinator = new SchedulerCoordinator(new CoordinationConfigParams(), null, null) {
+            @Override
+            public boolean owns(final String city) {
+                return !foreign.contains(city);
+            }
+        };
+        final var underTest = createProvider();
+
+        // when
+        final List<String> owned = underTest.getCities(10);
+        foreign.clear();
+        final List<String> beforeInterval = underTest.getCities(10);
+        clock.advance(Duration.ofMinutes(1));
+        final List<String> afterRebalance = underTest.getCities(10);
+
+        // then
+        assertThat(owned).containsExactly("Yekaterinburg", "Irkutsk");
+        assertThat(beforeInterval).isEmpty();
+        assertThat(afterRebalance).containsExactly("Kazan", "Yekaterinburg", "Irkutsk");
+        assertThat(meterRegistry.get(METRIC_SCHEDULE_LAG).tag("city", "Kazan").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void addCity_shouldScheduleCityImmediately() {
+        // given
+        final var underTest = createProvider();
+        underTest.getCities(10);
+
+        // when
+        final boolean added = underTest.addCity("Kaliningrad");
+        final boolean addedAgain = underTest.addCity("Kazan");
+
+        // then
+        assertThat(added).isTrue();
+        assertThat(addedAgain).isFalse();
+        assertThat(underTest.getCities(10)).containsExactly("Kaliningrad");
+        assertThat(underTest.getCities()).hasSize(4);
+    }
+
+    @Test
+    void removeCity_shouldStopPollingCityAndRemoveItsMetric() {
+        // given
+        final var underTest = createProvider();
+
+        // when
+        final boolean removed = underTest.removeCity("Yekaterinburg");
+        final boolean removedAgain = underTest.removeCity("Yekaterinburg");
+
+        // then
+        assertThat(removed).isTrue();
+        assertThat(removedAgain).isFalse();
+        assertThat(underTest.getCities(10)).containsExactly("Kazan", "Irkutsk");
+        assertThat(meterRegistry.find(METRIC_SCHEDULE_LAG).tag("city", "Yekaterinburg").timer()).isNull();
+    }
+
+    @Test
+    void getCities_shouldRecordScheduleLagPerCity() {
+        // given
+        final var underTest = createProvider();
+        clock.advance(Duration.ofSeconds(5));
+
+        // when
+        underTest.getCities(1);
+
+        // then
+        final Timer timer = meterRegistry.get(METRIC_SCHEDULE_LAG).tag("city", "Kazan").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.SECONDS)).isEqualTo(5.0);
+    }
+
+    @Test
+    void postpone_shouldReturnCitiesFirstOnNextCall() {
+        // given
+        final var underTest = createProvider();
+        final List<String> cities = underTest.getCities(10);
+        clock.advance(Duration.ofSeconds(1));
+
+        // when
+        underTest.postpone(cities.subList(1, cities.size()));
+
+        // then
+        assertThat(underTest.getCities(10)).containsExactly("Yekaterinburg", "Irkutsk");
+        assertThat(underTest.getCities(10)).isEmpty();
+    }
+
+    @Test
+    void postpone_withRemovedCity_shouldNotReturnIt() {
+        // given
+        final var underTest = createProvider();
+        final List<String> cities = underTest.getCities(10);
+        underTest.removeCity("Kazan");
+
+        // when
+        underTest.postpone(cities);
+
+        // then
+        assertThat(underTest.getCities(10)).containsExactly("Yekaterinburg", "Irkutsk");
+    }
+
+    @Test
+    void getCities_withConcurrentWorkers_shouldReturnEachDueCityOnce() {
+        // given
+        citiesConfig.setCities(IntStream.range(0, 5_000)
+                .mapToObj(i -> "City-" + i)
+                .toArray(String[]::new));
+        final var underTest = createProvider();
+        final List<String> polled = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        try {
+            CompletableFuture.allOf(IntStream.range(0, 8)
+                            .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                                List<String> cities;
+                                while (!(cities = underTest.getCities(7)).isEmpty()) {
+                                    polled.addAll(cities);
+                                }
+                            }, executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(polled).hasSize(5_000).doesNotHaveDuplicates();
+    }
+
+    private void enableDemand() {
+        final var demand = citiesConfig.getPolling().getDemand();
+        demand.setEnabled(true);
+        demand.setHalfLife(Duration.ofMinutes(10));
+        demand.setMinInterval(Duration.ofSeconds(10));
+        demand.setMaxInterval(Duration.ofMinutes(5));
+    }
+
+    private CitiesProvider createProvider() {
+        return new CitiesProvider(citiesConfig, meterRegistry, coordinator, clock);
+    }
+}
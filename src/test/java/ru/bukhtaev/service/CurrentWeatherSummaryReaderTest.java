@@ -0,0 +1,172 @@
+package ru.bukhtaev.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+import ru.bukhtaev.dto.external.ApiErrorDto;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Модульные тесты для потокового чтения краткой информации о погоде {@link CurrentWeatherSummaryReader}.
+ */
+class CurrentWeatherSummaryReaderTest {
+
+    private final CurrentWeatherSummaryReader underTest = new CurrentWeatherSummaryReader(new JsonFactory());
+
+    @Test
+    void read_withFullResponse_shouldExtractOnlySummaryFields() throws IOException {
+        // given
+        final String body = """
+                {
+                  "location": {
+                    "name": "Казань", "region": "Tatarstan", "country": "Russia",
+                    "lat": 55.75, "lon": 49.13, "tz_id": "Europe/Moscow",
+                    "localtime_epoch": 1696930200, "localtime": "2023-10-10 9:30"
+                  },
+                  "current": {
+                    "last_updated_epoch": 1696929300, "last_updated": "2023-10-10 09:15",
+                    "temp_c": -3, "temp_f": 26.6, "is_day": 1,
+                    "condition": {"text": "Light snow", "icon": "//cdn/326.png", "code": 1213},
+                    "air_quality": {"co": 220.3, "text": "not a condition", "gb-defra-index": 1}
+                  },
+                  "forecast": [{"text": "ignored"}]
+                }
+                """;
+
+        // when
+        final CurrentWeatherSummary summary = underTest.read(body.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertThat(summary.getCityName()).isEqualTo("Казань");
+        assertThat(summary.getLocaltime()).isEqualTo("2023-10-10 9:30");
+        assertThat(summary.getTemperatureC()).isEqualTo(-3.0);
+        assertThat(summary.getConditionText()).isEqualTo("Light snow");
+    }
+
+    @Test
+    void read_withNullObjects_shouldLeaveFieldsEmpty() throws IOException {
+        // given
+        final String body = """
+                {"location": null, "current": {"temp_c": null, "condition": null}}
+                """;
+
+        // when
+        final CurrentWeatherSummary summary = underTest.read(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))
+        );
+
+        // then
+        assertThat(summary.getCityName()).isNull();
+        assertThat(summary.getLocaltime()).isNull();
+        assertThat(summary.getTemperatureC()).isNull();
+        assertThat(summary.getConditionText()).isNull();
+    }
+
+    @Test
+    void read_withNonObjectBody_shouldThrowException() {
+        // given
+        final byte[] body = "[1, 2]".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.read(body))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void read_withTruncatedBody_shouldThrowException() {
+        // given
+        final byte[] body = "{\"location\": {\"name\": \"Kaz".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.read(body))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void readBulk_shouldPassSummaryOrErrorOfEachItemInResponseOrder() throws IOException {
+        // given
+        final String body = """
+                {
+                  "bulk": [
+                    {
+                      "query": {
+                        "custom_id": "1", "q": "Kazan",
+                        "location": {"name": "Kazan", "region": "Tatarstan", "localtime": "2023-10-10 12:30"},
+                        "current": {"temp_c": 12.5, "condition": {"text": "Sunny", "code": 1000}}
+                      }
+                    },
+                    {
+                      "query": {
+                        "custom_id": "0", "q": "Nowhere",
+                        "error": {"code": 1006, "message": "No matching location found."}
+                      }
+                    }
+                  ]
+                }
+                """;
+        final List<String> customIds = new ArrayList<>();
+        final List<CurrentWeatherSummary> summaries = new ArrayList<>();
+        final List<ApiErrorDto> errors = new ArrayList<>();
+
+        // when
+        underTest.readBulk(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                (customId, summary, error) -> {
+                    customIds.add(customId);
+                    summaries.add(summary);
+                    errors.add(error);
+                }
+        );
+
+        // then
+        assertThat(customIds).containsExactly("1", "0");
+
+        assertThat(summaries.get(0).getCityName()).isEqualTo("Kazan");
+        assertThat(summaries.get(0).getLocaltime()).isEqualTo("2023-10-10 12:30");
+        assertThat(summaries.get(0).getTemperatureC()).isEqualTo(12.5);
+        assertThat(summaries.get(0).getConditionText()).isEqualTo("Sunny");
+        assertThat(errors.get(0)).isNull();
+
+        assertThat(summaries.get(1)).isNull();
+        assertThat(errors.get(1).getCode()).isEqualTo(1006);
+        assertThat(errors.get(1).getMessage()).isEqualTo("No matching location found.");
+    }
+
+    @Test
+    void readBulk_withoutItems_shouldNotCallHandler() throws IOException {
+        // given
+        final byte[] body = "{\"bulk\": null}".getBytes(StandardCharsets.UTF_8);
+        final List<String> customIds = new ArrayList<>();
+
+        // when
+        underTest.readBulk(body, (customId, summary, error) -> customIds.add(customId));
+
+        // then
+        assertThat(customIds).isEmpty();
+    }
+
+    @Test
+    void readBulk_withTruncatedBody_shouldThrowException() {
+        // given
+        final byte[] body = "{\"bulk\": [{\"query\": {\"custom_id\": \"0\"}}, {\"qu"
+                .getBytes(StandardCharsets.UTF_8);
+        final List<String> customIds = new ArrayList<>();
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.readBulk(body, (customId, summary, error) -> customIds.add(customId)))
+                .isInstanceOf(JsonProcessingException.class);
+        assertThat(customIds).containsExactly("0");
+    }
+}
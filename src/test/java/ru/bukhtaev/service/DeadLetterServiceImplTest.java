@@ -0,0 +1,332 @@
+package ru.bukhtaev.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.bukhtaev.dto.DeadLetterReplayResultDto;
+import ru.bukhtaev.exception.CommonServerSideException;
+import ru.bukhtaev.exception.DataNotFoundException;
+import ru.bukhtaev.kafka.KafkaHeadersCodec;
+import ru.bukhtaev.kafka.WeatherBinaryCodec;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.kafka.WeatherOutboxRelay;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.DeadLetter;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+import ru.bukhtaev.repository.jpa.IDeadLetterJpaRepository;
+import ru.bukhtaev.validation.MessageProvider;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+import static ru.bukhtaev.validation.MessageUtils.MESSAGE_CODE_DEAD_LETTER_NOT_FOUND;
+
+/**
+ * Модульные тесты для реализации сервиса для работы
+ * с необработанными сообщениями {@link DeadLetterServiceImpl}.
+ */
+class DeadLetterServiceImplTest extends AbstractServiceTest {
+
+    /**
+     * Имитация репозитория необработанных сообщений.
+     */
+    @Mock
+    private IDeadLetterJpaRepository repository;
+
+    /**
+     * Имитация сервиса для отправки сообщений.
+     */
+    @Mock
+    private KafkaTemplate<String, Weather> kafkaTemplate;
+
+    /**
+     * Имитация метрик обработки сообщений с данными о погоде.
+     */
+    @Mock
+    private WeatherConsumerMetrics metrics;
+
+    /**
+     * Имитация сервиса предоставления сообщений.
+     */
+    @Mock
+    private MessageProvider messageProvider;
+
+    /**
+     * Имитация менеджера транзакций.
+     */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Перехватчик необработанного сообщения, передаваемого в качестве аргумента метода.
+     */
+    @Captor
+    private ArgumentCaptor<DeadLetter> deadLetterCaptor;
+
+    /**
+     * Перехватчик отправляемого сообщения, передаваемого в качестве аргумента метода.
+     */
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, Weather>> recordCaptor;
+
+    /**
+     * Тестируемая реализация сервиса для работы с необработанными сообщениями.
+     */
+    @InjectMocks
+    private DeadLetterServiceImpl underTest;
+
+    private Weather weather;
+
+    @BeforeEach
+    void setUp() {
+        weather = Weather.builder()
+                .city(City.builder().name("Kazan").build())
+                .type(WeatherType.builder().name("Sunny").build())
+                .temperature(12.5)
+                .dateTime(NOW)
+                .build();
+    }
+
+    @Test
+    void save_shouldStoreRecordWithBinaryPayloadAndCountIt() {
+        // given
+        final var record = new ConsumerRecord<>("weather-dlt", 2, 42L, "Kazan", weather);
+        record.headers().add("trace-id", "abc".getBytes(StandardCharsets.UTF_8));
+        given(repository.save(any(DeadLetter.class)))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        underTest.save(record, "Boom");
+
+        // then
+        verify(repository, times(1)).save(deadLetterCaptor.capture());
+        final DeadLetter saved = deadLetterCaptor.getValue();
+        assertThat(saved.getTopic()).isEqualTo("weather-dlt");
+        assertThat(saved.getPartition()).isEqualTo(2);
+        assertThat(saved.getOffset()).isEqualTo(42L);
+        assertThat(saved.getKey()).isEqualTo("Kazan");
+        assertThat(saved.getErrorMessage()).isEqualTo("Boom");
+        assertThat(saved.getCreatedAt()).isNotNull();
+        assertThat(saved.getReplayedAt()).isNull();
+        assertThat(WeatherBinaryCodec.decode(saved.getPayload()).getCity().getName())
+                .isEqualTo("Kazan");
+        assertThat(KafkaHeadersCodec.decode(saved.getHeaders()).lastHeader("trace-id").value())
+                .isEqualTo("abc".getBytes(StandardCharsets.UTF_8));
+        verify(metrics, times(1)).recordDeadLetter();
+    }
+
+    @Test
+    void replay_withExistentId_shouldSendPayloadWithHeadersToMainTopicAndMarkReplayed() {
+        // given
+        final UUID id = UUID.randomUUID();
+        final var headers = new RecordHeaders();
+        headers.add("trace-id", "abc".getBytes(StandardCharsets.UTF_8));
+        final DeadLetter deadLetter = DeadLetter.builder()
+                .id(id)
+                .key("Kazan")
+                .payload(WeatherBinaryCodec.encode(weather))
+                .headers(KafkaHeadersCodec.encode(headers))
+                .createdAt(YESTERDAY)
+                .build();
+        given(repository.findById(id)).willReturn(Optional.of(deadLetter));
+        given(kafkaTemplate.getDefaultTopic()).willReturn("weather");
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(CompletableFuture.completedFuture(null));
+
+        // when
+        final DeadLetter replayed = underTest.replay(id);
+
+        // then
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
+        final ProducerRecord<String, Weather> sent = recordCaptor.getValue();
+        assertThat(sent.topic()).isEqualTo("weather");
+        assertThat(sent.key()).isEqualTo("Kazan");
+        assertThat(sent.value().getTemperature()).isEqualTo(12.5);
+        assertThat(sent.headers().lastHeader("trace-id").value())
+                .isEqualTo("abc".getBytes(StandardCharsets.UTF_8));
+        assertThat(sent.headers().lastHeader(DeadLetterServiceImpl.HEADER_DEAD_LETTER_ID).value())
+                .isEqualTo(id.toString().getBytes(StandardCharsets.UTF_8));
+        assertThat(replayed.getReplayedAt()).isNotNull();
+        verify(metrics, times(1)).recordReplay();
+    }
+
+    @Test
+    void replay_ofSavedDltRecord_shouldSendItThroughRetryTopicsAgain() {
+        // given
+        final var record = new ConsumerRecord<>("weather-dlt", 0, 7L, "Kazan", weather);
+        record.headers().add("trace-id", "abc".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(WeatherOutboxRelay.HEADER_EVENT_TYPE, "CREATED".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(4).putInt(4).array());
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP, new byte[8]);
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP, new byte[8]);
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_STACKTRACE, "trace".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "Boom".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "weather".getBytes(StandardCharsets.UTF_8));
+        final UUID id = UUID.randomUUID();
+        given(repository.save(any(DeadLetter.class)))
+                .willAnswer(invocation -> {
+                    final DeadLetter deadLetter = invocation.getArgument(0);
+                    deadLetter.setId(id);
+                    return deadLetter;
+                });
+        final DeadLetter saved = underTest.save(record, "Boom");
+        given(repository.findById(id)).willReturn(Optional.of(saved));
+        given(kafkaTemplate.getDefaultTopic()).willReturn("weather");
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(CompletableFuture.completedFuture(null));
+
+        // when
+        underTest.replay(id);
+
+        // then
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
+        final var sentHeaders = recordCaptor.getValue().headers();
+        assertThat(sentHeaders.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS)).isNull();
+        assertThat(sentHeaders.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP)).isNull();
+        assertThat(sentHeaders.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP)).isNull();
+        assertThat(sentHeaders.headers(KafkaHeaders.DLT_EXCEPTION_STACKTRACE)).isEmpty();
+        assertThat(sentHeaders.headers(KafkaHeaders.DLT_EXCEPTION_MESSAGE)).isEmpty();
+        assertThat(sentHeaders.headers(KafkaHeaders.DLT_ORIGINAL_TOPIC)).isEmpty();
+        assertThat(sentHeaders.lastHeader("trace-id").value())
+                .isEqualTo("abc".getBytes(StandardCharsets.UTF_8));
+        assertThat(sentHeaders.lastHeader(WeatherOutboxRelay.HEADER_EVENT_TYPE).value())
+                .isEqualTo("CREATED".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void replay_ofLetterStoredWithRetryHeaders_shouldNotSendThem() {
+        // given
+        final UUID id = UUID.randomUUID();
+        final var headers = new RecordHeaders();
+        headers.add("trace-id", "abc".getBytes(StandardCharsets.UTF_8));
+        headers.add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(4).putInt(4).array());
+        headers.add(KafkaHeaders.DLT_EXCEPTION_STACKTRACE, "first".getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_STACKTRACE, "second".getBytes(StandardCharsets.UTF_8));
+        final DeadLetter deadLetter = DeadLetter.builder()
+                .id(id)
+                .key("Kazan")
+                .payload(WeatherBinaryCodec.encode(weather))
+                .headers(KafkaHeadersCodec.encode(headers))
+                .createdAt(YESTERDAY)
+                .build();
+        given(repository.findById(id)).willReturn(Optional.of(deadLetter));
+        given(kafkaTemplate.getDefaultTopic()).willReturn("weather");
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(CompletableFuture.completedFuture(null));
+
+        // when
+        underTest.replay(id);
+
+        // then
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
+        final var sentHeaders = recordCaptor.getValue().headers();
+        assertThat(sentHeaders.toArray())
+                .extracting(Header::key)
+                .containsExactly("trace-id", DeadLetterServiceImpl.HEADER_DEAD_LETTER_ID);
+    }
+
+    @Test
+    void replayAll_withFailingLetters_shouldReplayOthersAndCollectFailures() {
+        // given
+        final DeadLetter withoutPayload = DeadLetter.builder()
+                .id(UUID.randomUUID())
+                .key("Kazan")
+                .createdAt(YESTERDAY)
+                .build();
+        final DeadLetter failingToSend = DeadLetter.builder()
+                .id(UUID.randomUUID())
+                .key("Irkutsk")
+                .payload(WeatherBinaryCodec.encode(weather))
+                .createdAt(YESTERDAY)
+                .build();
+        final DeadLetter replayable = DeadLetter.builder()
+                .id(UUID.randomUUID())
+                .key("Kazan")
+                .payload(WeatherBinaryCodec.encode(weather))
+                .createdAt(NOW)
+                .build();
+        given(repository.findAllByReplayedAtIsNull(any()))
+                .willReturn(List.of(withoutPayload, failingToSend, replayable));
+        given(kafkaTemplate.getDefaultTopic()).willReturn("weather");
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker is down")))
+                .willReturn(CompletableFuture.completedFuture(null));
+
+        // when
+        final DeadLetterReplayResultDto result = underTest.replayAll();
+
+        // then
+        assertThat(result.getReplayed()).isEqualTo(1);
+        assertThat(result.getFailures()).containsOnlyKeys(withoutPayload.getId(), failingToSend.getId());
+        verify(repository, times(1)).save(deadLetterCaptor.capture());
+        assertThat(deadLetterCaptor.getValue()).isSameAs(replayable);
+        assertThat(replayable.getReplayedAt()).isNotNull();
+        assertThat(failingToSend.getReplayedAt()).isNull();
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    void replayAll_withRepositoryFailure_shouldRollBackAndReportFailure() {
+        // given
+        final DeadLetter deadLetter = DeadLetter.builder()
+                .id(UUID.randomUUID())
+                .key("Kazan")
+                .payload(WeatherBinaryCodec.encode(weather))
+                .createdAt(YESTERDAY)
+                .build();
+        given(repository.findAllByReplayedAtIsNull(any())).willReturn(List.of(deadLetter));
+        given(kafkaTemplate.getDefaultTopic()).willReturn("weather");
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(CompletableFuture.completedFuture(null));
+        willThrow(new CommonServerSideException("Database is down"))
+                .given(repository).save(any(DeadLetter.class));
+
+        // when
+        final DeadLetterReplayResultDto result = underTest.replayAll();
+
+        // then
+        assertThat(result.getReplayed()).isZero();
+        assertThat(result.getFailures()).containsEntry(deadLetter.getId(), "Database is down");
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void replay_withNonExistentId_shouldThrowException() {
+        // given
+        final UUID id = UUID.randomUUID();
+        final String message = "Dead letter not found";
+        given(repository.findById(id)).willReturn(Optional.empty());
+        given(messageProvider.getMessage(MESSAGE_CODE_DEAD_LETTER_NOT_FOUND, id))
+                .willReturn(message);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.replay(id))
+                .isInstanceOf(DataNotFoundException.class)
+                .hasFieldOrPropertyWithValue(ERROR_MESSAGE_PROPERTY_NAME, message);
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
@@ -0,0 +1,205 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.bukhtaev.config.external.QuotaConfigParams;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static ru.bukhtaev.service.ExternalApiQuotaThrottle.*;
+
+/**
+ * Модульные тесты для ограничения фоновых запросов к внешнему API
+ * в соответствии с квотой токена {@link ExternalApiQuotaThrottle}.
+ */
+class ExternalApiQuotaThrottleTest {
+
+    private static final Instant START = Instant.parse("2023-10-10T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Фоновому опросу доступно 900 запросов за 900 секунд, то есть один запрос в секунду.
+     */
+    private final QuotaConfigParams config = QuotaConfigParams.builder()
+            .enabled(true)
+            .limit(1_000L)
+            .period(Duration.ofSeconds(900))
+            .realtimeReserve(0.1)
+            .maxBurst(10)
+            .initialBackoff(Duration.ofMinutes(1))
+            .maxBackoff(Duration.ofMinutes(3))
+            .build();
+
+    @Test
+    void acquireBackground_afterBurst_shouldPaceCallsEvenlyUntilEndOfPeriod() {
+        // given
+        final var underTest = createThrottle();
+
+        // when
+        final int burst = underTest.acquireBackground(50);
+        final int immediate = underTest.acquireBackground(5);
+        clock.advance(Duration.ofSeconds(3));
+        final int paced = underTest.acquireBackground(5);
+
+        // then
+        assertThat(burst).isEqualTo(10);
+        assertThat(immediate).isZero();
+        assertThat(paced).isEqualTo(3);
+        assertThat(meterRegistry.get(METRIC_DEFERRED).counter().count()).isEqualTo(47);
+    }
+
+    @Test
+    void acquireBackground_withExhaustedBackgroundQuota_shouldKeepRealtimeReserve() {
+        // given
+        final var underTest = createThrottle();
+        underTest.recordCalls(895);
+
+        // when
+        final int beforeReserve = underTest.acquireBackground(10);
+        underTest.recordCalls(5);
+        clock.advance(Duration.ofSeconds(60));
+        final int withinReserve = underTest.acquireBackground(10);
+
+        // then
+        assertThat(beforeReserve).isEqualTo(5);
+        assertThat(withinReserve).isZero();
+        assertThat(underTest.getRemaining()).isEqualTo(100);
+    }
+
+    @Test
+    void acquireBackground_afterQuotaExceeded_shouldPauseAndThenProbeSingleCall() {
+        // given
+        final var underTest = createThrottle();
+        underTest.onQuotaExceeded();
+
+        // when
+        final int paused = underTest.acquireBackground(5);
+        clock.advance(Duration.ofMinutes(1));
+        final int probe = underTest.acquireBackground(5);
+        final int afterProbe = underTest.acquireBackground(5);
+
+        // then
+        assertThat(paused).isZero();
+        assertThat(probe).isEqualTo(1);
+        assertThat(afterProbe).isZero();
+        assertThat(underTest.getRemaining()).isZero();
+    }
+
+    @Test
+    void onQuotaExceeded_repeatedly_shouldDoubleBackoffUpToMaximum() {
+        // given
+        final var underTest = createThrottle();
+
+        // when
+        underTest.onQuotaExceeded();
+        final double first = backoffSeconds();
+        underTest.onQuotaExceeded();
+        final double second = backoffSeconds();
+        underTest.onQuotaExceeded();
+        final double third = backoffSeconds();
+
+        // then
+        assertThat(first).isEqualTo(60);
+        assertThat(second).isEqualTo(120);
+        assertThat(third).isEqualTo(180);
+    }
+
+    @Test
+    void onSuccess_afterQuotaExceeded_shouldStartNewPeriodAndResumeCalls() {
+        // given
+        final var underTest = createThrottle();
+        underTest.onQuotaExceeded();
+        clock.advance(Duration.ofMinutes(1));
+        underTest.acquireBackground(1);
+
+        // when
+        underTest.onSuccess();
+        final int resumed = underTest.acquireBackground(5);
+
+        // then
+        assertThat(resumed).isEqualTo(5);
+        assertThat(underTest.getRemaining()).isEqualTo(1_000);
+        assertThat(backoffSeconds()).isZero();
+    }
+
+    @Test
+    void acquireBackground_afterPeriodEnds_shouldRenewQuota() {
+        // given
+        final var underTest = createThrottle();
+        underTest.recordCalls(1_000);
+
+        // when
+        final int exhausted = underTest.acquireBackground(5);
+        clock.advance(Duration.ofSeconds(900));
+        final int renewed = underTest.acquireBackground(5);
+
+        // then
+        assertThat(exhausted).isZero();
+        assertThat(renewed).isEqualTo(5);
+        assertThat(underTest.getRemaining()).isEqualTo(1_000);
+    }
+
+    @Test
+    void acquireBackground_whenDisabled_shouldOnlyCountCalls() {
+        // given
+        config.setEnabled(false);
+        final var underTest = createThrottle();
+        underTest.onQuotaExceeded();
+        underTest.recordCalls(3);
+
+        // when
+        final int granted = underTest.acquireBackground(50);
+
+        // then
+        assertThat(granted).isEqualTo(50);
+        assertThat(meterRegistry.get(METRIC_CALLS).counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(METRIC_DEFERRED).counter().count()).isZero();
+    }
+
+    @Test
+    void recordCalls_shouldUpdateRemainingAndBurnRateMetrics() {
+        // given
+        final var underTest = createThrottle();
+
+        // when
+        underTest.recordCalls(60);
+        clock.advance(Duration.ofMinutes(30));
+
+        // then
+        assertThat(meterRegistry.get(METRIC_CALLS).counter().count()).isEqualTo(60);
+        assertThat(meterRegistry.get(METRIC_REMAINING).gauge().value()).isEqualTo(940);
+        assertThat(meterRegistry.get(METRIC_BURN_RATE).gauge().value()).isCloseTo(120, within(0.001));
+    }
+
+    @Test
+    void acquireBackground_withSeveralTokens_shouldShareSummedQuota() {
+        // given
+        final var underTest = createThrottle(2);
+        underTest.recordCalls(1_795);
+
+        // when
+        final int granted = underTest.acquireBackground(10);
+
+        // then
+        assertThat(granted).isEqualTo(5);
+        assertThat(underTest.getRemaining()).isEqualTo(205);
+    }
+
+    private ExternalApiQuotaThrottle createThrottle() {
+        return createThrottle(1);
+    }
+
+    private ExternalApiQuotaThrottle createThrottle(final int tokensCount) {
+        return new ExternalApiQuotaThrottle(config, tokensCount, meterRegistry, clock);
+    }
+
+    private double backoffSeconds() {
+        return meterRegistry.get(METRIC_BACKOFF).gauge().value();
+    }
+}
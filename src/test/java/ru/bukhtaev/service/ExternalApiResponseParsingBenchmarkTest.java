@@ -0,0 +1,220 @@
+package ru.bukhtaev.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.bukhtaev.dto.external.ExternalApiBulkResponse;
+import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение количества памяти, выделяемой при разборе одного ответа внешнего API
+ * на запрос погоды в реальном времени, и пропускной способности разбора:
+ * через промежуточную строку, потоково в полный DTO {@link ExternalApiWeatherResponse}
+ * и потоково в краткую информацию о погоде {@link CurrentWeatherSummaryReader}.
+ * Также сравнивается разбор ответа на массовый запрос из {@value #BULK_ITEMS_COUNT} местоположений.
+ * Запускается задачей {@code benchmark} и исключен из задачи {@code test}.
+ */
+@Tag("benchmark")
+class ExternalApiResponseParsingBenchmarkTest {
+
+    private static final int CALLS_COUNT = 10_000;
+
+    private static final int WARMUP_ROUNDS = 20;
+
+    private static final int MEASURED_ROUNDS = 50;
+
+    private static final int BULK_ITEMS_COUNT = 50;
+
+    private static final int BULK_CALLS_COUNT = CALLS_COUNT / BULK_ITEMS_COUNT;
+
+    private static final byte[] RESPONSE = """
+            {
+              "location": {
+                "name": "Kazan", "region": "Tatarstan", "country": "Russia",
+                "lat": 55.75, "lon": 49.13, "tz_id": "Europe/Moscow",
+                "localtime_epoch": 1696930200, "localtime": "2023-10-10 12:30"
+              },
+              "current": {
+                "last_updated_epoch": 1696929300, "last_updated": "2023-10-10 12:15",
+                "temp_c": 12.5, "temp_f": 54.5, "is_day": 1,
+                "condition": {
+                  "text": "Partly cloudy",
+                  "icon": "//cdn.weatherapi.com/weather/64x64/day/116.png",
+                  "code": 1003
+                },
+                "wind_mph": 9.4, "wind_kph": 15.1, "wind_degree": 250, "wind_dir": "WSW",
+                "pressure_mb": 1014.0, "pressure_in": 29.94, "precip_mm": 0.0, "precip_in": 0.0,
+                "humidity": 67, "cloud": 50, "feelslike_c": 10.9, "feelslike_f": 51.6,
+                "vis_km": 10.0, "vis_miles": 6.0, "uv": 3.0, "gust_mph": 12.1, "gust_kph": 19.4,
+                "air_quality": {
+                  "co": 220.3, "no2": 4.5, "o3": 61.5, "so2": 1.8, "pm2_5": 3.2, "pm10": 4.9,
+                  "us-epa-index": 1, "gb-defra-index": 1
+                }
+              }
+            }
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] BULK_RESPONSE = bulkResponse();
+
+    /**
+     * Количество результатов, не позволяющее JIT-компилятору удалить разбор как неиспользуемый.
+     */
+    private static long sink;
+
+    @Test
+    void compareStringAndStreamingParsing() throws IOException {
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        final ObjectReader weatherReader = objectMapper.readerFor(ExternalApiWeatherResponse.class);
+        final CurrentWeatherSummaryReader summaryReader = new CurrentWeatherSummaryReader(objectMapper.getFactory());
+
+        final ParseCall viaString = () -> {
+            final String body = new String(RESPONSE, StandardCharsets.UTF_8);
+            final ExternalApiWeatherResponse response = objectMapper.readValue(body, ExternalApiWeatherResponse.class);
+            return response.getLocation().getName();
+        };
+        final ParseCall streamingFull = () -> {
+            final ExternalApiWeatherResponse response = weatherReader.readValue(new ByteArrayInputStream(RESPONSE));
+            return response.getLocation().getName();
+        };
+        final ParseCall streamingSummary = () -> summaryReader.read(new ByteArrayInputStream(RESPONSE))
+                .getCityName();
+
+        final double stringBytes = allocatedBytesPerCall(viaString, CALLS_COUNT);
+        final double fullBytes = allocatedBytesPerCall(streamingFull, CALLS_COUNT);
+        final double summaryBytes = allocatedBytesPerCall(streamingSummary, CALLS_COUNT);
+
+        final double stringRate = measure(viaString, CALLS_COUNT);
+        final double fullRate = measure(streamingFull, CALLS_COUNT);
+        final double summaryRate = measure(streamingSummary, CALLS_COUNT);
+
+        System.out.printf("%-18s %14s %14s%n", "parsing", "bytes/call", "calls/s");
+        System.out.printf("%-18s %14.0f %14.0f%n", "string + full", stringBytes, stringRate);
+        System.out.printf("%-18s %14.0f %14.0f%n", "stream + full", fullBytes, fullRate);
+        System.out.printf("%-18s %14.0f %14.0f%n", "stream + summary", summaryBytes, summaryRate);
+
+        assertThat(fullBytes).isLessThan(stringBytes);
+        assertThat(summaryBytes).isLessThan(fullBytes);
+    }
+
+    @Test
+    void compareStringAndStreamingBulkParsing() throws IOException {
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        final ObjectReader bulkReader = objectMapper.readerFor(ExternalApiBulkResponse.class);
+        final CurrentWeatherSummaryReader summaryReader = new CurrentWeatherSummaryReader(objectMapper.getFactory());
+        final String[] lastCity = new String[1];
+        final CurrentWeatherSummaryReader.BulkItemHandler handler =
+                (customId, summary, error) -> lastCity[0] = summary.getCityName();
+
+        final ParseCall viaString = () -> {
+            final String body = new String(BULK_RESPONSE, StandardCharsets.UTF_8);
+            final ExternalApiBulkResponse response = objectMapper.readValue(body, ExternalApiBulkResponse.class);
+            return response.getBulk().get(BULK_ITEMS_COUNT - 1).getQuery().getLocation().getName();
+        };
+        final ParseCall streamingFull = () -> {
+            final ExternalApiBulkResponse response = bulkReader.readValue(new ByteArrayInputStream(BULK_RESPONSE));
+            return response.getBulk().get(BULK_ITEMS_COUNT - 1).getQuery().getLocation().getName();
+        };
+        final ParseCall streamingSummary = () -> {
+            summaryReader.readBulk(new ByteArrayInputStream(BULK_RESPONSE), handler);
+            return lastCity[0];
+        };
+
+        final double stringBytes = allocatedBytesPerCall(viaString, BULK_CALLS_COUNT);
+        final double fullBytes = allocatedBytesPerCall(streamingFull, BULK_CALLS_COUNT);
+        final double summaryBytes = allocatedBytesPerCall(streamingSummary, BULK_CALLS_COUNT);
+
+        final double stringRate = measure(viaString, BULK_CALLS_COUNT);
+        final double fullRate = measure(streamingFull, BULK_CALLS_COUNT);
+        final double summaryRate = measure(streamingSummary, BULK_CALLS_COUNT);
+
+        System.out.printf("%-23s %14s %14s%n", "bulk parsing", "bytes/call", "calls/s");
+        System.out.printf("%-23s %14.0f %14.0f%n", "string + full", stringBytes, stringRate);
+        System.out.printf("%-23s %14.0f %14.0f%n", "stream + full", fullBytes, fullRate);
+        System.out.printf("%-23s %14.0f %14.0f%n", "stream + summary", summaryBytes, summaryRate);
+
+        assertThat(fullBytes).isLessThan(stringBytes);
+        assertThat(summaryBytes).isLessThan(fullBytes);
+    }
+
+    /**
+     * Создает ответ на массовый запрос, каждый элемент которого содержит
+     * местоположение и погоду из ответа на одиночный запрос.
+     *
+     * @return тело ответа на массовый запрос
+     */
+    private static byte[] bulkResponse() {
+        final String single = new String(RESPONSE, StandardCharsets.UTF_8).trim();
+        final String fields = single.substring(1, single.length() - 1);
+
+        return IntStream.range(0, BULK_ITEMS_COUNT)
+                .mapToObj(i -> "{\"query\": {\"custom_id\": \"" + i + "\", \"q\": \"Kazan\"," + fields + "}}")
+                .collect(Collectors.joining(",", "{\"bulk\": [", "]}"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Возвращает среднее количество байт, выделенных текущим потоком на один разбор ответа.
+     *
+     * @param call  разбор ответа
+     * @param calls количество разборов за один раунд
+     * @return среднее количество выделенных байт на один разбор
+     */
+    private static double allocatedBytesPerCall(final ParseCall call, final int calls) throws IOException {
+        final var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runRound(call, calls);
+        }
+
+        final long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            runRound(call, calls);
+        }
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - start;
+
+        return (double) allocated / calls / MEASURED_ROUNDS;
+    }
+
+    private static double measure(final ParseCall call, final int calls) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runRound(call, calls);
+        }
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            runRound(call, calls);
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        return (double) calls * MEASURED_ROUNDS / elapsed * 1_000_000_000L;
+    }
+
+    private static void runRound(final ParseCall call, final int calls) throws IOException {
+        for (int i = 0; i < calls; i++) {
+            if (call.parse() != null) {
+                sink++;
+            }
+        }
+    }
+
+    /**
+     * Разбор одного ответа внешнего API.
+     */
+    @FunctionalInterface
+    private interface ParseCall {
+
+        String parse() throws IOException;
+    }
+}
@@ -0,0 +1,236 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.QuotaConfigParams;
+import ru.bukhtaev.config.external.TokenPoolConfigParams;
+import ru.bukhtaev.util.ErrorCode;
+import ru.bukhtaev.util.TokenSelectionStrategy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.bukhtaev.service.ExternalApiTokenPool.*;
+
+/**
+ * Модульные тесты для пула токенов внешнего API {@link ExternalApiTokenPool}.
+ */
+class ExternalApiTokenPoolTest {
+
+    private static final Instant START = Instant.parse("2023-10-10T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TokenPoolConfigParams config = TokenPoolConfigParams.builder()
+            .additionalTokens(List.of("second", " third ", "", "first"))
+            .selection(TokenSelectionStrategy.ROUND_ROBIN)
+            .limitExceededBench(Duration.ofHours(1))
+            .invalidBench(Duration.ofDays(1))
+            .build();
+
+    @Test
+    void create_shouldPutPrimaryTokenFirstAndSkipBlankAndDuplicateTokens() {
+        // when
+        final var underTest = createPool();
+
+        // then
+        assertThat(underTest.size()).isEqualTo(3);
+        assertThat(underTest.acquire()).isEqualTo("first");
+    }
+
+    @Test
+    void acquire_withRoundRobinSelection_shouldUseTokensInTurn() {
+        // given
+        final var underTest = createPool();
+
+        // when
+        final List<String> tokens = acquire(underTest, 4);
+
+        // then
+        assertThat(tokens).containsExactly("first", "second", "third", "first");
+    }
+
+    @Test
+    void acquire_withLeastUsedSelection_shouldUseTokenWithFewestCalls() {
+        // given
+        config.setSelection(TokenSelectionStrategy.LEAST_USED);
+        final var underTest = createPool();
+        underTest.acquire(2);
+        underTest.acquire(1);
+
+        // when
+        final List<String> tokens = acquire(underTest, 3);
+
+        // then
+        assertThat(tokens).containsExactly("third", "second", "third");
+        assertThat(underTest.getCalls("first")).isEqualTo(2);
+        assertThat(underTest.getCalls("second")).isEqualTo(2);
+        assertThat(underTest.getCalls("third")).isEqualTo(2);
+    }
+
+    @Test
+    void acquire_withLeastUsedSelectionAfterBench_shouldShareLoadWithReturnedToken() {
+        // given
+        config.setSelection(TokenSelectionStrategy.LEAST_USED);
+        final var underTest = createPool();
+        acquire(underTest, 3);
+        underTest.onTokenError("second", ErrorCode.TOKEN_LIMIT_EXCEEDED);
+        acquire(underTest, 4);
+        clock.advance(Duration.ofHours(1));
+
+        // when
+        final List<String> tokens = acquire(underTest, 6);
+
+        // then
+        assertThat(tokens).containsExactly("first", "second", "third", "first", "second", "third");
+        assertThat(underTest.getCalls("first")).isEqualTo(5);
+        assertThat(underTest.getCalls("second")).isEqualTo(5);
+        assertThat(underTest.getCalls("third")).isEqualTo(5);
+    }
+
+    @Test
+    void acquire_afterQuotaPeriod_shouldCountCallsOfNewPeriodOnly() {
+        // given
+        config.setSelection(TokenSelectionStrategy.LEAST_USED);
+        final var underTest = createPool(Duration.ofDays(1));
+        underTest.acquire(10);
+        acquire(underTest, 2);
+        clock.advance(Duration.ofDays(1));
+
+        // when
+        final List<String> tokens = acquire(underTest, 3);
+
+        // then
+        assertThat(tokens).containsExactly("first", "second", "third");
+        assertThat(underTest.getCalls("first")).isEqualTo(1);
+        assertThat(underTest.getCalls("second")).isEqualTo(1);
+        assertThat(underTest.getCalls("third")).isEqualTo(1);
+        assertThat(meterRegistry.get(METRIC_CALLS).tag("token", "0").counter().count()).isEqualTo(11);
+    }
+
+    @Test
+    void acquire_withBulkCalls_shouldCountEveryLocationAndSelectByCalls() {
+        // given
+        config.setSelection(TokenSelectionStrategy.LEAST_USED);
+        final var underTest = createPool();
+
+        // when
+        final String bulkToken = underTest.acquire(49);
+        final List<String> tokens = acquire(underTest, 3);
+
+        // then
+        assertThat(bulkToken).isEqualTo("first");
+        assertThat(tokens).containsExactly("second", "third", "second");
+        assertThat(underTest.getCalls("first")).isEqualTo(49);
+        assertThat(meterRegistry.get(METRIC_CALLS).tag("token", "0").counter().count()).isEqualTo(49);
+    }
+
+    @Test
+    void onTokenError_withExceededLimit_shouldBenchTokenUntilBenchExpires() {
+        // given
+        final var underTest = createPool();
+        underTest.onTokenError("second", ErrorCode.TOKEN_LIMIT_EXCEEDED);
+
+        // when
+        final List<String> benched = acquire(underTest, 4);
+        clock.advance(Duration.ofHours(1));
+        final List<String> returned = acquire(underTest, 3);
+
+        // then
+        assertThat(benched).containsExactly("first", "third", "first", "third");
+        assertThat(returned).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void onTokenError_withInvalidToken_shouldBenchTokenLonger() {
+        // given
+        final var underTest = createPool();
+        underTest.onTokenError("first", ErrorCode.INVALID_TOKEN);
+        underTest.onTokenError("second", ErrorCode.DISABLED_TOKEN);
+
+        // when
+        clock.advance(Duration.ofHours(1));
+        final List<String> tokens = acquire(underTest, 2);
+
+        // then
+        assertThat(tokens).containsExactly("third", "third");
+    }
+
+    @Test
+    void onTokenError_withOtherError_shouldNotBenchToken() {
+        // given
+        final var underTest = createPool();
+
+        // when
+        underTest.onTokenError("first", ErrorCode.LOCATION_NOT_FOUND);
+
+        // then
+        assertThat(underTest.hasAvailable()).isTrue();
+        assertThat(acquire(underTest, 1)).containsExactly("first");
+    }
+
+    @Test
+    void acquire_withAllTokensBenched_shouldUseTokenReturningSoonest() {
+        // given
+        final var underTest = createPool();
+        underTest.onTokenError("first", ErrorCode.INVALID_TOKEN);
+        underTest.onTokenError("second", ErrorCode.TOKEN_LIMIT_EXCEEDED);
+        clock.advance(Duration.ofMinutes(1));
+        underTest.onTokenError("third", ErrorCode.TOKEN_LIMIT_EXCEEDED);
+
+        // when
+        final String token = underTest.acquire();
+
+        // then
+        assertThat(underTest.hasAvailable()).isFalse();
+        assertThat(token).isEqualTo("second");
+    }
+
+    @Test
+    void acquire_shouldUpdateMetricsWithoutTokenValues() {
+        // given
+        final var underTest = createPool();
+
+        // when
+        acquire(underTest, 4);
+        underTest.onTokenError("third", ErrorCode.TOKEN_LIMIT_EXCEEDED);
+
+        // then
+        assertThat(meterRegistry.get(METRIC_CALLS).tag("token", "0").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(METRIC_CALLS).tag("token", "2").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(METRIC_ERRORS)
+                .tag("token", "2")
+                .tag("code", ErrorCode.TOKEN_LIMIT_EXCEEDED.name())
+                .counter()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(METRIC_AVAILABLE).gauge().value()).isEqualTo(2);
+    }
+
+    private ExternalApiTokenPool createPool() {
+        return createPool(Duration.ofDays(30));
+    }
+
+    private ExternalApiTokenPool createPool(final Duration quotaPeriod) {
+        final var apiConfig = ExternalApiConfigParams.builder()
+                .token("first")
+                .tokenPool(config)
+                .quota(QuotaConfigParams.builder()
+                        .period(quotaPeriod)
+                        .build())
+                .build();
+        return new ExternalApiTokenPool(apiConfig, meterRegistry, clock);
+    }
+
+    private static List<String> acquire(final ExternalApiTokenPool pool, final int count) {
+        final List<String> tokens = new ArrayList<>(count);
+        IntStream.range(0, count).forEach(i -> tokens.add(pool.acquire()));
+        return tokens;
+    }
+}
@@ -0,0 +1,346 @@
+package ru.bukhtaev.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.bukhtaev.config.external.CurrentWeatherConfigParams;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.HedgingConfigParams;
+import ru.bukhtaev.config.external.TokenPoolConfigParams;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
+import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
+import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.exception.CommonServerSideException;
+import ru.bukhtaev.exception.external.LocationNotFoundException;
+import ru.bukhtaev.exception.external.ResponseBodyProceedingException;
+import ru.bukhtaev.util.TokenSelectionStrategy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Модульные тесты асинхронных запросов к внешнему API данных о погоде
+ * {@link AbstractExternalWeatherApiService#getCurrentAsync} и
+ * {@link AbstractExternalWeatherApiService#getCurrentSummaryAsync} с локальным сервером-заглушкой.
+ */
+class ExternalWeatherApiAsyncRequestTest extends AbstractServiceTest {
+
+    private static final String CURRENT_URL = "/v1/current.json";
+
+    private static final String TOKEN = "test-token";
+
+    private static final String CURRENT_RESPONSE = """
+            {
+              "location": {"name": "Казань", "localtime": "2023-10-10 12:30"},
+              "current": {"temp_c": 12.5, "condition": {"text": "Sunny"}}
+            }
+            """;
+
+    private static final String LOCATION_NOT_FOUND_RESPONSE = """
+            {"error": {"code": 1006, "message": "No matching location found."}}
+            """;
+
+    /**
+     * Имитация маппера для объектов типа {@link ru.bukhtaev.model.Weather}.
+     */
+    @Mock
+    private IWeatherMapper dtoMapper;
+
+    /**
+     * Имитация адаптивного ограничения запросов в соответствии с квотой токенов.
+     */
+    @Mock
+    private ExternalApiQuotaThrottle quotaThrottle;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private CloseableHttpAsyncClient asyncHttpClient;
+
+    private final AtomicInteger requestsCount = new AtomicInteger();
+
+    private final AtomicReference<String> requestQuery = new AtomicReference<>();
+
+    private final AtomicInteger responseStatus = new AtomicInteger(200);
+
+    private final AtomicReference<String> responseBody = new AtomicReference<>(CURRENT_RESPONSE);
+
+    /**
+     * Задержка ответа на первый запрос.
+     */
+    private final AtomicReference<Duration> firstResponseDelay = new AtomicReference<>(Duration.ZERO);
+
+    private ExternalApiConfigParams apiConfig;
+
+    private final RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+            .limitForPeriod(2)
+            .limitRefreshPeriod(Duration.ofHours(1))
+            .timeoutDuration(Duration.ZERO)
+            .build());
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+
+    private AbstractExternalWeatherApiService underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(CURRENT_URL, exchange -> {
+            if (requestsCount.incrementAndGet() == 1) {
+                sleep(firstResponseDelay.get());
+            }
+            requestQuery.set(exchange.getRequestURI().getQuery());
+
+            final byte[] body = responseBody.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus.get(), body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        apiConfig = ExternalApiConfigParams.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort())
+                .token(TOKEN)
+                .tokenParamName("key")
+                .tokenPool(TokenPoolConfigParams.builder()
+                        .selection(TokenSelectionStrategy.ROUND_ROBIN)
+                        .limitExceededBench(Duration.ofHours(1))
+                        .invalidBench(Duration.ofHours(1))
+                        .build())
+                .current(CurrentWeatherConfigParams.builder()
+                        .url(CURRENT_URL)
+                        .locationParamName("q")
+                        .languageParamName("lang")
+                        .aqiParamName("aqi")
+                        .build())
+                .hedging(HedgingConfigParams.builder()
+                        .enabled(false)
+                        .delay(Duration.ofMillis(100))
+                        .build())
+                .build();
+
+        asyncHttpClient = HttpAsyncClients.createDefault();
+        asyncHttpClient.start();
+
+        underTest = new ExternalWeatherApiServiceJpaImpl(
+                apiConfig,
+                null,
+                asyncHttpClient,
+                Jackson2ObjectMapperBuilder.json().build(),
+                dtoMapper,
+                quotaThrottle,
+                new ExternalApiTokenPool(apiConfig, new SimpleMeterRegistry()),
+                rateLimiterRegistry,
+                circuitBreakerRegistry,
+                BulkheadRegistry.ofDefaults(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncHttpClient.close(CloseMode.IMMEDIATE);
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void getCurrentAsync_shouldCompleteWithParsedResponse() throws Exception {
+        // when
+        final ExternalApiWeatherResponse response = underTest.getCurrentAsync("Kazan", "ru", Boolean.FALSE)
+                .get(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(requestsCount.get()).isEqualTo(1);
+        assertThat(requestQuery.get())
+                .contains("key=" + TOKEN)
+                .contains("q=Kazan")
+                .contains("lang=ru");
+        assertThat(response.getLocation().getName()).isEqualTo("Казань");
+        assertThat(response.getCurrent().getCondition().getText()).isEqualTo("Sunny");
+    }
+
+    @Test
+    void getCurrentAsync_withManyConcurrentRequests_shouldCompleteAllOfThem() throws Exception {
+        // given
+        final List<CompletableFuture<ExternalApiWeatherResponse>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            futures.add(underTest.getCurrentAsync("Kazan", "en", Boolean.FALSE));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(requestsCount.get()).isEqualTo(20);
+        assertThat(futures).allSatisfy(future ->
+                assertThat(future.join().getLocation().getName()).isEqualTo("Казань")
+        );
+    }
+
+    @Test
+    void getCurrentAsync_withSlowResponseAndHedging_shouldCompleteWithHedgedResponse() throws Exception {
+        // given
+        apiConfig.getHedging().setEnabled(true);
+        firstResponseDelay.set(Duration.ofSeconds(3));
+
+        // when
+        final ExternalApiWeatherResponse response = underTest.getCurrentAsync("Kazan", "en", Boolean.FALSE)
+                .get(2, TimeUnit.SECONDS);
+
+        // then
+        assertThat(requestsCount.get()).isEqualTo(2);
+        assertThat(response.getLocation().getName()).isEqualTo("Казань");
+    }
+
+    @Test
+    void getCurrentAsync_withSlowResponseAndExhaustedRateLimit_shouldNotSendHedgedRequest() throws Exception {
+        // given
+        apiConfig.getHedging().setEnabled(true);
+        firstResponseDelay.set(Duration.ofSeconds(1));
+        rateLimiterRegistry.rateLimiter(AbstractExternalWeatherApiService.RATE_LIMITER_NAME).drainPermissions();
+
+        // when
+        final ExternalApiWeatherResponse response = underTest.getCurrentAsync("Kazan", "en", Boolean.FALSE)
+                .get(3, TimeUnit.SECONDS);
+
+        // then
+        assertThat(requestsCount.get()).isEqualTo(1);
+        assertThat(response.getLocation().getName()).isEqualTo("Казань");
+    }
+
+    @Test
+    void getCurrentAsync_withSlowResponseAndOpenCircuitBreaker_shouldNotSendHedgedRequest() throws Exception {
+        // given
+        apiConfig.getHedging().setEnabled(true);
+        firstResponseDelay.set(Duration.ofSeconds(1));
+        circuitBreakerRegistry.circuitBreaker(AbstractExternalWeatherApiService.CURRENT_OPERATION_NAME)
+                .transitionToOpenState();
+
+        // when
+        final ExternalApiWeatherResponse response = underTest.getCurrentAsync("Kazan", "en", Boolean.FALSE)
+                .get(3, TimeUnit.SECONDS);
+
+        // then
+        assertThat(requestsCount.get()).isEqualTo(1);
+        assertThat(response.getLocation().getName()).isEqualTo("Казань");
+    }
+
+    @Test
+    void getCurrentAsync_withFastResponseAndHedging_shouldNotSendHedgedRequest() throws Exception {
+        // given
+        apiConfig.getHedging().setEnabled(true);
+        apiConfig.getHedging().setDelay(Duration.ofSeconds(1));
+
+        // when
+        underTest.getCurrentAsync("Kazan", "en", Boolean.FALSE).get(2, TimeUnit.SECONDS);
+
+        // then
+        assertThat(requestsCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void getCurrentAsync_withClientError_shouldCompleteExceptionallyWithMappedException() {
+        // given
+        responseStatus.set(400);
+        responseBody.set(LOCATION_NOT_FOUND_RESPONSE);
+
+        // when
+        final var future = underTest.getCurrentAsync("Nowhere", "en", Boolean.FALSE);
+
+        // then
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(LocationNotFoundException.class);
+    }
+
+    @Test
+    void getCurrentSummaryAsync_shouldCompleteWithSummaryFields() throws Exception {
+        // when
+        final CurrentWeatherSummary summary = underTest.getCurrentSummaryAsync("Kazan", "en")
+                .get(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(requestQuery.get())
+                .contains("q=Kazan")
+                .doesNotContain("aqi=");
+        assertThat(summary.getCityName()).isEqualTo("Казань");
+        assertThat(summary.getConditionText()).isEqualTo("Sunny");
+        assertThat(summary.getTemperatureC()).isEqualTo(12.5);
+        assertThat(summary.getLocaltime()).isEqualTo("2023-10-10 12:30");
+    }
+
+    @Test
+    void getCurrentSummaryAsync_withMalformedBody_shouldCompleteExceptionallyWithProceedingException() {
+        // given
+        responseBody.set("{\"location\": {\"name\": ");
+
+        // when
+        final var future = underTest.getCurrentSummaryAsync("Kazan", "en");
+
+        // then
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ResponseBodyProceedingException.class);
+    }
+
+    @Test
+    void getCurrentAsync_withUnavailableServer_shouldCompleteExceptionallyWithServerSideException() {
+        // given
+        server.stop(0);
+
+        // when
+        final var future = underTest.getCurrentAsync("Kazan", "en", Boolean.FALSE);
+
+        // then
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CommonServerSideException.class);
+    }
+
+    private static void sleep(final Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
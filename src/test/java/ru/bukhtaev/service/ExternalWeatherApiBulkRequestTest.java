@@ -0,0 +1,365 @@
+package ru.bukhtaev.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+import ru.bukhtaev.config.external.BulkRequestConfigParams;
+import ru.bukhtaev.config.external.CurrentWeatherConfigParams;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.TokenPoolConfigParams;
+import ru.bukhtaev.dto.external.BulkWeatherResult;
+import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.exception.external.InvalidTokenException;
+import ru.bukhtaev.exception.external.LocationNotFoundException;
+import ru.bukhtaev.exception.external.ResponseBodyProceedingException;
+import ru.bukhtaev.exception.external.TokenLimitExceededException;
+import ru.bukhtaev.exception.external.TooManyLocationsException;
+import ru.bukhtaev.util.TokenSelectionStrategy;
+import ru.bukhtaev.validation.handling.RestTemplateResponseErrorHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Модульные тесты массового запроса к внешнему API данных о погоде
+ * {@link AbstractExternalWeatherApiService#getCurrentBulk} с локальным сервером-заглушкой.
+ */
+class ExternalWeatherApiBulkRequestTest extends AbstractServiceTest {
+
+    private static final String CURRENT_URL = "/v1/current.json";
+
+    private static final String TOKEN = "test-token";
+
+    private static final String ADDITIONAL_TOKEN = "additional-test-token";
+
+    private static final String BULK_RESPONSE = """
+            {
+              "bulk": [
+                {
+                  "query": {
+                    "custom_id": "1",
+                    "q": "Nowhere",
+                    "error": {"code": 1006, "message": "No matching location found."}
+                  }
+                },
+                {
+                  "query": {
+                    "custom_id": "0",
+                    "q": "Kazan",
+                    "location": {"name": "Kazan", "localtime": "2023-10-10 12:30"},
+                    "current": {"temp_c": 12.5, "condition": {"text": "Sunny"}}
+                  }
+                }
+              ]
+            }
+            """;
+
+    private static final String INVALID_TOKEN_RESPONSE = """
+            {"error": {"code": 2006, "message": "API key provided is invalid"}}
+            """;
+
+    /**
+     * Имитация маппера для объектов типа {@link ru.bukhtaev.model.Weather}.
+     */
+    @Mock
+    private IWeatherMapper dtoMapper;
+
+    /**
+     * Имитация адаптивного ограничения запросов в соответствии с квотой токенов.
+     */
+    @Mock
+    private ExternalApiQuotaThrottle quotaThrottle;
+
+    private HttpServer server;
+
+    private final AtomicInteger requestsCount = new AtomicInteger();
+
+    private final AtomicReference<String> requestMethod = new AtomicReference<>();
+
+    private final AtomicReference<String> requestQuery = new AtomicReference<>();
+
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+
+    private final AtomicInteger responseStatus = new AtomicInteger(200);
+
+    private final AtomicReference<String> responseBody = new AtomicReference<>(BULK_RESPONSE);
+
+    private ExternalApiConfigParams apiConfig;
+
+    private ExternalApiTokenPool tokenPool;
+
+    private AbstractExternalWeatherApiService underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(CURRENT_URL, exchange -> {
+            requestsCount.incrementAndGet();
+            requestMethod.set(exchange.getRequestMethod());
+            requestQuery.set(exchange.getRequestURI().getQuery());
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+
+            final byte[] body = responseBody.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus.get(), body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+
+        apiConfig = ExternalApiConfigParams.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort())
+                .token(TOKEN)
+                .tokenParamName("key")
+                .tokenPool(TokenPoolConfigParams.builder()
+                        .selection(TokenSelectionStrategy.ROUND_ROBIN)
+                        .limitExceededBench(Duration.ofHours(1))
+                        .invalidBench(Duration.ofHours(1))
+                        .build())
+                .current(CurrentWeatherConfigParams.builder()
+                        .url(CURRENT_URL)
+                        .locationParamName("q")
+                        .languageParamName("lang")
+                        .aqiParamName("aqi")
+                        .build())
+                .bulkRequest(BulkRequestConfigParams.builder()
+                        .locationsLimit(2)
+                        .build())
+                .build();
+        underTest = createService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void getCurrentBulk_shouldSendAllLocationsInSingleRequestAndMapResultsInRequestOrder() throws IOException {
+        // when
+        final List<BulkWeatherResult> results = underTest.getCurrentBulk(
+                List.of("Kazan", "Nowhere"),
+                "en",
+                Boolean.FALSE
+        );
+
+        // then
+        assertThat(requestsCount.get()).isEqualTo(1);
+        assertThat(requestMethod.get()).isEqualTo("POST");
+        assertThat(requestQuery.get())
+                .contains("key=" + TOKEN)
+                .contains("q=bulk")
+                .contains("lang=en");
+        final var locations = Jackson2ObjectMapperBuilder.json().build()
+                .readTree(requestBody.get())
+                .get("locations");
+        assertThat(locations).hasSize(2);
+        assertThat(locations.get(0).get("q").asText()).isEqualTo("Kazan");
+        assertThat(locations.get(0).get("custom_id").asText()).isEqualTo("0");
+        assertThat(locations.get(1).get("q").asText()).isEqualTo("Nowhere");
+        assertThat(locations.get(1).get("custom_id").asText()).isEqualTo("1");
+
+        assertThat(results).hasSize(2);
+
+        final BulkWeatherResult kazan = results.get(0);
+        assertThat(kazan.isSuccess()).isTrue();
+        assertThat(kazan.getLocation()).isEqualTo("Kazan");
+        assertThat(kazan.getSummary().getCityName()).isEqualTo("Kazan");
+        assertThat(kazan.getSummary().getLocaltime()).isEqualTo("2023-10-10 12:30");
+        assertThat(kazan.getSummary().getTemperatureC()).isEqualTo(12.5);
+        assertThat(kazan.getSummary().getConditionText()).isEqualTo("Sunny");
+
+        final BulkWeatherResult nowhere = results.get(1);
+        assertThat(nowhere.isSuccess()).isFalse();
+        assertThat(nowhere.getLocation()).isEqualTo("Nowhere");
+        assertThat(nowhere.getSummary()).isNull();
+        assertThat(nowhere.getError()).isInstanceOf(LocationNotFoundException.class);
+    }
+
+    @Test
+    void getCurrentBulk_withResultMissingForLocation_shouldReturnFailureForIt() {
+        // given
+        responseBody.set("""
+                {"bulk": []}
+                """);
+
+        // when
+        final List<BulkWeatherResult> results = underTest.getCurrentBulk(
+                List.of("Kazan"),
+                "en",
+                Boolean.FALSE
+        );
+
+        // then
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccess()).isFalse();
+        assertThat(results.get(0).getLocation()).isEqualTo("Kazan");
+    }
+
+    @Test
+    void getCurrentBulk_withMalformedBody_shouldThrowExceptionWithoutReportingSuccess() {
+        // given
+        responseBody.set("""
+                {"bulk": [{"query": {"custom_id": "0", "location": "Kazan"}}]}
+                """);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE))
+                .isInstanceOf(ResponseBodyProceedingException.class);
+        verify(quotaThrottle, never()).onSuccess();
+    }
+
+    @Test
+    void getCurrentBulk_withRequestLevelError_shouldThrowMappedException() {
+        // given
+        responseStatus.set(401);
+        responseBody.set(INVALID_TOKEN_RESPONSE);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void getCurrentBulk_withTooManyRequestsStatus_shouldReportExceededQuota() {
+        // given
+        responseStatus.set(429);
+        responseBody.set("");
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getCurrentBulk(List.of("Kazan", "Irkutsk"), "en", Boolean.FALSE))
+                .isInstanceOf(TokenLimitExceededException.class);
+        verify(quotaThrottle).recordCalls(2);
+        verify(quotaThrottle).onQuotaExceeded();
+        verify(quotaThrottle, never()).onSuccess();
+    }
+
+    @Test
+    void getCurrentBulk_withTokenLimitErrorCode_shouldReportExceededQuota() {
+        // given
+        responseStatus.set(403);
+        responseBody.set("""
+                {"error": {"code": 2007, "message": "API key has exceeded calls per month quota."}}
+                """);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE))
+                .isInstanceOf(TokenLimitExceededException.class);
+        verify(quotaThrottle).onQuotaExceeded();
+    }
+
+    @Test
+    void getCurrentBulk_withTooManyLocations_shouldThrowExceptionWithoutRequest() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getCurrentBulk(
+                List.of("Kazan", "Yekaterinburg", "Irkutsk"),
+                "en",
+                Boolean.FALSE
+        )).isInstanceOf(TooManyLocationsException.class);
+        assertThat(requestsCount.get()).isZero();
+    }
+
+    @Test
+    void getCurrentBulk_withSeveralTokens_shouldUseTokensInTurn() {
+        // given
+        apiConfig.getTokenPool().setAdditionalTokens(List.of(ADDITIONAL_TOKEN));
+        underTest = createService();
+
+        // when
+        underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE);
+        final String firstQuery = requestQuery.get();
+        underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE);
+        final String secondQuery = requestQuery.get();
+
+        // then
+        assertThat(firstQuery).contains("key=" + TOKEN);
+        assertThat(secondQuery).contains("key=" + ADDITIONAL_TOKEN);
+    }
+
+    @Test
+    void getCurrentBulk_shouldCountEveryLocationAgainstToken() {
+        // when
+        underTest.getCurrentBulk(List.of("Kazan", "Nowhere"), "en", Boolean.FALSE);
+
+        // then
+        assertThat(tokenPool.getCalls(TOKEN)).isEqualTo(2);
+        verify(quotaThrottle).recordCalls(2);
+    }
+
+    @Test
+    void getCurrentBulk_withExceededQuotaOfOneToken_shouldSwitchToAnotherToken() {
+        // given
+        apiConfig.getTokenPool().setAdditionalTokens(List.of(ADDITIONAL_TOKEN));
+        underTest = createService();
+        responseStatus.set(403);
+        responseBody.set("""
+                {"error": {"code": 2007, "message": "API key has exceeded calls per month quota."}}
+                """);
+        assertThatThrownBy(() -> underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE))
+                .isInstanceOf(TokenLimitExceededException.class);
+        responseStatus.set(200);
+        responseBody.set(BULK_RESPONSE);
+
+        // when
+        underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE);
+        underTest.getCurrentBulk(List.of("Kazan"), "en", Boolean.FALSE);
+
+        // then
+        assertThat(requestQuery.get()).contains("key=" + ADDITIONAL_TOKEN);
+        verify(quotaThrottle, never()).onQuotaExceeded();
+    }
+
+    private AbstractExternalWeatherApiService createService() {
+        final RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setErrorHandler(new RestTemplateResponseErrorHandler());
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        tokenPool = new ExternalApiTokenPool(apiConfig, new SimpleMeterRegistry());
+
+        return new ExternalWeatherApiServiceJpaImpl(
+                apiConfig,
+                restTemplate,
+                null,
+                objectMapper,
+                dtoMapper,
+                quotaThrottle,
+                tokenPool,
+                RateLimiterRegistry.ofDefaults(),
+                CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+    }
+}
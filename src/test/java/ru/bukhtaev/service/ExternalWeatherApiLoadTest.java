@@ -0,0 +1,197 @@
+package ru.bukhtaev.service;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import ru.bukhtaev.config.CitiesConfigParams;
+import ru.bukhtaev.config.CoordinationConfigParams;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
+import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.simulator.ExternalWeatherApiSimulator;
+import ru.bukhtaev.simulator.LatencyDistribution;
+import ru.bukhtaev.simulator.SimulatorSettings;
+import ru.bukhtaev.util.PollingMode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Нагрузочные тесты запросов к внешнему API с имитатором {@link ExternalWeatherApiSimulator}
+ * вместо сети: пропускная способность и задержки асинхронных запросов
+ * и опроса всех городов сервисом {@link WeatherProducer}.
+ * Запускаются задачей {@code load} и исключены из задачи {@code test}.
+ */
+@Tag("load")
+class ExternalWeatherApiLoadTest {
+
+    private static final String TOKEN = "load-token";
+
+    private static final int REQUESTS_COUNT = 2_000;
+
+    private static final int CITIES_COUNT = 1_000;
+
+    private final SimulatorSettings settings = new SimulatorSettings()
+            .latency(LatencyDistribution.logNormal(Duration.ofMillis(20), Duration.ofMillis(150)))
+            .errorRate(0.01)
+            .unknownLocations("City-13");
+
+    private ExternalWeatherApiSimulator simulator;
+
+    private SimulatedExternalApiClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        simulator = new ExternalWeatherApiSimulator(settings).start();
+        client = new SimulatedExternalApiClient(simulator, mock(IWeatherMapper.class), TOKEN);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        simulator.close();
+    }
+
+    @Test
+    void getCurrentSummaryAsync_underLoad_shouldCompleteAllRequests() {
+        // given
+        final long[] latencies = new long[REQUESTS_COUNT];
+        final AtomicInteger failures = new AtomicInteger();
+        final List<CompletableFuture<?>> futures = new ArrayList<>(REQUESTS_COUNT);
+
+        // when
+        final long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS_COUNT; i++) {
+            final int index = i;
+            final long sent = System.nanoTime();
+            futures.add(client.getService()
+                    .getCurrentSummaryAsync("City-" + i % CITIES_COUNT, "en")
+                    .whenComplete((summary, ex) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (ex != null) {
+                            failures.incrementAndGet();
+                        }
+                    })
+                    .exceptionally(ex -> null));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        final long elapsed = System.nanoTime() - start;
+
+        // then
+        report("async summary", REQUESTS_COUNT, elapsed, latencies);
+        assertThat(simulator.getRequestsCount()).isEqualTo(REQUESTS_COUNT);
+        assertThat(failures.get()).isLessThan(REQUESTS_COUNT / 20);
+    }
+
+    @Test
+    void publish_inConcurrentMode_shouldPollAllCitiesInBulk() throws InterruptedException {
+        // given
+        simulator.getSettings().errorRate(0);
+        final KafkaTemplate<String, Weather> kafkaTemplate = mockKafkaTemplate();
+        final AtomicInteger sent = new AtomicInteger();
+        given(kafkaTemplate.sendDefault(anyString(), any())).willAnswer(invocation -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        final IWeatherMapper mapper = mock(IWeatherMapper.class);
+        given(mapper.convertFromSummary(any())).willAnswer(invocation -> Weather.builder()
+                .city(City.builder()
+                        .name(invocation.<CurrentWeatherSummary>getArgument(0).getCityName())
+                        .build())
+                .temperature(invocation.<CurrentWeatherSummary>getArgument(0).getTemperatureC())
+                .dateTime(LocalDateTime.now())
+                .build());
+
+        final var citiesConfig = new CitiesConfigParams();
+        citiesConfig.setCities(IntStream.range(0, CITIES_COUNT)
+                .mapToObj(i -> "City-" + i)
+                .toArray(String[]::new));
+        citiesConfig.getPolling().setMode(PollingMode.CONCURRENT);
+        citiesConfig.getPolling().setMaxConcurrency(32);
+
+        final ExecutorService pollingExecutor = Executors.newFixedThreadPool(32);
+        final var coordinator = new SchedulerCoordinator(new CoordinationConfigParams(), null, null);
+        final var producer = new WeatherProducer(
+                mapper,
+                new CitiesProvider(citiesConfig, new SimpleMeterRegistry(), coordinator),
+                kafkaTemplate,
+                client.getService(),
+                citiesConfig,
+                client.getApiConfig(),
+                pollingExecutor,
+                RateLimiterRegistry.of(RateLimiterConfig.custom()
+                        .limitForPeriod(1_000)
+                        .limitRefreshPeriod(Duration.ofDays(1))
+                        .build()),
+                new ExternalApiQuotaThrottle(client.getApiConfig(), client.getTokenPool(), new SimpleMeterRegistry()),
+                coordinator
+        );
+
+        // when
+        final long start = System.nanoTime();
+        producer.publish();
+        pollingExecutor.shutdown();
+        assertThat(pollingExecutor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        final long elapsed = System.nanoTime() - start;
+
+        // then
+        final int chunkSize = client.getApiConfig().getBulkRequest().getLocationsLimit();
+        System.out.printf("%-18s %8d cities %8d requests %10.0f ms%n",
+                "bulk polling", CITIES_COUNT, simulator.getRequestsCount(), elapsed / 1_000_000.0);
+        assertThat(simulator.getRequestsCount()).isEqualTo((CITIES_COUNT + chunkSize - 1) / chunkSize);
+        assertThat(simulator.getCalls(TOKEN)).isEqualTo(CITIES_COUNT);
+        assertThat(sent.get()).isEqualTo(CITIES_COUNT - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaTemplate<String, Weather> mockKafkaTemplate() {
+        return mock(KafkaTemplate.class);
+    }
+
+    /**
+     * Выводит пропускную способность и перцентили задержки.
+     *
+     * @param name      название сценария
+     * @param count     количество запросов
+     * @param elapsed   общее время в наносекундах
+     * @param latencies задержки запросов в наносекундах
+     */
+    private static void report(final String name, final int count, final long elapsed, final long[] latencies) {
+        final long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-18s %10s %10s %10s %10s%n", "scenario", "calls/s", "p50 ms", "p95 ms", "p99 ms");
+        System.out.printf("%-18s %10.0f %10.1f %10.1f %10.1f%n",
+                name,
+                (double) count / elapsed * 1_000_000_000L,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99));
+    }
+
+    private static double percentile(final long[] sorted, final double quantile) {
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1_000_000.0;
+    }
+}
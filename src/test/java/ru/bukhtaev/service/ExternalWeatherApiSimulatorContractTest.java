@@ -0,0 +1,170 @@
+package ru.bukhtaev.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.bukhtaev.dto.external.BulkWeatherResult;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
+import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
+import ru.bukhtaev.exception.CommonServerSideException;
+import ru.bukhtaev.exception.external.InvalidTokenException;
+import ru.bukhtaev.exception.external.LocationNotFoundException;
+import ru.bukhtaev.exception.external.TokenLimitExceededException;
+import ru.bukhtaev.exception.external.TooManyLocationsException;
+import ru.bukhtaev.simulator.ExternalWeatherApiSimulator;
+import ru.bukhtaev.simulator.SimulatorSettings;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты соответствия имитатора внешнего API {@link ExternalWeatherApiSimulator}
+ * контракту, который ожидает сервис {@link AbstractExternalWeatherApiService}.
+ */
+class ExternalWeatherApiSimulatorContractTest {
+
+    private static final String TOKEN = "simulated-token";
+
+    private static final String ADDITIONAL_TOKEN = "additional-simulated-token";
+
+    private ExternalWeatherApiSimulator simulator;
+
+    private SimulatedExternalApiClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        simulator = new ExternalWeatherApiSimulator(new SimulatorSettings()
+                .unknownLocations("Nowhere")
+                .bulkLocationsLimit(3))
+                .start();
+        client = new SimulatedExternalApiClient(simulator, null, TOKEN, ADDITIONAL_TOKEN);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        simulator.close();
+    }
+
+    @Test
+    void getCurrent_shouldReturnSameWeatherForSameLocation() {
+        // when
+        final ExternalApiWeatherResponse first = client.getService().getCurrent("Kazan", "en", Boolean.FALSE);
+        final ExternalApiWeatherResponse second = client.getService().getCurrent("kazan", "en", Boolean.FALSE);
+
+        // then
+        assertThat(first.getLocation().getName()).isEqualTo("Kazan");
+        assertThat(first.getLocation().getLocaltime()).isNotBlank();
+        assertThat(first.getCurrent().getCondition().getText()).isNotBlank();
+        assertThat(first.getCurrent().getTemperatureC()).isEqualTo(second.getCurrent().getTemperatureC());
+        assertThat(simulator.getRequestsCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getCurrentSummaryAsync_shouldReadSimulatedResponse() throws Exception {
+        // when
+        final CurrentWeatherSummary summary = client.getService()
+                .getCurrentSummaryAsync("Irkutsk", "en")
+                .get(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(summary.getCityName()).isEqualTo("Irkutsk");
+        assertThat(summary.getTemperatureC()).isNotNull();
+        assertThat(summary.getConditionText()).isNotBlank();
+    }
+
+    @Test
+    void getCurrent_withUnknownLocation_shouldThrowLocationNotFoundException() {
+        // when
+        // then
+        assertThatThrownBy(() -> client.getService().getCurrent("Nowhere", "en", Boolean.FALSE))
+                .isInstanceOf(LocationNotFoundException.class);
+    }
+
+    @Test
+    void getCurrent_withInvalidTokens_shouldThrowInvalidTokenException() {
+        // given
+        simulator.getSettings().invalidTokens(TOKEN, ADDITIONAL_TOKEN);
+
+        // when
+        // then
+        assertThatThrownBy(() -> client.getService().getCurrent("Kazan", "en", Boolean.FALSE))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void getCurrent_withExhaustedQuotaOfOneToken_shouldContinueWithAnotherToken() {
+        // given
+        simulator.getSettings().quotaPerToken(2L);
+
+        // when
+        final long succeeded = IntStream.range(0, 6)
+                .filter(i -> {
+                    try {
+                        client.getService().getCurrent("Kazan", "en", Boolean.FALSE);
+                        return true;
+                    } catch (TokenLimitExceededException e) {
+                        return false;
+                    }
+                })
+                .count();
+
+        // then
+        assertThat(succeeded).isEqualTo(4);
+        assertThat(simulator.getCalls(TOKEN)).isEqualTo(2);
+        assertThat(simulator.getCalls(ADDITIONAL_TOKEN)).isEqualTo(2);
+        assertThat(client.getTokenPool().hasAvailable()).isFalse();
+    }
+
+    @Test
+    void getCurrent_withTooManyRequests_shouldThrowTokenLimitExceededException() {
+        // given
+        simulator.getSettings().tooManyRequestsRate(1.0);
+
+        // when
+        // then
+        assertThatThrownBy(() -> client.getService().getCurrent("Kazan", "en", Boolean.FALSE))
+                .isInstanceOf(TokenLimitExceededException.class);
+    }
+
+    @Test
+    void getCurrent_withServerErrors_shouldThrowServerSideException() {
+        // given
+        simulator.getSettings().serverErrorRate(1.0);
+
+        // when
+        // then
+        assertThatThrownBy(() -> client.getService().getCurrent("Kazan", "en", Boolean.FALSE))
+                .isInstanceOf(CommonServerSideException.class);
+    }
+
+    @Test
+    void getCurrentBulk_shouldReturnResultsAndErrorsPerLocation() {
+        // when
+        final List<BulkWeatherResult> results = client.getService()
+                .getCurrentBulk(List.of("Kazan", "Nowhere", "Irkutsk"), "en", Boolean.FALSE);
+
+        // then
+        assertThat(results).extracting(BulkWeatherResult::isSuccess).containsExactly(true, false, true);
+        assertThat(results.get(0).getSummary().getCityName()).isEqualTo("Kazan");
+        assertThat(results.get(1).getError()).isInstanceOf(LocationNotFoundException.class);
+        assertThat(simulator.getRequestsCount()).isEqualTo(1);
+        assertThat(simulator.getCalls(TOKEN) + simulator.getCalls(ADDITIONAL_TOKEN)).isEqualTo(3);
+    }
+
+    @Test
+    void getCurrentBulk_withTooManyLocationsForSimulator_shouldThrowTooManyLocationsException() {
+        // given
+        simulator.getSettings().bulkLocationsLimit(1);
+
+        // when
+        // then
+        assertThatThrownBy(() -> client.getService().getCurrentBulk(List.of("Kazan", "Irkutsk"), "en", Boolean.FALSE))
+                .isInstanceOf(TooManyLocationsException.class);
+    }
+}
@@ -0,0 +1,181 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.bukhtaev.config.external.ResponseCacheConfigParams;
+import ru.bukhtaev.dto.external.Current;
+import ru.bukhtaev.dto.external.ExternalApiWeatherResponse;
+import ru.bukhtaev.dto.external.LocationDto;
+import ru.bukhtaev.exception.external.LocationNotFoundException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Модульные тесты для кэша ответов внешнего API {@link ExternalWeatherResponseCache}.
+ */
+class ExternalWeatherResponseCacheTest {
+
+    private static final Instant START = Instant.parse("2023-10-10T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+
+    private final ResponseCacheConfigParams config = ResponseCacheConfigParams.builder()
+            .enabled(true)
+            .updateInterval(Duration.ofMinutes(15))
+            .minTtl(Duration.ofSeconds(30))
+            .maxTtl(Duration.ofMinutes(15))
+            .maxSize(100)
+            .build();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_withSameNormalizedParameters_shouldCallExternalApiOnce() {
+        // given
+        final var underTest = createCache();
+
+        // when
+        final var first = underTest.get("Kazan", "en", null, () -> load(START));
+        final var second = underTest.get(" kazan ", "EN", Boolean.FALSE, () -> load(START));
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void get_withDifferentParameters_shouldCallExternalApiForEach() {
+        // given
+        final var underTest = createCache();
+
+        // when
+        underTest.get("Kazan", "en", null, () -> load(START));
+        underTest.get("Kazan", "ru", null, () -> load(START));
+        underTest.get("Kazan", "en", Boolean.TRUE, () -> load(START));
+
+        // then
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void get_shouldKeepResponseUntilNextUpstreamUpdate() {
+        // given
+        final var underTest = createCache();
+        final Instant lastUpdated = START.minus(Duration.ofMinutes(10));
+        underTest.get("Kazan", "en", null, () -> load(lastUpdated));
+
+        // when
+        clock.advance(Duration.ofMinutes(4));
+        underTest.get("Kazan", "en", null, () -> load(lastUpdated));
+        final int loadsBeforeUpdate = loads.get();
+        clock.advance(Duration.ofMinutes(1));
+        underTest.get("Kazan", "en", null, () -> load(START));
+
+        // then
+        assertThat(loadsBeforeUpdate).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_withOverdueUpstreamUpdate_shouldKeepResponseForMinimalTtl() {
+        // given
+        final var underTest = createCache();
+        final Instant lastUpdated = START.minus(Duration.ofHours(1));
+        underTest.get("Kazan", "en", null, () -> load(lastUpdated));
+
+        // when
+        clock.advance(Duration.ofSeconds(29));
+        underTest.get("Kazan", "en", null, () -> load(lastUpdated));
+        final int loadsWithinTtl = loads.get();
+        clock.advance(Duration.ofSeconds(1));
+        underTest.get("Kazan", "en", null, () -> load(lastUpdated));
+
+        // then
+        assertThat(loadsWithinTtl).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getAsync_withConcurrentIdenticalRequests_shouldCoalesceThem() {
+        // given
+        final var underTest = createCache();
+        final var pending = new CompletableFuture<ExternalApiWeatherResponse>();
+
+        // when
+        final var first = underTest.getAsync("Kazan", "en", null, () -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        final var second = underTest.getAsync("Kazan", "en", null, () -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+
+        final var response = response(START);
+        pending.complete(response);
+        assertThat(first.join()).isSameAs(response);
+        assertThat(second.join()).isSameAs(response);
+    }
+
+    @Test
+    void get_withFailedRequest_shouldNotCacheError() {
+        // given
+        final var underTest = createCache();
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.get("Nowhere", "en", null, () -> {
+            loads.incrementAndGet();
+            throw new LocationNotFoundException("location", "Nowhere");
+        })).isInstanceOf(LocationNotFoundException.class);
+
+        underTest.get("Nowhere", "en", null, () -> load(START));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_withDisabledCache_shouldCallExternalApiEveryTime() {
+        // given
+        config.setEnabled(false);
+        final var underTest = createCache();
+
+        // when
+        underTest.get("Kazan", "en", null, () -> load(START));
+        underTest.get("Kazan", "en", null, () -> load(START));
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private ExternalWeatherResponseCache createCache() {
+        return new ExternalWeatherResponseCache(config, new SimpleMeterRegistry(), clock);
+    }
+
+    private ExternalApiWeatherResponse load(final Instant lastUpdated) {
+        loads.incrementAndGet();
+        return response(lastUpdated);
+    }
+
+    private static ExternalApiWeatherResponse response(final Instant lastUpdated) {
+        return ExternalApiWeatherResponse.builder()
+                .location(LocationDto.builder()
+                        .name("Kazan")
+                        .build())
+                .current(Current.builder()
+                        .lastUpdatedEpoch((int) lastUpdated.getEpochSecond())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package ru.bukhtaev.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Часы, время которых изменяется вручную.
+ */
+class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(final Instant instant) {
+        this.instant = instant;
+    }
+
+    void advance(final Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
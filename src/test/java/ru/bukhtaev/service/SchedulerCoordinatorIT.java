@@ -0,0 +1,210 @@
+package ru.bukhtaev.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.bukhtaev.AbstractContainerizedTest;
+import ru.bukhtaev.config.CoordinationConfigParams;
+import ru.bukhtaev.repository.jdbc.SchedulerLeaseJdbcRepository;
+import ru.bukhtaev.repository.jdbc.SchedulerNodeJdbcRepository;
+import ru.bukhtaev.util.CoordinationMode;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.bukhtaev.service.SchedulerCoordinator.TASK_OUTBOX_RELAY;
+import static ru.bukhtaev.service.SchedulerCoordinator.TASK_WEATHER_POLLING;
+
+/**
+ * Интеграционные тесты согласования задач по расписанию {@link SchedulerCoordinator}
+ * между двумя экземплярами приложения, каждый из которых представлен
+ * отдельным контекстом с собственным пулом соединений к общей базе данных.
+ * Интервал аренды задач и время ожидания сигнала о работе экземпляра сокращены до секунды.
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchedulerCoordinatorIT extends AbstractContainerizedTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(1);
+
+    private static final List<String> CITIES = IntStream.range(0, 1_000)
+            .mapToObj(i -> "City-" + i)
+            .toList();
+
+    /**
+     * Объект для выполнения SQL-запросов
+     * с использованием именованных параметров.
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private AnnotationConfigApplicationContext first;
+
+    private AnnotationConfigApplicationContext second;
+
+    @BeforeEach
+    void setUp() {
+        first = startInstance("first");
+        second = startInstance("second");
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.close();
+        second.close();
+        jdbcTemplate.update("DELETE FROM scheduler_lease", Map.of());
+        jdbcTemplate.update("DELETE FROM scheduler_node", Map.of());
+    }
+
+    @Test
+    void tryLead_onTwoInstances_shouldElectSingleLeader() {
+        // when
+        final boolean firstLeads = coordinator(first).tryLead(TASK_WEATHER_POLLING);
+        final boolean secondLeads = coordinator(second).tryLead(TASK_WEATHER_POLLING);
+        final boolean firstStillLeads = coordinator(first).tryLead(TASK_WEATHER_POLLING);
+
+        // then
+        assertThat(firstLeads).isTrue();
+        assertThat(secondLeads).isFalse();
+        assertThat(firstStillLeads).isTrue();
+    }
+
+    @Test
+    void tryLead_forDifferentTasks_shouldElectLeadersIndependently() {
+        // when
+        final boolean firstLeadsPolling = coordinator(first).tryLead(TASK_WEATHER_POLLING);
+        final boolean secondLeadsRelay = coordinator(second).tryLead(TASK_OUTBOX_RELAY);
+
+        // then
+        assertThat(firstLeadsPolling).isTrue();
+        assertThat(secondLeadsRelay).isTrue();
+    }
+
+    @Test
+    void tryLead_afterLeaderShutdown_shouldElectAnotherInstanceImmediately() {
+        // given
+        coordinator(first).tryLead(TASK_WEATHER_POLLING);
+
+        // when
+        first.close();
+        final boolean secondLeads = coordinator(second).tryLead(TASK_WEATHER_POLLING);
+
+        // then
+        assertThat(secondLeads).isTrue();
+    }
+
+    @Test
+    void tryLead_afterLeaderDeath_shouldElectAnotherInstanceWithinLeasePeriod() throws InterruptedException {
+        // given
+        coordinator(first).tryLead(TASK_WEATHER_POLLING);
+        assertThat(coordinator(second).tryLead(TASK_WEATHER_POLLING)).isFalse();
+
+        // when
+        Thread.sleep(LEASE.plusMillis(200).toMillis());
+        final boolean secondLeads = coordinator(second).tryLead(TASK_WEATHER_POLLING);
+        final boolean firstLeads = coordinator(first).tryLead(TASK_WEATHER_POLLING);
+
+        // then
+        assertThat(secondLeads).isTrue();
+        assertThat(firstLeads).isFalse();
+    }
+
+    @Test
+    void owns_onTwoInstances_shouldAssignEachCityToSingleInstance() {
+        // given
+        coordinator(first).heartbeat();
+        coordinator(second).heartbeat();
+        coordinator(first).heartbeat();
+
+        // when
+        final long firstOwned = CITIES.stream().filter(coordinator(first)::owns).count();
+        final long secondOwned = CITIES.stream().filter(coordinator(second)::owns).count();
+
+        // then
+        assertThat(CITIES).allMatch(city -> coordinator(first).owns(city) != coordinator(second).owns(city));
+        assertThat(firstOwned + secondOwned).isEqualTo(CITIES.size());
+        assertThat(firstOwned).isBetween(400L, 600L);
+    }
+
+    @Test
+    void owns_afterInstanceShutdown_shouldAssignAllCitiesToRemainingInstance() {
+        // given
+        coordinator(first).heartbeat();
+        coordinator(second).heartbeat();
+        coordinator(first).heartbeat();
+        final List<String> firstOwned = CITIES.stream().filter(coordinator(first)::owns).toList();
+
+        // when
+        second.close();
+        coordinator(first).heartbeat();
+
+        // then
+        assertThat(firstOwned).hasSizeLessThan(CITIES.size());
+        assertThat(CITIES).allMatch(coordinator(first)::owns);
+    }
+
+    @Test
+    void owns_afterInstanceDeath_shouldAssignAllCitiesToRemainingInstanceWithinNodeTimeout()
+            throws InterruptedException {
+        // given
+        coordinator(first).heartbeat();
+        coordinator(second).heartbeat();
+        coordinator(first).heartbeat();
+
+        // when
+        Thread.sleep(LEASE.plusMillis(200).toMillis());
+        coordinator(first).heartbeat();
+
+        // then
+        assertThat(CITIES).allMatch(coordinator(first)::owns);
+    }
+
+    @Test
+    void owns_beforeHeartbeat_shouldAssignAllCities() {
+        // then
+        assertThat(CITIES).allMatch(coordinator(first)::owns);
+    }
+
+    private static SchedulerCoordinator coordinator(final AnnotationConfigApplicationContext context) {
+        return context.getBean(SchedulerCoordinator.class);
+    }
+
+    private static AnnotationConfigApplicationContext startInstance(final String instanceId) {
+        final var config = new CoordinationConfigParams();
+        config.setEnabled(true);
+        config.setInstanceId(instanceId);
+        config.setMode(CoordinationMode.SHARDING);
+        config.setLeaseDuration(LEASE);
+        config.setNodeTimeout(LEASE);
+
+        final var context = new AnnotationConfigApplicationContext();
+        context.registerBean(CoordinationConfigParams.class, () -> config);
+        context.registerBean(DataSource.class, () -> new DriverManagerDataSource(
+                postgres.getJdbcUrl(),
+                postgres.getUsername(),
+                postgres.getPassword()
+        ));
+        context.registerBean(
+                NamedParameterJdbcTemplate.class,
+                () -> new NamedParameterJdbcTemplate(context.getBean(DataSource.class))
+        );
+        context.register(
+                SchedulerLeaseJdbcRepository.class,
+                SchedulerNodeJdbcRepository.class,
+                SchedulerCoordinator.class
+        );
+        context.refresh();
+        return context;
+    }
+}
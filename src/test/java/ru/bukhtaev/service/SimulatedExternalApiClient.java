@@ -0,0 +1,155 @@
+package ru.bukhtaev.service;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.io.CloseMode;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.bukhtaev.config.ClientConfiguration;
+import ru.bukhtaev.config.external.*;
+import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.simulator.ExternalWeatherApiSimulator;
+import ru.bukhtaev.util.TokenSelectionStrategy;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Сервис для выполнения запросов к внешнему API, настроенный на имитатор
+ * {@link ExternalWeatherApiSimulator} с теми же пулами соединений, что и в приложении.
+ * Операции с базой данных не поддерживаются.
+ */
+class SimulatedExternalApiClient implements AutoCloseable {
+
+    /**
+     * Параметры конфигурации внешнего API.
+     */
+    private final ExternalApiConfigParams apiConfig;
+
+    /**
+     * Синхронный клиент.
+     */
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * Асинхронный клиент.
+     */
+    private final CloseableHttpAsyncClient asyncHttpClient;
+
+    /**
+     * Пул токенов.
+     */
+    private final ExternalApiTokenPool tokenPool;
+
+    /**
+     * Сервис для выполнения запросов к внешнему API.
+     */
+    private final AbstractExternalWeatherApiService service;
+
+    /**
+     * Конструктор.
+     *
+     * @param simulator имитатор внешнего API
+     * @param dtoMapper маппер для объектов типа {@link ru.bukhtaev.model.Weather}
+     * @param token     основной токен
+     * @param tokens    дополнительные токены
+     */
+    SimulatedExternalApiClient(
+            final ExternalWeatherApiSimulator simulator,
+            final IWeatherMapper dtoMapper,
+            final String token,
+            final String... tokens
+    ) {
+        this.apiConfig = ExternalApiConfigParams.builder()
+                .baseUrl(simulator.getBaseUrl())
+                .token(token)
+                .tokenParamName("key")
+                .tokenPool(TokenPoolConfigParams.builder()
+                        .additionalTokens(List.of(tokens))
+                        .selection(TokenSelectionStrategy.LEAST_USED)
+                        .limitExceededBench(Duration.ofHours(1))
+                        .invalidBench(Duration.ofHours(1))
+                        .build())
+                .current(CurrentWeatherConfigParams.builder()
+                        .url(ExternalWeatherApiSimulator.CURRENT_URL)
+                        .locationParamName("q")
+                        .languageParamName("lang")
+                        .aqiParamName("aqi")
+                        .build())
+                .bulkRequest(BulkRequestConfigParams.builder()
+                        .locationsLimit(simulator.getSettings().getBulkLocationsLimit())
+                        .build())
+                .client(HttpClientConfigParams.builder()
+                        .maxConnections(64)
+                        .maxConnectionsPerRoute(64)
+                        .connectTimeout(Duration.ofSeconds(2))
+                        .responseTimeout(Duration.ofSeconds(10))
+                        .connectionRequestTimeout(Duration.ofSeconds(10))
+                        .keepAlive(Duration.ofSeconds(30))
+                        .idleEviction(Duration.ofSeconds(60))
+                        .http2(false)
+                        .build())
+                .hedging(HedgingConfigParams.builder()
+                        .enabled(false)
+                        .delay(Duration.ofSeconds(1))
+                        .build())
+                .quota(QuotaConfigParams.builder()
+                        .enabled(false)
+                        .limit(1_000_000L)
+                        .period(Duration.ofDays(30))
+                        .realtimeReserve(0.1)
+                        .maxBurst(100)
+                        .initialBackoff(Duration.ofMinutes(1))
+                        .maxBackoff(Duration.ofHours(1))
+                        .build())
+                .build();
+
+        final var clientConfiguration = new ClientConfiguration();
+        final var meterRegistry = new SimpleMeterRegistry();
+        this.httpClient = clientConfiguration.httpClient(apiConfig);
+        this.asyncHttpClient = clientConfiguration.asyncHttpClient(apiConfig);
+        this.tokenPool = new ExternalApiTokenPool(apiConfig, meterRegistry);
+        this.service = new ExternalWeatherApiServiceJpaImpl(
+                apiConfig,
+                clientConfiguration.restTemplate(new RestTemplateBuilder(), httpClient),
+                asyncHttpClient,
+                Jackson2ObjectMapperBuilder.json().build(),
+                dtoMapper,
+                new ExternalApiQuotaThrottle(apiConfig, tokenPool, meterRegistry),
+                tokenPool,
+                RateLimiterRegistry.ofDefaults(),
+                CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+    }
+
+    ExternalApiConfigParams getApiConfig() {
+        return apiConfig;
+    }
+
+    ExternalApiTokenPool getTokenPool() {
+        return tokenPool;
+    }
+
+    AbstractExternalWeatherApiService getService() {
+        return service;
+    }
+
+    @Override
+    public void close() throws Exception {
+        asyncHttpClient.close(CloseMode.IMMEDIATE);
+        httpClient.close();
+    }
+}
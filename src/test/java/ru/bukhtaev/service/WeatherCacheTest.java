@@ -235,4 +235,32 @@ class WeatherCacheTest extends AbstractServiceTest {
         assertThat(exception.getMessage())
                 .isEqualTo(errorMessage);
     }
+
+    @Test
+    void evict_withCachedCityName_shouldDeleteEntityFromBothCaches() {
+        // given
+        underTest.put(weather1);
+        underTest.put(weather2);
+
+        // when
+        underTest.evict(cityKazan.getName());
+
+        // then
+        assertThat(underTest.get(weather1.getId())).isNotPresent();
+        assertThat(underTest.get(cityKazan.getName())).isNotPresent();
+        assertThat(underTest.get(weather2.getId())).contains(weather2);
+        assertThat(underTest.get(cityYekaterinburg.getName())).contains(weather2);
+    }
+
+    @Test
+    void evict_withNonCachedCityName_shouldKeepCacheIntact() {
+        // given
+        underTest.put(weather1);
+
+        // when
+        underTest.evict(cityNovosibirsk.getName());
+
+        // then
+        assertThat(underTest.get(cityKazan.getName())).contains(weather1);
+    }
 }
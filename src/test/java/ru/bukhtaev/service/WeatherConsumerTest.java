@@ -0,0 +1,262 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.exception.UniqueWeatherException;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.kafka.WeatherRebalanceListener;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+import ru.bukhtaev.repository.jdbc.ConsumerOffsetJdbcRepository;
+import ru.bukhtaev.repository.jdbc.OutboxEventJdbcRepository;
+import ru.bukhtaev.repository.jpa.IWeatherJpaRepository;
+import ru.bukhtaev.util.WeatherEventType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+import static ru.bukhtaev.kafka.WeatherOutboxRelay.HEADER_EVENT_TYPE;
+
+/**
+ * Модульные тесты для сервиса получения и обработки данных о погоде
+ * из Kafka-топика {@link WeatherConsumer}.
+ */
+class WeatherConsumerTest extends AbstractServiceTest {
+
+    private static final String TOPIC = "weather";
+
+    private static final String GROUP = "weather-group";
+
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 1);
+
+    /**
+     * Имитация JPA-репозитория данных о погоде.
+     */
+    @Mock
+    private IWeatherJpaRepository weatherRepository;
+
+    /**
+     * Имитация сервиса для обработки данных о погоде.
+     */
+    @Mock
+    private IWeatherProcessingService processingService;
+
+    /**
+     * Имитация сервиса для выполнения запросов к внешнему API данных о погоде.
+     */
+    @Mock
+    private IExternalWeatherApiService externalApiService;
+
+    /**
+     * Имитация обработчика перераспределения партиций.
+     */
+    @Mock
+    private WeatherRebalanceListener rebalanceListener;
+
+    /**
+     * Имитация сервиса для работы с необработанными сообщениями.
+     */
+    @Mock
+    private IDeadLetterService deadLetterService;
+
+    /**
+     * Имитация репозитория исходящих событий.
+     */
+    @Mock
+    private OutboxEventJdbcRepository outboxRepository;
+
+    /**
+     * Имитация фильтра дубликатов данных о погоде.
+     */
+    @Mock
+    private WeatherDuplicateFilter duplicateFilter;
+
+    /**
+     * Имитация репозитория смещений обработанных сообщений.
+     */
+    @Mock
+    private ConsumerOffsetJdbcRepository offsetRepository;
+
+    /**
+     * Имитация менеджера транзакций.
+     */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Имитация получателя сообщений.
+     */
+    @Mock
+    private Consumer<String, Weather> consumer;
+
+    private final TransactionStatus transaction = new SimpleTransactionStatus();
+
+    private final KafkaConfigParams kafkaConfig = new KafkaConfigParams();
+
+    private ConsumerRecord<String, Weather> record;
+
+    private WeatherConsumer underTest;
+
+    @BeforeEach
+    void setUp() {
+        kafkaConfig.setExactlyOnce(true);
+
+        underTest = new WeatherConsumer(
+                weatherRepository,
+                processingService,
+                externalApiService,
+                new WeatherConsumerMetrics(new SimpleMeterRegistry()),
+                rebalanceListener,
+                deadLetterService,
+                TOPIC,
+                new WeatherOutbox(outboxRepository),
+                duplicateFilter,
+                offsetRepository,
+                kafkaConfig,
+                transactionManager
+        );
+
+        final Weather weather = Weather.builder()
+                .city(City.builder().name("Kazan").build())
+                .type(WeatherType.builder().name("Sunny").build())
+                .temperature(12.5)
+                .dateTime(NOW)
+                .build();
+        record = new ConsumerRecord<>(TOPIC, PARTITION.partition(), 42L, "Kazan", weather);
+
+        lenient().when(consumer.groupMetadata())
+                .thenReturn(new ConsumerGroupMetadata(GROUP));
+        lenient().when(transactionManager.getTransaction(any()))
+                .thenReturn(transaction);
+    }
+
+    @Test
+    void listen_shouldSaveWeatherAndNextOffsetInSingleTransactionWithoutDuplicateLookup() {
+        // when
+        underTest.listen(record, consumer);
+
+        // then
+        final InOrder inOrder = inOrder(transactionManager, externalApiService, offsetRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(externalApiService).saveWithTransaction(record.value());
+        inOrder.verify(offsetRepository).save(GROUP, PARTITION, 43L);
+        inOrder.verify(transactionManager).commit(transaction);
+        verify(transactionManager, never()).rollback(any());
+        verify(weatherRepository, never()).findFirstByCityNameAndDateTime(any(), any());
+        verifyNoInteractions(duplicateFilter, outboxRepository);
+    }
+
+    @Test
+    void listen_withCrashBetweenPersistenceAndOffsetStore_shouldRollBackWeatherTogetherWithOffset() {
+        // given
+        willThrow(new IllegalStateException("Connection lost"))
+                .given(offsetRepository)
+                .save(GROUP, PARTITION, 43L);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.listen(record, consumer))
+                .isInstanceOf(IllegalStateException.class);
+        verify(externalApiService, times(1)).saveWithTransaction(record.value());
+        verify(transactionManager, times(1)).rollback(transaction);
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void listen_withAlreadySavedWeather_shouldStoreOffsetOnly() {
+        // given
+        given(externalApiService.saveWithTransaction(record.value()))
+                .willThrow(new UniqueWeatherException("Duplicate"));
+
+        // when
+        underTest.listen(record, consumer);
+
+        // then
+        verify(transactionManager, times(1)).rollback(transaction);
+        verify(transactionManager, times(1)).commit(transaction);
+        verify(offsetRepository, times(1)).save(GROUP, PARTITION, 43L);
+    }
+
+    @Test
+    void listen_withWeatherDefinitelyNotSaved_shouldSaveWithoutDuplicateLookup() {
+        // given
+        kafkaConfig.setExactlyOnce(false);
+        given(duplicateFilter.mightContain("Kazan", NOW)).willReturn(false);
+
+        // when
+        underTest.listen(record, consumer);
+
+        // then
+        verify(weatherRepository, never()).findFirstByCityNameAndDateTime(any(), any());
+        verify(externalApiService, times(1)).saveWithTransaction(record.value());
+        verify(duplicateFilter, times(1)).put("Kazan", NOW);
+    }
+
+    @Test
+    void listen_withWeatherMaybeSaved_shouldSkipAlreadySavedWeather() {
+        // given
+        kafkaConfig.setExactlyOnce(false);
+        given(duplicateFilter.mightContain("Kazan", NOW)).willReturn(true);
+        given(weatherRepository.findFirstByCityNameAndDateTime("Kazan", NOW))
+                .willReturn(Optional.of(record.value()));
+
+        // when
+        underTest.listen(record, consumer);
+
+        // then
+        verify(externalApiService, never()).saveWithTransaction(any());
+        verify(duplicateFilter, times(1)).put("Kazan", NOW);
+    }
+
+    @Test
+    void listen_withWeatherSavedBypassingFilter_shouldTreatUniqueViolationAsDuplicate() {
+        // given
+        kafkaConfig.setExactlyOnce(false);
+        given(duplicateFilter.mightContain("Kazan", NOW)).willReturn(false);
+        given(externalApiService.saveWithTransaction(record.value()))
+                .willThrow(new UniqueWeatherException("Duplicate"));
+
+        // when
+        underTest.listen(record, consumer);
+
+        // then
+        verify(weatherRepository, never()).findFirstByCityNameAndDateTime(any(), any());
+        verify(duplicateFilter, times(1)).put("Kazan", NOW);
+    }
+
+    @Test
+    void listen_withOutboxChangeEvent_shouldSkipIt() {
+        // given
+        final var events = Arrays.stream(WeatherEventType.values())
+                .map(eventType -> {
+                    final var event = new ConsumerRecord<>(TOPIC, PARTITION.partition(), 43L, "Kazan", record.value());
+                    event.headers().add(HEADER_EVENT_TYPE, eventType.name().getBytes(StandardCharsets.UTF_8));
+                    return event;
+                })
+                .toList();
+
+        // when
+        events.forEach(event -> underTest.listen(event, consumer));
+
+        // then
+        verifyNoInteractions(externalApiService, offsetRepository, duplicateFilter, rebalanceListener);
+    }
+}
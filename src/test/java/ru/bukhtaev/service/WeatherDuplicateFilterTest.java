@@ -0,0 +1,161 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.repository.jdbc.WeatherJdbcRepository;
+
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Модульные тесты для вероятностного фильтра дубликатов данных о погоде {@link WeatherDuplicateFilter}.
+ */
+class WeatherDuplicateFilterTest extends AbstractServiceTest {
+
+    /**
+     * Имитация JDBC-репозитория данных о погоде.
+     */
+    @Mock
+    private WeatherJdbcRepository weatherRepository;
+
+    private final KafkaConfigParams kafkaConfig = new KafkaConfigParams();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void seed_shouldLoadExistingKeysAndReportOthersAsDefinitelyNew() {
+        // given
+        willAnswer(invocation -> {
+            final BiConsumer<String, LocalDateTime> handler = invocation.getArgument(1);
+            handler.accept("Kazan", YESTERDAY);
+            handler.accept("Irkutsk", NOW);
+            return null;
+        }).given(weatherRepository).forEachKeySince(any(), any());
+        final var underTest = createFilter();
+
+        // when
+        underTest.seed();
+
+        // then
+        assertThat(underTest.mightContain("Kazan", YESTERDAY)).isTrue();
+        assertThat(underTest.mightContain("Irkutsk", NOW)).isTrue();
+        assertThat(underTest.mightContain("Kazan", NOW)).isFalse();
+        assertThat(underTest.mightContain("Moscow", YESTERDAY)).isFalse();
+        assertThat(meterRegistry.get(WeatherConsumerMetrics.METRIC_DEDUPE_FILTER_BYTES).gauge().value())
+                .isEqualTo(underTest.getSizeInBytes())
+                .isPositive();
+    }
+
+    @Test
+    void mightContain_withManyKeys_shouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+        // given
+        kafkaConfig.getDuplicateFilter().setExpectedInsertions(10_000);
+        kafkaConfig.getDuplicateFilter().setFalsePositiveRate(0.01);
+        final var underTest = createFilter();
+        underTest.seed();
+
+        // when
+        for (int i = 0; i < 10_000; i++) {
+            underTest.put("Kazan", NOW.minusMinutes(i));
+        }
+
+        // then
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(underTest.mightContain("Kazan", NOW.minusMinutes(i))).isTrue();
+            if (underTest.mightContain("Irkutsk", NOW.minusMinutes(i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void put_beyondExpectedInsertions_shouldForgetOldestGeneration() {
+        // given
+        kafkaConfig.getDuplicateFilter().setExpectedInsertions(100);
+        final var underTest = createFilter();
+        underTest.seed();
+
+        // when
+        for (int i = 0; i < 300; i++) {
+            underTest.put("Kazan", NOW.plusMinutes(i));
+        }
+
+        // then
+        for (int i = 100; i < 300; i++) {
+            assertThat(underTest.mightContain("Kazan", NOW.plusMinutes(i))).isTrue();
+        }
+        int remembered = 0;
+        for (int i = 0; i < 100; i++) {
+            if (underTest.mightContain("Kazan", NOW.plusMinutes(i))) {
+                remembered++;
+            }
+        }
+        assertThat(remembered).isLessThan(10);
+    }
+
+    @Test
+    void mightContain_withFailedSeed_shouldAlwaysRequireLookup() {
+        // given
+        willThrow(new IllegalStateException("Database is unavailable"))
+                .given(weatherRepository).forEachKeySince(any(), any());
+        final var underTest = createFilter();
+
+        // when
+        underTest.seed();
+
+        // then
+        assertThat(underTest.mightContain("Kazan", NOW)).isTrue();
+    }
+
+    @Test
+    void mightContain_withDisabledFilter_shouldAlwaysRequireLookup() {
+        // given
+        kafkaConfig.getDuplicateFilter().setEnabled(false);
+        final var underTest = createFilter();
+
+        // when
+        underTest.seed();
+        underTest.put("Kazan", NOW);
+
+        // then
+        assertThat(underTest.mightContain("Moscow", NOW)).isTrue();
+        assertThat(underTest.getSizeInBytes()).isZero();
+        verifyNoInteractions(weatherRepository);
+    }
+
+    @Test
+    void seed_withExactlyOnceProcessing_shouldNotLoadKeysOrRegisterMetric() {
+        // given
+        kafkaConfig.setExactlyOnce(true);
+        final var underTest = createFilter();
+
+        // when
+        underTest.seed();
+        underTest.put("Kazan", NOW);
+
+        // then
+        assertThat(underTest.mightContain("Kazan", NOW)).isTrue();
+        assertThat(underTest.getSizeInBytes()).isZero();
+        assertThat(meterRegistry.find(WeatherConsumerMetrics.METRIC_DEDUPE_FILTER_BYTES).gauge()).isNull();
+        verifyNoInteractions(weatherRepository);
+    }
+
+    private WeatherDuplicateFilter createFilter() {
+        return new WeatherDuplicateFilter(
+                weatherRepository,
+                kafkaConfig,
+                new WeatherConsumerMetrics(meterRegistry)
+        );
+    }
+}
@@ -0,0 +1,288 @@
+package ru.bukhtaev.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import ru.bukhtaev.config.FetchJobConfigParams;
+import ru.bukhtaev.config.external.BulkRequestConfigParams;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.dto.FetchJobDto;
+import ru.bukhtaev.dto.external.BulkWeatherResult;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
+import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.exception.CommonServerSideException;
+import ru.bukhtaev.exception.DataNotFoundException;
+import ru.bukhtaev.exception.FetchJobRejectedException;
+import ru.bukhtaev.exception.InvalidPropertyException;
+import ru.bukhtaev.exception.external.LocationNotFoundException;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.util.FetchJobStatus;
+import ru.bukhtaev.validation.MessageProvider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+/**
+ * Модульные тесты для сервиса заданий получения и сохранения данных о погоде
+ * {@link WeatherFetchJobServiceImpl}.
+ */
+class WeatherFetchJobServiceImplTest extends AbstractServiceTest {
+
+    /**
+     * Имитация сервиса для выполнения запросов к внешнему API данных о погоде.
+     */
+    @Mock
+    private IExternalWeatherApiService externalApiService;
+
+    /**
+     * Имитация маппера для объектов типа {@link Weather}.
+     */
+    @Mock
+    private IWeatherMapper mapper;
+
+    /**
+     * Имитация сервиса предоставления сообщений.
+     */
+    @Mock
+    private MessageProvider messageProvider;
+
+    /**
+     * Имитация исполнителя заданий.
+     */
+    @Mock
+    private ExecutorService executor;
+
+    /**
+     * Перехватчик задачи, передаваемой исполнителю.
+     */
+    @Captor
+    private ArgumentCaptor<Runnable> taskCaptor;
+
+    /**
+     * Перехватчик данных о погоде, передаваемых для сохранения.
+     */
+    @Captor
+    private ArgumentCaptor<List<Weather>> weatherListCaptor;
+
+    private FetchJobConfigParams jobConfig;
+
+    private WeatherFetchJobServiceImpl underTest;
+
+    @BeforeEach
+    void setUp() {
+        jobConfig = new FetchJobConfigParams();
+        jobConfig.setMaxLocations(3);
+        jobConfig.setRetainedJobs(2);
+
+        underTest = new WeatherFetchJobServiceImpl(
+                externalApiService,
+                mapper,
+                messageProvider,
+                jobConfig,
+                ExternalApiConfigParams.builder()
+                        .bulkRequest(BulkRequestConfigParams.builder()
+                                .locationsLimit(2)
+                                .build())
+                        .build(),
+                executor
+        );
+    }
+
+    @Test
+    void submit_shouldQueueJobAndSaveFetchedWeatherInOneBatch() {
+        // given
+        given(externalApiService.getCurrentBulk(eq(List.of("Kazan", "Irkutsk")), anyString(), isNull()))
+                .willReturn(List.of(
+                        BulkWeatherResult.success("Kazan", summary("Kazan")),
+                        BulkWeatherResult.failure("Irkutsk", new LocationNotFoundException("location", "Irkutsk"))
+                ));
+        given(externalApiService.getCurrentBulk(eq(List.of("Omsk")), anyString(), isNull()))
+                .willReturn(List.of(BulkWeatherResult.success("Omsk", summary("Omsk"))));
+        given(mapper.convertFromSummary(any()))
+                .willAnswer(invocation -> weather(invocation.<CurrentWeatherSummary>getArgument(0)));
+        given(externalApiService.saveAllWithTransaction(anyList()))
+                .willAnswer(invocation -> invocation.<List<Weather>>getArgument(0).subList(0, 1));
+
+        // when
+        final FetchJobDto submitted = underTest.submit(List.of("Kazan", "Irkutsk", "Kazan", "Omsk"), null);
+        verify(executor).execute(taskCaptor.capture());
+        final FetchJobDto queued = underTest.getJob(submitted.getId());
+        taskCaptor.getValue().run();
+        final FetchJobDto completed = underTest.getJob(submitted.getId());
+
+        // then
+        assertThat(submitted.getStatus()).isEqualTo(FetchJobStatus.QUEUED);
+        assertThat(queued.getStatus()).isEqualTo(FetchJobStatus.QUEUED);
+        assertThat(completed.getStatus()).isEqualTo(FetchJobStatus.COMPLETED);
+        assertThat(completed.getTotalLocations()).isEqualTo(3);
+        assertThat(completed.getSaved()).hasSize(1);
+        assertThat(completed.getSkippedLocations()).isEqualTo(1);
+        assertThat(completed.getErrors())
+                .containsOnlyKeys("Irkutsk")
+                .containsEntry("Irkutsk", "No location found for value <Irkutsk>");
+        assertThat(completed.getFinishedAt()).isNotNull();
+        verify(externalApiService, times(2)).getCurrentBulk(anyList(), anyString(), isNull());
+        verify(externalApiService, times(1)).saveAllWithTransaction(weatherListCaptor.capture());
+        assertThat(weatherListCaptor.getValue())
+                .extracting(weather -> weather.getCity().getName())
+                .containsExactly("Kazan", "Omsk");
+    }
+
+    @Test
+    void submit_withFailedBulkRequest_shouldRecordErrorsAndSaveOtherChunks() {
+        // given
+        given(externalApiService.getCurrentBulk(eq(List.of("Kazan", "Irkutsk")), anyString(), isNull()))
+                .willThrow(new CommonServerSideException("Circuit breaker is open"));
+        given(externalApiService.getCurrentBulk(eq(List.of("Omsk")), anyString(), isNull()))
+                .willReturn(List.of(BulkWeatherResult.success("Omsk", summary("Omsk"))));
+        given(mapper.convertFromSummary(any()))
+                .willAnswer(invocation -> weather(invocation.<CurrentWeatherSummary>getArgument(0)));
+        given(externalApiService.saveAllWithTransaction(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        final FetchJobDto submitted = underTest.submit(List.of("Kazan", "Irkutsk", "Omsk"), null);
+        verify(executor).execute(taskCaptor.capture());
+        taskCaptor.getValue().run();
+        final FetchJobDto completed = underTest.getJob(submitted.getId());
+
+        // then
+        assertThat(completed.getStatus()).isEqualTo(FetchJobStatus.COMPLETED);
+        assertThat(completed.getSaved()).hasSize(1);
+        assertThat(completed.getErrors())
+                .containsEntry("Kazan", "Circuit breaker is open")
+                .containsEntry("Irkutsk", "Circuit breaker is open")
+                .hasSize(2);
+        verify(externalApiService, times(1)).saveAllWithTransaction(weatherListCaptor.capture());
+        assertThat(weatherListCaptor.getValue())
+                .extracting(weather -> weather.getCity().getName())
+                .containsExactly("Omsk");
+    }
+
+    @Test
+    void submit_withFailedSaving_shouldFailJob() {
+        // given
+        given(externalApiService.getCurrentBulk(anyList(), anyString(), any()))
+                .willReturn(List.of(BulkWeatherResult.success("Kazan", summary("Kazan"))));
+        given(mapper.convertFromSummary(any()))
+                .willAnswer(invocation -> weather(invocation.<CurrentWeatherSummary>getArgument(0)));
+        given(externalApiService.saveAllWithTransaction(anyList()))
+                .willThrow(new IllegalStateException("Database is unavailable"));
+
+        // when
+        final FetchJobDto submitted = underTest.submit(List.of("Kazan"), Boolean.TRUE);
+        verify(executor).execute(taskCaptor.capture());
+        taskCaptor.getValue().run();
+        final FetchJobDto failed = underTest.getJob(submitted.getId());
+
+        // then
+        assertThat(failed.getStatus()).isEqualTo(FetchJobStatus.FAILED);
+        assertThat(failed.getErrorMessage()).isEqualTo("Database is unavailable");
+        assertThat(failed.getSaved()).isEmpty();
+    }
+
+    @Test
+    void submit_withoutLocations_shouldThrowException() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.submit(List.of(), null))
+                .isInstanceOf(InvalidPropertyException.class);
+        verifyNoInteractions(executor, externalApiService);
+    }
+
+    @Test
+    void submit_withTooManyLocations_shouldThrowException() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.submit(Collections.nCopies(4, "Kazan"), null))
+                .isInstanceOf(InvalidPropertyException.class);
+        verifyNoInteractions(executor, externalApiService);
+    }
+
+    @Test
+    void submit_withFullQueue_shouldRejectJobAndForgetIt() {
+        // given
+        willThrow(new RejectedExecutionException()).given(executor).execute(any());
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.submit(List.of("Kazan"), null))
+                .isInstanceOf(FetchJobRejectedException.class);
+        verifyNoInteractions(externalApiService);
+    }
+
+    @Test
+    void getJob_withEvictedJob_shouldThrowException() {
+        // given
+        final FetchJobDto first = underTest.submit(List.of("Kazan"), null);
+        underTest.submit(List.of("Omsk"), null);
+        verify(executor, times(2)).execute(taskCaptor.capture());
+        taskCaptor.getAllValues().forEach(Runnable::run);
+        underTest.submit(List.of("Irkutsk"), null);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getJob(first.getId()))
+                .isInstanceOf(DataNotFoundException.class);
+    }
+
+    @Test
+    void getJob_withUnfinishedJobsBeyondRetainedCount_shouldReturnAllOfThem() {
+        // given
+        final List<FetchJobDto> submitted = List.of(
+                underTest.submit(List.of("Kazan"), null),
+                underTest.submit(List.of("Omsk"), null),
+                underTest.submit(List.of("Irkutsk"), null)
+        );
+
+        // when
+        final List<FetchJobDto> jobs = submitted.stream()
+                .map(job -> underTest.getJob(job.getId()))
+                .toList();
+
+        // then
+        assertThat(jobs)
+                .extracting(FetchJobDto::getStatus)
+                .containsOnly(FetchJobStatus.QUEUED);
+    }
+
+    @Test
+    void getJob_withNonExistentId_shouldThrowException() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getJob(UUID.randomUUID()))
+                .isInstanceOf(DataNotFoundException.class);
+    }
+
+    private static CurrentWeatherSummary summary(final String city) {
+        return CurrentWeatherSummary.builder()
+                .cityName(city)
+                .build();
+    }
+
+    private static Weather weather(final CurrentWeatherSummary summary) {
+        return Weather.builder()
+                .city(City.builder()
+                        .name(summary.getCityName())
+                        .build())
+                .temperature(1.0)
+                .dateTime(NOW)
+                .build();
+    }
+}
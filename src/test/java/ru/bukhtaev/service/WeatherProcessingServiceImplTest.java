@@ -48,6 +48,12 @@ class WeatherProcessingServiceImplTest extends AbstractServiceTest {
     @Mock
     private IWeatherJpaRepository weatherRepository;
 
+    /**
+     * Имитация сервиса предоставления названий городов.
+     */
+    @Mock
+    private CitiesProvider citiesProvider;
+
     /**
      * Тестируемая JPA-реализация сервиса CRUD операций над данными о погоде.
      */
@@ -188,6 +194,7 @@ class WeatherProcessingServiceImplTest extends AbstractServiceTest {
         assertThat(weatherCaptor.getValue())
                 .isEqualTo(weather3);
         verifyNoMoreInteractions(cache);
+        verify(citiesProvider, times(1)).recordDemand(cityName);
     }
 
     @Test
@@ -0,0 +1,545 @@
+package ru.bukhtaev.service;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.core.KafkaTemplate;
+import ru.bukhtaev.config.CitiesConfigParams;
+import ru.bukhtaev.config.CoordinationConfigParams;
+import ru.bukhtaev.config.external.BulkRequestConfigParams;
+import ru.bukhtaev.config.external.ExternalApiConfigParams;
+import ru.bukhtaev.config.external.QuotaConfigParams;
+import ru.bukhtaev.dto.external.BulkWeatherResult;
+import ru.bukhtaev.dto.external.CurrentWeatherSummary;
+import ru.bukhtaev.dto.mapper.IWeatherMapper;
+import ru.bukhtaev.exception.external.LocationNotFoundException;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.repository.jdbc.SchedulerLeaseJdbcRepository;
+import ru.bukhtaev.repository.jdbc.SchedulerNodeJdbcRepository;
+import ru.bukhtaev.util.ConsistentHashRing;
+import ru.bukhtaev.util.CoordinationMode;
+import ru.bukhtaev.util.PollingMode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+/**
+ * Модульные тесты для сервиса запроса данных о погоде
+ * из внешнего API и их отправки в Kafka-топик {@link WeatherProducer}.
+ */
+class WeatherProducerTest extends AbstractServiceTest {
+
+    private static final List<String> CITIES = List.of("Kazan", "Yekaterinburg", "Irkutsk");
+
+    /**
+     * Имитация маппера для объектов типа {@link Weather}.
+     */
+    @Mock
+    private IWeatherMapper mapper;
+
+    /**
+     * Имитация сервиса для отправки сообщений.
+     */
+    @Mock
+    private KafkaTemplate<String, Weather> kafkaTemplate;
+
+    /**
+     * Имитация сервиса для выполнения запросов к внешнему API данных о погоде.
+     */
+    @Mock
+    private IExternalWeatherApiService weatherApiService;
+
+    /**
+     * Имитация исполнителя задач опроса внешнего API.
+     */
+    @Mock
+    private ExecutorService pollingExecutor;
+
+    /**
+     * Имитация репозитория аренд задач по расписанию.
+     */
+    @Mock
+    private SchedulerLeaseJdbcRepository leaseRepository;
+
+    /**
+     * Имитация репозитория живых экземпляров приложения.
+     */
+    @Mock
+    private SchedulerNodeJdbcRepository nodeRepository;
+
+    private CitiesConfigParams citiesConfig;
+
+    private int locationsLimit;
+
+    private QuotaConfigParams quotaConfig;
+
+    private ExternalApiQuotaThrottle quotaThrottle;
+
+    private CoordinationConfigParams coordinationConfig;
+
+    private SchedulerCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        citiesConfig = new CitiesConfigParams();
+        citiesConfig.setCities(CITIES.toArray(String[]::new));
+        citiesConfig.getPolling().setMode(PollingMode.CONCURRENT);
+        locationsLimit = 49;
+        quotaConfig = QuotaConfigParams.builder()
+                .enabled(false)
+                .limit(1_000_000L)
+                .period(Duration.ofDays(30))
+                .realtimeReserve(0.1)
+                .maxBurst(100)
+                .initialBackoff(Duration.ofMinutes(1))
+                .maxBackoff(Duration.ofHours(1))
+                .build();
+        coordinationConfig = new CoordinationConfigParams();
+    }
+
+    @Test
+    void publish_inConcurrentMode_shouldPollAllCitiesWithSingleBulkRequestAndSendEachOfThem() {
+        // given
+        stubBulkApiAndKafka();
+        runTasksInCallingThread();
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(pollingExecutor, times(1)).execute(any());
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(CITIES), anyString(), eq(Boolean.FALSE));
+        verify(weatherApiService, never()).getCurrent(anyString(), anyString(), any());
+        for (final String city : CITIES) {
+            verify(kafkaTemplate, times(1)).sendDefault(eq(city), weatherCaptor.capture());
+        }
+    }
+
+    @Test
+    void publish_inConcurrentModeWithManyCities_shouldSplitCitiesIntoChunksByLocationsLimit() {
+        // given
+        locationsLimit = 2;
+        stubBulkApiAndKafka();
+        runTasksInCallingThread();
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(pollingExecutor, times(2)).execute(any());
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(List.of("Kazan", "Yekaterinburg")), anyString(), eq(Boolean.FALSE));
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(List.of("Irkutsk")), anyString(), eq(Boolean.FALSE));
+        verify(kafkaTemplate, times(CITIES.size())).sendDefault(anyString(), any(Weather.class));
+    }
+
+    @Test
+    void publish_inConcurrentModeWithLocationError_shouldSendOnlySuccessfulResults() {
+        // given
+        runTasksInCallingThread();
+        stubMapperAndKafka();
+        given(weatherApiService.getCurrentBulk(anyList(), anyString(), any()))
+                .willReturn(List.of(
+                        BulkWeatherResult.success("Kazan", summary("Kazan")),
+                        BulkWeatherResult.failure("Yekaterinburg", new LocationNotFoundException("location", "Yekaterinburg")),
+                        BulkWeatherResult.success("Irkutsk", summary("Irkutsk"))
+                ));
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(kafkaTemplate, times(1)).sendDefault(eq("Kazan"), any(Weather.class));
+        verify(kafkaTemplate, times(1)).sendDefault(eq("Irkutsk"), any(Weather.class));
+        verify(kafkaTemplate, never()).sendDefault(eq("Yekaterinburg"), any(Weather.class));
+    }
+
+    @Test
+    void publish_inConcurrentModeWithLocationError_shouldPollFailedCityNextTime() {
+        // given
+        runTasksInCallingThread();
+        stubMapperAndKafka();
+        given(weatherApiService.getCurrentBulk(anyList(), anyString(), any()))
+                .willReturn(List.of(
+                        BulkWeatherResult.success("Kazan", summary("Kazan")),
+                        BulkWeatherResult.failure("Yekaterinburg", new LocationNotFoundException("location", "Yekaterinburg")),
+                        BulkWeatherResult.success("Irkutsk", summary("Irkutsk"))
+                ))
+                .willReturn(List.of(
+                        BulkWeatherResult.success("Yekaterinburg", summary("Yekaterinburg"))
+                ));
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+        underTest.publish();
+
+        // then
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(CITIES), anyString(), eq(Boolean.FALSE));
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(List.of("Yekaterinburg")), anyString(), eq(Boolean.FALSE));
+        verify(kafkaTemplate, times(1)).sendDefault(eq("Yekaterinburg"), any(Weather.class));
+    }
+
+    @Test
+    void publish_inConcurrentModeWithFailedBulkRequest_shouldPollChunkNextTime() {
+        // given
+        runTasksInCallingThread();
+        stubMapperAndKafka();
+        given(weatherApiService.getCurrentBulk(anyList(), anyString(), any()))
+                .willThrow(new IllegalStateException("Circuit breaker is open"))
+                .willAnswer(invocation -> invocation.<List<String>>getArgument(0)
+                        .stream()
+                        .map(city -> BulkWeatherResult.success(city, summary(city)))
+                        .toList());
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+        underTest.publish();
+
+        // then
+        verify(weatherApiService, times(2))
+                .getCurrentBulk(eq(CITIES), anyString(), eq(Boolean.FALSE));
+        for (final String city : CITIES) {
+            verify(kafkaTemplate, times(1)).sendDefault(eq(city), any(Weather.class));
+        }
+    }
+
+    @Test
+    void publish_inConcurrentModeWithExhaustedRateLimit_shouldPollOnlyAllowedNumberOfChunks() {
+        // given
+        locationsLimit = 2;
+        stubBulkApiAndKafka();
+        runTasksInCallingThread();
+        final WeatherProducer underTest = createProducer(1);
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(pollingExecutor, times(1)).execute(any());
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(List.of("Kazan", "Yekaterinburg")), anyString(), eq(Boolean.FALSE));
+        verifyNoMoreInteractions(weatherApiService);
+    }
+
+    @Test
+    void publish_inConcurrentModeWithLimitedQuota_shouldPollOnlyAllowedNumberOfCities() {
+        // given
+        quotaConfig.setEnabled(true);
+        quotaConfig.setMaxBurst(2);
+        stubBulkApiAndKafka();
+        runTasksInCallingThread();
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(List.of("Kazan", "Yekaterinburg")), anyString(), eq(Boolean.FALSE));
+        verifyNoMoreInteractions(weatherApiService);
+    }
+
+    @Test
+    void publish_inConcurrentModeWithUnfinishedPolling_shouldSkipCitiesInFlight() {
+        // given
+        locationsLimit = 1;
+        citiesConfig.getPolling().setInterval(Duration.ZERO);
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+        underTest.publish();
+
+        // then
+        verify(pollingExecutor, times(CITIES.size())).execute(any());
+        verifyNoInteractions(weatherApiService, kafkaTemplate);
+    }
+
+    @Test
+    void publish_inConcurrentModeBeforeNextPollingTime_shouldNotPollCitiesAgain() {
+        // given
+        stubBulkApiAndKafka();
+        runTasksInCallingThread();
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+        underTest.publish();
+
+        // then
+        verify(weatherApiService, times(1))
+                .getCurrentBulk(eq(CITIES), anyString(), eq(Boolean.FALSE));
+        verifyNoMoreInteractions(weatherApiService);
+    }
+
+    @Test
+    void publish_inConcurrentModeWithLimitedConcurrency_shouldPostponeRemainingChunks() {
+        // given
+        locationsLimit = 1;
+        citiesConfig.getPolling().setMaxConcurrency(1);
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(pollingExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    void publish_inConcurrentModeWithLimitedConcurrency_shouldPollPostponedCitiesNextTime() {
+        // given
+        locationsLimit = 1;
+        citiesConfig.getPolling().setMaxConcurrency(1);
+        stubBulkApiAndKafka();
+        final List<Runnable> tasks = new ArrayList<>();
+        willAnswer(invocation -> tasks.add(invocation.getArgument(0))).given(pollingExecutor).execute(any());
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        for (int i = 0; i < CITIES.size(); i++) {
+            underTest.publish();
+            tasks.remove(0).run();
+        }
+
+        // then
+        assertThat(tasks).isEmpty();
+        for (final String city : CITIES) {
+            verify(weatherApiService, times(1))
+                    .getCurrentBulk(eq(List.of(city)), anyString(), eq(Boolean.FALSE));
+        }
+        verifyNoMoreInteractions(weatherApiService);
+    }
+
+    @Test
+    void publish_inSequentialMode_shouldPollSingleCityWithoutWaitingForResponse() {
+        // given
+        citiesConfig.getPolling().setMode(PollingMode.SEQUENTIAL);
+        given(mapper.convertFromSummary(any()))
+                .willAnswer(invocation -> Weather.builder()
+                        .city(City.builder()
+                                .name(invocation.<CurrentWeatherSummary>getArgument(0).getCityName())
+                                .build())
+                        .temperature(1.0)
+                        .dateTime(NOW)
+                        .build());
+        given(kafkaTemplate.sendDefault(anyString(), any()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        final var pendingSummary = new CompletableFuture<CurrentWeatherSummary>();
+        given(weatherApiService.getCurrentSummaryAsync(anyString(), anyString()))
+                .willReturn(pendingSummary);
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+
+        // then
+        verifyNoInteractions(pollingExecutor);
+        verify(weatherApiService, times(1))
+                .getCurrentSummaryAsync(stringCaptor.capture(), anyString());
+        assertThat(stringCaptor.getValue()).isEqualTo("Kazan");
+        verify(kafkaTemplate, never()).sendDefault(anyString(), any());
+
+        pendingSummary.complete(CurrentWeatherSummary.builder()
+                .cityName("Kazan")
+                .build());
+        verify(kafkaTemplate, times(1)).sendDefault(eq("Kazan"), any(Weather.class));
+    }
+
+    @Test
+    void publish_inSequentialModeWithFailedRequest_shouldPollCityAgainAfterOtherDueCities() {
+        // given
+        citiesConfig.getPolling().setMode(PollingMode.SEQUENTIAL);
+        stubMapperAndKafka();
+        given(weatherApiService.getCurrentSummaryAsync(anyString(), anyString()))
+                .willAnswer(invocation -> CompletableFuture.completedFuture(
+                        summary(invocation.getArgument(0))
+                ));
+        given(weatherApiService.getCurrentSummaryAsync(eq("Kazan"), anyString()))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("Circuit breaker is open")))
+                .willReturn(CompletableFuture.completedFuture(summary("Kazan")));
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        for (int i = 0; i <= CITIES.size(); i++) {
+            underTest.publish();
+        }
+
+        // then
+        verify(weatherApiService, times(2)).getCurrentSummaryAsync(eq("Kazan"), anyString());
+        for (final String city : CITIES) {
+            verify(kafkaTemplate, times(1)).sendDefault(eq(city), any(Weather.class));
+        }
+    }
+
+    @Test
+    void publish_inSequentialModeWithExceededQuota_shouldDeferPolling() {
+        // given
+        citiesConfig.getPolling().setMode(PollingMode.SEQUENTIAL);
+        quotaConfig.setEnabled(true);
+        final WeatherProducer underTest = createProducer(100);
+        quotaThrottle.onQuotaExceeded();
+
+        // when
+        underTest.publish();
+
+        // then
+        verifyNoInteractions(weatherApiService, kafkaTemplate, pollingExecutor);
+    }
+
+    @Test
+    void publish_onInstanceWithoutLease_shouldNotPoll() {
+        // given
+        coordinationConfig.setEnabled(true);
+        given(leaseRepository.tryAcquire(anyString(), anyString(), any(Duration.class)))
+                .willReturn(false);
+        final WeatherProducer underTest = createProducer(100);
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(leaseRepository, times(1))
+                .tryAcquire(eq(SchedulerCoordinator.TASK_WEATHER_POLLING), anyString(), any(Duration.class));
+        verifyNoInteractions(weatherApiService, kafkaTemplate, pollingExecutor);
+    }
+
+    @Test
+    void publish_inShardingMode_shouldPollOnlyOwnedCitiesWithoutLease() {
+        // given
+        stubBulkApiAndKafka();
+        runTasksInCallingThread();
+        coordinationConfig.setEnabled(true);
+        coordinationConfig.setMode(CoordinationMode.SHARDING);
+        coordinationConfig.setInstanceId("first");
+        given(nodeRepository.findAlive(coordinationConfig.getNodeTimeout()))
+                .willReturn(List.of("first", "second"));
+        final WeatherProducer underTest = createProducer(100);
+        coordinator.heartbeat();
+        final var ring = new ConsistentHashRing(List.of("first", "second"), coordinationConfig.getVirtualNodes());
+
+        // when
+        underTest.publish();
+
+        // then
+        verify(nodeRepository, times(1)).heartbeat("first");
+        verifyNoInteractions(leaseRepository);
+        for (final String city : CITIES) {
+            final int times = "first".equals(ring.nodeFor(city)) ? 1 : 0;
+            verify(kafkaTemplate, times(times)).sendDefault(eq(city), any(Weather.class));
+        }
+    }
+
+    @Test
+    void publish_inShardingModeWithFailedHeartbeat_shouldPollAllCities() {
+        // given
+        stubBulkApiAndKafka();
+        runTasksInCallingThread();
+        coordinationConfig.setEnabled(true);
+        coordinationConfig.setMode(CoordinationMode.SHARDING);
+        coordinationConfig.setInstanceId("first");
+        willThrow(new QueryTimeoutException("Database is unavailable"))
+                .given(nodeRepository).heartbeat("first");
+        final WeatherProducer underTest = createProducer(100);
+        coordinator.heartbeat();
+
+        // when
+        underTest.publish();
+
+        // then
+        verifyNoInteractions(leaseRepository);
+        for (final String city : CITIES) {
+            verify(kafkaTemplate, times(1)).sendDefault(eq(city), any(Weather.class));
+        }
+    }
+
+    private WeatherProducer createProducer(final int availablePermissions) {
+        final var rateLimiterConfig = RateLimiterConfig.custom()
+                .limitForPeriod(availablePermissions)
+                .limitRefreshPeriod(Duration.ofDays(1))
+                .timeoutDuration(Duration.ZERO)
+                .build();
+        quotaThrottle = new ExternalApiQuotaThrottle(quotaConfig, 1, new SimpleMeterRegistry(), Clock.systemUTC());
+        coordinator = new SchedulerCoordinator(coordinationConfig, leaseRepository, nodeRepository);
+
+        return new WeatherProducer(
+                mapper,
+                new CitiesProvider(citiesConfig, new SimpleMeterRegistry(), coordinator),
+                kafkaTemplate,
+                weatherApiService,
+                citiesConfig,
+                ExternalApiConfigParams.builder()
+                        .bulkRequest(BulkRequestConfigParams.builder()
+                                .locationsLimit(locationsLimit)
+                                .build())
+                        .build(),
+                pollingExecutor,
+                RateLimiterRegistry.of(rateLimiterConfig),
+                quotaThrottle,
+                coordinator
+        );
+    }
+
+    private void stubBulkApiAndKafka() {
+        stubMapperAndKafka();
+        given(weatherApiService.getCurrentBulk(anyList(), anyString(), any()))
+                .willAnswer(invocation -> invocation.<List<String>>getArgument(0)
+                        .stream()
+                        .map(city -> BulkWeatherResult.success(city, summary(city)))
+                        .toList());
+    }
+
+    private void stubMapperAndKafka() {
+        given(mapper.convertFromSummary(any()))
+                .willAnswer(invocation -> Weather.builder()
+                        .city(City.builder()
+                                .name(invocation.<CurrentWeatherSummary>getArgument(0).getCityName())
+                                .build())
+                        .temperature(1.0)
+                        .dateTime(NOW)
+                        .build());
+        given(kafkaTemplate.sendDefault(anyString(), any()))
+                .willReturn(CompletableFuture.completedFuture(null));
+    }
+
+    private static CurrentWeatherSummary summary(final String city) {
+        return CurrentWeatherSummary.builder()
+                .cityName(city)
+                .build();
+    }
+
+    private void runTasksInCallingThread() {
+        willAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).given(pollingExecutor).execute(any());
+    }
+}
@@ -0,0 +1,398 @@
+package ru.bukhtaev.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.bukhtaev.config.KafkaConfigParams;
+import ru.bukhtaev.dto.ReplayProgressDto;
+import ru.bukhtaev.exception.InvalidPropertyException;
+import ru.bukhtaev.exception.ReplayAlreadyRunningException;
+import ru.bukhtaev.kafka.WeatherConsumerMetrics;
+import ru.bukhtaev.kafka.WeatherOutboxRelay;
+import ru.bukhtaev.model.City;
+import ru.bukhtaev.model.Weather;
+import ru.bukhtaev.model.WeatherType;
+import ru.bukhtaev.repository.jdbc.WeatherJdbcRepository;
+import ru.bukhtaev.service.crud.IDictionaryCrudService;
+import ru.bukhtaev.util.ReplayStatus;
+import ru.bukhtaev.util.WeatherEventType;
+import ru.bukhtaev.validation.MessageProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Модульные тесты для сервиса повторного чтения истории Kafka-топика {@link WeatherReplayServiceImpl}.
+ */
+class WeatherReplayServiceImplTest extends AbstractServiceTest {
+
+    private static final String TOPIC = "weather";
+
+    private static final String GROUP = "weather-replay";
+
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    /**
+     * Имитация фабрики получателей сообщений.
+     */
+    @Mock
+    private ConsumerFactory<String, Weather> consumerFactory;
+
+    /**
+     * Имитация JDBC-репозитория данных о погоде.
+     */
+    @Mock
+    private WeatherJdbcRepository weatherRepository;
+
+    /**
+     * Имитация сервиса CRUD операций над городами.
+     */
+    @Mock
+    private IDictionaryCrudService<City, UUID> cityCrudService;
+
+    /**
+     * Имитация сервиса CRUD операций над типами погоды.
+     */
+    @Mock
+    private IDictionaryCrudService<WeatherType, UUID> typeCrudService;
+
+    /**
+     * Имитация сервиса предоставления сообщений.
+     */
+    @Mock
+    private MessageProvider messageProvider;
+
+    /**
+     * Имитация менеджера транзакций.
+     */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MockConsumer<String, Weather> consumer;
+
+    /**
+     * Смещения, сохраненные получателем.
+     */
+    private final Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+
+    private WeatherReplayServiceImpl underTest;
+
+    @BeforeEach
+    void setUp() {
+        final var kafkaConfig = new KafkaConfigParams();
+        kafkaConfig.getReplay().setGroupId(GROUP);
+        kafkaConfig.getReplay().setParallelism(2);
+        kafkaConfig.getReplay().setPollTimeout(10);
+
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(final Map<TopicPartition, OffsetAndMetadata> offsets) {
+                super.commitSync(offsets);
+                committed.putAll(offsets);
+            }
+        };
+        consumer.updatePartitions(TOPIC, List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, 4L));
+
+        underTest = new WeatherReplayServiceImpl(
+                consumerFactory,
+                weatherRepository,
+                cityCrudService,
+                typeCrudService,
+                new WeatherConsumerMetrics(new SimpleMeterRegistry()),
+                messageProvider,
+                kafkaConfig,
+                TOPIC,
+                transactionManager
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void replay_withoutStartPosition_shouldInsertAllRecordsUpToEndOffsetsAndCommitThem() {
+        // given
+        givenConsumerWithRecords();
+        given(cityCrudService.getByName("Kazan")).willReturn(Optional.of(new City(UUID.randomUUID(), "Kazan")));
+        given(cityCrudService.getByName("Irkutsk")).willReturn(Optional.empty());
+        given(typeCrudService.getByName("Sunny"))
+                .willReturn(Optional.of(new WeatherType(UUID.randomUUID(), "Sunny")));
+        final List<Weather> saved = new ArrayList<>();
+        given(weatherRepository.createAllIfAbsent(anyCollection())).willAnswer(invocation -> {
+            final Collection<Weather> chunk = invocation.getArgument(0);
+            synchronized (saved) {
+                saved.addAll(chunk);
+            }
+            return chunk.size();
+        });
+
+        // when
+        final var progress = underTest.begin(null, null);
+        underTest.replay(progress);
+
+        // then
+        final ReplayProgressDto result = progress.toDto();
+        assertThat(result.getStatus()).isEqualTo(ReplayStatus.COMPLETED);
+        assertThat(result.getTotalRecords()).isEqualTo(4);
+        assertThat(result.getReadRecords()).isEqualTo(4);
+        assertThat(result.getInsertedRows()).isEqualTo(3);
+        assertThat(result.getSkippedRecords()).isEqualTo(1);
+        assertThat(result.getPercentComplete()).isEqualTo(100.0);
+
+        assertThat(saved)
+                .extracting(Weather::getTemperature)
+                .containsExactlyInAnyOrder(1.0, 3.0, 4.0);
+        verify(cityCrudService).create(cityCaptor.capture());
+        assertThat(cityCaptor.getValue().getName()).isEqualTo("Irkutsk");
+        verify(cityCrudService, times(1)).getByName("Kazan");
+        verify(typeCrudService, never()).create(any());
+
+        assertThat(committed.get(PARTITION).offset()).isEqualTo(4);
+        assertThat(consumer.closed()).isTrue();
+    }
+
+    @Test
+    void replay_withChangeEvents_shouldApplyThemInOffsetOrderPerKey() {
+        // given
+        given(consumerFactory.createConsumer(eq(GROUP), any(), any(), any())).willReturn(consumer);
+        consumer.updateEndOffsets(Map.of(PARTITION, 6L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, "Kazan", 1.0, NOW, event(WeatherEventType.CREATED)));
+            consumer.addRecord(record(1, "Kazan", 2.0, NOW, event(WeatherEventType.UPDATED)));
+            consumer.addRecord(record(2, "Kazan", 2.0, NOW, event(WeatherEventType.DELETED)));
+            consumer.addRecord(record(3, "Irkutsk", 3.0, NOW, new RecordHeaders()));
+            consumer.addRecord(record(4, "Irkutsk", 4.0, NOW, event(WeatherEventType.UPDATED)));
+            consumer.addRecord(record(5, "Irkutsk", 5.0, NOW, new RecordHeaders()));
+        });
+        given(cityCrudService.getByName(anyString())).willReturn(Optional.of(new City(UUID.randomUUID(), "Kazan")));
+        given(typeCrudService.getByName("Sunny"))
+                .willReturn(Optional.of(new WeatherType(UUID.randomUUID(), "Sunny")));
+        final List<Weather> deleted = new ArrayList<>();
+        final List<Weather> changed = new ArrayList<>();
+        final List<Weather> created = new ArrayList<>();
+        given(weatherRepository.deleteAllByCityNameAndDateTime(anyCollection())).willAnswer(invocation -> {
+            deleted.addAll(invocation.getArgument(0));
+            return 1;
+        });
+        given(weatherRepository.changeAllByCityNameAndDateTime(anyCollection())).willAnswer(invocation -> {
+            changed.addAll(invocation.getArgument(0));
+            return 1;
+        });
+        given(weatherRepository.createAllIfAbsent(anyCollection())).willAnswer(invocation -> {
+            created.addAll(invocation.getArgument(0));
+            return 0;
+        });
+
+        // when
+        final var progress = underTest.begin(null, null);
+        underTest.replay(progress);
+
+        // then
+        final ReplayProgressDto result = progress.toDto();
+        assertThat(result.getStatus()).isEqualTo(ReplayStatus.COMPLETED);
+        assertThat(result.getReadRecords()).isEqualTo(6);
+        assertThat(result.getInsertedRows()).isZero();
+        assertThat(result.getUpdatedRows()).isEqualTo(1);
+        assertThat(result.getDeletedRows()).isEqualTo(1);
+        assertThat(result.getSkippedRecords()).isEqualTo(4);
+
+        assertThat(deleted)
+                .extracting(weather -> weather.getCity().getName())
+                .containsExactly("Kazan");
+        assertThat(changed)
+                .extracting(Weather::getTemperature)
+                .containsExactly(4.0);
+        assertThat(created)
+                .extracting(Weather::getTemperature)
+                .containsExactly(4.0);
+        assertThat(committed.get(PARTITION).offset()).isEqualTo(6);
+    }
+
+    @Test
+    void replay_withRecordAfterDeletion_shouldRecreateRecordWithItsData() {
+        // given
+        given(consumerFactory.createConsumer(eq(GROUP), any(), any(), any())).willReturn(consumer);
+        consumer.updateEndOffsets(Map.of(PARTITION, 2L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, "Kazan", 1.0, NOW, event(WeatherEventType.DELETED)));
+            consumer.addRecord(record(1, "Kazan", 2.0, NOW, event(WeatherEventType.CREATED)));
+        });
+        given(cityCrudService.getByName(anyString())).willReturn(Optional.of(new City(UUID.randomUUID(), "Kazan")));
+        given(typeCrudService.getByName("Sunny"))
+                .willReturn(Optional.of(new WeatherType(UUID.randomUUID(), "Sunny")));
+        final List<Weather> changed = new ArrayList<>();
+        given(weatherRepository.changeAllByCityNameAndDateTime(anyCollection())).willAnswer(invocation -> {
+            changed.addAll(invocation.getArgument(0));
+            return 1;
+        });
+
+        // when
+        final var progress = underTest.begin(null, null);
+        underTest.replay(progress);
+
+        // then
+        assertThat(progress.toDto().getUpdatedRows()).isEqualTo(1);
+        verify(weatherRepository, never()).deleteAllByCityNameAndDateTime(anyCollection());
+        assertThat(changed)
+                .extracting(Weather::getTemperature)
+                .containsExactly(2.0);
+    }
+
+    @Test
+    void replay_withOffset_shouldStartEveryPartitionFromIt() {
+        // given
+        givenConsumerWithRecords();
+        given(cityCrudService.getByName(anyString())).willReturn(Optional.of(new City(UUID.randomUUID(), "Kazan")));
+        given(typeCrudService.getByName("Sunny"))
+                .willReturn(Optional.of(new WeatherType(UUID.randomUUID(), "Sunny")));
+        given(weatherRepository.createAllIfAbsent(anyCollection())).willReturn(0);
+
+        // when
+        final var progress = underTest.begin(2L, null);
+        underTest.replay(progress);
+
+        // then
+        final ReplayProgressDto result = progress.toDto();
+        assertThat(result.getStatus()).isEqualTo(ReplayStatus.COMPLETED);
+        assertThat(result.getTotalRecords()).isEqualTo(2);
+        assertThat(result.getReadRecords()).isEqualTo(2);
+        assertThat(result.getInsertedRows()).isZero();
+        assertThat(result.getSkippedRecords()).isEqualTo(2);
+    }
+
+    @Test
+    void replay_withFailingRepository_shouldFinishWithFailedStatus() {
+        // given
+        givenConsumerWithRecords();
+        given(cityCrudService.getByName(anyString())).willReturn(Optional.of(new City(UUID.randomUUID(), "Kazan")));
+        given(typeCrudService.getByName("Sunny"))
+                .willReturn(Optional.of(new WeatherType(UUID.randomUUID(), "Sunny")));
+        given(weatherRepository.createAllIfAbsent(anyCollection()))
+                .willThrow(new IllegalStateException("Database is unavailable"));
+
+        // when
+        final var progress = underTest.begin(null, null);
+        underTest.replay(progress);
+
+        // then
+        final ReplayProgressDto result = progress.toDto();
+        assertThat(result.getStatus()).isEqualTo(ReplayStatus.FAILED);
+        assertThat(result.getErrorMessage()).isEqualTo("Database is unavailable");
+        assertThat(committed).isEmpty();
+    }
+
+    @Test
+    void begin_withOffsetAndTimestamp_shouldThrowException() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.begin(0L, Instant.now()))
+                .isInstanceOf(InvalidPropertyException.class);
+        assertThat(underTest.getProgress().getStatus()).isEqualTo(ReplayStatus.IDLE);
+    }
+
+    @Test
+    void begin_whileReplayIsRunning_shouldThrowException() {
+        // given
+        underTest.begin(null, null);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.begin(null, null))
+                .isInstanceOf(ReplayAlreadyRunningException.class);
+        assertThat(underTest.getProgress().getStatus()).isEqualTo(ReplayStatus.RUNNING);
+    }
+
+    private void givenConsumerWithRecords() {
+        given(consumerFactory.createConsumer(eq(GROUP), any(), any(), any())).willReturn(consumer);
+
+        final var deletion = event(WeatherEventType.DELETED);
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, "Kazan", 1.0, new RecordHeaders()));
+            consumer.addRecord(record(1, "Kazan", 2.0, deletion));
+            consumer.addRecord(record(2, "Irkutsk", 3.0, new RecordHeaders()));
+            consumer.addRecord(record(3, "Kazan", 4.0, new RecordHeaders()));
+            // Сообщение, отправленное после запуска, не читается
+            consumer.addRecord(record(4, "Kazan", 5.0, new RecordHeaders()));
+        });
+    }
+
+    private static RecordHeaders event(final WeatherEventType eventType) {
+        final var headers = new RecordHeaders();
+        headers.add(
+                WeatherOutboxRelay.HEADER_EVENT_TYPE,
+                eventType.name().getBytes(StandardCharsets.UTF_8)
+        );
+        return headers;
+    }
+
+    private static ConsumerRecord<String, Weather> record(
+            final long offset,
+            final String cityName,
+            final double temperature,
+            final RecordHeaders headers
+    ) {
+        return record(offset, cityName, temperature, NOW.plusMinutes(offset), headers);
+    }
+
+    private static ConsumerRecord<String, Weather> record(
+            final long offset,
+            final String cityName,
+            final double temperature,
+            final LocalDateTime dateTime,
+            final RecordHeaders headers
+    ) {
+        return new ConsumerRecord<>(
+                TOPIC,
+                PARTITION.partition(),
+                offset,
+                ConsumerRecord.NO_TIMESTAMP,
+                TimestampType.NO_TIMESTAMP_TYPE,
+                ConsumerRecord.NULL_SIZE,
+                ConsumerRecord.NULL_SIZE,
+                cityName,
+                Weather.builder()
+                        .city(City.builder().name(cityName).build())
+                        .type(WeatherType.builder().name("Sunny").build())
+                        .temperature(temperature)
+                        .dateTime(dateTime)
+                        .build(),
+                headers,
+                Optional.empty()
+        );
+    }
+}
@@ -15,6 +15,7 @@ import ru.bukhtaev.repository.jpa.IWeatherJpaRepository;
 import ru.bukhtaev.repository.jpa.IWeatherTypeJpaRepository;
 import ru.bukhtaev.service.AbstractServiceTest;
 import ru.bukhtaev.service.WeatherCache;
+import ru.bukhtaev.service.WeatherOutbox;
 import ru.bukhtaev.validation.MessageProvider;
 
 import java.text.MessageFormat;
@@ -31,6 +32,7 @@ import static org.mockito.Mockito.*;
 import static ru.bukhtaev.model.Weather.FIELD_CITY;
 import static ru.bukhtaev.model.Weather.FIELD_TYPE;
 import static ru.bukhtaev.util.Utils.DATE_TIME_FORMATTER;
+import static ru.bukhtaev.util.WeatherEventType.*;
 import static ru.bukhtaev.validation.MessageUtils.*;
 
 /**
@@ -69,6 +71,12 @@ class WeatherCrudServiceJpaImplTest extends AbstractServiceTest {
     @Mock
     private IWeatherTypeJpaRepository typeRepository;
 
+    /**
+     * Имитация журнала исходящих событий изменения данных о погоде.
+     */
+    @Mock
+    private WeatherOutbox outbox;
+
     /**
      * Тестируемая JPA-реализация сервиса CRUD операций над данными о погоде.
      */
@@ -253,6 +261,9 @@ class WeatherCrudServiceJpaImplTest extends AbstractServiceTest {
         assertThat(weatherCaptor.getValue())
                 .isEqualTo(weather1);
         verifyNoMoreInteractions(cache);
+        verify(outbox, times(1))
+                .append(CREATED, weather1);
+        verifyNoMoreInteractions(outbox);
     }
 
     @Test
@@ -283,6 +294,7 @@ class WeatherCrudServiceJpaImplTest extends AbstractServiceTest {
                 .isEqualTo(errorMessage);
         verify(weatherRepository, never()).save(any());
         verifyNoInteractions(cache);
+        verifyNoInteractions(outbox);
     }
 
     @Test
@@ -413,6 +425,9 @@ class WeatherCrudServiceJpaImplTest extends AbstractServiceTest {
         assertThat(weatherCaptor.getValue())
                 .isEqualTo(weather1);
         verifyNoMoreInteractions(cache);
+        verify(outbox, times(1))
+                .append(DELETED, weather1);
+        verifyNoMoreInteractions(outbox);
     }
 
     @Test
@@ -580,6 +595,9 @@ class WeatherCrudServiceJpaImplTest extends AbstractServiceTest {
         assertThat(weatherCaptor.getValue())
                 .isEqualTo(weather2);
         verifyNoMoreInteractions(cache);
+        verify(outbox, times(1))
+                .append(UPDATED, weather1);
+        verifyNoMoreInteractions(outbox);
     }
 
     @Test
@@ -747,5 +765,8 @@ class WeatherCrudServiceJpaImplTest extends AbstractServiceTest {
         assertThat(weatherCaptor.getValue())
                 .isEqualTo(weather2);
         verifyNoMoreInteractions(cache);
+        verify(outbox, times(1))
+                .append(UPDATED, weather1);
+        verifyNoMoreInteractions(outbox);
     }
 }
\ No newline at end of file
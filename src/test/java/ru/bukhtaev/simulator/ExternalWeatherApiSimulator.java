@@ -0,0 +1,468 @@
+package ru.bukhtaev.simulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ru.bukhtaev.util.ErrorCode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Встроенный имитатор эндпоинта {@code /v1/current.json} внешнего API данных о погоде.
+ * <p>
+ * Отвечает на запросы погоды в реальном времени (GET) и массовые запросы (POST с {@code q=bulk})
+ * по контракту внешнего API, включая ошибки с кодами из {@link ErrorCode} и соответствующими
+ * им HTTP статусами. Задержка ответа, доля ошибок, квота токенов и список неизвестных
+ * местоположений задаются настройками {@link SimulatorSettings}. Данные о погоде детерминированы
+ * названием местоположения, поэтому повторные запуски дают одинаковые ответы.
+ * <p>
+ * Для использования имитатора достаточно указать {@link #getBaseUrl()} в параметре
+ * {@code external-api.base-url}. Метод {@link #main(String[])} запускает имитатор отдельно,
+ * например, для ручной проверки приложения без сети и токена.
+ */
+public class ExternalWeatherApiSimulator implements AutoCloseable {
+
+    /**
+     * URL эндпоинта погоды в реальном времени.
+     */
+    public static final String CURRENT_URL = "/v1/current.json";
+
+    private static final String TOKEN_PARAM_NAME = "key";
+
+    private static final String LOCATION_PARAM_NAME = "q";
+
+    private static final String BULK_LOCATION_PARAM_VALUE = "bulk";
+
+    private static final DateTimeFormatter LOCALTIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd H:mm");
+
+    private static final List<String> CONDITIONS = List.of(
+            "Sunny", "Partly cloudy", "Cloudy", "Overcast", "Mist", "Light rain", "Light snow"
+    );
+
+    /**
+     * Настройки имитатора.
+     */
+    private final SimulatorSettings settings;
+
+    /**
+     * Маппер объектов.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Генератор случайных чисел для задержек и ошибок.
+     */
+    private final Random random;
+
+    /**
+     * HTTP сервер.
+     */
+    private final HttpServer server;
+
+    /**
+     * Исполнитель обработчиков запросов. Каждый запрос обрабатывается в отдельном потоке,
+     * поэтому задержка одного ответа не задерживает остальные.
+     */
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Количество HTTP запросов.
+     */
+    private final AtomicLong requestsCount = new AtomicLong();
+
+    /**
+     * Количество запросов, учтенных в квоте каждого токена.
+     */
+    private final Map<String, AtomicLong> tokenCalls = new ConcurrentHashMap<>();
+
+    /**
+     * Количество запросов, обрабатываемых в данный момент.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Максимальное количество одновременно обрабатываемых запросов.
+     */
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * Конструктор. Имитатор слушает случайный свободный порт.
+     *
+     * @param settings настройки имитатора
+     * @throws IOException если не удалось создать сервер
+     */
+    public ExternalWeatherApiSimulator(final SimulatorSettings settings) throws IOException {
+        this(settings, 0);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param settings настройки имитатора
+     * @param port     порт или 0 для случайного свободного порта
+     * @throws IOException если не удалось создать сервер
+     */
+    public ExternalWeatherApiSimulator(final SimulatorSettings settings, final int port) throws IOException {
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.createContext(CURRENT_URL, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Запускает имитатор до завершения процесса.
+     *
+     * @param args порт (необязательно, по умолчанию 8089)
+     * @throws IOException если не удалось создать сервер
+     */
+    public static void main(final String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        final var simulator = new ExternalWeatherApiSimulator(
+                new SimulatorSettings().latency(LatencyDistribution.logNormal(
+                        Duration.ofMillis(80),
+                        Duration.ofMillis(400)
+                )),
+                port
+        ).start();
+        System.out.println("External weather API simulator is listening, external-api.base-url="
+                + simulator.getBaseUrl());
+    }
+
+    /**
+     * Запускает имитатор.
+     *
+     * @return этот имитатор
+     */
+    public ExternalWeatherApiSimulator start() {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Возвращает базовый URL имитатора для параметра {@code external-api.base-url}.
+     *
+     * @return базовый URL
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Возвращает настройки имитатора.
+     *
+     * @return настройки имитатора
+     */
+    public SimulatorSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Возвращает количество HTTP запросов к имитатору.
+     *
+     * @return количество HTTP запросов
+     */
+    public long getRequestsCount() {
+        return requestsCount.get();
+    }
+
+    /**
+     * Возвращает количество запросов, учтенных в квоте указанного токена.
+     *
+     * @param token токен
+     * @return количество запросов
+     */
+    public long getCalls(final String token) {
+        final AtomicLong calls = tokenCalls.get(token);
+        return calls == null ? 0 : calls.get();
+    }
+
+    /**
+     * Возвращает максимальное количество одновременно обрабатываемых запросов.
+     *
+     * @return максимальное количество одновременных запросов
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * Сбрасывает счетчики запросов и израсходованную квоту токенов.
+     */
+    public void reset() {
+        requestsCount.set(0);
+        tokenCalls.clear();
+        maxInFlight.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requestsCount.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            sleep(settings.getLatency().sample(random));
+            respond(exchange);
+        } catch (RuntimeException e) {
+            send(exchange, 500, null);
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void respond(final HttpExchange exchange) throws IOException {
+        final Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        final String token = params.get(TOKEN_PARAM_NAME);
+        final String location = params.get(LOCATION_PARAM_NAME);
+
+        if (token == null || token.isBlank()) {
+            sendError(exchange, 401, ErrorCode.TOKEN_NOT_PROVIDED, "API key is invalid or not provided.");
+            return;
+        }
+        if (settings.getInvalidTokens().contains(token)) {
+            sendError(exchange, 401, ErrorCode.INVALID_TOKEN, "API key provided is invalid");
+            return;
+        }
+        if (settings.getDisabledTokens().contains(token)) {
+            sendError(exchange, 403, ErrorCode.DISABLED_TOKEN, "API key has been disabled.");
+            return;
+        }
+        if (location == null || location.isBlank()) {
+            sendError(exchange, 400, ErrorCode.LOCATION_NOT_PROVIDED, "Parameter q is missing.");
+            return;
+        }
+
+        final boolean bulk = BULK_LOCATION_PARAM_VALUE.equals(location)
+                && "POST".equalsIgnoreCase(exchange.getRequestMethod());
+        final JsonNode bulkLocations;
+        if (bulk) {
+            bulkLocations = readBulkLocations(exchange);
+            if (bulkLocations == null) {
+                sendError(exchange, 400, ErrorCode.INVALID_JSON, "Json body passed in bulk request is invalid.");
+                return;
+            }
+            if (bulkLocations.size() > settings.getBulkLocationsLimit()) {
+                sendError(exchange, 400, ErrorCode.TOO_MANY_LOCATIONS,
+                        "Json body contains too many locations for bulk request.");
+                return;
+            }
+        } else {
+            bulkLocations = null;
+        }
+
+        if (!tryConsumeQuota(token, bulk ? bulkLocations.size() : 1)) {
+            sendError(exchange, 403, ErrorCode.TOKEN_LIMIT_EXCEEDED, "API key has exceeded calls per month quota.");
+            return;
+        }
+
+        final double chance = random.nextDouble();
+        if (chance < settings.getTooManyRequestsRate()) {
+            send(exchange, 429, null);
+            return;
+        }
+        if (chance < settings.getTooManyRequestsRate() + settings.getServerErrorRate()) {
+            send(exchange, 503, null);
+            return;
+        }
+        if (chance < settings.getTooManyRequestsRate() + settings.getServerErrorRate() + settings.getErrorRate()) {
+            sendError(exchange, 400, ErrorCode.EXTERNAL_API_ERROR, "Internal application error.");
+            return;
+        }
+
+        if (bulk) {
+            send(exchange, 200, bulkResponse(bulkLocations));
+        } else if (isUnknown(location)) {
+            sendError(exchange, 400, ErrorCode.LOCATION_NOT_FOUND, "No matching location found.");
+        } else {
+            send(exchange, 200, weather(location));
+        }
+    }
+
+    private JsonNode readBulkLocations(final HttpExchange exchange) throws IOException {
+        try {
+            final JsonNode locations = objectMapper.readTree(exchange.getRequestBody()).get("locations");
+            return locations != null && locations.isArray() ? locations : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private boolean tryConsumeQuota(final String token, final int count) {
+        final Long quota = settings.getQuotaPerToken();
+        final AtomicLong calls = tokenCalls.computeIfAbsent(token, key -> new AtomicLong());
+        if (quota == null) {
+            calls.addAndGet(count);
+            return true;
+        }
+
+        long used;
+        do {
+            used = calls.get();
+            if (used + count > quota) {
+                return false;
+            }
+        } while (!calls.compareAndSet(used, used + count));
+        return true;
+    }
+
+    private boolean isUnknown(final String location) {
+        return settings.getUnknownLocations().contains(location.toLowerCase(Locale.ROOT));
+    }
+
+    private ObjectNode bulkResponse(final JsonNode locations) {
+        final ObjectNode response = objectMapper.createObjectNode();
+        final ArrayNode items = response.putArray("bulk");
+        for (final JsonNode requested : locations) {
+            final String location = requested.path("q").asText();
+            final ObjectNode query = items.addObject().putObject("query");
+            query.put("custom_id", requested.path("custom_id").asText(null));
+            query.put("q", location);
+            if (isUnknown(location)) {
+                query.set("error", error(ErrorCode.LOCATION_NOT_FOUND, "No matching location found."));
+            } else {
+                query.setAll(weather(location));
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Возвращает детерминированные данные о погоде для местоположения.
+     *
+     * @param location местоположение
+     * @return данные о погоде
+     */
+    private ObjectNode weather(final String location) {
+        final int hash = location.toLowerCase(Locale.ROOT).hashCode() & Integer.MAX_VALUE;
+        final Instant now = Instant.now();
+        final LocalDateTime localtime = LocalDateTime.ofInstant(now, ZoneOffset.UTC);
+        final double temperature = (hash % 600 - 250) / 10.0;
+
+        final ObjectNode response = objectMapper.createObjectNode();
+        final ObjectNode locationNode = response.putObject("location");
+        locationNode.put("name", location);
+        locationNode.put("region", "");
+        locationNode.put("country", "Simulated");
+        locationNode.put("lat", (hash % 18_000) / 100.0 - 90);
+        locationNode.put("lon", (hash % 36_000) / 100.0 - 180);
+        locationNode.put("tz_id", "UTC");
+        locationNode.put("localtime_epoch", now.getEpochSecond());
+        locationNode.put("localtime", localtime.format(LOCALTIME_FORMATTER));
+
+        final ObjectNode current = response.putObject("current");
+        current.put("last_updated_epoch", now.getEpochSecond() / 900 * 900);
+        current.put("last_updated", LocalDateTime.ofEpochSecond(now.getEpochSecond() / 900 * 900, 0, ZoneOffset.UTC)
+                .format(LOCALTIME_FORMATTER));
+        current.put("temp_c", temperature);
+        current.put("temp_f", Math.round((temperature * 9 / 5 + 32) * 10) / 10.0);
+        current.put("is_day", localtime.getHour() >= 6 && localtime.getHour() < 21 ? 1 : 0);
+        final ObjectNode condition = current.putObject("condition");
+        condition.put("text", CONDITIONS.get(hash % CONDITIONS.size()));
+        condition.put("icon", "//cdn.weatherapi.com/weather/64x64/day/116.png");
+        condition.put("code", 1000 + hash % CONDITIONS.size());
+        current.put("wind_kph", (hash % 400) / 10.0);
+        current.put("wind_degree", hash % 360);
+        current.put("pressure_mb", 990 + hash % 40);
+        current.put("humidity", hash % 100);
+        current.put("cloud", hash % 101);
+        current.put("feelslike_c", (int) Math.round(temperature));
+        current.put("vis_km", 10);
+        current.put("uv", hash % 11);
+        return response;
+    }
+
+    private ObjectNode error(final ErrorCode code, final String message) {
+        final ObjectNode error = objectMapper.createObjectNode();
+        error.put("code", code.getCode());
+        error.put("message", message);
+        return error;
+    }
+
+    private void sendError(
+            final HttpExchange exchange,
+            final int status,
+            final ErrorCode code,
+            final String message
+    ) throws IOException {
+        final ObjectNode response = objectMapper.createObjectNode();
+        response.set("error", error(code, message));
+        send(exchange, status, response);
+    }
+
+    private void send(final HttpExchange exchange, final int status, final JsonNode body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        final byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(final String rawQuery) {
+        final Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+
+        for (final String pair : rawQuery.split("&")) {
+            final int separator = pair.indexOf('=');
+            final String name = separator < 0 ? pair : pair.substring(0, separator);
+            final String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(
+                    URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8)
+            );
+        }
+        return params;
+    }
+
+    private static void sleep(final Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis(), (int) (duration.toNanos() % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.bukhtaev.simulator;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Распределение задержки ответа имитатора внешнего API.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Квантиль стандартного нормального распределения уровня 0.99.
+     */
+    double Z_99 = 2.3263;
+
+    /**
+     * Возвращает случайную задержку ответа.
+     *
+     * @param random генератор случайных чисел
+     * @return задержку ответа
+     */
+    Duration sample(final Random random);
+
+    /**
+     * Возвращает распределение без задержки.
+     *
+     * @return распределение без задержки
+     */
+    static LatencyDistribution none() {
+        return random -> Duration.ZERO;
+    }
+
+    /**
+     * Возвращает распределение с постоянной задержкой.
+     *
+     * @param latency задержка
+     * @return распределение с постоянной задержкой
+     */
+    static LatencyDistribution fixed(final Duration latency) {
+        return random -> latency;
+    }
+
+    /**
+     * Возвращает равномерное распределение задержки.
+     *
+     * @param min минимальная задержка
+     * @param max максимальная задержка
+     * @return равномерное распределение задержки
+     */
+    static LatencyDistribution uniform(final Duration min, final Duration max) {
+        final long minNanos = min.toNanos();
+        final long rangeNanos = max.toNanos() - minNanos;
+        return random -> Duration.ofNanos(minNanos + (long) (random.nextDouble() * rangeNanos));
+    }
+
+    /**
+     * Возвращает логнормальное распределение задержки с указанными медианой и 99-м перцентилем.
+     * Такое распределение с длинным хвостом типично для времени ответа сетевых сервисов.
+     *
+     * @param median медиана задержки
+     * @param p99    99-й перцентиль задержки, не меньше медианы
+     * @return логнормальное распределение задержки
+     */
+    static LatencyDistribution logNormal(final Duration median, final Duration p99) {
+        final double mu = Math.log(median.toNanos());
+        final double sigma = (Math.log(p99.toNanos()) - mu) / Z_99;
+        return random -> Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+    }
+}
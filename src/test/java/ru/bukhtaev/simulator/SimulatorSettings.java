@@ -0,0 +1,156 @@
+package ru.bukhtaev.simulator;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Настройки имитатора внешнего API данных о погоде.
+ * Могут изменяться во время работы имитатора: новые значения применяются к следующим запросам.
+ */
+public class SimulatorSettings {
+
+    /**
+     * Распределение задержки ответа.
+     */
+    private volatile LatencyDistribution latency = LatencyDistribution.none();
+
+    /**
+     * Доля запросов, на которые возвращается ошибка внешнего API с кодом 9999.
+     */
+    private volatile double errorRate;
+
+    /**
+     * Доля запросов, на которые возвращается HTTP статус 503 без тела.
+     */
+    private volatile double serverErrorRate;
+
+    /**
+     * Доля запросов, на которые возвращается HTTP статус 429 без тела.
+     */
+    private volatile double tooManyRequestsRate;
+
+    /**
+     * Количество запросов, доступных каждому токену, или {@code null}, если квота не ограничена.
+     * Каждое местоположение массового запроса расходует квоту как отдельный запрос.
+     */
+    private volatile Long quotaPerToken;
+
+    /**
+     * Некорректные токены (код ошибки 2006).
+     */
+    private volatile Set<String> invalidTokens = Set.of();
+
+    /**
+     * Выключенные токены (код ошибки 2008).
+     */
+    private volatile Set<String> disabledTokens = Set.of();
+
+    /**
+     * Местоположения, которые не будут найдены (код ошибки 1006), без учета регистра.
+     */
+    private volatile Set<String> unknownLocations = Set.of();
+
+    /**
+     * Максимальное количество местоположений в массовом запросе (код ошибки 9001).
+     */
+    private volatile int bulkLocationsLimit = 50;
+
+    /**
+     * Начальное значение генератора случайных чисел для воспроизводимости.
+     */
+    private volatile long seed = 42;
+
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    public SimulatorSettings latency(final LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public SimulatorSettings errorRate(final double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public double getServerErrorRate() {
+        return serverErrorRate;
+    }
+
+    public SimulatorSettings serverErrorRate(final double serverErrorRate) {
+        this.serverErrorRate = serverErrorRate;
+        return this;
+    }
+
+    public double getTooManyRequestsRate() {
+        return tooManyRequestsRate;
+    }
+
+    public SimulatorSettings tooManyRequestsRate(final double tooManyRequestsRate) {
+        this.tooManyRequestsRate = tooManyRequestsRate;
+        return this;
+    }
+
+    public Long getQuotaPerToken() {
+        return quotaPerToken;
+    }
+
+    public SimulatorSettings quotaPerToken(final Long quotaPerToken) {
+        this.quotaPerToken = quotaPerToken;
+        return this;
+    }
+
+    public Set<String> getInvalidTokens() {
+        return invalidTokens;
+    }
+
+    public SimulatorSettings invalidTokens(final String... invalidTokens) {
+        this.invalidTokens = Set.of(invalidTokens);
+        return this;
+    }
+
+    public Set<String> getDisabledTokens() {
+        return disabledTokens;
+    }
+
+    public SimulatorSettings disabledTokens(final String... disabledTokens) {
+        this.disabledTokens = Set.of(disabledTokens);
+        return this;
+    }
+
+    public Set<String> getUnknownLocations() {
+        return unknownLocations;
+    }
+
+    public SimulatorSettings unknownLocations(final String... unknownLocations) {
+        this.unknownLocations = Arrays.stream(unknownLocations)
+                .map(location -> location.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        return this;
+    }
+
+    public int getBulkLocationsLimit() {
+        return bulkLocationsLimit;
+    }
+
+    public SimulatorSettings bulkLocationsLimit(final int bulkLocationsLimit) {
+        this.bulkLocationsLimit = bulkLocationsLimit;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SimulatorSettings seed(final long seed) {
+        this.seed = seed;
+        return this;
+    }
+}